@@ -0,0 +1,88 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data;
+
+import io.crate.testing.LongColumnarBatchIterator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Compares the row-wise consumption of a BatchIterator with the consumption of {@link ColumnBatch}es.
+ * See {@link RowsBatchIteratorBenchmark} for the overhead of other row-wise BatchIterators.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ColumnBatchBenchmark {
+
+    private final long[] values = LongStream.range(0, 10_000_000).toArray();
+
+    @Benchmark
+    public long measureSumRowWise() throws Exception {
+        BatchIterator it = new LongColumnarBatchIterator(values);
+        Input<?> input = it.rowData().get(0);
+        long sum = 0;
+        while (it.moveNext()) {
+            sum += (long) input.value();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long measureSumColumnBatches() throws Exception {
+        ColumnarBatchIterator it = new LongColumnarBatchIterator(values);
+        ColumnBatch batch = it.columnBatch();
+        long[] vector = ((LongColumnVector) batch.get(0)).values;
+        long sum = 0;
+        while (it.moveNextBatch()) {
+            int[] selected = batch.selected();
+            for (int i = 0; i < batch.size(); i++) {
+                sum += vector[selected[i]];
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long measureFilteredSumColumnBatches() throws Exception {
+        ColumnarBatchIterator it = new LongColumnarBatchIterator(values);
+        ColumnBatch batch = it.columnBatch();
+        long[] vector = ((LongColumnVector) batch.get(0)).values;
+        long sum = 0;
+        while (it.moveNextBatch()) {
+            batch.filterLong(0, v -> v % 3 == 0);
+            int[] selected = batch.selected();
+            for (int i = 0; i < batch.size(); i++) {
+                sum += vector[selected[i]];
+            }
+        }
+        return sum;
+    }
+}
@@ -38,6 +38,8 @@ import java.util.stream.Collectors;
  *
  * Result generation and row-processing is handled by a {@link Collector}
  *
+ * If the result is {@link AutoCloseable} it is closed when this BatchIterator is closed.
+ *
  * @param <A> the state type of the {@link Collector}
  */
 public class CollectingBatchIterator<A> implements BatchIterator {
@@ -48,6 +50,7 @@ public class CollectingBatchIterator<A> implements BatchIterator {
 
     private Iterator<Row> it = Collections.emptyIterator();
     private CompletableFuture<? extends Iterable<Row>> resultFuture;
+    private volatile boolean closed = false;
 
     private CollectingBatchIterator(BatchIterator source,
                                     Function<BatchIterator, CompletableFuture<? extends Iterable<Row>>> consumer,
@@ -123,7 +126,21 @@ public class CollectingBatchIterator<A> implements BatchIterator {
 
     @Override
     public void close() {
+        closed = true;
         source.close();
+        if (resultFuture != null && resultFuture.isDone() && !resultFuture.isCompletedExceptionally()) {
+            closeResult(resultFuture.join());
+        }
+    }
+
+    private static void closeResult(Iterable<Row> result) {
+        if (result instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) result).close();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
     }
 
     @Override
@@ -133,7 +150,11 @@ public class CollectingBatchIterator<A> implements BatchIterator {
                 .whenComplete((r, t) -> {
                     source.close();
                     if (t == null) {
-                        it = r.iterator();
+                        if (closed) {
+                            closeResult(r);
+                        } else {
+                            it = r.iterator();
+                        }
                     }
                 });
             return resultFuture;
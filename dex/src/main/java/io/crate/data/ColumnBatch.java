@@ -0,0 +1,157 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data;
+
+import java.util.function.DoublePredicate;
+import java.util.function.LongPredicate;
+
+/**
+ * A batch of rows stored column-wise in {@link ColumnVector}s, together with a selection vector.
+ *
+ * The producer fills the vectors at positions {@code 0..numRows-1} and calls {@link #selectAll(int)}.
+ * Filters then narrow the selection instead of moving values around, so consumers must only look at the positions
+ * contained in the first {@link #size()} entries of {@link #selected()}:
+ *
+ * <pre>
+ *     int[] selected = batch.selected();
+ *     for (int i = 0; i &lt; batch.size(); i++) {
+ *         int pos = selected[i];
+ *         ... vector.values[pos] ...
+ *     }
+ * </pre>
+ */
+public final class ColumnBatch {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final ColumnVector[] vectors;
+    private final int[] selected;
+    private int size = 0;
+
+    public ColumnBatch(ColumnVector... vectors) {
+        int capacity = vectors.length == 0 ? DEFAULT_CAPACITY : vectors[0].capacity();
+        for (ColumnVector vector : vectors) {
+            if (vector.capacity() != capacity) {
+                throw new IllegalArgumentException("All vectors of a ColumnBatch must have the same capacity");
+            }
+        }
+        this.vectors = vectors;
+        this.selected = new int[capacity];
+    }
+
+    /**
+     * @return the vector of the column at {@code index}
+     */
+    public ColumnVector get(int index) {
+        return vectors[index];
+    }
+
+    public int numColumns() {
+        return vectors.length;
+    }
+
+    public int capacity() {
+        return selected.length;
+    }
+
+    /**
+     * @return the number of selected rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the positions of the selected rows in ascending order; only the first {@link #size()} entries are valid.
+     */
+    public int[] selected() {
+        return selected;
+    }
+
+    /**
+     * Selects the first {@code numRows} positions. Called by the producer after the vectors have been filled.
+     */
+    public void selectAll(int numRows) {
+        if (numRows > selected.length) {
+            throw new IllegalArgumentException(
+                "numRows " + numRows + " exceeds the capacity " + selected.length + " of the batch");
+        }
+        for (int i = 0; i < numRows; i++) {
+            selected[i] = i;
+        }
+        size = numRows;
+    }
+
+    /**
+     * Removes the rows from the selection where the column at {@code index} is null.
+     */
+    public void filterNotNull(int index) {
+        ColumnVector vector = vectors[index];
+        if (vector.noNulls) {
+            return;
+        }
+        boolean[] isNull = vector.isNull;
+        int newSize = 0;
+        for (int i = 0; i < size; i++) {
+            int pos = selected[i];
+            if (!isNull[pos]) {
+                selected[newSize++] = pos;
+            }
+        }
+        size = newSize;
+    }
+
+    /**
+     * Keeps the rows in the selection where the {@link LongColumnVector} at {@code index} isn't null
+     * and matches {@code predicate}.
+     */
+    public void filterLong(int index, LongPredicate predicate) {
+        filterNotNull(index);
+        long[] values = ((LongColumnVector) vectors[index]).values;
+        int newSize = 0;
+        for (int i = 0; i < size; i++) {
+            int pos = selected[i];
+            if (predicate.test(values[pos])) {
+                selected[newSize++] = pos;
+            }
+        }
+        size = newSize;
+    }
+
+    /**
+     * Keeps the rows in the selection where the {@link DoubleColumnVector} at {@code index} isn't null
+     * and matches {@code predicate}.
+     */
+    public void filterDouble(int index, DoublePredicate predicate) {
+        filterNotNull(index);
+        double[] values = ((DoubleColumnVector) vectors[index]).values;
+        int newSize = 0;
+        for (int i = 0; i < size; i++) {
+            int pos = selected[i];
+            if (predicate.test(values[pos])) {
+                selected[newSize++] = pos;
+            }
+        }
+        size = newSize;
+    }
+}
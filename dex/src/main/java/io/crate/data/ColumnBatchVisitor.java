@@ -0,0 +1,74 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.stream.Collector;
+
+/**
+ * Like {@link BatchRowVisitor}, but consumes a {@link ColumnarBatchIterator} batch-wise, calling the accumulator
+ * once per {@link ColumnBatch}.
+ *
+ * The {@link ColumnarBatchIterator#columnBatch()} of the iterator must not be null.
+ * This does *NOT* close the BatchIterator.
+ */
+public class ColumnBatchVisitor {
+
+    public static <A, R> CompletableFuture<R> visitBatches(ColumnarBatchIterator it,
+                                                           Collector<ColumnBatch, A, R> collector) {
+        return visitBatches(it, collector.supplier().get(), collector, new CompletableFuture<>());
+    }
+
+    private static <A, R> CompletableFuture<R> visitBatches(ColumnarBatchIterator it,
+                                                            A state,
+                                                            Collector<ColumnBatch, A, R> collector,
+                                                            CompletableFuture<R> resultFuture) {
+        BiConsumer<A, ColumnBatch> accumulator = collector.accumulator();
+        ColumnBatch batch = it.columnBatch();
+        assert batch != null : "visitBatches requires an iterator which provides column batches";
+        boolean allLoaded;
+        try {
+            while (it.moveNextBatch()) {
+                accumulator.accept(state, batch);
+            }
+            allLoaded = it.allLoaded();
+        } catch (Throwable t) {
+            resultFuture.completeExceptionally(t);
+            return resultFuture;
+        }
+
+        if (allLoaded) {
+            resultFuture.complete(collector.finisher().apply(state));
+        } else {
+            it.loadNextBatch().whenComplete((r, t) -> {
+                if (t == null) {
+                    visitBatches(it, state, collector, resultFuture);
+                } else {
+                    resultFuture.completeExceptionally(t);
+                }
+            });
+        }
+        return resultFuture;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link BatchIterator} which can optionally expose its data in batches of columns instead of row by row.
+ *
+ * Consumers which can process {@link ColumnBatch}es check {@link #columnBatch()} before consuming the iterator and
+ * then use {@link #moveNextBatch()} instead of {@link #moveNext()}. The two must not be mixed while iterating.
+ * {@link #allLoaded()}, {@link #loadNextBatch()}, {@link #moveToStart()} and {@link #close()} behave as described
+ * in {@link BatchIterator}.
+ */
+public interface ColumnarBatchIterator extends BatchIterator {
+
+    /**
+     * Returns the batch filled by {@link #moveNextBatch()}, which contains one vector per column of {@link #rowData()}.
+     * Like {@link #rowData()} this must always return the same instance.
+     *
+     * @return the column batch or null if the columns of this iterator can't be provided as vectors,
+     *         in which case consumers have to iterate row by row.
+     */
+    @Nullable
+    ColumnBatch columnBatch();
+
+    /**
+     * Fills {@link #columnBatch()} with the next rows.
+     *
+     * @return true if the batch contains at least one selected row.
+     *         false if the iterator is out of rows; as with {@link #moveNext()} {@link #allLoaded()} tells if
+     *         {@link #loadNextBatch()} can be used to load more data.
+     */
+    boolean moveNextBatch();
+}
@@ -0,0 +1,246 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data.join;
+
+import io.crate.concurrent.CompletableFutures;
+import io.crate.data.BatchIterator;
+import io.crate.data.CloseAssertingBatchIterator;
+import io.crate.data.Columns;
+import io.crate.data.Row;
+import io.crate.data.RowBridging;
+import io.crate.data.RowColumns;
+import io.crate.data.RowN;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * BatchIterator implementing an inner equi-join using a hash table.
+ *
+ * <pre>
+ *     for (buildRow in build) {
+ *         table[buildKey(buildRow)].add(buildRow)
+ *     }
+ *     for (probeRow in probe) {
+ *         for (buildRow in table[probeKey(probeRow)]) {
+ *             match?
+ *                  onRow
+ *         }
+ *     }
+ * </pre>
+ *
+ * The build side is fully consumed and buffered before the first row is emitted,
+ * so it should be the smaller side of the join. Each buffered row is passed to {@code rowAccounting},
+ * which may throw (e.g. a CircuitBreakingException) to abort the join.
+ *
+ * Rows with a null key never match. Hash key equality is only a pre-filter, the {@code joinCondition}
+ * is evaluated on every candidate pair and must contain the complete join condition.
+ *
+ * The output columns are always the columns of {@code left} followed by the columns of {@code right},
+ * regardless of which side is used to build the hash table.
+ * If the hash table is built on {@code right} the order of the rows matches the order of a nested loop.
+ *
+ * The build side is only consumed once, its rows are kept in the hash table.
+ * {@link #moveToStart()} moves the probe side back to its start, so it is only supported if the probe side
+ * supports it.
+ */
+public class HashJoinBatchIterator implements BatchIterator {
+
+    /**
+     * Create a BatchIterator that creates the inner-join result of {@code left} and {@code right}.
+     *
+     * @param leftKey  creates the hash key of the current left row; {@code null} keys never match.
+     * @param rightKey creates the hash key of the current right row; {@code null} keys never match.
+     * @param buildOnLeft if true the hash table is built from {@code left}, otherwise from {@code right}
+     * @param rowAccounting called for every buffered row of the build side
+     */
+    public static BatchIterator innerJoin(BatchIterator left,
+                                          BatchIterator right,
+                                          Function<Columns, Supplier<Object>> leftKey,
+                                          Function<Columns, Supplier<Object>> rightKey,
+                                          Function<Columns, BooleanSupplier> joinCondition,
+                                          boolean buildOnLeft,
+                                          Consumer<Row> rowAccounting) {
+        if (buildOnLeft) {
+            return new CloseAssertingBatchIterator(
+                new HashJoinBatchIterator(left, right, leftKey, rightKey, joinCondition, true, rowAccounting));
+        }
+        return new CloseAssertingBatchIterator(
+            new HashJoinBatchIterator(right, left, rightKey, leftKey, joinCondition, false, rowAccounting));
+    }
+
+    private final BatchIterator build;
+    private final BatchIterator probe;
+    private final Supplier<Object> buildKey;
+    private final Supplier<Object> probeKey;
+    private final Consumer<Row> rowAccounting;
+    private final RowColumns buildRowColumns;
+    private final CombinedColumn rowData;
+    private final BooleanSupplier joinCondition;
+    private final RowN buildRow;
+    private final RowN accountingRow;
+
+    private Map<Object, List<Object[]>> buildTable = new HashMap<>();
+    private boolean buildSideComplete = false;
+
+    private List<Object[]> matches = null;
+    private int matchIdx = 0;
+
+    private HashJoinBatchIterator(BatchIterator build,
+                                  BatchIterator probe,
+                                  Function<Columns, Supplier<Object>> buildKey,
+                                  Function<Columns, Supplier<Object>> probeKey,
+                                  Function<Columns, BooleanSupplier> joinCondition,
+                                  boolean buildIsLeft,
+                                  Consumer<Row> rowAccounting) {
+        this.build = build;
+        this.probe = probe;
+        this.buildKey = buildKey.apply(build.rowData());
+        this.probeKey = probeKey.apply(probe.rowData());
+        this.rowAccounting = rowAccounting;
+        this.buildRowColumns = new RowColumns(build.rowData().size());
+        this.buildRow = new RowN(build.rowData().size());
+        this.accountingRow = new RowN(build.rowData().size());
+        if (buildIsLeft) {
+            this.rowData = new CombinedColumn(buildRowColumns, probe.rowData());
+        } else {
+            this.rowData = new CombinedColumn(probe.rowData(), buildRowColumns);
+        }
+        this.joinCondition = joinCondition.apply(rowData);
+    }
+
+    @Override
+    public Columns rowData() {
+        return rowData;
+    }
+
+    /**
+     * Moves the probe side back to its start, the hash table is retained.
+     * The probe side must support {@link BatchIterator#moveToStart()}, which a consumer of this iterator which
+     * requires to scroll has to ensure by requesting a repeatable probe side.
+     */
+    @Override
+    public void moveToStart() {
+        probe.moveToStart();
+        matches = null;
+        buildRowColumns.updateRef(RowBridging.OFF_ROW);
+    }
+
+    @Override
+    public boolean moveNext() {
+        if (buildSideComplete == false) {
+            consumeBuildSide();
+            if (buildSideComplete == false) {
+                return false;
+            }
+        }
+        while (true) {
+            if (matches != null) {
+                while (matchIdx < matches.size()) {
+                    buildRow.cells(matches.get(matchIdx));
+                    matchIdx++;
+                    buildRowColumns.updateRef(buildRow);
+                    if (joinCondition.getAsBoolean()) {
+                        return true;
+                    }
+                }
+                matches = null;
+            }
+            if (probe.moveNext() == false) {
+                buildRowColumns.updateRef(RowBridging.OFF_ROW);
+                return false;
+            }
+            Object key = probeKey.get();
+            if (key != null) {
+                matches = buildTable.get(key);
+                matchIdx = 0;
+            }
+        }
+    }
+
+    /**
+     * Buffers all rows of the build side which are currently loaded.
+     * {@link #buildSideComplete} is set once the build side is exhausted.
+     */
+    private void consumeBuildSide() {
+        Columns buildColumns = build.rowData();
+        while (build.moveNext()) {
+            Object key = buildKey.get();
+            if (key == null) {
+                continue;
+            }
+            Object[] cells = RowBridging.materialize(buildColumns);
+            accountingRow.cells(cells);
+            rowAccounting.accept(accountingRow);
+            buildTable.computeIfAbsent(key, k -> new ArrayList<>(1)).add(cells);
+        }
+        if (build.allLoaded()) {
+            buildSideComplete = true;
+        }
+    }
+
+    @Override
+    public void close() {
+        build.close();
+        probe.close();
+        buildTable = null;
+        matches = null;
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() {
+        if (buildSideComplete) {
+            return probe.loadNextBatch();
+        }
+        try {
+            consumeBuildSide();
+        } catch (Throwable t) {
+            return CompletableFutures.failedFuture(t);
+        }
+        if (buildSideComplete) {
+            // transition from building to probing; the probe side may still have its first batch available
+            return CompletableFuture.completedFuture(null);
+        }
+        return build.loadNextBatch();
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return buildSideComplete && probe.allLoaded();
+    }
+
+    @Override
+    public void kill(@Nonnull Throwable throwable) {
+        build.kill(throwable);
+        probe.kill(throwable);
+    }
+}
@@ -50,6 +50,10 @@
  *      Examples include the fetch-operation.
  *      See {@link io.crate.data.AsyncOperationBatchIterator}
  *
+ * Source BatchIterators can additionally implement {@link io.crate.data.ColumnarBatchIterator} to expose their data
+ * in {@link io.crate.data.ColumnBatch}es of primitive column vectors, which consumers like aggregations can process
+ * in tight loops instead of row by row.
+ *
  *
  */
 package io.crate.data;
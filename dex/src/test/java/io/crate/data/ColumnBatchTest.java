@@ -0,0 +1,108 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data;
+
+import io.crate.testing.LongColumnarBatchIterator;
+import org.junit.Test;
+
+import java.util.stream.Collector;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ColumnBatchTest {
+
+    private static ColumnBatch batchWithNulls() {
+        LongColumnVector vector = new LongColumnVector(8);
+        for (int i = 0; i < 8; i++) {
+            vector.values[i] = i;
+        }
+        vector.isNull[2] = true;
+        vector.isNull[5] = true;
+        vector.noNulls = false;
+        ColumnBatch batch = new ColumnBatch(vector);
+        batch.selectAll(8);
+        return batch;
+    }
+
+    private static long sumSelected(ColumnBatch batch) {
+        long[] values = ((LongColumnVector) batch.get(0)).values;
+        int[] selected = batch.selected();
+        long sum = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            sum += values[selected[i]];
+        }
+        return sum;
+    }
+
+    @Test
+    public void testFilterNotNullNarrowsSelection() throws Exception {
+        ColumnBatch batch = batchWithNulls();
+        batch.filterNotNull(0);
+        assertThat(batch.size(), is(6));
+        assertThat(sumSelected(batch), is(0L + 1 + 3 + 4 + 6 + 7));
+    }
+
+    @Test
+    public void testFilterLongSkipsNullsAndCombinesWithPreviousFilter() throws Exception {
+        ColumnBatch batch = batchWithNulls();
+        batch.filterLong(0, v -> v % 2 == 0);
+        assertThat(batch.size(), is(3));
+        batch.filterLong(0, v -> v > 0);
+        assertThat(batch.size(), is(2));
+        assertThat(batch.selected()[0], is(4));
+        assertThat(batch.selected()[1], is(6));
+    }
+
+    @Test
+    public void testFilterDouble() throws Exception {
+        DoubleColumnVector vector = new DoubleColumnVector(4);
+        vector.values[0] = 1.5;
+        vector.values[1] = -2.0;
+        vector.values[2] = 3.0;
+        ColumnBatch batch = new ColumnBatch(vector);
+        batch.selectAll(3);
+        batch.filterDouble(0, v -> v > 0.0);
+        assertThat(batch.size(), is(2));
+        assertThat(batch.selected()[1], is(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testVectorsMustHaveSameCapacity() throws Exception {
+        new ColumnBatch(new LongColumnVector(8), new DoubleColumnVector(16));
+    }
+
+    @Test
+    public void testVisitBatchesConsumesAllRows() throws Exception {
+        long[] values = LongStream.range(0, 2500).toArray();
+        Collector<ColumnBatch, long[], Long> summing = Collector.of(
+            () -> new long[1],
+            (state, batch) -> state[0] += sumSelected(batch),
+            (s1, s2) -> s1,
+            state -> state[0]
+        );
+        long sum = ColumnBatchVisitor.visitBatches(new LongColumnarBatchIterator(values), summing).get();
+        assertThat(sum, is(LongStream.of(values).sum()));
+    }
+}
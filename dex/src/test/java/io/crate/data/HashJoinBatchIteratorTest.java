@@ -0,0 +1,174 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data;
+
+import io.crate.data.join.HashJoinBatchIterator;
+import io.crate.testing.BatchIteratorTester;
+import io.crate.testing.BatchSimulatingIterator;
+import io.crate.testing.RowGenerator;
+import io.crate.testing.TestingBatchConsumer;
+import io.crate.testing.TestingBatchIterators;
+import org.hamcrest.Matchers;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertThat;
+
+public class HashJoinBatchIteratorTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private ArrayList<Object[]> innerJoinResult;
+
+    private static Function<Columns, Supplier<Object>> getCol0Key() {
+        return columns -> {
+            Input<?> col0 = columns.get(0);
+            return col0::value;
+        };
+    }
+
+    private static Function<Columns, BooleanSupplier> getCol0EqCol1JoinCondition() {
+        return columns -> new BooleanSupplier() {
+
+            Input<?> col1 = columns.get(0);
+            Input<?> col2 = columns.get(1);
+
+            @Override
+            public boolean getAsBoolean() {
+                return Objects.equals(col1.value(), col2.value());
+            }
+        };
+    }
+
+    private static BatchIterator innerJoin(BatchIterator left, BatchIterator right, boolean buildOnLeft) {
+        return HashJoinBatchIterator.innerJoin(
+            left,
+            right,
+            getCol0Key(),
+            getCol0Key(),
+            getCol0EqCol1JoinCondition(),
+            buildOnLeft,
+            row -> {}
+        );
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        innerJoinResult = new ArrayList<>();
+        innerJoinResult.add(new Object[] { 2, 2 });
+        innerJoinResult.add(new Object[] { 3, 3 });
+    }
+
+    @Test
+    public void testInnerJoinBuildOnRight() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(
+            () -> innerJoin(TestingBatchIterators.range(0, 4), TestingBatchIterators.range(2, 6), false)
+        );
+        tester.verifyResultAndEdgeCaseBehaviour(innerJoinResult);
+    }
+
+    @Test
+    public void testInnerJoinBuildOnLeft() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(
+            () -> innerJoin(TestingBatchIterators.range(0, 4), TestingBatchIterators.range(2, 6), true)
+        );
+        tester.verifyResultAndEdgeCaseBehaviour(innerJoinResult);
+    }
+
+    @Test
+    public void testInnerJoinBatchedSource() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(
+            () -> innerJoin(
+                new BatchSimulatingIterator(TestingBatchIterators.range(0, 4), 2, 2, null),
+                new BatchSimulatingIterator(TestingBatchIterators.range(2, 6), 2, 2, null),
+                false)
+        );
+        tester.verifyResultAndEdgeCaseBehaviour(innerJoinResult);
+    }
+
+    @Test
+    public void testInnerJoinBatchedSourceBuildOnLeft() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(
+            () -> innerJoin(
+                new BatchSimulatingIterator(TestingBatchIterators.range(0, 4), 2, 2, null),
+                new BatchSimulatingIterator(TestingBatchIterators.range(2, 6), 2, 2, null),
+                true)
+        );
+        tester.verifyResultAndEdgeCaseBehaviour(innerJoinResult);
+    }
+
+    @Test
+    public void testInnerJoinWithDuplicateKeysEmitsAllMatches() throws Exception {
+        ArrayList<Object[]> expectedResult = new ArrayList<>();
+        expectedResult.add(new Object[] { 1, 1 });
+        expectedResult.add(new Object[] { 1, 1 });
+        expectedResult.add(new Object[] { 1, 1 });
+        expectedResult.add(new Object[] { 1, 1 });
+        BatchIteratorTester tester = new BatchIteratorTester(
+            () -> innerJoin(
+                RowsBatchIterator.newInstance(RowGenerator.fromSingleColValues(Arrays.asList(1, 1)), 1),
+                RowsBatchIterator.newInstance(RowGenerator.fromSingleColValues(Arrays.asList(1, 2, 1)), 1),
+                false)
+        );
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
+
+    @Test
+    public void testInnerJoinRightEmpty() throws Exception {
+        BatchIterator iterator = innerJoin(TestingBatchIterators.range(0, 5), RowsBatchIterator.empty(1), false);
+        TestingBatchConsumer consumer = new TestingBatchConsumer();
+        consumer.accept(iterator, null);
+        assertThat(consumer.getResult(), Matchers.empty());
+    }
+
+    @Test
+    public void testInnerJoinFailsIfRowAccountingRaises() throws Exception {
+        BatchIterator iterator = HashJoinBatchIterator.innerJoin(
+            TestingBatchIterators.range(0, 4),
+            TestingBatchIterators.range(2, 6),
+            getCol0Key(),
+            getCol0Key(),
+            getCol0EqCol1JoinCondition(),
+            false,
+            row -> {
+                throw new IllegalStateException("Circuit breaker tripped");
+            }
+        );
+        TestingBatchConsumer consumer = new TestingBatchConsumer();
+        consumer.accept(iterator, null);
+
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("Circuit breaker tripped");
+        consumer.getResult();
+    }
+}
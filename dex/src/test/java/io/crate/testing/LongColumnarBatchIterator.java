@@ -0,0 +1,118 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.testing;
+
+import io.crate.concurrent.CompletableFutures;
+import io.crate.data.ColumnBatch;
+import io.crate.data.ColumnarBatchIterator;
+import io.crate.data.Columns;
+import io.crate.data.Input;
+import io.crate.data.LongColumnVector;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A {@link ColumnarBatchIterator} with a single long column backed by an array.
+ */
+public class LongColumnarBatchIterator implements ColumnarBatchIterator {
+
+    private final long[] values;
+    private final LongColumnVector vector;
+    private final ColumnBatch batch;
+    private final Columns rowData;
+
+    private int nextPos = 0;
+    private long current;
+    private boolean closed = false;
+
+    public LongColumnarBatchIterator(long[] values) {
+        this.values = values;
+        this.vector = new LongColumnVector(ColumnBatch.DEFAULT_CAPACITY);
+        this.batch = new ColumnBatch(vector);
+        Input<Long> input = () -> current;
+        this.rowData = Columns.wrap(Collections.singletonList(input));
+    }
+
+    @Override
+    public ColumnBatch columnBatch() {
+        return batch;
+    }
+
+    @Override
+    public boolean moveNextBatch() {
+        raiseIfClosed();
+        int numRows = Math.min(vector.capacity(), values.length - nextPos);
+        System.arraycopy(values, nextPos, vector.values, 0, numRows);
+        nextPos += numRows;
+        batch.selectAll(numRows);
+        return numRows > 0;
+    }
+
+    @Override
+    public Columns rowData() {
+        return rowData;
+    }
+
+    @Override
+    public void moveToStart() {
+        raiseIfClosed();
+        nextPos = 0;
+    }
+
+    @Override
+    public boolean moveNext() {
+        raiseIfClosed();
+        if (nextPos < values.length) {
+            current = values[nextPos++];
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() {
+        return CompletableFutures.failedFuture(new IllegalStateException("All data already loaded"));
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return true;
+    }
+
+    @Override
+    public void kill(@Nonnull Throwable throwable) {
+    }
+
+    private void raiseIfClosed() {
+        if (closed) {
+            throw new IllegalStateException("BatchIterator is closed");
+        }
+    }
+}
@@ -23,9 +23,13 @@
 package io.crate.testing;
 
 import io.crate.data.BatchIterator;
+import io.crate.data.ForwardingBatchIterator;
 import io.crate.data.Row;
 import io.crate.data.RowsBatchIterator;
 
+import javax.annotation.Nonnull;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.stream.LongStream;
 
 public class TestingBatchIterators {
@@ -45,4 +49,34 @@ public class TestingBatchIterators {
             () -> LongStream.range(startInclusive, endExclusive).iterator());
         return RowsBatchIterator.newInstance(rows, 1);
     }
+
+    /**
+     * Returns a batch iterator containing the rows of {@code source} which then waits for a next batch.
+     * Loading the next batch fails once the iterator is killed.
+     */
+    public static BatchIterator rowsUntilKilled(BatchIterator source) {
+        CompletableFuture<Object> nextBatch = new CompletableFuture<>();
+        return new ForwardingBatchIterator() {
+
+            @Override
+            protected BatchIterator delegate() {
+                return source;
+            }
+
+            @Override
+            public boolean allLoaded() {
+                return false;
+            }
+
+            @Override
+            public CompletionStage<?> loadNextBatch() {
+                return nextBatch;
+            }
+
+            @Override
+            public void kill(@Nonnull Throwable throwable) {
+                nextBatch.completeExceptionally(throwable);
+            }
+        };
+    }
 }
@@ -20,6 +20,7 @@ package io.crate.beans;
 
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import io.crate.action.sql.QueryResultCache;
 import io.crate.operation.collect.stats.JobsLogs;
 import io.crate.operation.reference.sys.job.JobContextLog;
 
@@ -91,10 +92,12 @@ public class QueryStats implements QueryStatsMBean {
     };
 
     private final Supplier<Map<String, Metric>> metricByCommand;
+    private final QueryResultCache queryResultCache;
 
     private volatile long lastUpdateTsInMillis = System.currentTimeMillis();
 
-    public QueryStats(JobsLogs jobsLogs) {
+    public QueryStats(JobsLogs jobsLogs, QueryResultCache queryResultCache) {
+        this.queryResultCache = queryResultCache;
         metricByCommand = Suppliers.memoizeWithExpiration(
             () -> {
                 long currentTs = System.currentTimeMillis();
@@ -189,4 +192,29 @@ public class QueryStats implements QueryStatsMBean {
     public double getOverallQueryAverageDuration() {
         return metricByCommand.get().getOrDefault(Commands.TOTAL, DEFAULT_METRIC).avgDurationInMs();
     }
+
+    @Override
+    public long getQueryResultCacheHits() {
+        return queryResultCache.hits();
+    }
+
+    @Override
+    public long getQueryResultCacheMisses() {
+        return queryResultCache.misses();
+    }
+
+    @Override
+    public long getQueryResultCacheEvictions() {
+        return queryResultCache.evictions();
+    }
+
+    @Override
+    public long getQueryResultCacheEntries() {
+        return queryResultCache.entries();
+    }
+
+    @Override
+    public long getQueryResultCacheSizeInBytes() {
+        return queryResultCache.sizeInBytes();
+    }
 }
@@ -40,4 +40,10 @@ public interface QueryStatsMBean {
     double getUpdateQueryAverageDuration();
     double getDeleteQueryAverageDuration();
     double getOverallQueryAverageDuration();
+
+    long getQueryResultCacheHits();
+    long getQueryResultCacheMisses();
+    long getQueryResultCacheEvictions();
+    long getQueryResultCacheEntries();
+    long getQueryResultCacheSizeInBytes();
 }
@@ -18,6 +18,7 @@
 
 package io.crate.plugin;
 
+import io.crate.action.sql.QueryResultCache;
 import io.crate.beans.QueryStats;
 import io.crate.operation.collect.stats.JobsLogs;
 import org.apache.logging.log4j.Logger;
@@ -34,9 +35,9 @@ public class CrateMonitor {
     private final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
 
     @Inject
-    public CrateMonitor(JobsLogs jobsLogs, Settings settings) {
+    public CrateMonitor(JobsLogs jobsLogs, QueryResultCache queryResultCache, Settings settings) {
         logger = Loggers.getLogger(CrateMonitor.class, settings);
-        registerMBean(QueryStats.NAME, new QueryStats(jobsLogs));
+        registerMBean(QueryStats.NAME, new QueryStats(jobsLogs, queryResultCache));
     }
 
     private void registerMBean(String name, Object bean) {
@@ -19,6 +19,7 @@
 package io.crate.beans;
 
 import com.google.common.collect.ImmutableList;
+import io.crate.action.sql.QueryResultCache;
 import io.crate.operation.collect.stats.JobsLogs;
 import io.crate.operation.reference.sys.job.JobContext;
 import io.crate.operation.reference.sys.job.JobContextLog;
@@ -30,6 +31,8 @@ import java.util.UUID;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class QueryStatsTest {
 
@@ -69,8 +72,20 @@ public class QueryStatsTest {
 
     @Test
     public void testDefaultValue() throws Exception {
-        QueryStats queryStats = new QueryStats(new JobsLogs(() -> true));
+        QueryStats queryStats = new QueryStats(new JobsLogs(() -> true), mock(QueryResultCache.class));
         assertThat(queryStats.getSelectQueryFrequency(), is(0.0));
         assertThat(queryStats.getSelectQueryAverageDuration(), is(0.0));
     }
+
+    @Test
+    public void testQueryResultCacheMetrics() throws Exception {
+        QueryResultCache queryResultCache = mock(QueryResultCache.class);
+        when(queryResultCache.hits()).thenReturn(10L);
+        when(queryResultCache.misses()).thenReturn(4L);
+        when(queryResultCache.evictions()).thenReturn(1L);
+        QueryStats queryStats = new QueryStats(new JobsLogs(() -> true), queryResultCache);
+        assertThat(queryStats.getQueryResultCacheHits(), is(10L));
+        assertThat(queryStats.getQueryResultCacheMisses(), is(4L));
+        assertThat(queryStats.getQueryResultCacheEvictions(), is(1L));
+    }
 }
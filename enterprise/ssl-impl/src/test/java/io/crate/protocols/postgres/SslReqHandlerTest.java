@@ -20,6 +20,7 @@ package io.crate.protocols.postgres;
 
 import io.crate.action.sql.SQLOperations;
 import io.crate.operation.auth.AlwaysOKAuthentication;
+import io.crate.operation.collect.files.StdinStreams;
 import io.crate.test.integration.CrateUnitTest;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
@@ -55,7 +56,8 @@ public class SslReqHandlerTest extends CrateUnitTest {
                 mock(SQLOperations.class),
                 new AlwaysOKAuthentication(),
                 // use a simple ssl context
-                getSelfSignedSslContext());
+                getSelfSignedSslContext(),
+                new StdinStreams());
 
         channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
 
@@ -60,7 +60,7 @@ statement
     | INSERT INTO table ('(' ident (',' ident)* ')')? insertSource
         (ON DUPLICATE KEY UPDATE assignment (',' assignment)*)?                      #insert
     | RESTORE SNAPSHOT qname (ALL | TABLE tableWithPartitions) withProperties?       #restore
-    | COPY tableWithPartition FROM path=expr withProperties?                         #copyFrom
+    | COPY tableWithPartition FROM (STDIN | path=expr) withProperties?               #copyFrom
     | COPY tableWithPartition columns? where?
         TO DIRECTORY? path=expr withProperties?                                      #copyTo
     | DROP BLOB TABLE (IF EXISTS)? table                                             #dropBlobTable
@@ -590,7 +590,7 @@ nonReserved
     | TIMESTAMP | TO | TOKENIZER | TOKEN_FILTERS | TYPE | VALUES | VIEW | YEAR
     | REPOSITORY | SNAPSHOT | RESTORE | GENERATED | ALWAYS | BEGIN
     | ISOLATION | TRANSACTION | LEVEL | LANGUAGE | OPEN | CLOSE | RENAME 
-    | PRIVILEGES | SCHEMA
+    | PRIVILEGES | SCHEMA | STDIN
     ;
 
 SELECT: 'SELECT';
@@ -748,6 +748,7 @@ SYSTEM: 'SYSTEM';
 BERNOULLI: 'BERNOULLI';
 TABLESAMPLE: 'TABLESAMPLE';
 STRATIFY: 'STRATIFY';
+STDIN: 'STDIN';
 INSERT: 'INSERT';
 INTO: 'INTO';
 VALUES: 'VALUES';
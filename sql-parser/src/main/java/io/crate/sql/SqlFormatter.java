@@ -122,7 +122,11 @@ public final class SqlFormatter {
             append(indent, "COPY ");
             process(node.table(), indent);
             append(indent, " FROM ");
-            process(node.path(), indent);
+            if (node.fromStdin()) {
+                append(indent, "STDIN");
+            } else {
+                process(node.path(), indent);
+            }
             if (node.genericProperties().isPresent()) {
                 append(indent, " ");
                 process(node.genericProperties().get(), indent);
@@ -369,7 +369,7 @@ class AstBuilder extends SqlBaseBaseVisitor<Node> {
     public Node visitCopyFrom(SqlBaseParser.CopyFromContext context) {
         return new CopyFrom(
             (Table) visit(context.tableWithPartition()),
-            (Expression) visit(context.path),
+            context.STDIN() == null ? (Expression) visit(context.path) : null,
             visitIfPresent(context.withProperties(), GenericProperties.class));
     }
 
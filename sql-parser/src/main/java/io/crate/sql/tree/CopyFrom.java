@@ -23,16 +23,22 @@ package io.crate.sql.tree;
 
 import com.google.common.base.MoreObjects;
 
+import javax.annotation.Nullable;
+import java.util.Objects;
 import java.util.Optional;
 
 public class CopyFrom extends Statement {
 
     private final Table table;
+    @Nullable
     private final Expression path;
     private final Optional<GenericProperties> genericProperties;
 
+    /**
+     * @param path the uri(s) to read from or null if the rows are sent by the client (COPY ... FROM STDIN)
+     */
     public CopyFrom(Table table,
-                    Expression path,
+                    @Nullable Expression path,
                     Optional<GenericProperties> genericProperties) {
 
         this.table = table;
@@ -44,10 +50,15 @@ public class CopyFrom extends Statement {
         return table;
     }
 
+    @Nullable
     public Expression path() {
         return path;
     }
 
+    public boolean fromStdin() {
+        return path == null;
+    }
+
     public Optional<GenericProperties> genericProperties() {
         return genericProperties;
     }
@@ -60,7 +71,7 @@ public class CopyFrom extends Statement {
         CopyFrom that = (CopyFrom) o;
 
         if (!genericProperties.equals(that.genericProperties)) return false;
-        if (!path.equals(that.path)) return false;
+        if (!Objects.equals(path, that.path)) return false;
         if (!table.equals(that.table)) return false;
 
         return true;
@@ -69,7 +80,7 @@ public class CopyFrom extends Statement {
     @Override
     public int hashCode() {
         int result = table.hashCode();
-        result = 31 * result + path.hashCode();
+        result = 31 * result + Objects.hashCode(path);
         result = 31 * result + genericProperties.hashCode();
         return result;
     }
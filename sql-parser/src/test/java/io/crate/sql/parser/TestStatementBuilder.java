@@ -679,6 +679,8 @@ public class TestStatementBuilder {
         printStatement("copy foo from ? with (some_property=1)");
         printStatement("copy foo from ? with (some_property=false)");
         printStatement("copy schemah.foo from '/folder/file.extension'");
+        printStatement("copy foo from stdin");
+        printStatement("copy foo partition (a='x') from stdin with (format='csv')");
 
         printStatement("copy foo (nae) to '/folder/file.extension'");
         printStatement("copy foo to '/folder/file.extension'");
@@ -0,0 +1,147 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.analyze;
+
+import io.crate.action.sql.SessionContext;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.planner.Plan;
+import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.Statement;
+import io.crate.testing.SQLExecutor;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.set.Sets;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the rows per second of analyzing and planning bulk inserts, like they are sent by executemany.
+ * See {@link PreExecutionBenchmark} for single statements.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(value = Scope.Benchmark)
+public class BulkInsertBenchmark {
+
+    private static final int NUM_ROWS = 10_000;
+
+    private TestThreadPool threadPool;
+    private SQLExecutor e;
+    private Statement insertStatement;
+    private Statement multiValuesStatement;
+    private ParameterContext bulkParams;
+    private Analysis insertAnalysis;
+    private UUID jobId;
+
+    @Setup
+    public void setup() {
+        threadPool = new TestThreadPool("testing");
+        e = SQLExecutor.builder(
+            new ClusterService(Settings.builder().put("cluster.name", "ClusterServiceTests").build(),
+                new ClusterSettings(Settings.EMPTY, Sets.newHashSet(ClusterSettings.BUILT_IN_CLUSTER_SETTINGS)),
+                threadPool)).
+            enableDefaultTables().
+            build();
+        insertStatement = SqlParser.createStatement("insert into users (id, name, awesome) values (?, ?, ?)");
+        List<Row> rows = new ArrayList<>(NUM_ROWS);
+        for (int i = 0; i < NUM_ROWS; i++) {
+            rows.add(new RowN(new Object[] { (long) i, "name-" + i, i % 2 == 0 }));
+        }
+        bulkParams = new ParameterContext(Row.EMPTY, rows);
+
+        StringBuilder sb = new StringBuilder("insert into users (id, name, awesome) values ");
+        for (int i = 0; i < NUM_ROWS; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append("(").append(i).append(", 'name-").append(i).append("', ").append(i % 2 == 0).append(")");
+        }
+        multiValuesStatement = SqlParser.createStatement(sb.toString());
+
+        insertAnalysis = e.analyzer.boundAnalyze(insertStatement, SessionContext.SYSTEM_SESSION, bulkParams);
+        jobId = UUID.randomUUID();
+    }
+
+    @TearDown
+    public void cleanup() throws InterruptedException {
+        threadPool.shutdown();
+        threadPool.awaitTermination(20, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public Analysis benchAnalyzeBulkArgs() {
+        return e.analyzer.boundAnalyze(insertStatement, SessionContext.SYSTEM_SESSION, bulkParams);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public Plan benchAnalyzeAndPlanBulkArgs() {
+        Analysis analysis = e.analyzer.boundAnalyze(insertStatement, SessionContext.SYSTEM_SESSION, bulkParams);
+        return e.planner.plan(analysis, jobId, 0, 0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public Plan benchPlanBulkArgs() {
+        return e.planner.plan(insertAnalysis, jobId, 0, 0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public Analysis benchAnalyzeMultiValues() {
+        return e.analyzer.boundAnalyze(
+            multiValuesStatement,
+            SessionContext.SYSTEM_SESSION,
+            new ParameterContext(Row.EMPTY, Collections.emptyList()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(BulkInsertBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.executor.transport.distributed;
+
+import io.crate.Streamer;
+import io.crate.data.Bucket;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.types.DataTypes;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the number of rows per second which can be distributed to buckets by the {@link ModuloBucketBuilder}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class ModuloBucketBuilderBenchmark {
+
+    private static final int NUM_ROWS = 10_000;
+
+    @Param({"2", "8", "16", "64"})
+    public int numBuckets;
+
+    private final Streamer<?>[] streamers = new Streamer[]{DataTypes.LONG.streamer(), DataTypes.INTEGER.streamer()};
+    private List<Row> rows;
+    private ModuloBucketBuilder sharedBuilder;
+
+    @Setup
+    public void prepareData() {
+        Random rnd = new Random(42);
+        rows = new ArrayList<>(NUM_ROWS);
+        for (int i = 0; i < NUM_ROWS; i++) {
+            rows.add(new RowN(new Object[]{rnd.nextLong(), i}));
+        }
+        sharedBuilder = new ModuloBucketBuilder(streamers, numBuckets, 0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public void measureAddAndBuild(Blackhole blackhole) {
+        ModuloBucketBuilder builder = new ModuloBucketBuilder(streamers, numBuckets, 0);
+        for (Row row : rows) {
+            builder.add(row);
+        }
+        Bucket[] buckets = new Bucket[numBuckets];
+        builder.build(buckets);
+        blackhole.consume(buckets);
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(NUM_ROWS)
+    public void measureConcurrentAdd(Blackhole blackhole) {
+        for (Row row : rows) {
+            sharedBuilder.add(row);
+        }
+        // drain the buckets to keep the memory usage bounded
+        if (sharedBuilder.size() >= NUM_ROWS * 4) {
+            Bucket[] buckets = new Bucket[numBuckets];
+            sharedBuilder.build(buckets);
+            blackhole.consume(buckets);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.fetch;
+
+import com.carrotsearch.hppc.IntArrayList;
+import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.executor.transport.StreamBucket;
+import io.crate.operation.reference.doc.lucene.IntegerColumnReference;
+import io.crate.operation.reference.doc.lucene.LuceneCollectorExpression;
+import io.crate.types.DataTypes;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.fielddata.IndexFieldDataService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures the per-reader work of the {@link NodeFetchOperation}: fetching the values of randomly ordered docs
+ * which are spread over many segments, as it happens for the docs of a QueryThenFetch result.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class FetchCollectorBenchmark {
+
+    private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
+        new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy"));
+    private static final int NUM_DOCS = 1_000_000;
+    private static final int DOCS_PER_SEGMENT = 50_000;
+
+    @Param({"1000", "10000", "100000"})
+    public int numDocsToFetch;
+
+    private Engine.Searcher searcher;
+    private IntArrayList docIds;
+
+    @Setup
+    public void createIndexAndDocIds() throws Exception {
+        IndexWriter iw = new IndexWriter(
+            new RAMDirectory(),
+            new IndexWriterConfig(new StandardAnalyzer()).setMergePolicy(NoMergePolicy.INSTANCE));
+        for (int i = 0; i < NUM_DOCS; i++) {
+            Document doc = new Document();
+            doc.add(new SortedNumericDocValuesField("x", i));
+            doc.add(new SortedNumericDocValuesField("y", i % 100));
+            iw.addDocument(doc);
+            if ((i + 1) % DOCS_PER_SEGMENT == 0) {
+                iw.commit();
+            }
+        }
+        iw.commit();
+        searcher = new Engine.Searcher("benchmark", new IndexSearcher(DirectoryReader.open(iw)));
+
+        Random random = new Random(42);
+        int[] ids = new int[NUM_DOCS];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i;
+        }
+        for (int i = ids.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = ids[i];
+            ids[i] = ids[j];
+            ids[j] = tmp;
+        }
+        docIds = IntArrayList.from(Arrays.copyOf(ids, numDocsToFetch));
+    }
+
+    @Benchmark
+    public StreamBucket measureFetchRandomlyOrderedDocs() throws Exception {
+        List<LuceneCollectorExpression<?>> expressions = Arrays.<LuceneCollectorExpression<?>>asList(
+            new IntegerColumnReference("x"),
+            new IntegerColumnReference("y")
+        );
+        FetchCollector collector = new FetchCollector(
+            expressions,
+            new Streamer[] { DataTypes.INTEGER.streamer(), DataTypes.INTEGER.streamer() },
+            searcher,
+            mock(IndexFieldDataService.class),
+            RAM_ACCOUNTING_CONTEXT,
+            0
+        );
+        return collector.collect(docIds);
+    }
+}
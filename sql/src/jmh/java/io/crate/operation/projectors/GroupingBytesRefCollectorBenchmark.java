@@ -36,6 +36,7 @@ import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.inject.ModulesBuilder;
+import org.elasticsearch.common.io.PathUtils;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
 
@@ -44,6 +45,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collector;
 
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.MILLISECONDS)
@@ -53,7 +55,7 @@ public class GroupingBytesRefCollectorBenchmark {
     private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
         new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
 
-    private GroupingCollector groupByMinCollector;
+    private Collector<Row, ?, Iterable<Row>> groupByMinCollector;
     private BatchIterator rowsIterator;
     private List<Row> rows;
 
@@ -75,7 +77,7 @@ public class GroupingBytesRefCollectorBenchmark {
         }
     }
 
-    private GroupingCollector createGroupByMinBytesRefCollector(Functions functions) {
+    private Collector<Row, ?, Iterable<Row>> createGroupByMinBytesRefCollector(Functions functions) {
         InputCollectExpression keyInput = new InputCollectExpression(0);
         List<Input<?>> keyInputs = Collections.singletonList(keyInput);
         CollectExpression[] collectExpressions = new CollectExpression[]{keyInput};
@@ -90,7 +92,9 @@ public class GroupingBytesRefCollectorBenchmark {
             new Input[][] { new Input[] { keyInput }},
             RAM_ACCOUNTING_CONTEXT,
             keyInputs.get(0),
-            DataTypes.STRING
+            DataTypes.STRING,
+            bytes -> false,
+            PathUtils.get(System.getProperty("java.io.tmpdir"))
         );
     }
 
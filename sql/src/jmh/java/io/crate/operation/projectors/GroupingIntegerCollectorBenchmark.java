@@ -35,6 +35,7 @@ import io.crate.types.DataTypes;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.inject.ModulesBuilder;
+import org.elasticsearch.common.io.PathUtils;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
 
@@ -42,6 +43,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collector;
 
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.MILLISECONDS)
@@ -51,7 +53,7 @@ public class GroupingIntegerCollectorBenchmark {
     private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
         new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
 
-    private GroupingCollector groupBySumCollector;
+    private Collector<Row, ?, Iterable<Row>> groupBySumCollector;
     private BatchIterator rowsIterator;
     private List<Row> rows;
 
@@ -67,7 +69,7 @@ public class GroupingIntegerCollectorBenchmark {
         }
     }
 
-    private GroupingCollector createGroupBySumCollector(Functions functions) {
+    private Collector<Row, ?, Iterable<Row>> createGroupBySumCollector(Functions functions) {
         InputCollectExpression keyInput = new InputCollectExpression(0);
         List<Input<?>> keyInputs = Arrays.<Input<?>>asList(keyInput);
         CollectExpression[] collectExpressions = new CollectExpression[]{keyInput};
@@ -82,7 +84,9 @@ public class GroupingIntegerCollectorBenchmark {
             new Input[][] { new Input[] { keyInput }},
             RAM_ACCOUNTING_CONTEXT,
             keyInputs.get(0),
-            DataTypes.INTEGER
+            DataTypes.INTEGER,
+            bytes -> false,
+            PathUtils.get(System.getProperty("java.io.tmpdir"))
         );
     }
 
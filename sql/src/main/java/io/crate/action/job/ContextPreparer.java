@@ -61,12 +61,14 @@ import io.crate.operation.collect.MapSideDataCollectOperation;
 import io.crate.operation.collect.sources.SystemCollectSource;
 import io.crate.operation.count.CountOperation;
 import io.crate.operation.fetch.FetchContext;
+import io.crate.operation.join.HashJoinKey;
 import io.crate.operation.join.NestedLoopOperation;
 import io.crate.operation.merge.PagingIterator;
 import io.crate.operation.projectors.DistributingDownstreamFactory;
 import io.crate.operation.projectors.ProjectingBatchConsumer;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
 import io.crate.operation.projectors.ProjectorFactory;
+import io.crate.operation.projectors.SpillDirectory;
 import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.distribution.UpstreamPhase;
 import io.crate.planner.node.ExecutionPhase;
@@ -129,7 +131,8 @@ public class ContextPreparer extends AbstractComponent {
                            TransportActionProvider transportActionProvider,
                            IndexNameExpressionResolver indexNameExpressionResolver,
                            Functions functions,
-                           SystemCollectSource systemCollectSource) {
+                           SystemCollectSource systemCollectSource,
+                           SpillDirectory spillDirectory) {
         super(settings);
         nlContextLogger = Loggers.getLogger(NestedLoopContext.class, settings);
         pageDownstreamContextLogger = Loggers.getLogger(PageDownstreamContext.class, settings);
@@ -151,7 +154,8 @@ public class ContextPreparer extends AbstractComponent {
             inputFactory,
             normalizer,
             systemCollectSource::getRowUpdater,
-            systemCollectSource::tableDefinition
+            systemCollectSource::tableDefinition,
+            spillDirectory.path()
         );
     }
 
@@ -526,7 +530,10 @@ public class ContextPreparer extends AbstractComponent {
         @Override
         public Boolean visitMergePhase(final MergePhase phase, final PreparerContext context) {
 
-            boolean upstreamOnSameNode = context.opCtx.upstreamsAreOnSameNode(phase.phaseId());
+            // with several inputs (UNION ALL) the upstreams must send their results to the PageDownstreamContext,
+            // which merges them into one result
+            boolean singleInput = phase.numUpstreamsByInput().length == 1;
+            boolean upstreamOnSameNode = singleInput && context.opCtx.upstreamsAreOnSameNode(phase.phaseId());
 
             int pageSize = Paging.getWeightedPageSize(Paging.PAGE_SIZE, 1.0d / phase.nodeIds().size());
             BatchConsumer consumer = context.getBatchConsumer(phase, pageSize);
@@ -558,7 +565,7 @@ public class ContextPreparer extends AbstractComponent {
                         RamAccountingContext.forExecutionPhase(circuitBreaker, phase))),
                 DataTypes.getStreamers(phase.inputTypes()),
                 ramAccountingContext,
-                phase.numUpstreams()
+                phase.numUpstreamsByInput()
             ));
             return true;
         }
@@ -630,18 +637,34 @@ public class ContextPreparer extends AbstractComponent {
                 lastConsumer, phase.projections(), phase.jobId(), ramAccountingContext, projectorFactory);
             Predicate<Row> joinCondition = RowFilter.create(inputFactory, phase.joinCondition());
 
-            NestedLoopOperation nestedLoopOperation = new NestedLoopOperation(
-                firstConsumer,
-                joinCondition,
-                phase.joinType()
-            );
+            NestedLoopOperation nestedLoopOperation;
+            if (phase.isHashJoin()) {
+                RowAccounting buildSideAccounting = new RowAccounting(phase.buildSideTypes(), ramAccountingContext);
+                nestedLoopOperation = new NestedLoopOperation(
+                    firstConsumer,
+                    joinCondition,
+                    new HashJoinKey(inputFactory, phase.leftJoinKeys()),
+                    new HashJoinKey(inputFactory, phase.rightJoinKeys()),
+                    phase.buildOnLeft(),
+                    buildSideAccounting::accountForAndMaybeBreak
+                );
+            } else {
+                nestedLoopOperation = new NestedLoopOperation(
+                    firstConsumer,
+                    joinCondition,
+                    phase.joinType()
+                );
+            }
+            // the hash join buffers (and accounts) the build side itself, a nested loop needs to repeat the inputs
+            boolean requiresRepeat = !phase.isHashJoin();
             PageDownstreamContext left = pageDownstreamContextForNestedLoop(
                 phase.phaseId(),
                 context,
                 (byte) 0,
                 phase.leftMergePhase(),
                 nestedLoopOperation.leftConsumer(),
-                ramAccountingContext);
+                ramAccountingContext,
+                requiresRepeat);
             if (left != null) {
                 context.registerSubContext(left);
             }
@@ -651,7 +674,8 @@ public class ContextPreparer extends AbstractComponent {
                 (byte) 1,
                 phase.rightMergePhase(),
                 nestedLoopOperation.rightConsumer(),
-                ramAccountingContext
+                ramAccountingContext,
+                requiresRepeat
             );
             if (right != null) {
                 context.registerSubContext(right);
@@ -672,7 +696,8 @@ public class ContextPreparer extends AbstractComponent {
                                                                          byte inputId,
                                                                          @Nullable MergePhase mergePhase,
                                                                          BatchConsumer batchConsumer,
-                                                                         RamAccountingContext ramAccountingContext) {
+                                                                         RamAccountingContext ramAccountingContext,
+                                                                         boolean requiresRepeat) {
             if (mergePhase == null) {
                 ctx.consumersByPhaseInputId.put(toKey(nlPhaseId, inputId), batchConsumer);
                 return null;
@@ -688,7 +713,7 @@ public class ContextPreparer extends AbstractComponent {
                 batchConsumer,
                 PagingIterator.create(
                     mergePhase.numUpstreams(),
-                    true,
+                    requiresRepeat,
                     mergePhase.orderByPositions(),
                     () -> new RowAccounting(
                         mergePhase.inputTypes(),
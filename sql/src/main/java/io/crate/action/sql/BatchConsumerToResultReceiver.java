@@ -65,7 +65,8 @@ public class BatchConsumerToResultReceiver implements BatchConsumer {
                 if (maxRows > 0 && rowCount % maxRows == 0) {
                     activeIt = iterator;
                     resultReceiver.batchFinished();
-                    return; // resumed via postgres protocol, close is done later
+                    resultReceiver.suspended(this::resume);
+                    return; // resumed via postgres protocol or by the receiver, close is done later
                 }
             }
             allLoaded = iterator.allLoaded();
@@ -23,6 +23,7 @@
 package io.crate.action.sql;
 
 import io.crate.analyze.ParamTypeHints;
+import io.crate.analyze.PreparedAnalysis;
 import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.sql.tree.Statement;
 import io.crate.types.DataType;
@@ -35,6 +36,7 @@ class PreparedStmt {
     private final Statement statement;
     private final String query;
     private final ParamTypeHints paramTypes;
+    private final PreparedAnalysis analysis;
 
     private AnalyzedRelation relation;
     private boolean relationInitialized = false;
@@ -43,6 +45,7 @@ class PreparedStmt {
         this.statement = statement;
         this.query = query;
         this.paramTypes = new ParamTypeHints(paramTypes);
+        this.analysis = new PreparedAnalysis(statement);
     }
 
     public Statement statement() {
@@ -53,6 +56,13 @@ class PreparedStmt {
         return paramTypes;
     }
 
+    /**
+     * The analysis which is kept across the executions of the statement.
+     */
+    PreparedAnalysis analysis() {
+        return analysis;
+    }
+
     public String query() {
         return query;
     }
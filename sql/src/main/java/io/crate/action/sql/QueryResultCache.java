@@ -0,0 +1,453 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import io.crate.action.FutureActionListener;
+import io.crate.analyze.Analysis;
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.analyze.QuerySpec;
+import io.crate.analyze.SelectAnalyzedStatement;
+import io.crate.analyze.relations.QueriedDocTable;
+import io.crate.analyze.relations.QueriedRelation;
+import io.crate.analyze.symbol.Field;
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.SelectSymbol;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.analyze.symbol.SymbolVisitors;
+import io.crate.breaker.CrateCircuitBreakerService;
+import io.crate.breaker.SizeEstimator;
+import io.crate.breaker.SizeEstimatorFactory;
+import io.crate.concurrent.CompletableFutures;
+import io.crate.data.BatchConsumer;
+import io.crate.data.BatchIterator;
+import io.crate.data.BatchRowVisitor;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.RowsBatchIterator;
+import io.crate.executor.transport.ReaderVersionsRequest;
+import io.crate.executor.transport.ReaderVersionsResponse;
+import io.crate.executor.transport.TransportReaderVersionsAction;
+import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.sql.tree.CurrentTime;
+import io.crate.sql.tree.DefaultTraversalVisitor;
+import io.crate.sql.tree.Statement;
+import io.crate.types.DataType;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.routing.IndexRoutingTable;
+import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.shard.ShardId;
+
+import javax.annotation.Nullable;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Node level cache for the results of aggregating SELECT statements.
+ *
+ * A result is keyed by the statement, its parameters and the versions of the index readers of all shard copies
+ * of the queried table. The reader versions are requested from the nodes holding the shards before each lookup,
+ * so that once a change to the table becomes visible to searches, the cached results of the table are no longer used.
+ *
+ * The memory used by the cached results is accounted for in the query circuit breaker. If the cache is full the
+ * least recently used results are evicted.
+ */
+@Singleton
+public class QueryResultCache {
+
+    /**
+     * Memory used for cached results; the cache is disabled if this is 0.
+     */
+    public static final Setting<ByteSizeValue> SIZE_SETTING = Setting.memorySizeSetting(
+        "node.sql.query_result_cache.size",
+        "0b",
+        Setting.Property.NodeScope);
+
+    private static final String BREAKER_LABEL = "query_result_cache";
+
+    /**
+     * Object[] header (16 bytes) + reference in the list of rows (8 bytes) + RowN (16 bytes)
+     */
+    private static final long ROW_OVERHEAD = 40L;
+
+    private static final Predicate<Symbol> IS_NOT_CACHEABLE = s ->
+        s instanceof SelectSymbol
+        || (s instanceof Function
+            && !((Function) s).info().features().contains(FunctionInfo.Feature.DETERMINISTIC));
+
+    private final ClusterService clusterService;
+    private final CircuitBreaker breaker;
+    private final TransportReaderVersionsAction readerVersionsAction;
+    private final long maxBytes;
+
+    @Nullable
+    private final Cache<Key, CachedResult> cache;
+
+    @Inject
+    public QueryResultCache(Settings settings,
+                            ClusterService clusterService,
+                            CrateCircuitBreakerService breakerService,
+                            TransportReaderVersionsAction readerVersionsAction) {
+        this.clusterService = clusterService;
+        this.breaker = breakerService.getBreaker(CrateCircuitBreakerService.QUERY);
+        this.readerVersionsAction = readerVersionsAction;
+        this.maxBytes = Math.min(SIZE_SETTING.get(settings).getBytes(), Integer.MAX_VALUE);
+        if (maxBytes > 0) {
+            cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, CachedResult result) -> (int) result.bytes)
+                .removalListener((RemovalListener<Key, CachedResult>) this::onRemoval)
+                .recordStats()
+                .build();
+        } else {
+            cache = null;
+        }
+    }
+
+    /**
+     * Executes a statement by passing {@code consumer} to {@code execution}, unless the result of the statement is
+     * cached; in that case the {@code consumer} receives the cached rows.
+     *
+     * If the statement can be cached, the result is collected before it is passed to {@code consumer}
+     * and put into the cache.
+     */
+    public void execute(Statement statement,
+                        Analysis analysis,
+                        List<Object> params,
+                        int defaultLimit,
+                        BatchConsumer consumer,
+                        Consumer<BatchConsumer> execution) {
+        if (cache == null) {
+            execution.accept(consumer);
+            return;
+        }
+        DocTableInfo table = cacheableTable(statement, analysis);
+        Map<String, List<ShardId>> shardsByNode = table == null ? null : shardCopiesByNode(table);
+        if (shardsByNode == null) {
+            execution.accept(consumer);
+            return;
+        }
+        List<DataType> outputTypes = analysis.rootRelation().fields().stream()
+            .map(Field::valueType)
+            .collect(Collectors.toList());
+        readerVersions(shardsByNode).whenComplete((readerVersions, t) -> {
+            try {
+                if (t != null || readerVersions == null) {
+                    execution.accept(consumer);
+                    return;
+                }
+                Key key = new Key(statement, analysis.sessionContext().defaultSchema(), params, defaultLimit, readerVersions);
+                CachedResult cachedResult = cache.getIfPresent(key);
+                if (cachedResult == null) {
+                    execution.accept(new CachingConsumer(key, outputTypes, consumer));
+                } else {
+                    consumer.accept(RowsBatchIterator.newInstance(cachedResult.rows, outputTypes.size()), null);
+                }
+            } catch (Throwable e) {
+                consumer.accept(null, e);
+            }
+        });
+    }
+
+    /**
+     * @return the queried table if the statement is an aggregation on a single user table
+     *         which doesn't contain non-deterministic functions or sub-queries; otherwise null.
+     */
+    @Nullable
+    @VisibleForTesting
+    static DocTableInfo cacheableTable(Statement statement, Analysis analysis) {
+        AnalyzedStatement analyzedStatement = analysis.analyzedStatement();
+        if (!(analyzedStatement instanceof SelectAnalyzedStatement)) {
+            return null;
+        }
+        QueriedRelation relation = ((SelectAnalyzedStatement) analyzedStatement).relation();
+        if (!(relation instanceof QueriedDocTable)) {
+            return null;
+        }
+        QuerySpec querySpec = relation.querySpec();
+        if (!querySpec.hasAggregates() && !querySpec.groupBy().isPresent()) {
+            // results of aggregations are small and already held in memory; others are streamed
+            return null;
+        }
+        boolean[] cacheable = new boolean[] { true };
+        querySpec.visitSymbols(s -> {
+            if (SymbolVisitors.any(IS_NOT_CACHEABLE, s)) {
+                cacheable[0] = false;
+            }
+        });
+        if (!cacheable[0] || CurrentTimeFinder.containsCurrentTime(statement)) {
+            return null;
+        }
+        return ((QueriedDocTable) relation).tableRelation().tableInfo();
+    }
+
+    @Nullable
+    private Map<String, List<ShardId>> shardCopiesByNode(DocTableInfo table) {
+        ClusterState state = clusterService.state();
+        Map<String, List<ShardId>> shardsByNode = new HashMap<>();
+        for (String indexName : table.concreteIndices()) {
+            IndexRoutingTable indexRoutingTable = state.routingTable().index(indexName);
+            if (indexRoutingTable == null) {
+                return null;
+            }
+            for (IndexShardRoutingTable shardRoutingTable : indexRoutingTable) {
+                List<ShardRouting> activeShards = shardRoutingTable.activeShards();
+                if (activeShards.isEmpty()) {
+                    return null;
+                }
+                for (ShardRouting shardRouting : activeShards) {
+                    shardsByNode
+                        .computeIfAbsent(shardRouting.currentNodeId(), k -> new ArrayList<>())
+                        .add(shardRouting.shardId());
+                }
+            }
+        }
+        return shardsByNode;
+    }
+
+    /**
+     * @return future with the reader versions of the shard copies by node,
+     *         completed with null if a version is unknown, e.g. because a shard has been relocated.
+     */
+    private CompletableFuture<Map<String, Map<ShardId, Long>>> readerVersions(Map<String, List<ShardId>> shardsByNode) {
+        List<CompletableFuture<Map.Entry<String, Map<ShardId, Long>>>> futures = new ArrayList<>(shardsByNode.size());
+        for (Map.Entry<String, List<ShardId>> entry : shardsByNode.entrySet()) {
+            String nodeId = entry.getKey();
+            List<ShardId> shardIds = entry.getValue();
+            FutureActionListener<ReaderVersionsResponse, Map.Entry<String, Map<ShardId, Long>>> listener =
+                new FutureActionListener<>(response -> {
+                    long[] versions = response.versions();
+                    Map<ShardId, Long> versionByShard = new HashMap<>(shardIds.size());
+                    for (int i = 0; i < versions.length; i++) {
+                        if (versions[i] == ReaderVersionsResponse.UNKNOWN_VERSION) {
+                            return null;
+                        }
+                        versionByShard.put(shardIds.get(i), versions[i]);
+                    }
+                    return new AbstractMap.SimpleImmutableEntry<>(nodeId, versionByShard);
+                });
+            readerVersionsAction.execute(nodeId, new ReaderVersionsRequest(shardIds), listener);
+            futures.add(listener);
+        }
+        return CompletableFutures.allAsList(futures).thenApply(entries -> {
+            Map<String, Map<ShardId, Long>> versionsByNode = new HashMap<>(entries.size());
+            for (Map.Entry<String, Map<ShardId, Long>> entry : entries) {
+                if (entry == null) {
+                    return null;
+                }
+                versionsByNode.put(entry.getKey(), entry.getValue());
+            }
+            return versionsByNode;
+        });
+    }
+
+    private void put(Key key, List<Row> rows, long bytes) {
+        if (bytes > maxBytes) {
+            return;
+        }
+        try {
+            breaker.addEstimateBytesAndMaybeBreak(bytes, BREAKER_LABEL);
+        } catch (CircuitBreakingException e) {
+            return;
+        }
+        cache.put(key, new CachedResult(rows, bytes));
+    }
+
+    private void onRemoval(RemovalNotification<Key, CachedResult> notification) {
+        breaker.addWithoutBreaking(-notification.getValue().bytes);
+    }
+
+    public String nodeId() {
+        return clusterService.localNode().getId();
+    }
+
+    public long entries() {
+        return cache == null ? 0L : cache.size();
+    }
+
+    public long sizeInBytes() {
+        if (cache == null) {
+            return 0L;
+        }
+        long bytes = 0L;
+        for (CachedResult result : cache.asMap().values()) {
+            bytes += result.bytes;
+        }
+        return bytes;
+    }
+
+    public long hits() {
+        return cache == null ? 0L : cache.stats().hitCount();
+    }
+
+    public long misses() {
+        return cache == null ? 0L : cache.stats().missCount();
+    }
+
+    public long evictions() {
+        return cache == null ? 0L : cache.stats().evictionCount();
+    }
+
+    /**
+     * Collects the result of a statement, puts it into the cache and passes it on to the consumer.
+     */
+    private class CachingConsumer implements BatchConsumer {
+
+        private final Key key;
+        private final List<DataType> outputTypes;
+        private final BatchConsumer consumer;
+
+        CachingConsumer(Key key, List<DataType> outputTypes, BatchConsumer consumer) {
+            this.key = key;
+            this.outputTypes = outputTypes;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void accept(BatchIterator iterator, @Nullable Throwable failure) {
+            if (failure != null) {
+                consumer.accept(iterator, failure);
+                return;
+            }
+            BatchRowVisitor.visitRows(iterator, Collectors.mapping(Row::materialize, Collectors.toList()))
+                .whenComplete((cells, t) -> {
+                    iterator.close();
+                    if (t == null) {
+                        List<Row> rows = new ArrayList<>(cells.size());
+                        long bytes = 0L;
+                        for (Object[] row : cells) {
+                            rows.add(new RowN(row));
+                            bytes += estimateSize(row);
+                        }
+                        put(key, rows, bytes);
+                        consumer.accept(RowsBatchIterator.newInstance(rows, outputTypes.size()), null);
+                    } else {
+                        consumer.accept(null, t);
+                    }
+                });
+        }
+
+        private long estimateSize(Object[] row) {
+            long bytes = ROW_OVERHEAD + 8L * row.length;
+            for (int i = 0; i < row.length && i < outputTypes.size(); i++) {
+                SizeEstimator<Object> estimator = SizeEstimatorFactory.create(outputTypes.get(i));
+                bytes += estimator.estimateSize(row[i]);
+            }
+            return bytes;
+        }
+
+        @Override
+        public boolean requiresScroll() {
+            return consumer.requiresScroll();
+        }
+    }
+
+    private static class CurrentTimeFinder extends DefaultTraversalVisitor<Void, Void> {
+
+        private boolean found = false;
+
+        static boolean containsCurrentTime(Statement statement) {
+            CurrentTimeFinder finder = new CurrentTimeFinder();
+            statement.accept(finder, null);
+            return finder.found;
+        }
+
+        @Override
+        protected Void visitCurrentTime(CurrentTime node, Void context) {
+            found = true;
+            return null;
+        }
+    }
+
+    private static class CachedResult {
+
+        private final List<Row> rows;
+        private final long bytes;
+
+        CachedResult(List<Row> rows, long bytes) {
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+    }
+
+    private static class Key {
+
+        private final Statement statement;
+        @Nullable
+        private final String defaultSchema;
+        private final List<Object> params;
+        private final int defaultLimit;
+        private final Map<String, Map<ShardId, Long>> readerVersions;
+
+        Key(Statement statement,
+            @Nullable String defaultSchema,
+            List<Object> params,
+            int defaultLimit,
+            Map<String, Map<ShardId, Long>> readerVersions) {
+            this.statement = statement;
+            this.defaultSchema = defaultSchema;
+            this.params = params;
+            this.defaultLimit = defaultLimit;
+            this.readerVersions = readerVersions;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return defaultLimit == key.defaultLimit &&
+                   statement.equals(key.statement) &&
+                   Objects.equals(defaultSchema, key.defaultSchema) &&
+                   params.equals(key.params) &&
+                   readerVersions.equals(key.readerVersions);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(statement, defaultSchema, params, defaultLimit, readerVersions);
+        }
+    }
+}
@@ -39,6 +39,16 @@ public interface ResultReceiver extends CompletionListenable {
 
     void batchFinished();
 
+    /**
+     * Called after {@link #batchFinished()} if the consumer suspended itself after {@code maxRows} rows.
+     *
+     * Receivers which push the rows to the client on their own, instead of waiting for the client to request more
+     * rows, can use {@code resumeAction} to continue the consumption once they're ready.
+     * {@code resumeAction} must not be run from within this method.
+     */
+    default void suspended(Runnable resumeAction) {
+    }
+
     /**
      * Called when receiver finished.
      * @param interrupted indicates whether the receiver finished because all results were pushed (false)
@@ -23,6 +23,7 @@
 package io.crate.action.sql;
 
 import io.crate.analyze.Analyzer;
+import io.crate.analyze.CopyFromAnalyzedStatement;
 import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.symbol.Field;
 import io.crate.exceptions.SQLExceptions;
@@ -74,6 +75,7 @@ public class SQLOperations {
     private final Analyzer analyzer;
     private final Planner planner;
     private final Provider<Executor> executorProvider;
+    private final QueryResultCache queryResultCache;
     private final JobsLogs jobsLogs;
     private final ClusterService clusterService;
     private final UserManager userManager;
@@ -84,6 +86,7 @@ public class SQLOperations {
     public SQLOperations(Analyzer analyzer,
                          Planner planner,
                          Provider<Executor> executorProvider,
+                         QueryResultCache queryResultCache,
                          JobsLogs jobsLogs,
                          Settings settings,
                          ClusterService clusterService,
@@ -91,6 +94,7 @@ public class SQLOperations {
         this.analyzer = analyzer;
         this.planner = planner;
         this.executorProvider = executorProvider;
+        this.queryResultCache = queryResultCache;
         this.jobsLogs = jobsLogs;
         this.clusterService = clusterService;
         this.userManager = userManagerProvider.get();
@@ -193,7 +197,7 @@ public class SQLOperations {
         private Portal getOrCreatePortal(String portalName) {
             Portal portal = portals.get(portalName);
             if (portal == null) {
-                portal = new SimplePortal(portalName, analyzer, executor, isReadOnly, sessionContext);
+                portal = new SimplePortal(portalName, analyzer, executor, queryResultCache, isReadOnly, sessionContext);
                 portals.put(portalName, portal);
             }
             return portal;
@@ -238,7 +242,7 @@ public class SQLOperations {
             try {
                 PreparedStmt preparedStmt = getSafeStmt(statementName);
                 Portal newPortal = portal.bind(
-                    statementName, preparedStmt.query(), preparedStmt.statement(), params, resultFormatCodes);
+                    statementName, preparedStmt.query(), preparedStmt.analysis(), params, resultFormatCodes);
                 if (portal != newPortal) {
                     portals.put(portalName, newPortal);
                     pendingExecutions.remove(portal);
@@ -351,6 +355,11 @@ public class SQLOperations {
             return getSafePortal(portalName).getLastQuery();
         }
 
+        @Nullable
+        public CopyFromAnalyzedStatement getCopyFromStdin(String portalName) {
+            return getSafePortal(portalName).getCopyFromStdin();
+        }
+
         public DataType getParamType(String statementName, int idx) {
             PreparedStmt stmt = getSafeStmt(statementName);
             return stmt.paramTypes().getType(idx);
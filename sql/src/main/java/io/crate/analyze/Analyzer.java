@@ -85,6 +85,7 @@ public class Analyzer {
 
     private final AnalyzerDispatcher dispatcher = new AnalyzerDispatcher();
 
+    private final Schemas schemas;
     private final RelationAnalyzer relationAnalyzer;
     private final DropTableAnalyzer dropTableAnalyzer;
     private final CreateTableStatementAnalyzer createTableStatementAnalyzer;
@@ -123,6 +124,7 @@ public class Analyzer {
                     RepositoryService repositoryService,
                     RepositoryParamValidator repositoryParamValidator) {
         NumberOfShards numberOfShards = new NumberOfShards(clusterService);
+        this.schemas = schemas;
         this.relationAnalyzer = new RelationAnalyzer(clusterService, functions, schemas);
         this.dropTableAnalyzer = new DropTableAnalyzer(schemas);
         this.dropBlobTableAnalyzer = new DropBlobTableAnalyzer(schemas);
@@ -169,6 +171,42 @@ public class Analyzer {
         return analysis;
     }
 
+    /**
+     * Same as {@link #boundAnalyze(Statement, SessionContext, ParameterContext)}, but re-uses the analysis of a
+     * previous execution of the prepared statement if possible. See {@link PreparedAnalysis}.
+     */
+    public Analysis boundAnalyze(PreparedAnalysis preparedAnalysis,
+                                 SessionContext sessionContext,
+                                 ParameterContext parameterContext) {
+        Statement statement = preparedAnalysis.statement();
+        if (!preparedAnalysis.isCacheable()) {
+            return boundAnalyze(statement, sessionContext, parameterContext);
+        }
+        ParamTypeHints paramTypes = parameterContext.typeHints();
+        String defaultSchema = sessionContext.defaultSchema();
+        long schemasVersion = schemas.version();
+        if (!preparedAnalysis.matches(paramTypes, defaultSchema, schemasVersion)) {
+            AnalyzedRelation unboundRelation;
+            try {
+                unboundRelation = relationAnalyzer.analyzeUnbound((Query) statement, sessionContext, paramTypes);
+            } catch (RuntimeException e) {
+                // failures are raised by the analysis with the parameter values
+                return boundAnalyze(statement, sessionContext, parameterContext);
+            }
+            if (!preparedAnalysis.keep(unboundRelation, paramTypes, defaultSchema, schemasVersion)) {
+                return boundAnalyze(statement, sessionContext, parameterContext);
+            }
+        }
+        Analysis analysis = new Analysis(sessionContext, parameterContext, ParamTypeHints.EMPTY);
+        AnalyzedRelation boundRelation = relationAnalyzer.normalize(
+            preparedAnalysis.bind(parameterContext), analysis.transactionContext());
+        analysis.rootRelation(boundRelation);
+        AnalyzedStatement analyzedStatement = new SelectAnalyzedStatement((QueriedRelation) boundRelation);
+        sessionContext.ensureStatementAuthorized(analyzedStatement);
+        analysis.analyzedStatement(analyzedStatement);
+        return analysis;
+    }
+
     public AnalyzedRelation unboundAnalyze(Statement statement, SessionContext sessionContext, ParamTypeHints paramTypeHints) {
         return unboundAnalyzer.analyze(statement, sessionContext, paramTypeHints);
     }
@@ -183,7 +221,7 @@ public class Analyzer {
 
         @Override
         protected AnalyzedStatement visitQuery(Query node, Analysis analysis) {
-            AnalyzedRelation relation = relationAnalyzer.analyze(node.getQueryBody(), analysis);
+            AnalyzedRelation relation = relationAnalyzer.analyze(node, analysis);
             analysis.rootRelation(relation);
             return new SelectAnalyzedStatement((QueriedRelation) relation);
         }
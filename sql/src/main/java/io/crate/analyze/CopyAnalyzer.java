@@ -31,6 +31,7 @@ import io.crate.analyze.expressions.ExpressionToObjectVisitor;
 import io.crate.analyze.relations.DocTableRelation;
 import io.crate.analyze.relations.NameFieldProvider;
 import io.crate.analyze.relations.QueriedDocTable;
+import io.crate.analyze.symbol.Literal;
 import io.crate.analyze.symbol.Symbol;
 import io.crate.analyze.symbol.ValueSymbolVisitor;
 import io.crate.analyze.symbol.format.SymbolPrinter;
@@ -46,6 +47,7 @@ import io.crate.metadata.settings.SettingsAppliers;
 import io.crate.metadata.settings.StringSetting;
 import io.crate.metadata.table.Operation;
 import io.crate.metadata.table.TableInfo;
+import io.crate.operation.collect.files.StdinStreams;
 import io.crate.planner.projection.WriterProjection;
 import io.crate.sql.tree.*;
 import io.crate.types.CollectionType;
@@ -110,6 +112,18 @@ class CopyAnalyzer {
             nodeFilters = discoveryNodePredicate(analysis.parameterContext().parameters(), properties.remove(NodeFilters.NAME));
             settings = settingsFromProperties(properties, expressionAnalyzer, expressionAnalysisContext);
         }
+        if (node.fromStdin()) {
+            String format = CopyFromAnalyzedStatement.STDIN_FORMAT_SETTING.extract(settings);
+            String error = CopyFromAnalyzedStatement.STDIN_FORMAT_SETTING.validate(format);
+            if (error != null) {
+                throw new IllegalArgumentException(error);
+            }
+            if (settings.get("compression") != null) {
+                throw new IllegalArgumentException("compression is not supported for COPY FROM STDIN");
+            }
+            return new CopyFromAnalyzedStatement(
+                tableInfo, settings, Literal.of(StdinStreams.newUri()), partitionIdent, nodeFilters, true);
+        }
         Symbol uri = expressionAnalyzer.convert(node.path(), expressionAnalysisContext);
         uri = normalizer.normalize(uri, analysis.transactionContext());
 
@@ -119,7 +133,7 @@ class CopyAnalyzer {
             throw CopyFromAnalyzedStatement.raiseInvalidType(uri.valueType());
         }
 
-        return new CopyFromAnalyzedStatement(tableInfo, settings, uri, partitionIdent, nodeFilters);
+        return new CopyFromAnalyzedStatement(tableInfo, settings, uri, partitionIdent, nodeFilters, false);
     }
 
 
@@ -22,8 +22,10 @@
 
 package io.crate.analyze;
 
+import com.google.common.collect.ImmutableSet;
 import io.crate.analyze.symbol.Symbol;
 import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.settings.StringSetting;
 import io.crate.types.DataType;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.settings.Settings;
@@ -33,20 +35,29 @@ import java.util.function.Predicate;
 
 public class CopyFromAnalyzedStatement extends AbstractCopyAnalyzedStatement {
 
+    /**
+     * The format of the rows sent by the client for {@code COPY ... FROM STDIN}
+     */
+    public static final StringSetting STDIN_FORMAT_SETTING =
+        new StringSetting("format", ImmutableSet.of("json", "csv", "text", "binary"), "json");
+
     private final DocTableInfo table;
     @Nullable
     private final String partitionIdent;
     private final Predicate<DiscoveryNode> nodePredicate;
+    private final boolean fromStdin;
 
     public CopyFromAnalyzedStatement(DocTableInfo table,
                                      Settings settings,
                                      Symbol uri,
                                      @Nullable String partitionIdent,
-                                     Predicate<DiscoveryNode> nodePredicate) {
+                                     Predicate<DiscoveryNode> nodePredicate,
+                                     boolean fromStdin) {
         super(settings, uri);
         this.table = table;
         this.partitionIdent = partitionIdent;
         this.nodePredicate = nodePredicate;
+        this.fromStdin = fromStdin;
     }
 
     public DocTableInfo table() {
@@ -71,6 +82,18 @@ public class CopyFromAnalyzedStatement extends AbstractCopyAnalyzedStatement {
         return nodePredicate;
     }
 
+    /**
+     * @return true if the rows are sent by the client (COPY ... FROM STDIN).
+     *         The {@link #uri()} is then the uri of the stream under which the rows are registered.
+     */
+    public boolean fromStdin() {
+        return fromStdin;
+    }
+
+    public String stdinFormat() {
+        return STDIN_FORMAT_SETTING.extract(settings());
+    }
+
     @Override
     public boolean isWriteOperation() {
         return true;
@@ -95,9 +95,9 @@ public class InsertFromValuesAnalyzedStatement extends AbstractInsertAnalyzedSta
 
     public List<String> generatePartitions() {
         List<String> partitionValues = new ArrayList<>(partitionMaps.size());
+        List<String> columnNames = partitionedByColumnNames();
         for (Map<String, String> map : partitionMaps) {
             List<BytesRef> values = new ArrayList<>(map.size());
-            List<String> columnNames = partitionedByColumnNames();
             for (String columnName : columnNames) {
                 values.add(BytesRefs.toBytesRef(map.get(columnName)));
             }
@@ -150,6 +150,8 @@ class InsertFromValuesAnalyzer extends AbstractInsertAnalyzer {
             null,
             tableRelation);
         analyzeColumns(statement.tableInfo(), statement.columns());
+        Function<List<BytesRef>, String> idFunction =
+            Id.compileWithNullValidation(tableInfo.primaryKey(), tableInfo.clusteredBy());
         for (ValuesList valuesList : node.valuesLists()) {
             analyzeValues(
                 tableRelation,
@@ -164,7 +166,8 @@ class InsertFromValuesAnalyzer extends AbstractInsertAnalyzer {
                 node.onDuplicateKeyAssignments(),
                 statement,
                 analysis.parameterContext(),
-                refToLiteral);
+                refToLiteral,
+                idFunction);
         }
         return statement;
     }
@@ -211,14 +214,14 @@ class InsertFromValuesAnalyzer extends AbstractInsertAnalyzer {
                                List<Assignment> assignments,
                                InsertFromValuesAnalyzedStatement statement,
                                ParameterContext parameterContext,
-                               ReferenceToLiteralConverter refToLiteral) {
+                               ReferenceToLiteralConverter refToLiteral,
+                               Function<List<BytesRef>, String> idFunction) {
         validateValuesSize(node.values(), statement, tableRelation);
 
         try {
             DocTableInfo tableInfo = statement.tableInfo();
             int numPks = tableInfo.primaryKey().size();
-            Function<List<BytesRef>, String> idFunction =
-                Id.compileWithNullValidation(tableInfo.primaryKey(), tableInfo.clusteredBy());
+            int[] parameterIndices = parameterIndices(node.values());
             if (parameterContext.numBulkParams() > 0) {
                 for (int i = 0; i < parameterContext.numBulkParams(); i++) {
                     parameterContext.setBulkIdx(i);
@@ -237,6 +240,8 @@ class InsertFromValuesAnalyzer extends AbstractInsertAnalyzer {
                         refToLiteral,
                         numPks,
                         idFunction,
+                        parameterContext,
+                        parameterIndices,
                         i
                     );
                 }
@@ -256,6 +261,8 @@ class InsertFromValuesAnalyzer extends AbstractInsertAnalyzer {
                     refToLiteral,
                     numPks,
                     idFunction,
+                    parameterContext,
+                    parameterIndices,
                     -1
                 );
             }
@@ -264,6 +271,24 @@ class InsertFromValuesAnalyzer extends AbstractInsertAnalyzer {
         }
     }
 
+    /**
+     * Returns the parameter index of each value which is a plain parameter placeholder, -1 for all other values.
+     * The values of these parameters are bound directly for each row or bulk argument, instead of converting
+     * and normalizing the same expression again and again.
+     */
+    private static int[] parameterIndices(List<Expression> values) {
+        int[] parameterIndices = new int[values.size()];
+        for (int i = 0; i < parameterIndices.length; i++) {
+            Expression expression = values.get(i);
+            if (expression instanceof ParameterExpression) {
+                parameterIndices[i] = ((ParameterExpression) expression).index();
+            } else {
+                parameterIndices[i] = -1;
+            }
+        }
+        return parameterIndices;
+    }
+
     private void addValues(DocTableRelation tableRelation,
                            ValueNormalizer valueNormalizer,
                            EvaluatingNormalizer normalizer,
@@ -278,6 +303,8 @@ class InsertFromValuesAnalyzer extends AbstractInsertAnalyzer {
                            ReferenceToLiteralConverter refToLiteral,
                            int numPrimaryKeys,
                            Function<List<BytesRef>, String> idFunction,
+                           ParameterContext parameterContext,
+                           int[] parameterIndices,
                            int bulkIdx) throws IOException {
         DocTableInfo tableInfo = context.tableInfo();
         if (tableInfo.isPartitioned()) {
@@ -289,10 +316,17 @@ class InsertFromValuesAnalyzer extends AbstractInsertAnalyzer {
         Object[] insertValues = new Object[node.values().size()];
 
         for (int i = 0, valuesSize = node.values().size(); i < valuesSize; i++) {
-            Expression expression = node.values().get(i);
-            Symbol valuesSymbol = normalizer.normalize(
-                expressionAnalyzer.convert(expression, expressionAnalysisContext),
-                transactionContext);
+            Symbol valuesSymbol;
+            int parameterIdx = parameterIndices[i];
+            if (parameterIdx >= 0) {
+                // equal to the result of converting and normalizing the ParameterExpression
+                valuesSymbol = parameterContext.getAsSymbol(parameterIdx);
+            } else {
+                Expression expression = node.values().get(i);
+                valuesSymbol = normalizer.normalize(
+                    expressionAnalyzer.convert(expression, expressionAnalysisContext),
+                    transactionContext);
+            }
 
             // implicit type conversion
             Reference column = context.columns().get(i);
@@ -0,0 +1,183 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.analyze;
+
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.QueriedDocTable;
+import io.crate.analyze.symbol.Field;
+import io.crate.analyze.symbol.MatchPredicate;
+import io.crate.analyze.symbol.ParameterSymbol;
+import io.crate.analyze.symbol.SelectSymbol;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.analyze.symbol.SymbolVisitors;
+import io.crate.collections.Lists2;
+import io.crate.metadata.ReplaceMode;
+import io.crate.metadata.ReplacingSymbolVisitor;
+import io.crate.metadata.Schemas;
+import io.crate.sql.tree.Query;
+import io.crate.sql.tree.Statement;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Keeps the analysis of a prepared statement, so that it isn't analyzed again for each execution.
+ * <p>
+ * Only SELECT statements on a single doc table are kept. They are analyzed once with {@link ParameterSymbol}s
+ * instead of the parameter values. For each execution {@link #bind(ParameterContext)} copies the relation and
+ * replaces the parameter symbols with the values of the execution; the copy then only has to be normalized.
+ * The relation itself is never planned, because the planner modifies the relations it is given.
+ * </p>
+ * <p>
+ * The relation can be re-used as long as the types of the parameters, the default schema and the
+ * {@link Schemas#version()} are the same as when it was analyzed.
+ * </p>
+ */
+public final class PreparedAnalysis {
+
+    private static final ParameterBinder PARAMETER_BINDER = new ParameterBinder();
+
+    private final Statement statement;
+    private boolean cacheable;
+
+    @Nullable
+    private QueriedDocTable relation;
+    private ParamTypeHints paramTypes;
+    private String defaultSchema;
+    private long schemasVersion;
+
+    public PreparedAnalysis(Statement statement) {
+        this.statement = statement;
+        this.cacheable = statement instanceof Query;
+    }
+
+    public Statement statement() {
+        return statement;
+    }
+
+    boolean isCacheable() {
+        return cacheable;
+    }
+
+    /**
+     * @return true if a relation is kept which has been analyzed for the given parameter types, default schema and
+     *         schemas version. Otherwise the statement has to be analyzed again.
+     */
+    boolean matches(ParamTypeHints paramTypes, String defaultSchema, long schemasVersion) {
+        return relation != null
+               && this.schemasVersion == schemasVersion
+               && this.paramTypes.equals(paramTypes)
+               && Objects.equals(this.defaultSchema, defaultSchema);
+    }
+
+    /**
+     * Keeps the unbound relation of the statement if it can be bound to parameter values later on.
+     *
+     * @return false if the relation can't be kept; the statement must be analyzed with the parameter values then.
+     */
+    boolean keep(AnalyzedRelation relation, ParamTypeHints paramTypes, String defaultSchema, long schemasVersion) {
+        if (!canBind(relation)) {
+            cacheable = false;
+            this.relation = null;
+            return false;
+        }
+        this.relation = (QueriedDocTable) relation;
+        this.paramTypes = paramTypes;
+        this.defaultSchema = defaultSchema;
+        this.schemasVersion = schemasVersion;
+        return true;
+    }
+
+    /**
+     * Creates a copy of the kept relation with the values of the parameters instead of the parameter symbols.
+     */
+    QueriedDocTable bind(ParameterContext parameterContext) {
+        assert relation != null : "relation must be set before it can be bound";
+        QuerySpec querySpec = relation.querySpec();
+        Function<Symbol, Symbol> bind = s -> PARAMETER_BINDER.process(s, parameterContext);
+        QuerySpec boundQuerySpec = new QuerySpec()
+            .outputs(Lists2.copyAndReplace(querySpec.outputs(), bind))
+            .groupBy(querySpec.groupBy().map(groupBy -> Lists2.copyAndReplace(groupBy, bind)).orElse(null))
+            .orderBy(querySpec.orderBy().map(orderBy -> orderBy.copyAndReplace(bind)).orElse(null))
+            .limit(querySpec.limit().map(bind))
+            .offset(querySpec.offset().map(bind))
+            .hasAggregates(querySpec.hasAggregates());
+        WhereClause where = querySpec.where();
+        if (where.hasQuery()) {
+            boundQuerySpec.where(new WhereClause(bind.apply(where.query())));
+        } else {
+            boundQuerySpec.where(where);
+        }
+        Optional<HavingClause> having = querySpec.having();
+        if (having.isPresent() && having.get().hasQuery()) {
+            boundQuerySpec.having(new HavingClause(bind.apply(having.get().query())));
+        }
+        return new QueriedDocTable(
+            relation.tableRelation(), Lists2.copyAndReplace(relation.fields(), Field::path), boundQuerySpec);
+    }
+
+    /**
+     * Checks that binding the parameters after the analysis leads to the same relation as analyzing the statement
+     * with the parameter values.
+     */
+    private static boolean canBind(AnalyzedRelation relation) {
+        if (!(relation instanceof QueriedDocTable)) {
+            return false;
+        }
+        QuerySpec querySpec = ((QueriedDocTable) relation).querySpec();
+        // values in ORDER BY and GROUP BY refer to the outputs by their position, parameters don't
+        List<Symbol> positional = new ArrayList<>();
+        querySpec.orderBy().ifPresent(orderBy -> positional.addAll(orderBy.orderBySymbols()));
+        querySpec.groupBy().ifPresent(positional::addAll);
+        for (Symbol symbol : positional) {
+            if (SymbolVisitors.any(s -> s instanceof ParameterSymbol, symbol)) {
+                return false;
+            }
+        }
+        // the parameter binder doesn't copy sub-selects and match predicates
+        List<Symbol> symbols = new ArrayList<>();
+        querySpec.visitSymbols(symbols::add);
+        for (Symbol symbol : symbols) {
+            if (SymbolVisitors.any(s -> s instanceof SelectSymbol || s instanceof MatchPredicate, symbol)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class ParameterBinder extends ReplacingSymbolVisitor<ParameterContext> {
+
+        ParameterBinder() {
+            super(ReplaceMode.COPY);
+        }
+
+        @Override
+        public Symbol visitParameterSymbol(ParameterSymbol parameterSymbol, ParameterContext parameterContext) {
+            return parameterContext.getAsSymbol(parameterSymbol.index());
+        }
+    }
+}
@@ -26,6 +26,7 @@ import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.relations.AnalyzedRelationVisitor;
 import io.crate.analyze.relations.DocTableRelation;
 import io.crate.analyze.relations.QueriedDocTable;
+import io.crate.analyze.relations.QueriedRelation;
 import io.crate.analyze.relations.TableFunctionRelation;
 import io.crate.analyze.relations.TableRelation;
 import io.crate.analyze.symbol.Aggregation;
@@ -180,6 +181,15 @@ public class TableIdentsExtractor {
             return tableIdents;
         }
 
+        @Override
+        public Collection<TableIdent> visitUnionSelect(UnionSelect unionSelect, Void context) {
+            Collection<TableIdent> tableIdents = new HashSet<>(unionSelect.relations().size());
+            for (QueriedRelation relation : unionSelect.relations()) {
+                tableIdents.addAll(process(relation, context));
+            }
+            return tableIdents;
+        }
+
         @Override
         public Collection<TableIdent> visitTableRelation(TableRelation tableRelation, Void context) {
             return Collections.singletonList(tableRelation.tableInfo().ident());
@@ -0,0 +1,110 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.analyze;
+
+import io.crate.analyze.relations.AnalyzedRelationVisitor;
+import io.crate.analyze.relations.QueriedRelation;
+import io.crate.analyze.symbol.Field;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.exceptions.ColumnUnknownException;
+import io.crate.metadata.Path;
+import io.crate.metadata.table.Operation;
+import io.crate.sql.tree.QualifiedName;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The relation of a {@code UNION ALL}; contains the rows of all its relations.
+ *
+ * The fields have the names of the outputs of the first relation.
+ * The querySpec of the union only contains its ORDER BY, LIMIT and OFFSET, the outputs are the fields.
+ */
+public class UnionSelect implements QueriedRelation {
+
+    private final List<QueriedRelation> relations;
+    private final Fields fields;
+    private final QuerySpec querySpec;
+    private QualifiedName qualifiedName;
+
+    public UnionSelect(List<QueriedRelation> relations) {
+        assert relations.size() > 1 : "a union must have at least 2 relations";
+        this.relations = relations;
+        QueriedRelation first = relations.get(0);
+        List<Field> firstFields = first.fields();
+        this.fields = new Fields(firstFields.size());
+        List<Symbol> outputs = new ArrayList<>(firstFields.size());
+        for (Field field : firstFields) {
+            Field unionField = new Field(this, field.path(), field.valueType());
+            fields.add(field.path(), unionField);
+            outputs.add(unionField);
+        }
+        this.querySpec = new QuerySpec().outputs(outputs);
+        this.qualifiedName = first.getQualifiedName();
+    }
+
+    public List<QueriedRelation> relations() {
+        return relations;
+    }
+
+    @Override
+    public QuerySpec querySpec() {
+        return querySpec;
+    }
+
+    @Override
+    public <C, R> R accept(AnalyzedRelationVisitor<C, R> visitor, C context) {
+        return visitor.visitUnionSelect(this, context);
+    }
+
+    @Nullable
+    @Override
+    public Field getField(Path path, Operation operation) throws UnsupportedOperationException, ColumnUnknownException {
+        if (operation != Operation.READ) {
+            throw new UnsupportedOperationException("getField on UnionSelect is only supported for READ operations");
+        }
+        return fields.get(path);
+    }
+
+    @Override
+    public List<Field> fields() {
+        return fields.asList();
+    }
+
+    @Override
+    public QualifiedName getQualifiedName() {
+        return qualifiedName;
+    }
+
+    @Override
+    public void setQualifiedName(@Nonnull QualifiedName qualifiedName) {
+        this.qualifiedName = qualifiedName;
+    }
+
+    @Override
+    public String toString() {
+        return "UnionSelect{" + relations + '}';
+    }
+}
@@ -33,6 +33,7 @@ import io.crate.analyze.ParamTypeHints;
 import io.crate.analyze.QueriedSelectRelation;
 import io.crate.analyze.QueriedTable;
 import io.crate.analyze.QuerySpec;
+import io.crate.analyze.UnionSelect;
 import io.crate.analyze.WhereClause;
 import io.crate.analyze.expressions.ExpressionAnalysisContext;
 import io.crate.analyze.expressions.ExpressionAnalyzer;
@@ -40,6 +41,7 @@ import io.crate.analyze.expressions.SubqueryAnalyzer;
 import io.crate.analyze.relations.select.SelectAnalysis;
 import io.crate.analyze.relations.select.SelectAnalyzer;
 import io.crate.analyze.symbol.Aggregations;
+import io.crate.analyze.symbol.Field;
 import io.crate.analyze.symbol.Function;
 import io.crate.analyze.symbol.Literal;
 import io.crate.analyze.symbol.Symbol;
@@ -58,6 +60,7 @@ import io.crate.metadata.Functions;
 import io.crate.metadata.Path;
 import io.crate.metadata.Schemas;
 import io.crate.metadata.TableIdent;
+import io.crate.metadata.TransactionContext;
 import io.crate.metadata.doc.DocTableInfo;
 import io.crate.metadata.table.Operation;
 import io.crate.metadata.table.TableInfo;
@@ -117,8 +120,16 @@ public class RelationAnalyzer extends DefaultTraversalVisitor<AnalyzedRelation,
 
     public AnalyzedRelation analyze(Node node, StatementAnalysisContext statementContext) {
         AnalyzedRelation relation = process(node, statementContext);
+        return normalize(relation, statementContext.transactionContext());
+    }
+
+    /**
+     * Rewrites and normalizes a relation, as the last step of {@link #analyze(Node, StatementAnalysisContext)}.
+     * Can be used for relations of {@link #analyzeUnbound} once their parameters have been replaced with values.
+     */
+    public AnalyzedRelation normalize(AnalyzedRelation relation, TransactionContext transactionContext) {
         relation = SubselectRewriter.rewrite(relation);
-        return relationNormalizer.normalize(relation, statementContext.transactionContext());
+        return relationNormalizer.normalize(relation, transactionContext);
     }
 
     public AnalyzedRelation analyzeUnbound(Query query, SessionContext sessionContext, ParamTypeHints paramTypeHints) {
@@ -138,12 +149,94 @@ public class RelationAnalyzer extends DefaultTraversalVisitor<AnalyzedRelation,
 
     @Override
     protected AnalyzedRelation visitQuery(Query node, StatementAnalysisContext context) {
-        return process(node.getQueryBody(), context);
+        AnalyzedRelation relation = process(node.getQueryBody(), context);
+        if (relation instanceof UnionSelect) {
+            // ORDER BY, LIMIT and OFFSET of a query specification are part of the specification,
+            // those of a UNION are part of the query and apply to the rows of all relations.
+            analyzeUnionClauses((UnionSelect) relation, node, context);
+        }
+        return relation;
     }
 
     @Override
     protected AnalyzedRelation visitUnion(Union node, StatementAnalysisContext context) {
-        throw new UnsupportedFeatureException("UNION is not supported");
+        if (node.isDistinct()) {
+            throw new UnsupportedFeatureException("UNION DISTINCT is not supported");
+        }
+        List<QueriedRelation> relations = new ArrayList<>();
+        for (Relation relation : node.getRelations()) {
+            if (relation instanceof Union) {
+                // a UNION ALL b UNION ALL c is parsed as (a UNION ALL b) UNION ALL c
+                UnionSelect nested = (UnionSelect) process(relation, context);
+                relations.addAll(nested.relations());
+            } else {
+                relations.add((QueriedRelation) process(relation, context));
+            }
+        }
+        ensureUnionCompatible(relations);
+        return new UnionSelect(relations);
+    }
+
+    private static void ensureUnionCompatible(List<QueriedRelation> relations) {
+        List<Field> firstFields = relations.get(0).fields();
+        for (int i = 1; i < relations.size(); i++) {
+            List<Field> fields = relations.get(i).fields();
+            if (fields.size() != firstFields.size()) {
+                throw new IllegalArgumentException(
+                    "Number of output columns must be the same for all parts of a UNION");
+            }
+            for (int j = 0; j < fields.size(); j++) {
+                if (!fields.get(j).valueType().equals(firstFields.get(j).valueType())) {
+                    throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                        "Corresponding output columns at position: %d must be of the same type for all parts of a UNION",
+                        j + 1));
+                }
+            }
+        }
+    }
+
+    private void analyzeUnionClauses(UnionSelect unionSelect, Query node, StatementAnalysisContext context) {
+        ExpressionAnalyzer expressionAnalyzer = new ExpressionAnalyzer(
+            functions,
+            context.sessionContext(),
+            context.convertParamFunction(),
+            new NameFieldProvider(unionSelect),
+            null);
+        ExpressionAnalysisContext expressionAnalysisContext = new ExpressionAnalysisContext();
+        List<Symbol> outputs = unionSelect.querySpec().outputs();
+
+        List<SortItem> sortItems = node.getOrderBy();
+        if (!sortItems.isEmpty()) {
+            int size = sortItems.size();
+            List<Symbol> symbols = new ArrayList<>(size);
+            boolean[] reverseFlags = new boolean[size];
+            Boolean[] nullsFirst = new Boolean[size];
+            for (int i = 0; i < size; i++) {
+                SortItem sortItem = sortItems.get(i);
+                Symbol symbol = expressionAnalyzer.convert(sortItem.getSortKey(), expressionAnalysisContext);
+                if (symbol.symbolType().isValueSymbol()) {
+                    Literal longLiteral;
+                    try {
+                        longLiteral = Literal.convert(symbol, DataTypes.LONG);
+                    } catch (ClassCastException | IllegalArgumentException e) {
+                        throw new UnsupportedOperationException(String.format(Locale.ENGLISH,
+                            "Cannot use %s in ORDER BY clause", SymbolPrinter.INSTANCE.printSimple(symbol)));
+                    }
+                    symbol = ordinalOutputReference(outputs, longLiteral, "ORDER BY");
+                }
+                SemanticSortValidator.validate(symbol);
+                symbols.add(symbol);
+                reverseFlags[i] = sortItem.getOrdering() == SortItem.Ordering.DESCENDING;
+                nullsFirst[i] = nullsFirst(sortItem);
+            }
+            if (expressionAnalysisContext.hasAggregates) {
+                throw new UnsupportedOperationException("Aggregate functions are not allowed in the ORDER BY of a UNION");
+            }
+            unionSelect.querySpec().orderBy(new OrderBy(symbols, reverseFlags, nullsFirst));
+        }
+        unionSelect.querySpec()
+            .limit(optionalLongSymbol(node.getLimit(), expressionAnalyzer, expressionAnalysisContext))
+            .offset(optionalLongSymbol(node.getOffset(), expressionAnalyzer, expressionAnalysisContext));
     }
 
     @Override
@@ -392,22 +485,24 @@ public class RelationAnalyzer extends DefaultTraversalVisitor<AnalyzedRelation,
             }
 
             symbols.add(symbol);
-            switch (sortItem.getNullOrdering()) {
-                case FIRST:
-                    nullsFirst[i] = true;
-                    break;
-                case LAST:
-                    nullsFirst[i] = false;
-                    break;
-                case UNDEFINED:
-                    nullsFirst[i] = null;
-                    break;
-            }
+            nullsFirst[i] = nullsFirst(sortItem);
             reverseFlags[i] = sortItem.getOrdering() == SortItem.Ordering.DESCENDING;
         }
         return new OrderBy(symbols, reverseFlags, nullsFirst);
     }
 
+    @Nullable
+    private static Boolean nullsFirst(SortItem sortItem) {
+        switch (sortItem.getNullOrdering()) {
+            case FIRST:
+                return true;
+            case LAST:
+                return false;
+            default:
+                return null;
+        }
+    }
+
     private List<Symbol> analyzeGroupBy(SelectAnalysis selectAnalysis,
                                         List<Expression> groupBy,
                                         ExpressionAnalyzer expressionAnalyzer,
@@ -576,6 +671,9 @@ public class RelationAnalyzer extends DefaultTraversalVisitor<AnalyzedRelation,
         if (!context.currentRelationContext().isAliasedRelation()) {
             throw new UnsupportedOperationException("subquery in FROM must have an alias");
         }
+        if (node.getQuery().getQueryBody() instanceof Union) {
+            throw new UnsupportedFeatureException("UNION ALL is not supported in a subquery in FROM");
+        }
         return super.visitTableSubquery(node, context);
     }
 }
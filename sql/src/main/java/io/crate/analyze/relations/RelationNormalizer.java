@@ -99,5 +99,12 @@ public final class RelationNormalizer {
             Rewriter.tryRewriteOuterToInnerJoin(normalizer, mss);
             return mss;
         }
+
+        @Override
+        public AnalyzedRelation visitUnionSelect(UnionSelect unionSelect, TransactionContext context) {
+            unionSelect.relations().replaceAll(relation -> (QueriedRelation) process(relation, context));
+            unionSelect.querySpec().normalize(normalizer, context);
+            return unionSelect;
+        }
     }
 }
@@ -90,6 +90,13 @@ public final class SubselectRewriter {
             return subRelation;
         }
 
+        @Override
+        public AnalyzedRelation visitUnionSelect(UnionSelect unionSelect, QueriedSelectRelation parent) {
+            // the relations of a union are rewritten on their own; the union is never merged with a parent
+            unionSelect.relations().replaceAll(relation -> (QueriedRelation) process(relation, null));
+            return unionSelect;
+        }
+
         @Override
         public AnalyzedRelation visitQueriedTable(QueriedTable table, QueriedSelectRelation parent) {
             if (parent == null) {
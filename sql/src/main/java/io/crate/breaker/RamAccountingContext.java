@@ -177,6 +177,15 @@ public class RamAccountingContext {
         return breaker.getUsed() >= breaker.getLimit();
     }
 
+    /**
+     * Returns true if the breaker uses at least {@code ratio} of its limit.
+     * Always false if the breaker doesn't have a limit.
+     */
+    public boolean exceedsLimitRatio(double ratio) {
+        long limit = breaker.getLimit();
+        return limit > 0 && breaker.getUsed() >= limit * ratio;
+    }
+
     /**
      * Returns the configured bytes limit of the breaker
      */
@@ -36,6 +36,7 @@ import io.crate.planner.node.ExecutionPhases;
 import io.crate.planner.node.dql.Collect;
 import io.crate.planner.node.dql.CountPlan;
 import io.crate.planner.node.dql.QueryThenFetch;
+import io.crate.planner.node.dql.UnionPlan;
 import io.crate.planner.node.dql.join.NestedLoop;
 
 import javax.annotation.Nullable;
@@ -254,6 +255,18 @@ public final class NodeOperationTreeGenerator extends PlanVisitor<NodeOperationT
         return null;
     }
 
+    @Override
+    public Void visitUnionPlan(UnionPlan plan, NodeOperationTreeContext context) {
+        context.addPhase(plan.mergePhase());
+        List<Plan> subPlans = plan.subPlans();
+        for (int i = 0; i < subPlans.size(); i++) {
+            context.branch((byte) i);
+            process(subPlans.get(i), context);
+            context.leaveBranch();
+        }
+        return null;
+    }
+
     @Override
     protected Void visitPlan(Plan plan, NodeOperationTreeContext context) {
         throw new UnsupportedOperationException(String.format(Locale.ENGLISH, "Can't create NodeOperationTree from plan %s", plan));
@@ -0,0 +1,69 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.executor.transport;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.transport.TransportResponse;
+
+import java.io.IOException;
+
+public class ReaderVersionsResponse extends TransportResponse {
+
+    public static final long UNKNOWN_VERSION = -1L;
+
+    private long[] versions;
+
+    public ReaderVersionsResponse() {
+    }
+
+    public ReaderVersionsResponse(long[] versions) {
+        this.versions = versions;
+    }
+
+    /**
+     * The reader versions in the order of the shards of the request,
+     * {@link #UNKNOWN_VERSION} if the shard isn't started on the node.
+     */
+    public long[] versions() {
+        return versions;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        super.readFrom(in);
+        versions = new long[in.readVInt()];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = in.readLong();
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeVInt(versions.length);
+        for (long version : versions) {
+            out.writeLong(version);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.executor.transport;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Updates values in the source of a document without converting the whole source into a map.
+ *
+ * The tokens of the original source are copied to the new source, only the values of the changed paths are
+ * replaced. Fields which aren't changed are neither materialized nor re-encoded value by value,
+ * which makes updates of a few columns of wide documents cheap.
+ */
+final class SourceRewriter {
+
+    private SourceRewriter() {
+    }
+
+    /**
+     * Overwrite the values of the given paths in {@code source}, with the same semantics as
+     * {@link TransportShardUpsertAction#updateSourceByPaths(Map, Map)}.
+     *
+     * @return the new source or null if the changes contain conflicting paths (e.g. {@code o} and {@code o.x})
+     *         which can't be applied while streaming.
+     */
+    @Nullable
+    static BytesReference updateByPaths(BytesReference source, Map<String, Object> changes) throws IOException {
+        Level changesByField = Level.of(changes);
+        if (changesByField == null) {
+            return null;
+        }
+        try (XContentParser parser = XContentFactory.xContent(source).createParser(NamedXContentRegistry.EMPTY, source)) {
+            XContentBuilder builder = XContentFactory.contentBuilder(XContentFactory.xContentType(source));
+            if (parser.nextToken() != XContentParser.Token.START_OBJECT) {
+                throw new IllegalArgumentException("source must be an object");
+            }
+            copyObject(parser, builder, changesByField);
+            return builder.bytes();
+        }
+    }
+
+    /**
+     * Extract the value of {@code path} from the source, with the same result as
+     * {@link XContentMapValues#extractValue(String, Map)} on the source converted to a map.
+     */
+    @Nullable
+    static Object extractValue(BytesReference source, String path) throws IOException {
+        String[] pathElements = path.split("\\.");
+        try (XContentParser parser = XContentFactory.xContent(source).createParser(NamedXContentRegistry.EMPTY, source)) {
+            if (parser.nextToken() != XContentParser.Token.START_OBJECT) {
+                return null;
+            }
+            int idx = 0;
+            XContentParser.Token token;
+            while ((token = parser.nextToken()) == XContentParser.Token.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                token = parser.nextToken();
+                if (!fieldName.equals(pathElements[idx])) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (idx == pathElements.length - 1) {
+                    return readValue(parser, token);
+                }
+                if (token == XContentParser.Token.START_OBJECT) {
+                    // descend into the object, the next token is the first field of it
+                    idx++;
+                } else if (token == XContentParser.Token.START_ARRAY) {
+                    // values of objects within arrays are collected by XContentMapValues
+                    return XContentMapValues.extractValue(
+                        subPath(pathElements, idx),
+                        Collections.singletonMap(fieldName, parser.list()));
+                } else {
+                    return null;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static String subPath(String[] pathElements, int fromIdx) {
+        StringBuilder sb = new StringBuilder(pathElements[fromIdx]);
+        for (int i = fromIdx + 1; i < pathElements.length; i++) {
+            sb.append('.').append(pathElements[i]);
+        }
+        return sb.toString();
+    }
+
+    @Nullable
+    private static Object readValue(XContentParser parser, XContentParser.Token token) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+                return parser.mapOrdered();
+            case START_ARRAY:
+                return parser.list();
+            case VALUE_EMBEDDED_OBJECT:
+                return parser.binaryValue();
+            default:
+                return parser.objectText();
+        }
+    }
+
+    private static void copyObject(XContentParser parser, XContentBuilder builder, Level changes) throws IOException {
+        builder.startObject();
+        Map<String, Object> pendingValues = new LinkedHashMap<>(changes.values);
+        Map<String, Level> pendingChildren = new LinkedHashMap<>(changes.children);
+        XContentParser.Token token;
+        while ((token = parser.nextToken()) == XContentParser.Token.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            token = parser.nextToken();
+            builder.field(fieldName);
+            if (pendingValues.containsKey(fieldName)) {
+                builder.value(pendingValues.remove(fieldName));
+                parser.skipChildren();
+                continue;
+            }
+            Level childChanges = pendingChildren.remove(fieldName);
+            if (childChanges == null) {
+                builder.copyCurrentStructure(parser);
+            } else if (token == XContentParser.Token.START_OBJECT) {
+                copyObject(parser, builder, childChanges);
+            } else if (token == XContentParser.Token.VALUE_NULL) {
+                throw new NullPointerException(String.format(Locale.ENGLISH,
+                    "Object %s is null, cannot write %s onto it", fieldName, childChanges.paths));
+            } else {
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "Field %s is not an object, cannot write %s onto it", fieldName, childChanges.paths));
+            }
+        }
+        assert token == XContentParser.Token.END_OBJECT : "object must end with END_OBJECT";
+        for (Map.Entry<String, Object> entry : pendingValues.entrySet()) {
+            builder.field(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, Level> entry : pendingChildren.entrySet()) {
+            builder.field(entry.getKey());
+            writeNewObject(builder, entry.getValue());
+        }
+        builder.endObject();
+    }
+
+    private static void writeNewObject(XContentBuilder builder, Level changes) throws IOException {
+        builder.startObject();
+        for (Map.Entry<String, Object> entry : changes.values.entrySet()) {
+            builder.field(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, Level> entry : changes.children.entrySet()) {
+            builder.field(entry.getKey());
+            writeNewObject(builder, entry.getValue());
+        }
+        builder.endObject();
+    }
+
+    /**
+     * The changes of one object level, split into the values of its direct fields
+     * and the changes of its child objects.
+     */
+    private static class Level {
+
+        private final Map<String, Object> paths;
+        private final Map<String, Object> values = new LinkedHashMap<>();
+        private final Map<String, Level> children = new LinkedHashMap<>();
+
+        private Level(Map<String, Object> paths) {
+            this.paths = paths;
+        }
+
+        @Nullable
+        static Level of(Map<String, Object> paths) {
+            Level level = new Level(paths);
+            Map<String, Map<String, Object>> childPaths = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> entry : paths.entrySet()) {
+                String path = entry.getKey();
+                int dotIndex = path.indexOf('.');
+                if (dotIndex > -1) {
+                    childPaths
+                        .computeIfAbsent(path.substring(0, dotIndex), k -> new HashMap<>())
+                        .put(path.substring(dotIndex + 1), entry.getValue());
+                } else {
+                    level.values.put(path, entry.getValue());
+                }
+            }
+            for (Map.Entry<String, Map<String, Object>> entry : childPaths.entrySet()) {
+                if (level.values.containsKey(entry.getKey())) {
+                    return null;
+                }
+                Level child = of(entry.getValue());
+                if (child == null) {
+                    return null;
+                }
+                level.children.put(entry.getKey(), child);
+            }
+            return level;
+        }
+    }
+}
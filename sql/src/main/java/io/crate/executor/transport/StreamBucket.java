@@ -77,6 +77,18 @@ public class StreamBucket implements Bucket, Streamable {
             }
         }
 
+        /**
+         * Adds a row which has already been serialized using the same streamers as this builder.
+         */
+        public void addSerialized(BytesReference row) throws IOException {
+            size++;
+            row.writeTo(out);
+            if (ramAccountingContext != null) {
+                ramAccountingContext.addBytes(out.size() - prevOutSize);
+                prevOutSize = out.size();
+            }
+        }
+
         public void writeToStream(StreamOutput output) throws IOException {
             output.writeVInt(size);
             if (size > 0) {
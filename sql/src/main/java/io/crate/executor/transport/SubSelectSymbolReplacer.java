@@ -38,6 +38,7 @@ import io.crate.planner.node.dql.Collect;
 import io.crate.planner.node.dql.CountPlan;
 import io.crate.planner.node.dql.ESGet;
 import io.crate.planner.node.dql.QueryThenFetch;
+import io.crate.planner.node.dql.UnionPlan;
 import io.crate.planner.node.dql.join.NestedLoop;
 
 import javax.annotation.Nonnull;
@@ -122,6 +123,15 @@ class SubSelectSymbolReplacer implements FutureCallback<Object> {
             return null;
         }
 
+        @Override
+        public Void visitUnionPlan(UnionPlan plan, SymbolReplacer replacer) {
+            for (Plan subPlan : plan.subPlans()) {
+                process(subPlan, replacer);
+            }
+            plan.mergePhase().replaceSymbols(replacer);
+            return null;
+        }
+
         @Override
         public Void visitCountPlan(CountPlan countPlan, SymbolReplacer replacer) {
             countPlan.countPhase().replaceSymbols(replacer);
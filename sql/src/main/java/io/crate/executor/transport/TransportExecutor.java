@@ -55,6 +55,7 @@ import io.crate.operation.NodeJobsCounter;
 import io.crate.operation.NodeOperationTree;
 import io.crate.operation.collect.sources.SystemCollectSource;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
+import io.crate.operation.projectors.SpillDirectory;
 import io.crate.operation.user.UserManager;
 import io.crate.planner.Merge;
 import io.crate.planner.MultiPhasePlan;
@@ -72,6 +73,7 @@ import io.crate.planner.node.dml.Upsert;
 import io.crate.planner.node.dml.UpsertById;
 import io.crate.planner.node.dql.ESGet;
 import io.crate.planner.node.dql.QueryThenFetch;
+import io.crate.planner.node.dql.UnionPlan;
 import io.crate.planner.node.dql.join.NestedLoop;
 import io.crate.planner.node.management.ExplainPlan;
 import io.crate.planner.node.management.KillPlan;
@@ -130,7 +132,8 @@ public class TransportExecutor implements Executor {
                              IndicesService indicesService,
                              SystemCollectSource systemCollectSource,
                              DCLStatementDispatcher dclStatementDispatcher,
-                             UserManager userManager) {
+                             UserManager userManager,
+                             SpillDirectory spillDirectory) {
         this.jobContextService = jobContextService;
         this.contextPreparer = contextPreparer;
         this.transportActionProvider = transportActionProvider;
@@ -154,7 +157,8 @@ public class TransportExecutor implements Executor {
             new InputFactory(functions),
             normalizer,
             systemCollectSource::getRowUpdater,
-            systemCollectSource::tableDefinition
+            systemCollectSource::tableDefinition,
+            spillDirectory.path()
             );
     }
 
@@ -325,6 +329,15 @@ public class TransportExecutor implements Executor {
             return CompletableFuture.allOf(fLeft, fRight).thenApply(x -> plan);
         }
 
+        @Override
+        public CompletableFuture<Plan> visitUnionPlan(UnionPlan plan, Void context) {
+            CompletableFuture[] subPlanFutures = new CompletableFuture[plan.subPlans().size()];
+            for (int i = 0; i < subPlanFutures.length; i++) {
+                subPlanFutures[i] = process(plan.subPlans().get(i), context);
+            }
+            return CompletableFuture.allOf(subPlanFutures).thenApply(x -> plan);
+        }
+
         @Override
         public CompletableFuture<Plan> visitQueryThenFetch(QueryThenFetch qtf, Void context) {
             return process(qtf.subPlan(), context).thenApply(x -> qtf);
@@ -29,6 +29,7 @@ import io.crate.executor.transport.distributed.TransportDistributedResultAction;
 import io.crate.executor.transport.kill.TransportKillAllNodeAction;
 import io.crate.executor.transport.kill.TransportKillJobsNodeAction;
 import io.crate.lucene.LuceneQueryBuilder;
+import io.crate.operation.projectors.SpillDirectory;
 import org.elasticsearch.common.inject.AbstractModule;
 
 public class TransportExecutorModule extends AbstractModule {
@@ -39,6 +40,7 @@ public class TransportExecutorModule extends AbstractModule {
         bind(Executor.class).to(TransportExecutor.class).asEagerSingleton();
         bind(ContextPreparer.class).asEagerSingleton();
         bind(LuceneQueryBuilder.class).asEagerSingleton();
+        bind(SpillDirectory.class).asEagerSingleton();
 
         bind(TransportJobAction.class).asEagerSingleton();
         bind(TransportDistributedResultAction.class).asEagerSingleton();
@@ -48,6 +50,7 @@ public class TransportExecutorModule extends AbstractModule {
         bind(TransportKillAllNodeAction.class).asEagerSingleton();
         bind(TransportKillJobsNodeAction.class).asEagerSingleton();
         bind(TransportNodeStatsAction.class).asEagerSingleton();
+        bind(TransportReaderVersionsAction.class).asEagerSingleton();
         bind(TransportRenameTableAction.class).asEagerSingleton();
     }
 }
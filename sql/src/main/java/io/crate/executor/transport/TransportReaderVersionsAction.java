@@ -0,0 +1,105 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.executor.transport;
+
+import org.apache.lucene.store.AlreadyClosedException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionListenerResponseHandler;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.shard.IllegalIndexShardStateException;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Returns the versions of the current index readers of shards.
+ * The version of a reader changes once changes to the shard become visible to searches.
+ */
+@Singleton
+public class TransportReaderVersionsAction implements NodeAction<ReaderVersionsRequest, ReaderVersionsResponse> {
+
+    private static final String ACTION_NAME = "crate/sql/reader_versions";
+
+    // acquiring a searcher is cheap and doesn't block
+    private static final String EXECUTOR = ThreadPool.Names.SAME;
+
+    private final IndicesService indicesService;
+    private final Transports transports;
+
+    @Inject
+    public TransportReaderVersionsAction(TransportService transportService,
+                                         IndicesService indicesService,
+                                         Transports transports) {
+        this.indicesService = indicesService;
+        this.transports = transports;
+        transportService.registerRequestHandler(ACTION_NAME,
+            ReaderVersionsRequest::new,
+            EXECUTOR,
+            new NodeActionRequestHandler<>(this)
+        );
+    }
+
+    public void execute(String nodeId, ReaderVersionsRequest request, ActionListener<ReaderVersionsResponse> listener) {
+        transports.sendRequest(
+            ACTION_NAME,
+            nodeId,
+            request,
+            listener,
+            new ActionListenerResponseHandler<>(listener, ReaderVersionsResponse::new)
+        );
+    }
+
+    @Override
+    public CompletableFuture<ReaderVersionsResponse> nodeOperation(ReaderVersionsRequest request) {
+        List<ShardId> shardIds = request.shardIds();
+        long[] versions = new long[shardIds.size()];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = readerVersion(shardIds.get(i));
+        }
+        return CompletableFuture.completedFuture(new ReaderVersionsResponse(versions));
+    }
+
+    private long readerVersion(ShardId shardId) {
+        IndexService indexService = indicesService.indexService(shardId.getIndex());
+        if (indexService == null) {
+            return ReaderVersionsResponse.UNKNOWN_VERSION;
+        }
+        IndexShard indexShard = indexService.getShardOrNull(shardId.id());
+        if (indexShard == null) {
+            return ReaderVersionsResponse.UNKNOWN_VERSION;
+        }
+        try (Engine.Searcher searcher = indexShard.acquireSearcher("reader-versions")) {
+            return searcher.getDirectoryReader().getVersion();
+        } catch (IllegalIndexShardStateException | AlreadyClosedException e) {
+            return ReaderVersionsResponse.UNKNOWN_VERSION;
+        }
+    }
+}
@@ -39,6 +39,7 @@ import io.crate.metadata.table.Operation;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ElasticsearchGenerationException;
+import org.elasticsearch.ElasticsearchParseException;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.support.ActionFilters;
@@ -277,12 +278,6 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
                 indexShard.shardId(), Constants.DEFAULT_MAPPING_TYPE, item.id(), "TODO: add explanation");
         }
 
-        Tuple<XContentType, Map<String, Object>> sourceAndContent = XContentHelper.convertToMap(getResult.internalSourceRef(), true);
-        final Map<String, Object> updatedSourceAsMap;
-        final XContentType updateSourceContentType = sourceAndContent.v1();
-
-        updatedSourceAsMap = sourceAndContent.v2();
-
         SymbolToFieldExtractorContext ctx = new SymbolToFieldExtractorContext(functions, item.insertValues());
 
         Map<String, Object> pathsToUpdate = new LinkedHashMap<>();
@@ -315,6 +310,20 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
         // Currently the validation is done only for generated columns.
         processGeneratedColumns(tableInfo, pathsToUpdate, updatedGeneratedColumns, true, getResult);
 
+        try {
+            BytesReference updatedSource = SourceRewriter.updateByPaths(getResult.sourceRef(), pathsToUpdate);
+            if (updatedSource != null) {
+                return new SourceAndVersion(updatedSource, getResult.getVersion());
+            }
+        } catch (IOException e) {
+            throw new ElasticsearchGenerationException("Failed to update source with " + pathsToUpdate, e);
+        }
+
+        // the paths to update overlap, fall back to applying them one after another on the source map
+        Tuple<XContentType, Map<String, Object>> sourceAndContent =
+            XContentHelper.convertToMap(getResult.internalSourceRef(), true);
+        final XContentType updateSourceContentType = sourceAndContent.v1();
+        final Map<String, Object> updatedSourceAsMap = sourceAndContent.v2();
         updateSourceByPaths(updatedSourceAsMap, pathsToUpdate);
 
         try {
@@ -676,8 +685,13 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
                 if (getResult == null) {
                     return null;
                 }
-                return reference.valueType().value(XContentMapValues.extractValue(
-                    reference.ident().columnIdent().fqn(), getResult.sourceAsMap()));
+                try {
+                    // only scan the source for the value instead of converting the whole source into a map
+                    return reference.valueType().value(SourceRewriter.extractValue(
+                        getResult.sourceRef(), reference.ident().columnIdent().fqn()));
+                } catch (IOException e) {
+                    throw new ElasticsearchParseException("Failed to read [" + reference + "] from source", e);
+                }
             };
         }
     }
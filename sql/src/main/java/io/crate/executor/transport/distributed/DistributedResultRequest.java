@@ -37,6 +37,7 @@ public class DistributedResultRequest extends TransportRequest {
     private byte inputId;
     private int executionPhaseId;
     private int bucketIdx;
+    private int pageIdx = 0;
 
     private Streamer<?>[] streamers;
     private Bucket rows;
@@ -63,7 +64,22 @@ public class DistributedResultRequest extends TransportRequest {
                                     Streamer<?>[] streamers,
                                     Bucket rows,
                                     boolean isLast) {
+        this(jobId, executionPhaseId, inputId, bucketIdx, 0, streamers, rows, isLast);
+    }
+
+    /**
+     * @param pageIdx the number of the page sent by the upstream, starting with 0
+     */
+    public DistributedResultRequest(UUID jobId,
+                                    int executionPhaseId,
+                                    byte inputId,
+                                    int bucketIdx,
+                                    int pageIdx,
+                                    Streamer<?>[] streamers,
+                                    Bucket rows,
+                                    boolean isLast) {
         this(jobId, inputId, executionPhaseId, bucketIdx);
+        this.pageIdx = pageIdx;
         this.streamers = streamers;
         this.rows = rows;
         this.isLast = isLast;
@@ -96,6 +112,10 @@ public class DistributedResultRequest extends TransportRequest {
         return bucketIdx;
     }
 
+    public int pageIdx() {
+        return pageIdx;
+    }
+
     public void streamers(Streamer<?>[] streamers) {
         if (rows instanceof StreamBucket) {
             assert streamers != null : "streamers must not be null";
@@ -134,6 +154,7 @@ public class DistributedResultRequest extends TransportRequest {
         jobId = new UUID(in.readLong(), in.readLong());
         executionPhaseId = in.readVInt();
         bucketIdx = in.readVInt();
+        pageIdx = in.readVInt();
         isLast = in.readBoolean();
         inputId = in.readByte();
 
@@ -155,6 +176,7 @@ public class DistributedResultRequest extends TransportRequest {
         out.writeLong(jobId.getLeastSignificantBits());
         out.writeVInt(executionPhaseId);
         out.writeVInt(bucketIdx);
+        out.writeVInt(pageIdx);
         out.writeBoolean(isLast);
         out.writeByte(inputId);
 
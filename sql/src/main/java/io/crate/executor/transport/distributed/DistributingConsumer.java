@@ -44,8 +44,12 @@ import java.util.concurrent.atomic.AtomicInteger;
  * The rows from the source {@link BatchIterator} are "bucketed" using a {@link MultiBucketBuilder}. So a downstream
  * can either receive a part of the data or all data.
  *
- * Every time requests to the downstreams are made consumption of the source BatchIterator is stopped until a response
- * from all downstreams is received.
+ * Up to {@link #maxPagesInFlight} pages are sent without waiting for the responses of the downstreams, so that
+ * consuming the source BatchIterator overlaps with the network transfer. The downstreams only respond once they've
+ * consumed a page, so a slow downstream stops the consumption of the source.
+ * Pages are numbered so that the downstreams can process them in order.
+ *
+ * The last page and failures are only sent once all other pages have been answered.
  */
 public class DistributingConsumer implements BatchConsumer {
 
@@ -58,15 +62,28 @@ public class DistributingConsumer implements BatchConsumer {
     private final TransportDistributedResultAction distributedResultAction;
     private final Streamer<?>[] streamers;
     private final int pageSize;
+    private final int maxPagesInFlight;
     private final Bucket[] buckets;
     private final List<Downstream> downstreams;
     private final boolean traceEnabled;
+    private final Object lock = new Object();
 
     @VisibleForTesting
     final MultiBucketBuilder multiBucketBuilder;
 
     private volatile Throwable failure;
 
+    /**
+     * only accessed by the thread consuming the source BatchIterator
+     */
+    private int pageIdx = 0;
+
+    // guarded by lock
+    private int pagesInFlight = 0;
+    @Nullable
+    private Runnable waitingAction = null;
+    private int waitingForPagesInFlightBelow = 0;
+
     public DistributingConsumer(Logger logger,
                                 Executor responseExecutor,
                                 UUID jobId,
@@ -78,6 +95,23 @@ public class DistributingConsumer implements BatchConsumer {
                                 TransportDistributedResultAction distributedResultAction,
                                 Streamer<?>[] streamers,
                                 int pageSize) {
+        this(logger, responseExecutor, jobId, multiBucketBuilder, targetPhaseId, inputId, bucketIdx,
+            downstreamNodeIds, distributedResultAction, streamers, pageSize, 1);
+    }
+
+    public DistributingConsumer(Logger logger,
+                                Executor responseExecutor,
+                                UUID jobId,
+                                MultiBucketBuilder multiBucketBuilder,
+                                int targetPhaseId,
+                                byte inputId,
+                                int bucketIdx,
+                                Collection<String> downstreamNodeIds,
+                                TransportDistributedResultAction distributedResultAction,
+                                Streamer<?>[] streamers,
+                                int pageSize,
+                                int maxPagesInFlight) {
+        assert maxPagesInFlight > 0 : "maxPagesInFlight must be greater than 0";
         this.traceEnabled = logger.isTraceEnabled();
         this.logger = logger;
         this.responseExecutor = responseExecutor;
@@ -89,6 +123,7 @@ public class DistributingConsumer implements BatchConsumer {
         this.distributedResultAction = distributedResultAction;
         this.streamers = streamers;
         this.pageSize = pageSize;
+        this.maxPagesInFlight = maxPagesInFlight;
         this.buckets = new Bucket[downstreamNodeIds.size()];
         downstreams = new ArrayList<>(downstreamNodeIds.size());
         for (String downstreamNodeId : downstreamNodeIds) {
@@ -113,27 +148,106 @@ public class DistributingConsumer implements BatchConsumer {
                 multiBucketBuilder.add(row);
                 if (multiBucketBuilder.size() >= pageSize) {
                     forwardResults(it, false);
-                    return;
+                    if (mayContinueConsuming() == false) {
+                        runWhenPagesInFlightBelow(maxPagesInFlight, () -> continueOrStop(it));
+                        return;
+                    }
                 }
             }
             allLoaded = it.allLoaded();
         } catch (Throwable t) {
-            forwardFailure(it, t);
+            runWhenPagesInFlightBelow(1, () -> forwardFailure(it, t));
             return;
         }
         if (allLoaded) {
-            forwardResults(it, true);
+            runWhenPagesInFlightBelow(1, () -> {
+                if (failure == null) {
+                    forwardResults(it, true);
+                    runWhenPagesInFlightBelow(1, () -> continueOrStop(it));
+                } else {
+                    forwardFailure(it, failure);
+                }
+            });
         } else {
             it.loadNextBatch().whenComplete((r, t) -> {
                 if (t == null) {
                     consumeIt(it);
                 } else {
-                    forwardFailure(it, t);
+                    runWhenPagesInFlightBelow(1, () -> forwardFailure(it, t));
                 }
             });
         }
     }
 
+    private boolean mayContinueConsuming() {
+        if (failure != null || downstreams.stream().noneMatch(Downstream::needsMoreData)) {
+            return false;
+        }
+        synchronized (lock) {
+            return pagesInFlight < maxPagesInFlight;
+        }
+    }
+
+    /**
+     * Continue consuming the source if there are still downstreams which need more data,
+     * otherwise close it or forward the failure once all pages have been answered.
+     */
+    private void continueOrStop(BatchIterator it) {
+        if (failure == null && downstreams.stream().anyMatch(Downstream::needsMoreData)) {
+            consumeIt(it);
+        } else {
+            runWhenPagesInFlightBelow(1, () -> {
+                if (failure == null) {
+                    it.close();
+                } else {
+                    forwardFailure(it, failure);
+                }
+            });
+        }
+    }
+
+    /**
+     * Runs the action immediately if less than {@code limit} pages are in flight,
+     * otherwise once enough pages have been answered.
+     */
+    private void runWhenPagesInFlightBelow(int limit, Runnable action) {
+        synchronized (lock) {
+            if (pagesInFlight >= limit) {
+                assert waitingAction == null : "Only one action can wait for pages to be answered";
+                waitingAction = action;
+                waitingForPagesInFlightBelow = limit;
+                return;
+            }
+        }
+        action.run();
+    }
+
+    private void onPageAnswered(boolean sameExecutor) {
+        Runnable action = null;
+        synchronized (lock) {
+            pagesInFlight--;
+            if (waitingAction != null && pagesInFlight < waitingForPagesInFlightBelow) {
+                action = waitingAction;
+                waitingAction = null;
+            }
+        }
+        if (action == null) {
+            return;
+        }
+        if (sameExecutor) {
+            action.run();
+        } else {
+            // try to dispatch to different executor, if it fails, run the action in the same thread
+            // which will forward the error
+            try {
+                responseExecutor.execute(action);
+            } catch (EsRejectedExecutionException e) {
+                failure = e;
+                action.run();
+            }
+        }
+    }
+
     private void forwardFailure(@Nullable final BatchIterator it, final Throwable f) {
         Throwable failure = SQLExceptions.unwrap(f); // make sure it's streamable
         AtomicInteger numActiveRequests = new AtomicInteger(downstreams.size());
@@ -178,26 +292,31 @@ public class DistributingConsumer implements BatchConsumer {
 
     private void forwardResults(BatchIterator it, boolean isLast) {
         multiBucketBuilder.build(buckets);
+        int currentPageIdx = pageIdx++;
+        synchronized (lock) {
+            pagesInFlight++;
+        }
 
         AtomicInteger numActiveRequests = new AtomicInteger(downstreams.size());
         for (int i = 0; i < downstreams.size(); i++) {
             Downstream downstream = downstreams.get(i);
             if (downstream.needsMoreData == false) {
-                countdownAndMaybeContinue(it, numActiveRequests, true);
+                countdownAndMaybeAnswerPage(numActiveRequests, true);
                 continue;
             }
             if (traceEnabled) {
-                logger.trace("forwardResults targetNode={} targetPhase={}/{} bucket={} isLast={}",
-                    downstream.nodeId, targetPhaseId, inputId, bucketIdx, isLast);
+                logger.trace("forwardResults targetNode={} targetPhase={}/{} bucket={} page={} isLast={}",
+                    downstream.nodeId, targetPhaseId, inputId, bucketIdx, currentPageIdx, isLast);
             }
             distributedResultAction.pushResult(
                 downstream.nodeId,
-                new DistributedResultRequest(jobId, targetPhaseId, inputId, bucketIdx, streamers, buckets[i], isLast),
+                new DistributedResultRequest(
+                    jobId, targetPhaseId, inputId, bucketIdx, currentPageIdx, streamers, buckets[i], isLast),
                 new ActionListener<DistributedResultResponse>() {
                     @Override
                     public void onResponse(DistributedResultResponse response) {
                         downstream.needsMoreData = response.needMore();
-                        countdownAndMaybeContinue(it, numActiveRequests, false);
+                        countdownAndMaybeAnswerPage(numActiveRequests, false);
                     }
 
                     @Override
@@ -205,41 +324,23 @@ public class DistributingConsumer implements BatchConsumer {
                         failure = e;
                         downstream.needsMoreData = false;
                         // continue because it's necessary to send something to downstreams still waiting for data
-                        countdownAndMaybeContinue(it, numActiveRequests, false);
+                        countdownAndMaybeAnswerPage(numActiveRequests, false);
                     }
                 }
             );
         }
     }
 
-    private void countdownAndMaybeContinue(BatchIterator it, AtomicInteger numActiveRequests, boolean sameExecutor) {
+    private void countdownAndMaybeAnswerPage(AtomicInteger numActiveRequests, boolean sameExecutor) {
         if (numActiveRequests.decrementAndGet() == 0) {
-            if (downstreams.stream().anyMatch(Downstream::needsMoreData)) {
-                if (failure == null) {
-                    if (sameExecutor) {
-                        consumeIt(it);
-                    } else {
-                        // try to dispatch to different executor, if it fails, forward the error in the same thread
-                        try {
-                            responseExecutor.execute(() -> consumeIt(it));
-                        } catch (EsRejectedExecutionException e) {
-                            failure = e;
-                            forwardFailure(it, failure);
-                        }
-                    }
-                } else {
-                    forwardFailure(it, failure);
-                }
-            } else {
-                it.close();
-            }
+            onPageAnswered(sameExecutor);
         }
     }
 
     private static class Downstream {
 
         private final String nodeId;
-        private boolean needsMoreData = true;
+        private volatile boolean needsMoreData = true;
 
         Downstream(String nodeId) {
             this.nodeId = nodeId;
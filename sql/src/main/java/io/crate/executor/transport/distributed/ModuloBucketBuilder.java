@@ -32,17 +32,20 @@ import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * builds N buckets where N is passed in the CTOR.
  * The rows that are added via {@link #add(Row)} are assigned to the buckets by modulo calculation.
+ *
+ * Each bucket is guarded by its own builder, so threads adding rows only contend if they add to the same bucket.
  */
 public class ModuloBucketBuilder implements MultiBucketBuilder {
 
     private final int numBuckets;
     private final List<StreamBucket.Builder> bucketBuilders;
     private final int distributedByColumnIdx;
-    private volatile int size = 0;
+    private final AtomicInteger size = new AtomicInteger(0);
 
     public ModuloBucketBuilder(Streamer<?>[] streamers, int numBuckets, int distributedByColumnIdx) {
         this.numBuckets = numBuckets;
@@ -57,9 +60,9 @@ public class ModuloBucketBuilder implements MultiBucketBuilder {
     public void add(Row row) {
         final StreamBucket.Builder builder = bucketBuilders.get(getBucket(row));
         try {
-            synchronized (this) {
+            synchronized (builder) {
                 builder.add(row);
-                size++;
+                size.incrementAndGet();
             }
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -68,22 +71,27 @@ public class ModuloBucketBuilder implements MultiBucketBuilder {
 
     @Override
     public int size() {
-        return size;
+        return size.get();
     }
 
     @Override
-    public synchronized void build(Bucket[] buckets) {
+    public void build(Bucket[] buckets) {
         assert buckets.length == numBuckets : "length of the provided array must match numBuckets";
         for (int i = 0; i < numBuckets; i++) {
+            final StreamBucket.Builder builder = bucketBuilders.get(i);
+            final Bucket bucket;
             try {
-                final StreamBucket.Builder builder = bucketBuilders.get(i);
-                buckets[i] = builder.build();
-                builder.reset();
+                synchronized (builder) {
+                    bucket = builder.build();
+                    builder.reset();
+                }
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
+            buckets[i] = bucket;
+            // rows added concurrently to buckets which haven't been built yet remain counted
+            size.addAndGet(-bucket.size());
         }
-        size = 0;
     }
 
     /**
@@ -116,6 +116,7 @@ public class TransportDistributedResultAction extends AbstractComponent implemen
             try {
                 executor.execute(() -> pageBucketReceiver.setBucket(
                     request.bucketIdx(),
+                    request.pageIdx(),
                     request.rows(),
                     request.isLast(),
                     pageResultListener));
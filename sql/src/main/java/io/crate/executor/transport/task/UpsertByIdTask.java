@@ -60,9 +60,11 @@ import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -186,9 +188,12 @@ public class UpsertByIdTask extends JobTask {
 
     private CompletableFuture<BitSet> doExecute() {
         ClusterState state = clusterService.state();
-        List<String> indicesToCreate = new ArrayList<>();
+        Set<String> indices = new HashSet<>();
         for (UpsertById.Item item : items) {
-            String index = item.index();
+            indices.add(item.index());
+        }
+        List<String> indicesToCreate = new ArrayList<>();
+        for (String index : indices) {
             if (autoCreateIndex.shouldAutoCreate(index, state)) {
                 indicesToCreate.add(index);
             }
@@ -30,6 +30,13 @@ public interface PageBucketReceiver {
 
     void setBucket(int bucketIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener);
 
+    /**
+     * Set a page of an upstream which may send several pages without waiting for the response of the previous one.
+     * The pages of a bucket are processed in the order of their {@code pageIdx}, starting with 0.
+     * The {@code pageResultListener} is invoked once the page has been consumed.
+     */
+    void setBucket(int bucketIdx, int pageIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener);
+
     void failure(int bucketIdx, Throwable throwable);
 
     void killed(int bucketIdx, Throwable throwable);
@@ -41,6 +41,7 @@ import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.TreeMap;
 
 public class PageDownstreamContext extends AbstractExecutionSubContext implements DownstreamExecutionSubContext, PageBucketReceiver {
 
@@ -58,6 +59,16 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
     private final BatchConsumer consumer;
     private final BatchPagingIterator<Integer> batchPagingIterator;
 
+    // pages which are received while the previous page of the same bucket hasn't been consumed yet; guarded by lock
+    private final IntObjectHashMap<TreeMap<Integer, PendingPage>> pendingPagesByBucketIdx;
+    private final int[] nextPageIdx;
+    private final BitSet pagesInUse;
+    // set once the pending pages have been released, pages received afterwards are released right away
+    private boolean pendingPagesReleased = false;
+
+    // receivers of the inputs > 0, which map the bucketIdx of their upstreams behind the buckets of the previous inputs
+    private final PageBucketReceiver[] receiversByInput;
+
     private Throwable lastThrowable = null;
     private volatile boolean receivingFirstPage = true;
 
@@ -70,17 +81,46 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
                                  Streamer<?>[] streamers,
                                  RamAccountingContext ramAccountingContext,
                                  int numBuckets) {
+        this(logger, nodeName, id, name, batchConsumer, pagingIterator, streamers, ramAccountingContext,
+            new int[] { numBuckets });
+    }
+
+    /**
+     * Create a context which receives the buckets of several inputs.
+     * The buckets of all inputs are merged as if they were buckets of a single input.
+     *
+     * @param numBucketsByInput the number of buckets of each input, the sum must be the number of buckets
+     *                          the pagingIterator is created for.
+     */
+    public PageDownstreamContext(Logger logger,
+                                 String nodeName,
+                                 int id,
+                                 String name,
+                                 BatchConsumer batchConsumer,
+                                 PagingIterator<Integer, Row> pagingIterator,
+                                 Streamer<?>[] streamers,
+                                 RamAccountingContext ramAccountingContext,
+                                 int[] numBucketsByInput) {
         super(id, logger);
         this.nodeName = nodeName;
         this.name = name;
         this.streamers = streamers;
         this.ramAccountingContext = ramAccountingContext;
-        this.numBuckets = numBuckets;
+        int bucketOffset = 0;
+        this.receiversByInput = new PageBucketReceiver[numBucketsByInput.length];
+        for (int i = 0; i < numBucketsByInput.length; i++) {
+            receiversByInput[i] = i == 0 ? this : new OffsetBucketReceiver(bucketOffset);
+            bucketOffset += numBucketsByInput[i];
+        }
+        this.numBuckets = bucketOffset;
         traceEnabled = logger.isTraceEnabled();
         this.exhausted = new BitSet(numBuckets);
         this.pagingIterator = pagingIterator;
         this.bucketsByIdx = new IntObjectHashMap<>(numBuckets);
         this.listenersByBucketIdx = new IntObjectHashMap<>(numBuckets);
+        this.pendingPagesByBucketIdx = new IntObjectHashMap<>(numBuckets);
+        this.nextPageIdx = new int[numBuckets];
+        this.pagesInUse = new BitSet(numBuckets);
         batchPagingIterator = new BatchPagingIterator<>(
             pagingIterator,
             this::fetchMore,
@@ -96,9 +136,24 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
             cursor.value.needMore(false);
         }
         listenersByBucketIdx.clear();
+        releasePendingPages();
         close(throwable);
     }
 
+    private void releasePendingPages() {
+        List<PendingPage> pendingPages = new ArrayList<>();
+        synchronized (lock) {
+            pendingPagesReleased = true;
+            for (ObjectCursor<TreeMap<Integer, PendingPage>> cursor : pendingPagesByBucketIdx.values()) {
+                pendingPages.addAll(cursor.value.values());
+            }
+            pendingPagesByBucketIdx.clear();
+        }
+        for (PendingPage pendingPage : pendingPages) {
+            pendingPage.listener.needMore(false);
+        }
+    }
+
     private boolean allUpstreamsExhausted() {
         return exhausted.cardinality() == numBuckets;
     }
@@ -134,6 +189,56 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
         }
     }
 
+    @Override
+    public void setBucket(int bucketIdx, int pageIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener) {
+        boolean release;
+        synchronized (lock) {
+            boolean isNextPage = pagesInUse.get(bucketIdx) == false && pageIdx == nextPageIdx[bucketIdx];
+            // once the listeners have been released or an upstream failed nothing waits for queued pages anymore.
+            // The next page of a failed context is still set, it completes the current page of all buckets.
+            release = pendingPagesReleased || (lastThrowable != null && isNextPage == false);
+            if (release == false) {
+                if (isNextPage == false) {
+                    traceLog("method=setBucket page=" + pageIdx + " queued", bucketIdx);
+                    TreeMap<Integer, PendingPage> pendingPages = pendingPagesByBucketIdx.get(bucketIdx);
+                    if (pendingPages == null) {
+                        pendingPages = new TreeMap<>();
+                        pendingPagesByBucketIdx.put(bucketIdx, pendingPages);
+                    }
+                    pendingPages.put(pageIdx, new PendingPage(rows, isLast, pageResultListener));
+                    return;
+                }
+                pagesInUse.set(bucketIdx);
+                nextPageIdx[bucketIdx]++;
+            }
+        }
+        if (release) {
+            traceLog("method=setBucket page=" + pageIdx + " released", bucketIdx);
+            pageResultListener.needMore(false);
+            return;
+        }
+        setBucket(bucketIdx, rows, isLast, pageResultListener);
+    }
+
+    /**
+     * Called after the page of a bucket has been consumed. Sets the next page of the bucket if it has already been
+     * received.
+     */
+    private void setNextPendingPage(int bucketIdx) {
+        PendingPage nextPage;
+        synchronized (lock) {
+            pagesInUse.clear(bucketIdx);
+            TreeMap<Integer, PendingPage> pendingPages = pendingPagesByBucketIdx.get(bucketIdx);
+            if (pendingPages == null || pendingPages.isEmpty() || pendingPages.firstKey() != nextPageIdx[bucketIdx]) {
+                return;
+            }
+            nextPage = pendingPages.pollFirstEntry().getValue();
+            pagesInUse.set(bucketIdx);
+            nextPageIdx[bucketIdx]++;
+        }
+        setBucket(bucketIdx, nextPage.rows, nextPage.isLast, nextPage.listener);
+    }
+
     private void triggerConsumer() {
         boolean invokeConsumer = false;
         Throwable throwable;
@@ -196,17 +301,24 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
         }
         PageResultListener pageResultListener = listenersByBucketIdx.remove(exhaustedBucket);
         pageResultListener.needMore(true);
+        setNextPendingPage(exhaustedBucket);
     }
 
     private void fetchFromUnExhausted() {
+        List<Integer> fetchedBuckets = new ArrayList<>(numBuckets);
         for (int idx = 0; idx < numBuckets; idx++) {
             if (exhausted.get(idx)) {
                 setToEmptyBucket(idx);
             } else {
                 PageResultListener resultListener = listenersByBucketIdx.remove(idx);
                 resultListener.needMore(true);
+                fetchedBuckets.add(idx);
             }
         }
+        // done after all listeners have been released as setting the pages may already trigger the consumer
+        for (Integer idx : fetchedBuckets) {
+            setNextPendingPage(idx);
+        }
     }
 
     private void traceLog(String msg, int bucketIdx) {
@@ -302,6 +414,7 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
         if (shouldTriggerConsumer) {
             consumer.accept(null, t);
         }
+        releasePendingPages();
     }
 
     @Override
@@ -338,7 +451,55 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
     @Nullable
     @Override
     public PageBucketReceiver getBucketReceiver(byte inputId) {
-        assert inputId == 0 : "This downstream context only supports 1 input";
-        return this;
+        assert inputId < receiversByInput.length
+            : "This downstream context only supports " + receiversByInput.length + " inputs";
+        return receiversByInput[inputId];
+    }
+
+    private class OffsetBucketReceiver implements PageBucketReceiver {
+
+        private final int bucketOffset;
+
+        OffsetBucketReceiver(int bucketOffset) {
+            this.bucketOffset = bucketOffset;
+        }
+
+        @Override
+        public void setBucket(int bucketIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener) {
+            PageDownstreamContext.this.setBucket(bucketOffset + bucketIdx, rows, isLast, pageResultListener);
+        }
+
+        @Override
+        public void setBucket(int bucketIdx, int pageIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener) {
+            PageDownstreamContext.this.setBucket(bucketOffset + bucketIdx, pageIdx, rows, isLast, pageResultListener);
+        }
+
+        @Override
+        public void failure(int bucketIdx, Throwable throwable) {
+            PageDownstreamContext.this.failure(bucketOffset + bucketIdx, throwable);
+        }
+
+        @Override
+        public void killed(int bucketIdx, Throwable throwable) {
+            PageDownstreamContext.this.killed(bucketOffset + bucketIdx, throwable);
+        }
+
+        @Override
+        public Streamer<?>[] streamers() {
+            return streamers;
+        }
+    }
+
+    private static class PendingPage {
+
+        private final Bucket rows;
+        private final boolean isLast;
+        private final PageResultListener listener;
+
+        PendingPage(Bucket rows, boolean isLast, PageResultListener listener) {
+            this.rows = rows;
+            this.isLast = isLast;
+            this.listener = listener;
+        }
     }
 }
@@ -23,15 +23,21 @@
 package io.crate.lucene;
 
 import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.SymbolVisitors;
+import io.crate.analyze.symbol.format.SymbolPrinter;
 import io.crate.data.Input;
+import io.crate.metadata.FunctionInfo;
 import io.crate.operation.collect.collectors.CollectorFieldsVisitor;
 import io.crate.operation.projectors.InputCondition;
+import io.crate.operation.reference.doc.lucene.BytesRefColumnReference;
 import io.crate.operation.reference.doc.lucene.CollectorContext;
 import io.crate.operation.reference.doc.lucene.LuceneCollectorExpression;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.RandomAccessOrds;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.*;
+import org.apache.lucene.util.FixedBitSet;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
@@ -41,14 +47,27 @@ import java.util.Set;
 /**
  * Query implementation which filters docIds by evaluating {@code condition} on each docId to verify if it matches.
  *
- * This query is very slow.
+ * This query is slow, as the condition has to be evaluated for every document.
+ * If the condition only depends on a single string column which is read from the doc values,
+ * its result is memoized per ordinal, so that it is evaluated at most once per distinct value of a segment.
  */
 class GenericFunctionQuery extends Query {
 
+    private static final float STORED_FIELDS_MATCH_COST = 1000;
+    private static final float DOC_VALUES_MATCH_COST = 10;
+    private static final float ORDINALS_MATCH_COST = 2;
+
+    /**
+     * Upper bound for the number of ordinals of a segment whose results are memoized; the two bit sets take
+     * 2 bits per ordinal, so at most 256KB per segment.
+     */
+    static final long MAX_MEMOIZED_ORDINALS = 1 << 20;
+
     private final Function function;
     private final LuceneCollectorExpression[] expressions;
     private final CollectorContext collectorContext;
     private final Input<Boolean> condition;
+    private final boolean memoizeOrdinals;
 
     GenericFunctionQuery(Function function,
                          Collection<? extends LuceneCollectorExpression<?>> expressions,
@@ -59,6 +78,32 @@ class GenericFunctionQuery extends Query {
         this.expressions = expressions.toArray(new LuceneCollectorExpression[0]);
         this.collectorContext = collectorContext;
         this.condition = condition;
+        this.memoizeOrdinals = this.expressions.length == 1
+                               && this.expressions[0] instanceof BytesRefColumnReference
+                               && isDeterministic(function);
+    }
+
+    private static boolean isDeterministic(Function function) {
+        return !SymbolVisitors.any(
+            s -> s instanceof Function
+                 && !((Function) s).info().features().contains(FunctionInfo.Feature.DETERMINISTIC),
+            function);
+    }
+
+    Function function() {
+        return function;
+    }
+
+    LuceneCollectorExpression[] expressions() {
+        return expressions;
+    }
+
+    /**
+     * Memoizing the results per ordinal only pays off if the values repeat: a segment with about as many
+     * distinct values as documents would evaluate the condition just as often, but allocate the bit sets too.
+     */
+    static boolean memoizeOrdinals(long valueCount, int maxDoc) {
+        return valueCount <= MAX_MEMOIZED_ORDINALS && valueCount <= maxDoc / 2;
     }
 
     @Override
@@ -117,16 +162,25 @@ class GenericFunctionQuery extends Query {
         };
     }
 
-    private FilteredTwoPhaseIterator getTwoPhaseIterator(final LeafReaderContext context) throws IOException {
+    private TwoPhaseIterator getTwoPhaseIterator(final LeafReaderContext context) throws IOException {
         for (LuceneCollectorExpression expression : expressions) {
             expression.setNextReader(context);
         }
-        return new FilteredTwoPhaseIterator(context.reader(), collectorContext.visitor(), condition, expressions);
+        CollectorFieldsVisitor fieldsVisitor = collectorContext.visitor();
+        boolean fieldsVisitorEnabled = fieldsVisitor != null && fieldsVisitor.required();
+        if (memoizeOrdinals && !fieldsVisitorEnabled) {
+            RandomAccessOrds ordinals = ((BytesRefColumnReference) expressions[0]).ordinals();
+            int maxDoc = context.reader().maxDoc();
+            if (memoizeOrdinals(ordinals.getValueCount(), maxDoc)) {
+                return new OrdinalsTwoPhaseIterator(maxDoc, ordinals, condition, expressions[0]);
+            }
+        }
+        return new FilteredTwoPhaseIterator(context.reader(), fieldsVisitor, condition, expressions);
     }
 
     @Override
     public String toString(String field) {
-        return function.toString();
+        return SymbolPrinter.INSTANCE.printSimple(function);
     }
 
     private static class FilteredTwoPhaseIterator extends TwoPhaseIterator {
@@ -168,8 +222,64 @@ class GenericFunctionQuery extends Query {
 
         @Override
         public float matchCost() {
-            // Arbitrary number, we don't have a way to get the cost of the condition
-            return 10;
+            // Estimates, we don't have a way to get the cost of the condition itself.
+            // Loading the stored fields is a lot more expensive than reading the doc values.
+            if (fieldsVisitorEnabled) {
+                return STORED_FIELDS_MATCH_COST;
+            }
+            return Math.max(1, expressions.length) * DOC_VALUES_MATCH_COST;
+        }
+    }
+
+    /**
+     * Evaluates the condition once per ordinal of a single valued string column and memoizes the result.
+     * Documents without a value or with more than one value are evaluated each time.
+     */
+    private static class OrdinalsTwoPhaseIterator extends TwoPhaseIterator {
+
+        private final RandomAccessOrds ordinals;
+        private final Input<Boolean> condition;
+        private final LuceneCollectorExpression expression;
+        private final FixedBitSet evaluated;
+        private final FixedBitSet matched;
+
+        OrdinalsTwoPhaseIterator(int maxDoc,
+                                 RandomAccessOrds ordinals,
+                                 Input<Boolean> condition,
+                                 LuceneCollectorExpression expression) {
+            super(DocIdSetIterator.all(maxDoc));
+            this.ordinals = ordinals;
+            this.condition = condition;
+            this.expression = expression;
+            int valueCount = (int) ordinals.getValueCount();
+            this.evaluated = new FixedBitSet(valueCount);
+            this.matched = new FixedBitSet(valueCount);
+        }
+
+        @Override
+        public boolean matches() throws IOException {
+            int doc = approximation.docID();
+            ordinals.setDocument(doc);
+            if (ordinals.cardinality() != 1) {
+                expression.setNextDocId(doc);
+                return InputCondition.matches(condition);
+            }
+            int ord = (int) ordinals.ordAt(0);
+            if (evaluated.get(ord)) {
+                return matched.get(ord);
+            }
+            expression.setNextDocId(doc);
+            boolean match = InputCondition.matches(condition);
+            evaluated.set(ord);
+            if (match) {
+                matched.set(ord);
+            }
+            return match;
+        }
+
+        @Override
+        public float matchCost() {
+            return ORDINALS_MATCH_COST;
         }
     }
 }
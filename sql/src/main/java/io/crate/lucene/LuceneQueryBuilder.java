@@ -33,6 +33,7 @@ import io.crate.analyze.MatchOptionsAnalysis;
 import io.crate.analyze.WhereClause;
 import io.crate.analyze.symbol.Function;
 import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.RefReplacer;
 import io.crate.analyze.symbol.Symbol;
 import io.crate.analyze.symbol.SymbolType;
 import io.crate.analyze.symbol.SymbolVisitor;
@@ -45,10 +46,12 @@ import io.crate.geo.GeoJSONUtils;
 import io.crate.lucene.match.CrateRegexCapabilities;
 import io.crate.lucene.match.CrateRegexQuery;
 import io.crate.lucene.match.MatchQueries;
+import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.DocReferences;
 import io.crate.metadata.FunctionInfo;
 import io.crate.metadata.Functions;
 import io.crate.metadata.Reference;
+import io.crate.metadata.RowGranularity;
 import io.crate.metadata.doc.DocSysColumns;
 import io.crate.operation.InputFactory;
 import io.crate.operation.collect.DocInputFactory;
@@ -1213,6 +1216,20 @@ public class LuceneQueryBuilder {
         private static final RangeQuery gtQuery = new RangeQuery("gt");
         private static final RangeQuery gteQuery = new RangeQuery("gte");
         private static final WithinQuery withinQuery = new WithinQuery();
+
+        private static final Set<DataType> DOC_VALUES_TYPES = ImmutableSet.of(
+            DataTypes.BYTE,
+            DataTypes.SHORT,
+            DataTypes.INTEGER,
+            DataTypes.LONG,
+            DataTypes.TIMESTAMP,
+            DataTypes.FLOAT,
+            DataTypes.DOUBLE,
+            DataTypes.BOOLEAN,
+            DataTypes.STRING,
+            DataTypes.IP
+        );
+
         private final ImmutableMap<String, FunctionToQuery> functions =
             ImmutableMap.<String, FunctionToQuery>builder()
                 .put(WithinFunction.NAME, withinQuery)
@@ -1342,11 +1359,12 @@ public class LuceneQueryBuilder {
             if (function.valueType() != DataTypes.BOOLEAN) {
                 raiseUnsupported(function);
             }
-            // avoid field-cache
-            // reason1: analyzed columns or columns with index off wouldn't work
+            // read single valued columns with doc values from the doc values, everything else from the source
+            // reason1: analyzed columns or columns with index off wouldn't work with the field-cache
             //   substr(n, 1, 1) in the case of n => analyzed would throw an error because n would be an array
-            // reason2: would have to load each value into the field cache
-            function = (Function) DocReferences.toSourceLookup(function);
+            // reason2: columns without doc values would have to load each value into the field cache
+            function = (Function) RefReplacer.replaceRefs(
+                function, ref -> canUseDocValues(ref, context) ? ref : DocReferences.toSourceLookup(ref));
 
             final InputFactory.Context<? extends LuceneCollectorExpression<?>> ctx = context.docInputFactory.getCtx();
             @SuppressWarnings("unchecked")
@@ -1364,6 +1382,23 @@ public class LuceneQueryBuilder {
             return new GenericFunctionQuery(function, expressions, collectorContext, condition);
         }
 
+        /**
+         * Returns true if the values of {@code ref} can be read from the doc values instead of the source.
+         * This is the case for top-level, not analyzed columns of primitive types which have doc values.
+         */
+        static boolean canUseDocValues(Reference ref, Context context) {
+            ColumnIdent column = ref.ident().columnIdent();
+            if (!column.isColumn()
+                || column.isSystemColumn()
+                || ref.granularity() != RowGranularity.DOC
+                || ref.indexType() != Reference.IndexType.NOT_ANALYZED
+                || !DOC_VALUES_TYPES.contains(ref.valueType())) {
+                return false;
+            }
+            MappedFieldType fieldType = context.getFieldTypeOrNull(column.fqn());
+            return fieldType != null && fieldType.hasDocValues();
+        }
+
         private static Query raiseUnsupported(Function function) {
             throw new UnsupportedOperationException(
                 SymbolFormatter.format("Cannot convert function %s into a query", function));
@@ -53,6 +53,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -68,6 +69,7 @@ public class Schemas extends AbstractLifecycleComponent implements Iterable<Sche
     private final DocSchemaInfoFactory docSchemaInfoFactory;
     private final Map<String, SchemaInfo> schemas = new ConcurrentHashMap<>();
     private final Map<String, SchemaInfo> builtInSchemas;
+    private final AtomicLong version = new AtomicLong();
 
     private final DefaultTemplateService defaultTemplateService;
 
@@ -132,6 +134,18 @@ public class Schemas extends AbstractLifecycleComponent implements Iterable<Sche
         }
     }
 
+    /**
+     * The version is incremented each time the cluster metadata changed, after the schemas and their table infos
+     * have been updated. Anything derived from the table infos must be discarded once the version changed.
+     * <p>
+     * To make sure that nothing derived from outdated table infos is kept, the version must be read before the
+     * table infos are looked up.
+     * </p>
+     */
+    public long version() {
+        return version.get();
+    }
+
     @Nonnull
     public Iterator<SchemaInfo> iterator() {
         return schemas.values().iterator();
@@ -167,6 +181,7 @@ public class Schemas extends AbstractLifecycleComponent implements Iterable<Sche
                 schemaInfo.update(event);
             }
         }
+        version.incrementAndGet();
     }
 
     @VisibleForTesting
@@ -0,0 +1,124 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.metadata.sys;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.WhereClause;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Routing;
+import io.crate.metadata.RowContextCollectorExpression;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.expressions.RowCollectExpressionFactory;
+import io.crate.metadata.table.ColumnRegistrar;
+import io.crate.metadata.table.StaticTableInfo;
+import io.crate.planner.TableStats.ColumnStatsEntry;
+import io.crate.types.ArrayType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.lucene.BytesRefs;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The column statistics which are sampled periodically by the {@link io.crate.planner.TableStatsService}
+ * on the node which executes the query.
+ */
+public class SysColumnStatsTableInfo extends StaticTableInfo {
+
+    public static final TableIdent IDENT = new TableIdent(SysSchemaInfo.NAME, "column_stats");
+    private static final List<ColumnIdent> PRIMARY_KEYS =
+        ImmutableList.of(Columns.SCHEMA_NAME, Columns.TABLE_NAME, Columns.COLUMN_NAME);
+    private static final RowGranularity GRANULARITY = RowGranularity.DOC;
+
+    public static class Columns {
+        static final ColumnIdent SCHEMA_NAME = new ColumnIdent("schema_name");
+        static final ColumnIdent TABLE_NAME = new ColumnIdent("table_name");
+        static final ColumnIdent COLUMN_NAME = new ColumnIdent("column_name");
+        static final ColumnIdent NULL_FRACTION = new ColumnIdent("null_fraction");
+        static final ColumnIdent APPROX_DISTINCT = new ColumnIdent("approx_distinct");
+        static final ColumnIdent MIN_VALUE = new ColumnIdent("min_value");
+        static final ColumnIdent MAX_VALUE = new ColumnIdent("max_value");
+        static final ColumnIdent HISTOGRAM = new ColumnIdent("histogram");
+    }
+
+    public static Map<ColumnIdent, RowCollectExpressionFactory<ColumnStatsEntry>> expressions() {
+        return ImmutableMap.<ColumnIdent, RowCollectExpressionFactory<ColumnStatsEntry>>builder()
+            .put(Columns.SCHEMA_NAME,
+                () -> RowContextCollectorExpression.objToBytesRef((ColumnStatsEntry e) -> e.tableIdent().schema()))
+            .put(Columns.TABLE_NAME,
+                () -> RowContextCollectorExpression.objToBytesRef((ColumnStatsEntry e) -> e.tableIdent().name()))
+            .put(Columns.COLUMN_NAME,
+                () -> RowContextCollectorExpression.objToBytesRef((ColumnStatsEntry e) -> e.column().sqlFqn()))
+            .put(Columns.NULL_FRACTION,
+                () -> RowContextCollectorExpression.forFunction((ColumnStatsEntry e) -> e.stats().nullFraction()))
+            .put(Columns.APPROX_DISTINCT,
+                () -> RowContextCollectorExpression.forFunction((ColumnStatsEntry e) -> e.stats().approxDistinct()))
+            .put(Columns.MIN_VALUE,
+                () -> RowContextCollectorExpression.objToBytesRef((ColumnStatsEntry e) -> e.stats().minValue()))
+            .put(Columns.MAX_VALUE,
+                () -> RowContextCollectorExpression.objToBytesRef((ColumnStatsEntry e) -> e.stats().maxValue()))
+            .put(Columns.HISTOGRAM,
+                () -> RowContextCollectorExpression.forFunction(SysColumnStatsTableInfo::histogram))
+            .build();
+    }
+
+    private static BytesRef[] histogram(ColumnStatsEntry entry) {
+        List<Object> histogram = entry.stats().histogram();
+        BytesRef[] bounds = new BytesRef[histogram.size()];
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = BytesRefs.toBytesRef(histogram.get(i));
+        }
+        return bounds;
+    }
+
+    private final ClusterService clusterService;
+
+    SysColumnStatsTableInfo(ClusterService clusterService) {
+        super(IDENT, new ColumnRegistrar(IDENT, GRANULARITY)
+            .register(Columns.SCHEMA_NAME, DataTypes.STRING)
+            .register(Columns.TABLE_NAME, DataTypes.STRING)
+            .register(Columns.COLUMN_NAME, DataTypes.STRING)
+            .register(Columns.NULL_FRACTION, DataTypes.DOUBLE)
+            .register(Columns.APPROX_DISTINCT, DataTypes.DOUBLE)
+            .register(Columns.MIN_VALUE, DataTypes.STRING)
+            .register(Columns.MAX_VALUE, DataTypes.STRING)
+            .register(Columns.HISTOGRAM, new ArrayType(DataTypes.STRING)), PRIMARY_KEYS);
+        this.clusterService = clusterService;
+    }
+
+    @Override
+    public RowGranularity rowGranularity() {
+        return GRANULARITY;
+    }
+
+    @Override
+    public Routing getRouting(WhereClause whereClause, @Nullable String preference, SessionContext sessionContext) {
+        return Routing.forTableOnSingleNode(IDENT, clusterService.localNode().getId());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.metadata.sys;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.crate.action.sql.QueryResultCache;
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.WhereClause;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Routing;
+import io.crate.metadata.RowContextCollectorExpression;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.expressions.RowCollectExpressionFactory;
+import io.crate.metadata.table.ColumnRegistrar;
+import io.crate.metadata.table.StaticTableInfo;
+import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.service.ClusterService;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The statistics of the {@link QueryResultCache} of each node.
+ */
+public class SysQueryResultCacheTableInfo extends StaticTableInfo {
+
+    public static final TableIdent IDENT = new TableIdent(SysSchemaInfo.NAME, "query_result_cache");
+    private static final List<ColumnIdent> PRIMARY_KEYS = ImmutableList.of(Columns.NODE_ID);
+    private static final RowGranularity GRANULARITY = RowGranularity.DOC;
+
+    public static class Columns {
+        static final ColumnIdent NODE_ID = new ColumnIdent("node_id");
+        static final ColumnIdent ENTRIES = new ColumnIdent("entries");
+        static final ColumnIdent SIZE = new ColumnIdent("size");
+        static final ColumnIdent HITS = new ColumnIdent("hits");
+        static final ColumnIdent MISSES = new ColumnIdent("misses");
+        static final ColumnIdent EVICTIONS = new ColumnIdent("evictions");
+    }
+
+    public static Map<ColumnIdent, RowCollectExpressionFactory<QueryResultCache>> expressions() {
+        return ImmutableMap.<ColumnIdent, RowCollectExpressionFactory<QueryResultCache>>builder()
+            .put(Columns.NODE_ID,
+                () -> RowContextCollectorExpression.objToBytesRef(QueryResultCache::nodeId))
+            .put(Columns.ENTRIES,
+                () -> RowContextCollectorExpression.forFunction(QueryResultCache::entries))
+            .put(Columns.SIZE,
+                () -> RowContextCollectorExpression.forFunction(QueryResultCache::sizeInBytes))
+            .put(Columns.HITS,
+                () -> RowContextCollectorExpression.forFunction(QueryResultCache::hits))
+            .put(Columns.MISSES,
+                () -> RowContextCollectorExpression.forFunction(QueryResultCache::misses))
+            .put(Columns.EVICTIONS,
+                () -> RowContextCollectorExpression.forFunction(QueryResultCache::evictions))
+            .build();
+    }
+
+    private final ClusterService clusterService;
+
+    SysQueryResultCacheTableInfo(ClusterService clusterService) {
+        super(IDENT, new ColumnRegistrar(IDENT, GRANULARITY)
+            .register(Columns.NODE_ID, DataTypes.STRING)
+            .register(Columns.ENTRIES, DataTypes.LONG)
+            .register(Columns.SIZE, DataTypes.LONG)
+            .register(Columns.HITS, DataTypes.LONG)
+            .register(Columns.MISSES, DataTypes.LONG)
+            .register(Columns.EVICTIONS, DataTypes.LONG), PRIMARY_KEYS);
+        this.clusterService = clusterService;
+    }
+
+    @Override
+    public RowGranularity rowGranularity() {
+        return GRANULARITY;
+    }
+
+    @Override
+    public Routing getRouting(WhereClause whereClause, @Nullable String preference, SessionContext sessionContext) {
+        return Routing.forTableOnAllNodes(IDENT, clusterService.state().nodes());
+    }
+}
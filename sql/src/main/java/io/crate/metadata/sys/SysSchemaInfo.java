@@ -57,6 +57,8 @@ public class SysSchemaInfo implements SchemaInfo {
         tableInfos.put(SysRepositoriesTableInfo.IDENT.name(), new SysRepositoriesTableInfo(clusterService));
         tableInfos.put(SysSnapshotsTableInfo.IDENT.name(), new SysSnapshotsTableInfo(clusterService));
         tableInfos.put(SysSummitsTableInfo.IDENT.name(), new SysSummitsTableInfo(clusterService));
+        tableInfos.put(SysColumnStatsTableInfo.IDENT.name(), new SysColumnStatsTableInfo(clusterService));
+        tableInfos.put(SysQueryResultCacheTableInfo.IDENT.name(), new SysQueryResultCacheTableInfo(clusterService));
     }
 
     @Override
@@ -23,6 +23,7 @@
 package io.crate.metadata.sys;
 
 import com.google.common.annotations.VisibleForTesting;
+import io.crate.action.sql.QueryResultCache;
 import io.crate.metadata.TableIdent;
 import io.crate.metadata.sys.SysChecksTableInfo;
 import io.crate.metadata.sys.SysJobsLogTableInfo;
@@ -41,9 +42,11 @@ import io.crate.operation.reference.sys.check.SysChecker;
 import io.crate.operation.reference.sys.check.node.SysNodeChecks;
 import io.crate.operation.reference.sys.snapshot.SysSnapshot;
 import io.crate.operation.reference.sys.snapshot.SysSnapshots;
+import io.crate.planner.TableStats;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.repositories.RepositoriesService;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -61,7 +64,9 @@ public class SysTableDefinitions {
                                Set<SysCheck> sysChecks,
                                SysNodeChecks sysNodeChecks,
                                RepositoriesService repositoriesService,
-                               SysSnapshots sysSnapshots) {
+                               SysSnapshots sysSnapshots,
+                               TableStats tableStats,
+                               QueryResultCache queryResultCache) {
         tableDefinitions.put(SysJobsTableInfo.IDENT, new StaticTableDefinition<>(
             () -> completedFuture(jobsLogs.activeJobs()),
             SysJobsTableInfo.expressions()
@@ -103,6 +108,14 @@ public class SysTableDefinitions {
             () -> completedFuture(summits),
             SysSummitsTableInfo.expressions()
         ));
+        tableDefinitions.put(SysColumnStatsTableInfo.IDENT, new StaticTableDefinition<>(
+            () -> completedFuture(tableStats.columnStatsEntries()),
+            SysColumnStatsTableInfo.expressions()
+        ));
+        tableDefinitions.put(SysQueryResultCacheTableInfo.IDENT, new StaticTableDefinition<>(
+            () -> completedFuture(Collections.singletonList(queryResultCache)),
+            SysQueryResultCacheTableInfo.expressions()
+        ));
     }
 
     public StaticTableDefinition<?> get(TableIdent tableIdent) {
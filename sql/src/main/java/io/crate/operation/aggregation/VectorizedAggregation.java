@@ -0,0 +1,51 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.aggregation;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.ColumnBatch;
+import io.crate.data.ColumnVector;
+
+import javax.annotation.Nullable;
+
+/**
+ * Implemented by {@link AggregationFunction}s which can aggregate all selected rows of a {@link ColumnBatch}
+ * in a single call instead of row by row.
+ *
+ * @param <TPartial> the state type of the aggregation function
+ */
+public interface VectorizedAggregation<TPartial> {
+
+    /**
+     * The batch-wise equivalent of
+     * {@link AggregationFunction#iterate(RamAccountingContext, Object, io.crate.data.Input...)}.
+     *
+     * @param batch the batch; only the positions in {@link ColumnBatch#selected()} must be aggregated
+     * @param arg   the vector of the argument of the aggregation or null if it doesn't have any arguments
+     * @return the new state
+     */
+    TPartial iterate(RamAccountingContext ramAccountingContext,
+                     TPartial state,
+                     ColumnBatch batch,
+                     @Nullable ColumnVector arg);
+}
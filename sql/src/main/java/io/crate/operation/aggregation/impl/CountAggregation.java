@@ -29,8 +29,11 @@ import io.crate.analyze.symbol.Symbol;
 import io.crate.analyze.symbol.ValueSymbolVisitor;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.metadata.*;
+import io.crate.data.ColumnBatch;
+import io.crate.data.ColumnVector;
 import io.crate.data.Input;
 import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.VectorizedAggregation;
 import io.crate.types.DataType;
 import io.crate.types.DataTypeFactory;
 import io.crate.types.DataTypes;
@@ -38,10 +41,12 @@ import io.crate.types.FixedWidthType;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.List;
 
-public class CountAggregation extends AggregationFunction<CountAggregation.LongState, Long> {
+public class CountAggregation extends AggregationFunction<CountAggregation.LongState, Long>
+    implements VectorizedAggregation<CountAggregation.LongState> {
 
     public static final String NAME = "count";
     private final FunctionInfo info;
@@ -89,6 +94,25 @@ public class CountAggregation extends AggregationFunction<CountAggregation.LongS
         return state;
     }
 
+    @Override
+    public LongState iterate(RamAccountingContext ramAccountingContext,
+                             LongState state,
+                             ColumnBatch batch,
+                             @Nullable ColumnVector arg) {
+        if (!hasArgs || arg.noNulls) {
+            return state.add(batch.size());
+        }
+        int[] selected = batch.selected();
+        boolean[] isNull = arg.isNull;
+        long count = 0L;
+        for (int i = 0; i < batch.size(); i++) {
+            if (!isNull[selected[i]]) {
+                count++;
+            }
+        }
+        return state.add(count);
+    }
+
     @Override
     public LongState newState(RamAccountingContext ramAccountingContext) {
         ramAccountingContext.addBytes(LongStateType.INSTANCE.fixedSize());
@@ -23,17 +23,22 @@ package io.crate.operation.aggregation.impl;
 
 import com.google.common.annotations.VisibleForTesting;
 import io.crate.breaker.RamAccountingContext;
+import io.crate.data.ColumnBatch;
+import io.crate.data.ColumnVector;
+import io.crate.data.DoubleColumnVector;
 import io.crate.data.Input;
+import io.crate.data.LongColumnVector;
 import io.crate.metadata.FunctionIdent;
 import io.crate.metadata.FunctionInfo;
 import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.VectorizedAggregation;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
 
 import java.util.Collections;
 
-public class SumAggregation extends AggregationFunction<Double, Double> {
+public class SumAggregation extends AggregationFunction<Double, Double> implements VectorizedAggregation<Double> {
 
     public static final String NAME = "sum";
 
@@ -59,6 +64,43 @@ public class SumAggregation extends AggregationFunction<Double, Double> {
         return reduce(ramAccountingContext, state, DataTypes.DOUBLE.value(args[0].value()));
     }
 
+    /**
+     * Adds the values in the same order as {@link #iterate(RamAccountingContext, Double, Input...)} would, so that
+     * the result is the same.
+     */
+    @Override
+    public Double iterate(RamAccountingContext ramAccountingContext,
+                          Double state,
+                          ColumnBatch batch,
+                          ColumnVector arg) {
+        int[] selected = batch.selected();
+        int size = batch.size();
+        boolean noNulls = arg.noNulls;
+        boolean[] isNull = arg.isNull;
+        boolean hasValue = state != null;
+        double sum = hasValue ? state : 0.0;
+        if (arg instanceof LongColumnVector) {
+            long[] values = ((LongColumnVector) arg).values;
+            for (int i = 0; i < size; i++) {
+                int pos = selected[i];
+                if (noNulls || !isNull[pos]) {
+                    sum += values[pos];
+                    hasValue = true;
+                }
+            }
+        } else {
+            double[] values = ((DoubleColumnVector) arg).values;
+            for (int i = 0; i < size; i++) {
+                int pos = selected[i];
+                if (noNulls || !isNull[pos]) {
+                    sum += values[pos];
+                    hasValue = true;
+                }
+            }
+        }
+        return hasValue ? sum : null;
+    }
+
     @Override
     public Double reduce(RamAccountingContext ramAccountingContext, Double state1, Double state2) {
         if (state1 == null) {
@@ -40,6 +40,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.File;
+import java.nio.file.Path;
 
 public class BlobShardCollectorProvider extends ShardCollectorProvider {
 
@@ -52,9 +53,10 @@ public class BlobShardCollectorProvider extends ShardCollectorProvider {
                                       Functions functions,
                                       ThreadPool threadPool,
                                       Settings settings,
-                                      TransportActionProvider transportActionProvider) {
+                                      TransportActionProvider transportActionProvider,
+                                      Path spillDirectory) {
         super(clusterService, nodeJobsCounter, BlobShardReferenceResolver.create(blobShard), functions,
-            threadPool, settings, transportActionProvider, blobShard.indexShard());
+            threadPool, settings, transportActionProvider, spillDirectory, blobShard.indexShard());
         inputFactory = new InputFactory(functions);
         this.blobShard = blobShard;
     }
@@ -43,6 +43,10 @@ public class InputCollectExpression implements CollectExpression<Row, Object> {
         return value;
     }
 
+    public int position() {
+        return position;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -35,9 +35,11 @@ import io.crate.operation.InputFactory;
 import io.crate.operation.NodeJobsCounter;
 import io.crate.operation.collect.collectors.CollectorFieldsVisitor;
 import io.crate.operation.collect.collectors.CrateDocCollectorBuilder;
+import io.crate.operation.collect.collectors.DocRange;
 import io.crate.operation.collect.collectors.LuceneOrderedDocCollector;
 import io.crate.operation.collect.collectors.OptimizeQueryForSearchAfter;
 import io.crate.operation.collect.collectors.OrderedDocCollector;
+import io.crate.operation.collect.sources.ShardCollectSource;
 import io.crate.operation.reference.doc.lucene.CollectorContext;
 import io.crate.operation.reference.doc.lucene.LuceneCollectorExpression;
 import io.crate.operation.reference.doc.lucene.LuceneReferenceResolver;
@@ -52,6 +54,9 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
 
 public class LuceneShardCollectorProvider extends ShardCollectorProvider {
@@ -63,6 +68,7 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
     private final IndexShard indexShard;
     private final DocInputFactory docInputFactory;
     private final FieldTypeLookup fieldTypeLookup;
+    private final int minDocsPerPartition;
 
     public LuceneShardCollectorProvider(Schemas schemas,
                                         LuceneQueryBuilder luceneQueryBuilder,
@@ -72,12 +78,14 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
                                         ThreadPool threadPool,
                                         Settings settings,
                                         TransportActionProvider transportActionProvider,
+                                        Path spillDirectory,
                                         IndexShard indexShard) {
         super(clusterService, nodeJobsCounter, ShardReferenceResolver.create(clusterService, schemas, indexShard),
-            functions, threadPool, settings, transportActionProvider, indexShard);
+            functions, threadPool, settings, transportActionProvider, spillDirectory, indexShard);
         this.luceneQueryBuilder = luceneQueryBuilder;
         this.indexShard = indexShard;
         this.localNodeId = () -> clusterService.localNode().getId();
+        this.minDocsPerPartition = ShardCollectSource.MIN_DOCS_PER_PARTITION_SETTING.get(settings);
         fieldTypeLookup = indexShard.mapperService()::fullName;
         this.docInputFactory = new DocInputFactory(functions,
             fieldTypeLookup,
@@ -88,32 +96,51 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
     protected CrateCollector.Builder getBuilder(RoutedCollectPhase collectPhase,
                                                 boolean requiresScroll,
                                                 JobCollectContext jobCollectContext) {
+        return getBuilders(collectPhase, requiresScroll, jobCollectContext, 1).get(0);
+    }
+
+    @Override
+    protected List<CrateCollector.Builder> getBuilders(RoutedCollectPhase collectPhase,
+                                                       boolean requiresScroll,
+                                                       JobCollectContext jobCollectContext,
+                                                       int maxPartitions) {
         ShardId shardId = indexShard.shardId();
         SharedShardContext sharedShardContext = jobCollectContext.sharedShardContexts().getOrCreateContext(shardId);
         Engine.Searcher searcher = sharedShardContext.acquireSearcher();
         IndexShard indexShard = sharedShardContext.indexShard();
         try {
-            LuceneQueryBuilder.Context queryContext = luceneQueryBuilder.convert(
-                collectPhase.whereClause(),
-                indexShard.mapperService(),
-                sharedShardContext.indexService().newQueryShardContext(shardId.getId(), searcher.reader(), System::currentTimeMillis),
-                indexShard.indexFieldDataService(),
-                sharedShardContext.indexService().cache()
-            );
+            List<List<DocRange>> partitions = DocRange.partition(
+                searcher.reader().leaves(), maxPartitions, minDocsPerPartition);
+            if (partitions.size() > 1 && LOGGER.isTraceEnabled()) {
+                LOGGER.trace("[{}] collecting {} partitions concurrently", shardId, partitions.size());
+            }
+            List<CrateCollector.Builder> builders = new ArrayList<>(partitions.size());
+            for (List<DocRange> ranges : partitions) {
+                // expressions, the fields visitor and queries like GenericFunctionQuery (which has its own
+                // expressions and collector context) are stateful, each partition needs its own
+                LuceneQueryBuilder.Context queryContext = luceneQueryBuilder.convert(
+                    collectPhase.whereClause(),
+                    indexShard.mapperService(),
+                    sharedShardContext.indexService().newQueryShardContext(shardId.getId(), searcher.reader(), System::currentTimeMillis),
+                    indexShard.indexFieldDataService(),
+                    sharedShardContext.indexService().cache()
+                );
+                InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx =
+                    docInputFactory.extractImplementations(collectPhase);
+                builders.add(new CrateDocCollectorBuilder(
+                    searcher.searcher(),
+                    queryContext.query(),
+                    queryContext.minScore(),
+                    Symbols.containsColumn(collectPhase.toCollect(), DocSysColumns.SCORE),
+                    getCollectorContext(sharedShardContext.readerId(), docCtx),
+                    jobCollectContext.queryPhaseRamAccountingContext(),
+                    docCtx.topLevelInputs(),
+                    docCtx.expressions(),
+                    ranges
+                ));
+            }
             jobCollectContext.addSearcher(sharedShardContext.readerId(), searcher);
-            InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx =
-                docInputFactory.extractImplementations(collectPhase);
-
-            return new CrateDocCollectorBuilder(
-                searcher.searcher(),
-                queryContext.query(),
-                queryContext.minScore(),
-                Symbols.containsColumn(collectPhase.toCollect(), DocSysColumns.SCORE),
-                getCollectorContext(sharedShardContext.readerId(), docCtx),
-                jobCollectContext.queryPhaseRamAccountingContext(),
-                docCtx.topLevelInputs(),
-                docCtx.expressions()
-            );
+            return builders;
         } catch (Throwable t) {
             searcher.close();
             throw t;
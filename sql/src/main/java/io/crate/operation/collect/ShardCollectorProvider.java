@@ -24,6 +24,7 @@ package io.crate.operation.collect;
 
 import io.crate.action.job.SharedShardContext;
 import io.crate.analyze.EvaluatingNormalizer;
+import io.crate.analyze.symbol.AggregateMode;
 import io.crate.data.BatchConsumer;
 import io.crate.data.Input;
 import io.crate.data.Row;
@@ -40,6 +41,8 @@ import io.crate.operation.projectors.ProjectionToProjectorVisitor;
 import io.crate.operation.projectors.ProjectorFactory;
 import io.crate.operation.reference.ReferenceResolver;
 import io.crate.planner.node.dql.RoutedCollectPhase;
+import io.crate.planner.projection.AggregationProjection;
+import io.crate.planner.projection.GroupProjection;
 import io.crate.planner.projection.Projection;
 import io.crate.planner.projection.Projections;
 import org.elasticsearch.cluster.service.ClusterService;
@@ -48,7 +51,10 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nullable;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 public abstract class ShardCollectorProvider {
@@ -64,6 +70,7 @@ public abstract class ShardCollectorProvider {
                            ThreadPool threadPool,
                            Settings settings,
                            TransportActionProvider transportActionProvider,
+                           Path spillDirectory,
                            IndexShard indexShard) {
         this.inputFactory = new InputFactory(functions);
         this.shardNormalizer = new EvaluatingNormalizer(
@@ -84,6 +91,7 @@ public abstract class ShardCollectorProvider {
             shardNormalizer,
             t -> null,
             t -> null,
+            spillDirectory,
             indexShard.shardId()
         );
     }
@@ -111,55 +119,96 @@ public abstract class ShardCollectorProvider {
     }
 
     /**
-     * Create a CrateCollector.Builder to collect rows from a shard.
+     * Create CrateCollector.Builders to collect rows from a shard.
      * <p>
      * This also creates all shard-level projectors.
      * The BatchConsumer that is used for {@link CrateCollector.Builder#build(BatchConsumer)}
      * should be the first node-level projector.
+     * <p>
+     * If the shard-level projections are partial aggregations the docs of the shard may be split into up to
+     * {@code maxPartitions} partitions, each collected by its own builder with its own shard-level projectors.
+     * The partial results are merged by the node-level projections like the results of different shards.
      */
-    public CrateCollector.Builder getCollectorBuilder(RoutedCollectPhase collectPhase,
-                                                      boolean requiresScroll,
-                                                      JobCollectContext jobCollectContext) throws Exception {
+    public List<CrateCollector.Builder> getCollectorBuilders(RoutedCollectPhase collectPhase,
+                                                             boolean requiresScroll,
+                                                             JobCollectContext jobCollectContext,
+                                                             int maxPartitions) throws Exception {
         assert collectPhase.orderBy() ==
                null : "getDocCollector shouldn't be called if there is an orderBy on the collectPhase";
         RoutedCollectPhase normalizedCollectNode = collectPhase.normalize(shardNormalizer, null);
+        Collection<? extends Projection> shardProjections = Projections.shardProjections(collectPhase.projections());
 
-        final CrateCollector.Builder builder;
+        final List<CrateCollector.Builder> builders;
         if (normalizedCollectNode.whereClause().noMatch()) {
-            builder = RowsCollector.emptyBuilder(collectPhase.toCollect().size());
+            builders = Collections.singletonList(RowsCollector.emptyBuilder(collectPhase.toCollect().size()));
         } else {
             assert normalizedCollectNode.maxRowGranularity() == RowGranularity.DOC : "granularity must be DOC";
-            builder = getBuilder(normalizedCollectNode, requiresScroll, jobCollectContext);
+            int numPartitions = isPartialAggregation(shardProjections) ? maxPartitions : 1;
+            builders = getBuilders(normalizedCollectNode, requiresScroll, jobCollectContext, numPartitions);
         }
-
-        Collection<? extends Projection> shardProjections = Projections.shardProjections(collectPhase.projections());
         if (shardProjections.isEmpty()) {
-            return builder;
-        } else {
-            return new CrateCollector.Builder() {
-                @Override
-                public CrateCollector build(BatchConsumer batchConsumer) {
-                    return builder.build(batchConsumer);
-                }
-
-                @Override
-                public BatchConsumer applyProjections(BatchConsumer consumer) {
-                    return ProjectingBatchConsumer.create(
-                        consumer,
-                        shardProjections,
-                        normalizedCollectNode.jobId(),
-                        jobCollectContext.queryPhaseRamAccountingContext(),
-                        projectorFactory
-                    );
-                }
-            };
+            return builders;
+        }
+        List<CrateCollector.Builder> projectingBuilders = new ArrayList<>(builders.size());
+        for (CrateCollector.Builder builder : builders) {
+            projectingBuilders.add(withShardProjections(builder, shardProjections, normalizedCollectNode, jobCollectContext));
+        }
+        return projectingBuilders;
+    }
+
+    private static boolean isPartialAggregation(Collection<? extends Projection> shardProjections) {
+        if (shardProjections.size() != 1) {
+            return false;
+        }
+        Projection projection = shardProjections.iterator().next();
+        switch (projection.projectionType()) {
+            case GROUP:
+                return ((GroupProjection) projection).mode() == AggregateMode.ITER_PARTIAL;
+            case AGGREGATION:
+                return ((AggregationProjection) projection).mode() == AggregateMode.ITER_PARTIAL;
+            default:
+                return false;
         }
     }
 
+    private CrateCollector.Builder withShardProjections(CrateCollector.Builder builder,
+                                                        Collection<? extends Projection> shardProjections,
+                                                        RoutedCollectPhase normalizedCollectNode,
+                                                        JobCollectContext jobCollectContext) {
+        return new CrateCollector.Builder() {
+            @Override
+            public CrateCollector build(BatchConsumer batchConsumer) {
+                return builder.build(batchConsumer);
+            }
+
+            @Override
+            public BatchConsumer applyProjections(BatchConsumer consumer) {
+                return ProjectingBatchConsumer.create(
+                    consumer,
+                    shardProjections,
+                    normalizedCollectNode.jobId(),
+                    jobCollectContext.queryPhaseRamAccountingContext(),
+                    projectorFactory
+                );
+            }
+        };
+    }
+
     protected abstract CrateCollector.Builder getBuilder(RoutedCollectPhase collectPhase,
                                                          boolean requiresScroll,
                                                          JobCollectContext jobCollectContext);
 
+    /**
+     * Create builders which together collect all rows of the shard.
+     * Implementations which can't split the shard return a single builder.
+     */
+    protected List<CrateCollector.Builder> getBuilders(RoutedCollectPhase collectPhase,
+                                                       boolean requiresScroll,
+                                                       JobCollectContext jobCollectContext,
+                                                       int maxPartitions) {
+        return Collections.singletonList(getBuilder(collectPhase, requiresScroll, jobCollectContext));
+    }
+
 
     public abstract OrderedDocCollector getOrderedCollector(RoutedCollectPhase collectPhase,
                                                             SharedShardContext sharedShardContext,
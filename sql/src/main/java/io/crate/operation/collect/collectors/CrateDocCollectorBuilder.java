@@ -45,6 +45,7 @@ public class CrateDocCollectorBuilder implements CrateCollector.Builder {
     private final RamAccountingContext ramAccountingContext;
     private final List<Input<?>> inputs;
     private final Collection<? extends LuceneCollectorExpression<?>> expressions;
+    private final List<DocRange> ranges;
 
     public CrateDocCollectorBuilder(IndexSearcher indexSearcher,
                                     Query query,
@@ -53,7 +54,8 @@ public class CrateDocCollectorBuilder implements CrateCollector.Builder {
                                     CollectorContext collectorContext,
                                     RamAccountingContext ramAccountingContext,
                                     List<Input<?>> inputs,
-                                    Collection<? extends LuceneCollectorExpression<?>> expressions) {
+                                    Collection<? extends LuceneCollectorExpression<?>> expressions,
+                                    List<DocRange> ranges) {
         this.indexSearcher = indexSearcher;
         this.query = query;
         this.minScore = minScore;
@@ -62,6 +64,7 @@ public class CrateDocCollectorBuilder implements CrateCollector.Builder {
         this.ramAccountingContext = ramAccountingContext;
         this.inputs = inputs;
         this.expressions = expressions;
+        this.ranges = ranges;
     }
 
     @Override
@@ -74,7 +77,8 @@ public class CrateDocCollectorBuilder implements CrateCollector.Builder {
             collectorContext,
             ramAccountingContext,
             inputs,
-            expressions
+            expressions,
+            ranges
         );
         return BatchIteratorCollectorBridge.newInstance(batchIterator, consumer);
     }
@@ -0,0 +1,115 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.collectors;
+
+import org.apache.lucene.index.LeafReaderContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A range of doc ids [fromDoc, toDoc) within a segment of a shard.
+ *
+ * Used to split the segments of a shard into several partitions which can be collected concurrently.
+ */
+public final class DocRange {
+
+    private final LeafReaderContext leaf;
+    private final int fromDoc;
+    private final int toDoc;
+
+    DocRange(LeafReaderContext leaf, int fromDoc, int toDoc) {
+        assert fromDoc >= 0 && fromDoc <= toDoc && toDoc <= leaf.reader().maxDoc()
+            : "range must be within the docs of the segment";
+        this.leaf = leaf;
+        this.fromDoc = fromDoc;
+        this.toDoc = toDoc;
+    }
+
+    public LeafReaderContext leaf() {
+        return leaf;
+    }
+
+    public int fromDoc() {
+        return fromDoc;
+    }
+
+    public int toDoc() {
+        return toDoc;
+    }
+
+    /**
+     * @return ranges which cover all docs of all segments
+     */
+    public static List<DocRange> allDocs(List<LeafReaderContext> leaves) {
+        List<DocRange> ranges = new ArrayList<>(leaves.size());
+        for (LeafReaderContext leaf : leaves) {
+            ranges.add(new DocRange(leaf, 0, leaf.reader().maxDoc()));
+        }
+        return ranges;
+    }
+
+    /**
+     * Split the docs of the segments into at most {@code maxPartitions} partitions of about the same number of docs.
+     *
+     * The segments are treated as one contiguous doc id space which is cut into equal parts, so small segments
+     * are grouped together and big segments are split into several ranges.
+     * Fewer partitions are created if a partition would contain less than {@code minDocsPerPartition} docs.
+     */
+    public static List<List<DocRange>> partition(List<LeafReaderContext> leaves,
+                                                 int maxPartitions,
+                                                 int minDocsPerPartition) {
+        long totalDocs = 0;
+        for (LeafReaderContext leaf : leaves) {
+            totalDocs += leaf.reader().maxDoc();
+        }
+        int numPartitions = (int) Math.min(maxPartitions, totalDocs / Math.max(1, minDocsPerPartition));
+        List<List<DocRange>> partitions = new ArrayList<>();
+        if (numPartitions <= 1) {
+            partitions.add(allDocs(leaves));
+            return partitions;
+        }
+        long docsPerPartition = (totalDocs + numPartitions - 1) / numPartitions;
+        List<DocRange> current = new ArrayList<>();
+        long remainingInPartition = docsPerPartition;
+        for (LeafReaderContext leaf : leaves) {
+            int maxDoc = leaf.reader().maxDoc();
+            int fromDoc = 0;
+            while (fromDoc < maxDoc) {
+                int toDoc = (int) Math.min(maxDoc, fromDoc + remainingInPartition);
+                current.add(new DocRange(leaf, fromDoc, toDoc));
+                remainingInPartition -= toDoc - fromDoc;
+                fromDoc = toDoc;
+                if (remainingInPartition == 0) {
+                    partitions.add(current);
+                    current = new ArrayList<>();
+                    remainingInPartition = docsPerPartition;
+                }
+            }
+        }
+        if (!current.isEmpty()) {
+            partitions.add(current);
+        }
+        return partitions;
+    }
+}
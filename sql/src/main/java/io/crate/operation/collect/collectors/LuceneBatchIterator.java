@@ -25,11 +25,14 @@ package io.crate.operation.collect.collectors;
 import io.crate.breaker.CrateCircuitBreakerService;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.concurrent.CompletableFutures;
-import io.crate.data.BatchIterator;
+import io.crate.data.ColumnBatch;
+import io.crate.data.ColumnVector;
+import io.crate.data.ColumnarBatchIterator;
 import io.crate.data.Columns;
 import io.crate.data.Input;
 import io.crate.exceptions.Exceptions;
 import io.crate.operation.reference.doc.lucene.CollectorContext;
+import io.crate.operation.reference.doc.lucene.ColumnVectorExpression;
 import io.crate.operation.reference.doc.lucene.LuceneCollectorExpression;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
@@ -50,8 +53,14 @@ import java.util.concurrent.CompletionStage;
  * It supports filtering the data using a lucene {@link Query} or via {@code minScore}.
  * <p>
  * Row data depends on {@code inputs} and {@code expressions}. The data is unordered.
+ * <p>
+ * The iterator either visits all segments of the index or only the given {@link DocRange}s, so that the docs
+ * of a shard can be split across several iterators which are consumed concurrently.
+ * <p>
+ * If no scores are required and all inputs are doc value columns which implement {@link ColumnVectorExpression}
+ * the data can also be consumed in {@link ColumnBatch}es; see {@link ColumnarBatchIterator}.
  */
-public class LuceneBatchIterator implements BatchIterator {
+public class LuceneBatchIterator implements ColumnarBatchIterator {
 
     private final IndexSearcher indexSearcher;
     private final Query query;
@@ -59,13 +68,19 @@ public class LuceneBatchIterator implements BatchIterator {
     private final RamAccountingContext ramAccountingContext;
     private final boolean doScores;
     private final LuceneCollectorExpression[] expressions;
-    private final List<LeafReaderContext> leaves;
+    private final List<DocRange> ranges;
     private Weight weight;
     private final Columns inputs;
     private final CollectorFieldsVisitor visitor;
     private final Float minScore;
 
-    private Iterator<LeafReaderContext> leavesIt;
+    @Nullable
+    private final ColumnBatch columnBatch;
+    private final ColumnVectorExpression[] vectorExpressions;
+    private final int[] batchDocs;
+
+    private Iterator<DocRange> rangesIt;
+    private DocRange currentRange;
     private LeafReaderContext currentLeaf;
     private Scorer currentScorer;
     private DocIdSetIterator currentDocIdSetIt;
@@ -80,6 +95,26 @@ public class LuceneBatchIterator implements BatchIterator {
                         RamAccountingContext ramAccountingContext,
                         List<? extends Input<?>> inputs,
                         Collection<? extends LuceneCollectorExpression<?>> expressions) {
+        this(indexSearcher,
+            query,
+            minScore,
+            doScores,
+            collectorContext,
+            ramAccountingContext,
+            inputs,
+            expressions,
+            DocRange.allDocs(indexSearcher.getTopReaderContext().leaves()));
+    }
+
+    LuceneBatchIterator(IndexSearcher indexSearcher,
+                        Query query,
+                        @Nullable Float minScore,
+                        boolean doScores,
+                        CollectorContext collectorContext,
+                        RamAccountingContext ramAccountingContext,
+                        List<? extends Input<?>> inputs,
+                        Collection<? extends LuceneCollectorExpression<?>> expressions,
+                        List<DocRange> ranges) {
         this.indexSearcher = indexSearcher;
         this.query = query;
         this.doScores = doScores || minScore != null;
@@ -89,8 +124,37 @@ public class LuceneBatchIterator implements BatchIterator {
         this.ramAccountingContext = ramAccountingContext;
         this.inputs = Columns.wrap(inputs);
         this.expressions = expressions.toArray(new LuceneCollectorExpression[0]);
-        leaves = indexSearcher.getTopReaderContext().leaves();
-        leavesIt = leaves.iterator();
+        this.ranges = ranges;
+        rangesIt = ranges.iterator();
+        if (this.doScores == false && supportsColumnBatches(inputs, expressions)) {
+            vectorExpressions = new ColumnVectorExpression[inputs.size()];
+            ColumnVector[] vectors = new ColumnVector[inputs.size()];
+            for (int i = 0; i < vectors.length; i++) {
+                vectorExpressions[i] = (ColumnVectorExpression) inputs.get(i);
+                vectors[i] = vectorExpressions[i].newVector(ColumnBatch.DEFAULT_CAPACITY);
+            }
+            columnBatch = new ColumnBatch(vectors);
+            batchDocs = new int[ColumnBatch.DEFAULT_CAPACITY];
+        } else {
+            vectorExpressions = null;
+            columnBatch = null;
+            batchDocs = null;
+        }
+    }
+
+    private static boolean supportsColumnBatches(List<? extends Input<?>> inputs,
+                                                 Collection<? extends LuceneCollectorExpression<?>> expressions) {
+        for (LuceneCollectorExpression<?> expression : expressions) {
+            if (!(expression instanceof ColumnVectorExpression)) {
+                return false;
+            }
+        }
+        for (Input<?> input : inputs) {
+            if (!(input instanceof ColumnVectorExpression)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
@@ -101,12 +165,41 @@ public class LuceneBatchIterator implements BatchIterator {
     @Override
     public void moveToStart() {
         raiseIfClosedOrKilled();
-        leavesIt = leaves.iterator();
+        rangesIt = ranges.iterator();
     }
 
     @Override
     public boolean moveNext() {
         raiseIfClosedOrKilled();
+        ensureWeight();
+        try {
+            return innerMoveNext();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Nullable
+    @Override
+    public ColumnBatch columnBatch() {
+        return columnBatch;
+    }
+
+    @Override
+    public boolean moveNextBatch() {
+        raiseIfClosedOrKilled();
+        if (columnBatch == null) {
+            throw new UnsupportedOperationException("The columns of this BatchIterator can't be read as vectors");
+        }
+        ensureWeight();
+        try {
+            return innerMoveNextBatch();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void ensureWeight() {
         if (weight == null) {
             try {
                 weight = createWeight();
@@ -114,20 +207,18 @@ public class LuceneBatchIterator implements BatchIterator {
                 Exceptions.rethrowUnchecked(e);
             }
         }
-
-        try {
-            return innerMoveNext();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
     }
 
     private boolean innerMoveNext() throws IOException {
         while (tryAdvanceDocIdSetIterator()) {
             LeafReader reader = currentLeaf.reader();
             Bits liveDocs = reader.getLiveDocs();
-            int doc;
-            while ((doc = currentDocIdSetIt.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+            int fromDoc = currentRange.fromDoc();
+            int toDoc = currentRange.toDoc();
+            int doc = currentDocIdSetIt.docID() < fromDoc
+                ? currentDocIdSetIt.advance(fromDoc)
+                : currentDocIdSetIt.nextDoc();
+            for (; doc < toDoc; doc = currentDocIdSetIt.nextDoc()) {
                 if (docDeleted(liveDocs, doc) || belowMinScore(currentScorer)) {
                     continue;
                 }
@@ -140,6 +231,45 @@ public class LuceneBatchIterator implements BatchIterator {
         return false;
     }
 
+    /**
+     * Collects the ids of up to {@link ColumnBatch#DEFAULT_CAPACITY} live docs of the current range and reads their
+     * values into the vectors. A batch never spans multiple ranges as the doc values are per segment.
+     */
+    private boolean innerMoveNextBatch() throws IOException {
+        while (tryAdvanceDocIdSetIterator()) {
+            Bits liveDocs = currentLeaf.reader().getLiveDocs();
+            int fromDoc = currentRange.fromDoc();
+            int toDoc = currentRange.toDoc();
+            int numDocs = 0;
+            int doc = currentDocIdSetIt.docID() < fromDoc
+                ? currentDocIdSetIt.advance(fromDoc)
+                : currentDocIdSetIt.nextDoc();
+            for (; doc < toDoc; doc = currentDocIdSetIt.nextDoc()) {
+                if (docDeleted(liveDocs, doc)) {
+                    continue;
+                }
+                batchDocs[numDocs++] = doc;
+                if (numDocs == batchDocs.length) {
+                    break;
+                }
+            }
+            if (doc >= toDoc) {
+                currentDocIdSetIt = null;
+            }
+            if (numDocs > 0) {
+                checkCircuitBreaker();
+                for (int i = 0; i < vectorExpressions.length; i++) {
+                    vectorExpressions[i].fillVector(columnBatch.get(i), batchDocs, numDocs);
+                }
+                columnBatch.selectAll(numDocs);
+                return true;
+            }
+        }
+        clearState();
+        columnBatch.selectAll(0);
+        return false;
+    }
+
     private boolean belowMinScore(Scorer currentScorer) throws IOException {
         return minScore != null && currentScorer.score() < minScore;
     }
@@ -148,13 +278,18 @@ public class LuceneBatchIterator implements BatchIterator {
         if (currentDocIdSetIt != null) {
             return true;
         }
-        while (leavesIt.hasNext()) {
-            LeafReaderContext leaf = leavesIt.next();
+        while (rangesIt.hasNext()) {
+            DocRange range = rangesIt.next();
+            if (range.fromDoc() == range.toDoc()) {
+                continue;
+            }
+            LeafReaderContext leaf = range.leaf();
             Scorer scorer = weight.scorer(leaf);
             if (scorer == null) {
                 continue;
             }
             currentScorer = scorer;
+            currentRange = range;
             currentLeaf = leaf;
             currentDocIdSetIt = scorer.iterator();
             for (LuceneCollectorExpression expression : expressions) {
@@ -169,6 +304,7 @@ public class LuceneBatchIterator implements BatchIterator {
     private void clearState() {
         currentDocIdSetIt = null;
         currentScorer = null;
+        currentRange = null;
         currentLeaf = null;
     }
 
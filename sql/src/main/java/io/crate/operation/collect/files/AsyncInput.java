@@ -0,0 +1,40 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+package io.crate.operation.collect.files;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Implemented by input streams whose data arrives asynchronously, e.g. the rows a client sends for
+ * {@code COPY ... FROM STDIN}.
+ *
+ * Reading from such a stream doesn't block a thread while waiting for data. If a read can't be completed with
+ * the data received so far, it throws a {@link DataNotAvailableException} after resetting the stream to the start
+ * of the incomplete line, and the read has to be retried once {@link #dataAvailable()} completes.
+ */
+public interface AsyncInput {
+
+    /**
+     * @return a future which completes once more data has been received or the end of the stream has been reached
+     */
+    CompletableFuture<?> dataAvailable();
+}
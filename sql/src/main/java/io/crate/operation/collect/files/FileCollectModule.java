@@ -29,9 +29,11 @@ public class FileCollectModule extends AbstractModule {
 
     @Override
     protected void configure() {
+        bind(StdinStreams.class).asEagerSingleton();
         MapBinder<String, FileInputFactory> binder = MapBinder.newMapBinder(binder(), String.class, FileInputFactory.class);
 
         binder.addBinding(LocalFsFileInputFactory.NAME).to(LocalFsFileInputFactory.class).asEagerSingleton();
         binder.addBinding(S3FileInputFactory.NAME).to(S3FileInputFactory.class).asEagerSingleton();
+        binder.addBinding(StdinFileInputFactory.NAME).to(StdinFileInputFactory.class).asEagerSingleton();
     }
 }
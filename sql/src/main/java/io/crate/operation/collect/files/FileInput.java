@@ -21,6 +21,8 @@
 
 package io.crate.operation.collect.files;
 
+import com.google.common.io.ByteStreams;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -43,5 +45,28 @@ public interface FileInput {
 
     InputStream getStream(URI uri) throws IOException;
 
+    /**
+     * Returns a stream which starts at byte {@code position} of the file.
+     * The default implementation skips the bytes before the position, implementations should seek if possible.
+     */
+    default InputStream getStream(URI uri, long position) throws IOException {
+        InputStream stream = getStream(uri);
+        if (stream != null && position > 0) {
+            ByteStreams.skipFully(stream, position);
+        }
+        return stream;
+    }
+
+    /**
+     * Implementations should return the size known from {@link #listUris(URI, Predicate)} if possible,
+     * instead of requesting it once again for every file.
+     *
+     * @return the size of the file in bytes or -1 if it is unknown.
+     *         Files of unknown size are always read as a whole by a single reader.
+     */
+    default long size(URI uri) throws IOException {
+        return -1L;
+    }
+
     boolean sharedStorageDefault();
 }
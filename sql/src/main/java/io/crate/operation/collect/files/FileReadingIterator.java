@@ -21,6 +21,7 @@
 
 package io.crate.operation.collect.files;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
 import io.crate.concurrent.CompletableFutures;
@@ -36,6 +37,7 @@ import org.elasticsearch.common.logging.Loggers;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
@@ -60,11 +62,24 @@ public class FileReadingIterator implements BatchIterator {
 
     private static final Logger LOGGER = Loggers.getLogger(FileReadingIterator.class);
     public static final int MAX_SOCKET_TIMEOUT_RETRIES = 5;
+
+    /**
+     * Uncompressed files on shared storage are split into byte ranges which are read by different readers
+     * if each range has at least this size.
+     */
+    static final long MIN_BYTES_PER_RANGE = 64 * 1024 * 1024;
+
     private final Map<String, FileInputFactory> fileInputFactories;
     private final Boolean shared;
     private final int numReaders;
     private final int readerNumber;
     private final boolean compressed;
+    private final long minBytesPerRange;
+
+    /**
+     * Sizes of the files which are split into ranges, retrieved once so that moveToStart doesn't query them again.
+     */
+    private final Map<URI, Long> sizes = new HashMap<>();
 
     private static final Pattern HAS_GLOBS_PATTERN = Pattern.compile("(.*)[^\\\\]\\*.*");
     private static final Predicate<URI> MATCH_ALL_PREDICATE = (URI input) -> true;
@@ -73,9 +88,14 @@ public class FileReadingIterator implements BatchIterator {
     private final Iterable<LineCollectorExpression<?>> collectorExpressions;
     private Iterator<Tuple<FileInput, UriWithGlob>> fileInputsIterator = null;
     private Tuple<FileInput, UriWithGlob> currentInput = null;
-    private Iterator<URI> currentInputIterator = null;
+    private Iterator<FilePart> currentInputIterator = null;
+    private FilePart currentPart;
     private URI currentUri;
     private BufferedReader currentReader = null;
+    @Nullable
+    private AsyncInput currentAsyncInput = null;
+    @Nullable
+    private CompletableFuture<?> dataAvailable = null;
     private long currentLineNumber;
     private LineContext lineContext;
     private final Columns inputs;
@@ -87,13 +107,15 @@ public class FileReadingIterator implements BatchIterator {
                                 Map<String, FileInputFactory> fileInputFactories,
                                 Boolean shared,
                                 int numReaders,
-                                int readerNumber) {
+                                int readerNumber,
+                                long minBytesPerRange) {
         this.compressed = compression != null && compression.equalsIgnoreCase("gzip");
         this.inputs = Columns.wrap(inputs.stream().map(ExceptionHandlingInputProxy::new).collect(Collectors.toList()));
         this.fileInputFactories = fileInputFactories;
         this.shared = shared;
         this.numReaders = numReaders;
         this.readerNumber = readerNumber;
+        this.minBytesPerRange = minBytesPerRange;
         this.urisWithGlob = getUrisWithGlob(fileUris);
         this.collectorExpressions = collectorExpressions;
         initCollectorState();
@@ -137,8 +159,22 @@ public class FileReadingIterator implements BatchIterator {
                                             Boolean shared,
                                             int numReaders,
                                             int readerNumber) {
+        return newInstance(fileUris, inputs, collectorExpressions, compression, fileInputFactories, shared,
+            numReaders, readerNumber, MIN_BYTES_PER_RANGE);
+    }
+
+    @VisibleForTesting
+    static BatchIterator newInstance(Collection<String> fileUris,
+                                     List<Input<?>> inputs,
+                                     Iterable<LineCollectorExpression<?>> collectorExpressions,
+                                     String compression,
+                                     Map<String, FileInputFactory> fileInputFactories,
+                                     Boolean shared,
+                                     int numReaders,
+                                     int readerNumber,
+                                     long minBytesPerRange) {
         return new CloseAssertingBatchIterator(new FileReadingIterator(fileUris, inputs, collectorExpressions,
-            compression, fileInputFactories, shared, numReaders, readerNumber));
+            compression, fileInputFactories, shared, numReaders, readerNumber, minBytesPerRange));
     }
 
     private void initCollectorState() {
@@ -160,11 +196,13 @@ public class FileReadingIterator implements BatchIterator {
 
     @Override
     public void moveToStart() {
+        dataAvailable = null;
         initCollectorState();
     }
 
     @Override
     public boolean moveNext() {
+        dataAvailable = null;
         try {
             if (currentReader != null) {
                 String line = getLine(currentReader, currentLineNumber, 0);
@@ -185,6 +223,11 @@ public class FileReadingIterator implements BatchIterator {
                 releaseBatchIteratorState();
                 return false;
             }
+        } catch (DataNotAvailableException e) {
+            // the next line hasn't been received yet, continue once loadNextBatch completes
+            assert currentAsyncInput != null : "only an AsyncInput may throw DataNotAvailableException";
+            dataAvailable = currentAsyncInput.dataAvailable();
+            return false;
         } catch (IOException e) {
             rethrowUnchecked(e);
         }
@@ -192,25 +235,86 @@ public class FileReadingIterator implements BatchIterator {
     }
 
     private void advanceToNextUri(FileInput fileInput) throws IOException {
-        currentUri = currentInputIterator.next();
-        initCurrentReader(fileInput, currentUri);
+        currentPart = currentInputIterator.next();
+        currentUri = currentPart.uri;
+        initCurrentReader(fileInput, currentPart);
     }
 
     private void advanceToNextFileInput() throws IOException {
         currentInput = fileInputsIterator.next();
         FileInput fileInput = currentInput.v1();
         UriWithGlob fileUri = currentInput.v2();
-        Predicate<URI> uriPredicate = generateUriPredicate(fileInput, fileUri.globPredicate);
-        List<URI> uris = getUris(fileInput, fileUri.uri, fileUri.preGlobUri, uriPredicate);
-        if (uris.size() > 0) {
-            currentInputIterator = uris.iterator();
+        List<FilePart> parts = getFileParts(fileInput, fileUri);
+        if (parts.size() > 0) {
+            currentInputIterator = parts.iterator();
             advanceToNextUri(fileInput);
         }
     }
 
-    private void initCurrentReader(FileInput fileInput, URI uri) throws IOException {
-        InputStream stream = fileInput.getStream(uri);
+    /**
+     * Returns the files or ranges of files this reader has to read.
+     *
+     * Files on shared storage are distributed across the readers. Big uncompressed files are split into byte ranges
+     * instead, so that every reader reads a part of them.
+     */
+    private List<FilePart> getFileParts(FileInput fileInput, UriWithGlob fileUri) throws IOException {
+        boolean sharedStorage = MoreObjects.firstNonNull(shared, fileInput.sharedStorageDefault());
+        if (!sharedStorage || compressed || numReaders <= 1) {
+            Predicate<URI> uriPredicate = generateUriPredicate(fileInput, fileUri.globPredicate);
+            List<URI> uris = getUris(fileInput, fileUri.uri, fileUri.preGlobUri, uriPredicate);
+            List<FilePart> parts = new ArrayList<>(uris.size());
+            for (URI uri : uris) {
+                parts.add(FilePart.wholeFile(uri));
+            }
+            return parts;
+        }
+        Predicate<URI> globPredicate = MoreObjects.firstNonNull(fileUri.globPredicate, MATCH_ALL_PREDICATE);
+        List<URI> uris = getUris(fileInput, fileUri.uri, fileUri.preGlobUri, globPredicate);
+        List<FilePart> parts = new ArrayList<>();
+        for (URI uri : uris) {
+            long size = size(fileInput, uri);
+            int numRanges = (int) Math.min(numReaders, size / minBytesPerRange);
+            if (numRanges > 1) {
+                if (readerNumber < numRanges) {
+                    parts.add(new FilePart(
+                        uri,
+                        size * readerNumber / numRanges,
+                        size * (readerNumber + 1) / numRanges));
+                }
+            } else if (isReadBySelf(uri)) {
+                parts.add(FilePart.wholeFile(uri));
+            }
+        }
+        return parts;
+    }
+
+    private long size(FileInput fileInput, URI uri) throws IOException {
+        Long size = sizes.get(uri);
+        if (size == null) {
+            size = fileInput.size(uri);
+            sizes.put(uri, size);
+        }
+        return size;
+    }
+
+    private void initCurrentReader(FileInput fileInput, FilePart part) throws IOException {
+        InputStream stream;
+        if (part.isWholeFile()) {
+            stream = fileInput.getStream(part.uri);
+        } else {
+            stream = fileInput.getStream(part.uri, part.start == 0 ? 0 : part.start - 1);
+            if (stream != null) {
+                stream = new LineRangeInputStream(new BufferedInputStream(stream), part.start, part.end);
+            }
+        }
         if (stream != null) {
+            if (stream instanceof AsyncInput) {
+                if (compressed) {
+                    stream.close();
+                    throw new IOException("Compressed data can't be read from " + part.uri);
+                }
+                currentAsyncInput = (AsyncInput) stream;
+            }
             currentReader = createBufferedReader(stream);
             currentLineNumber = 0;
         }
@@ -224,6 +328,7 @@ public class FileReadingIterator implements BatchIterator {
                 LOGGER.error("Unable to close reader for {}", e, currentUri);
             }
             currentReader = null;
+            currentAsyncInput = null;
         }
     }
 
@@ -248,9 +353,11 @@ public class FileReadingIterator implements BatchIterator {
             } else {
                 long startLine = currentLineNumber + 1;
                 closeCurrentReader();
-                initCurrentReader(currentInput.v1(), currentUri);
+                initCurrentReader(currentInput.v1(), currentPart);
                 return getLine(currentReader, startLine, retry + 1);
             }
+        } catch (DataNotAvailableException e) {
+            throw e;
         } catch (Exception e) {
             URI uri = currentInput.v2().uri;
             // it's nice to know which exact file/uri threw an error
@@ -271,17 +378,44 @@ public class FileReadingIterator implements BatchIterator {
         fileInputsIterator = null;
         currentInputIterator = null;
         currentInput = null;
+        currentPart = null;
         currentUri = null;
     }
 
     @Override
     public CompletableFuture<?> loadNextBatch() {
-        return CompletableFutures.failedFuture(new IllegalStateException("All batches already loaded"));
+        if (dataAvailable == null) {
+            return CompletableFutures.failedFuture(new IllegalStateException("All batches already loaded"));
+        }
+        return dataAvailable;
     }
 
+    /**
+     * All data is loaded unless an {@link AsyncInput} is read and its next line hasn't been received yet.
+     */
     @Override
     public boolean allLoaded() {
-        return true;
+        return dataAvailable == null;
+    }
+
+    private static class FilePart {
+        final URI uri;
+        final long start;
+        final long end;
+
+        FilePart(URI uri, long start, long end) {
+            this.uri = uri;
+            this.start = start;
+            this.end = end;
+        }
+
+        static FilePart wholeFile(URI uri) {
+            return new FilePart(uri, 0, Long.MAX_VALUE);
+        }
+
+        boolean isWholeFile() {
+            return start == 0 && end == Long.MAX_VALUE;
+        }
     }
 
     private static class UriWithGlob {
@@ -393,13 +527,7 @@ public class FileReadingIterator implements BatchIterator {
         Predicate<URI> moduloPredicate;
         boolean sharedStorage = MoreObjects.firstNonNull(shared, fileInput.sharedStorageDefault());
         if (sharedStorage) {
-            moduloPredicate = input -> {
-                int hash = input.hashCode();
-                if (hash == Integer.MIN_VALUE) {
-                    hash = 0; // Math.abs(Integer.MIN_VALUE) == Integer.MIN_VALUE
-                }
-                return Math.abs(hash) % numReaders == readerNumber;
-            };
+            moduloPredicate = this::isReadBySelf;
         } else {
             moduloPredicate = MATCH_ALL_PREDICATE;
         }
@@ -410,6 +538,17 @@ public class FileReadingIterator implements BatchIterator {
         return moduloPredicate;
     }
 
+    /**
+     * Returns true if this reader is the one out of all readers which reads the given file on shared storage.
+     */
+    private boolean isReadBySelf(URI uri) {
+        int hash = uri.hashCode();
+        if (hash == Integer.MIN_VALUE) {
+            hash = 0; // Math.abs(Integer.MIN_VALUE) == Integer.MIN_VALUE
+        }
+        return Math.abs(hash) % numReaders == readerNumber;
+    }
+
     private static class GlobPredicate implements Predicate<URI> {
         private final Pattern globPattern;
 
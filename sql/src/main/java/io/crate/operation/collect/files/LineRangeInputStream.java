@@ -0,0 +1,125 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * InputStream which returns the lines of a byte range [start, end) of a file.
+ *
+ * A line belongs to the range if its first byte is within the range. The stream therefore skips the remainder of
+ * a line which started before {@code start} and continues after {@code end} until the end of the line which
+ * contains the last byte of the range. Ranges which are adjacent return each line exactly once.
+ *
+ * The given stream must start at {@code start - 1} if start is greater than 0, so that a line which starts
+ * exactly at {@code start} can be detected. It should be buffered, as line ends are searched byte by byte.
+ */
+final class LineRangeInputStream extends InputStream {
+
+    private final InputStream in;
+    private final long start;
+    private final long end;
+
+    private long position;
+    private boolean atFirstLine;
+    private int lastByte = -1;
+    private boolean done = false;
+
+    LineRangeInputStream(InputStream in, long start, long end) {
+        assert start >= 0 && start < end : "range must not be empty";
+        this.in = in;
+        this.start = start;
+        this.end = end;
+        this.position = start == 0 ? 0 : start - 1;
+        this.atFirstLine = start == 0;
+    }
+
+    private void skipToLineStart() throws IOException {
+        // the stream starts at start - 1; skip everything up to and including the next line break
+        int c;
+        do {
+            c = in.read();
+            position++;
+        } while (c != -1 && c != '\n');
+        if (c == -1) {
+            done = true;
+        }
+        lastByte = c;
+        atFirstLine = true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int n = read(b, 0, 1);
+        return n == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (!atFirstLine) {
+            skipToLineStart();
+        }
+        if (done || len == 0) {
+            return done ? -1 : 0;
+        }
+        if (position < end) {
+            int n = in.read(b, off, (int) Math.min(len, end - position));
+            if (n == -1) {
+                done = true;
+                return -1;
+            }
+            position += n;
+            lastByte = b[off + n - 1];
+            return n;
+        }
+        // the range is consumed, finish the current line
+        if (lastByte == '\n') {
+            done = true;
+            return -1;
+        }
+        int n = 0;
+        while (n < len) {
+            int c = in.read();
+            if (c == -1) {
+                done = true;
+                break;
+            }
+            b[off + n] = (byte) c;
+            n++;
+            position++;
+            lastByte = c;
+            if (c == '\n') {
+                done = true;
+                break;
+            }
+        }
+        return n == 0 ? -1 : n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -81,6 +81,21 @@ public class LocalFsFileInput implements FileInput {
         }
     }
 
+    @Override
+    public InputStream getStream(URI uri, long position) throws IOException {
+        FileInputStream stream = (FileInputStream) getStream(uri);
+        if (stream != null && position > 0) {
+            stream.getChannel().position(position);
+        }
+        return stream;
+    }
+
+    @Override
+    public long size(URI uri) {
+        File file = new File(uri);
+        return file.isFile() ? file.length() : -1L;
+    }
+
     @Override
     public boolean sharedStorageDefault() {
         return false;
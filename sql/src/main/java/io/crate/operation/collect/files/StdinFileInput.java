@@ -0,0 +1,67 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import com.google.common.collect.ImmutableList;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * FileInput for the rows sent by a client for {@code COPY ... FROM STDIN}.
+ * There is exactly one stream per uri and it can only be read once.
+ */
+class StdinFileInput implements FileInput {
+
+    private final StdinStreams stdinStreams;
+
+    StdinFileInput(StdinStreams stdinStreams) {
+        this.stdinStreams = stdinStreams;
+    }
+
+    @Override
+    public List<URI> listUris(URI fileUri, Predicate<URI> uriPredicate) throws IOException {
+        if (uriPredicate.test(fileUri)) {
+            return ImmutableList.of(fileUri);
+        }
+        return ImmutableList.of();
+    }
+
+    @Override
+    public InputStream getStream(URI uri) throws IOException {
+        InputStream stream = stdinStreams.remove(uri.toString());
+        if (stream == null) {
+            throw new IOException("COPY FROM STDIN is only supported using the simple query protocol " +
+                                  "of the PostgreSQL wire protocol");
+        }
+        return stream;
+    }
+
+    @Override
+    public boolean sharedStorageDefault() {
+        return false;
+    }
+}
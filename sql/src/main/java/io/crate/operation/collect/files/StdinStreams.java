@@ -0,0 +1,65 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import org.elasticsearch.common.inject.Singleton;
+
+import javax.annotation.Nullable;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the streams of the rows which are sent by clients for {@code COPY ... FROM STDIN} statements.
+ *
+ * The statement reads from an uri with the {@link #SCHEME} scheme. The protocol handler which receives the rows
+ * registers its stream under that uri before the statement is executed and the {@link StdinFileInput} of the
+ * collect phase, which runs on the same node, takes it.
+ */
+@Singleton
+public class StdinStreams {
+
+    public static final String SCHEME = "stdin";
+
+    private final Map<String, InputStream> streams = new ConcurrentHashMap<>();
+
+    /**
+     * @return a new unique uri for the rows of a {@code COPY ... FROM STDIN} statement
+     */
+    public static String newUri() {
+        return SCHEME + ":///" + UUID.randomUUID().toString();
+    }
+
+    public void register(String uri, InputStream stream) {
+        InputStream previous = streams.putIfAbsent(uri, stream);
+        if (previous != null) {
+            throw new IllegalStateException("A stream is already registered for " + uri);
+        }
+    }
+
+    @Nullable
+    public InputStream remove(String uri) {
+        return streams.remove(uri);
+    }
+}
@@ -43,6 +43,7 @@ import io.crate.operation.collect.JobCollectContext;
 import io.crate.operation.collect.RowsCollector;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
 import io.crate.operation.projectors.ProjectorFactory;
+import io.crate.operation.projectors.SpillDirectory;
 import io.crate.planner.node.ExecutionPhaseVisitor;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.FileUriCollectPhase;
@@ -85,7 +86,8 @@ public class CollectSourceResolver {
                                  TableFunctionCollectSource tableFunctionCollectSource,
                                  SingleRowSource singleRowSource,
                                  SystemCollectSource systemCollectSource,
-                                 NodeStatsCollectSource nodeStatsCollectSource) {
+                                 NodeStatsCollectSource nodeStatsCollectSource,
+                                 SpillDirectory spillDirectory) {
         this.clusterService = clusterService;
 
         EvaluatingNormalizer normalizer = EvaluatingNormalizer.functionOnlyNormalizer(functions, ReplaceMode.COPY);
@@ -99,7 +101,8 @@ public class CollectSourceResolver {
             new InputFactory(functions),
             normalizer,
             systemCollectSource::getRowUpdater,
-            systemCollectSource::tableDefinition
+            systemCollectSource::tableDefinition,
+            spillDirectory.path()
         );
         this.shardCollectSource = shardCollectSource;
         this.fileCollectSource = new ProjectorSetupCollectSource(fileCollectSource, projectorFactory);
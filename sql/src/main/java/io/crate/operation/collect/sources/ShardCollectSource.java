@@ -64,6 +64,7 @@ import io.crate.operation.collect.collectors.OrderedLuceneBatchIteratorFactory;
 import io.crate.operation.projectors.ProjectingBatchConsumer;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
 import io.crate.operation.projectors.ProjectorFactory;
+import io.crate.operation.projectors.SpillDirectory;
 import io.crate.operation.projectors.sorting.OrderingByPosition;
 import io.crate.operation.reference.StaticTableReferenceResolver;
 import io.crate.operation.reference.sys.node.local.NodeSysExpression;
@@ -81,6 +82,7 @@ import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.index.Index;
@@ -94,6 +96,7 @@ import org.elasticsearch.index.shard.ShardNotFoundException;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -155,6 +158,25 @@ import static io.crate.blob.v2.BlobIndex.isBlobIndex;
 @Singleton
 public class ShardCollectSource extends AbstractComponent implements CollectSource {
 
+    /**
+     * Maximum number of partitions the docs of a shard are split into, so that partial aggregations on few large
+     * shards can use more threads of the SEARCH thread pool.
+     */
+    public static final Setting<Integer> PARTITIONS_PER_SHARD_SETTING = Setting.intSetting(
+        "node.sql.collect.partitions_per_shard",
+        1,
+        1,
+        Setting.Property.NodeScope);
+
+    /**
+     * Splitting a shard into partitions with fewer docs isn't worth the overhead of the additional collectors.
+     */
+    public static final Setting<Integer> MIN_DOCS_PER_PARTITION_SETTING = Setting.intSetting(
+        "node.sql.collect.min_docs_per_partition",
+        100_000,
+        1,
+        Setting.Property.NodeScope);
+
     private static final StaticTableReferenceResolver<UnassignedShard> UNASSIGNED_SHARD_SREFERENCE_RESOLVER =
         new StaticTableReferenceResolver<>(SysShardsTableInfo.unassignedShardsExpressions());
 
@@ -174,6 +196,8 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
     private final Functions functions;
     private final LuceneQueryBuilder luceneQueryBuilder;
     private final NodeJobsCounter nodeJobsCounter;
+    private final int partitionsPerShard;
+    private final Path spillDirectory;
 
     @Inject
     public ShardCollectSource(Settings settings,
@@ -189,7 +213,8 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
                               SystemCollectSource systemCollectSource,
                               NodeSysExpression nodeSysExpression,
                               IndexEventListenerProxy indexEventListenerProxy,
-                              BlobIndicesService blobIndicesService) {
+                              BlobIndicesService blobIndicesService,
+                              SpillDirectory spillDirectory) {
         super(settings);
         this.luceneQueryBuilder = luceneQueryBuilder;
         this.schemas = schemas;
@@ -203,6 +228,8 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
         this.executor = new DirectFallbackExecutor(threadPool.executor(ThreadPool.Names.SEARCH));
         this.blobIndicesService = blobIndicesService;
         this.functions = functions;
+        this.spillDirectory = spillDirectory.path();
+        this.partitionsPerShard = PARTITIONS_PER_SHARD_SETTING.get(settings);
         NodeSysReferenceResolver referenceResolver = new NodeSysReferenceResolver(nodeSysExpression);
         nodeNormalizer = new EvaluatingNormalizer(
             functions,
@@ -221,7 +248,8 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
             new InputFactory(functions),
             nodeNormalizer,
             systemCollectSource::getRowUpdater,
-            systemCollectSource::tableDefinition
+            systemCollectSource::tableDefinition,
+            spillDirectory.path()
         );
 
         indexEventListenerProxy.addLast(new LifecycleListener());
@@ -267,11 +295,11 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
                 if (isBlobIndex(indexShard.shardId().getIndexName())) {
                     BlobShard blobShard = blobIndicesService.blobShardSafe(indexShard.shardId());
                     return new BlobShardCollectorProvider(blobShard, clusterService, nodeJobsCounter, functions,
-                        threadPool, settings, transportActionProvider);
+                        threadPool, settings, transportActionProvider, spillDirectory);
                 } else {
                     return new LuceneShardCollectorProvider(
                         schemas, luceneQueryBuilder, clusterService, nodeJobsCounter, functions,
-                        threadPool, settings, transportActionProvider, indexShard);
+                        threadPool, settings, transportActionProvider, spillDirectory, indexShard);
                 }
             });
             shards.put(indexShard.shardId(), providerSupplier);
@@ -458,12 +486,12 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
                 ShardId shardId = new ShardId(index, shardNum);
                 try {
                     ShardCollectorProvider shardCollectorProvider = getCollectorProviderSafe(shardId);
-                    CrateCollector.Builder collector = shardCollectorProvider.getCollectorBuilder(
+                    crateCollectors.addAll(shardCollectorProvider.getCollectorBuilders(
                         collectPhase,
                         requiresScroll,
-                        jobCollectContext
-                    );
-                    crateCollectors.add(collector);
+                        jobCollectContext,
+                        partitionsPerShard
+                    ));
                 } catch (ShardNotFoundException | IllegalIndexShardStateException e) {
                     // If toCollect contains a docId it means that this is a QueryThenFetch operation.
                     // In such a case RemoteCollect cannot be used because on that node the FetchContext is missing
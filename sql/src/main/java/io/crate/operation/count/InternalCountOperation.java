@@ -23,7 +23,10 @@ package io.crate.operation.count;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import io.crate.analyze.WhereClause;
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.SymbolVisitors;
 import io.crate.lucene.LuceneQueryBuilder;
+import io.crate.metadata.FunctionInfo;
 import io.crate.metadata.PartitionName;
 import io.crate.operation.ThreadPools;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
@@ -31,6 +34,9 @@ import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.index.IndexService;
@@ -46,20 +52,29 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadPoolExecutor;
-import java.util.function.Function;
 import java.util.function.Supplier;
 
 @Singleton
 public class InternalCountOperation implements CountOperation {
 
+    /**
+     * Memory used to cache the number of documents matching a query per segment, see {@link SegmentCountCache}.
+     */
+    public static final Setting<ByteSizeValue> SEGMENT_COUNT_CACHE_SIZE_SETTING = Setting.memorySizeSetting(
+        "node.sql.count.segment_cache.size",
+        "10mb",
+        Setting.Property.NodeScope);
+
     private final LuceneQueryBuilder queryBuilder;
     private final IndicesService indicesService;
     private final ClusterService clusterService;
     private final ThreadPoolExecutor executor;
     private final int corePoolSize;
+    private final SegmentCountCache segmentCountCache;
 
     @Inject
-    public InternalCountOperation(LuceneQueryBuilder queryBuilder,
+    public InternalCountOperation(Settings settings,
+                                  LuceneQueryBuilder queryBuilder,
                                   ClusterService clusterService,
                                   ThreadPool threadPool,
                                   IndicesService indicesService) {
@@ -68,12 +83,15 @@ public class InternalCountOperation implements CountOperation {
         executor = (ThreadPoolExecutor) threadPool.executor(ThreadPool.Names.SEARCH);
         corePoolSize = executor.getMaximumPoolSize();
         this.indicesService = indicesService;
+        this.segmentCountCache = new SegmentCountCache(SEGMENT_COUNT_CACHE_SIZE_SETTING.get(settings).getBytes());
     }
 
     @Override
     public CompletableFuture<Long> count(Map<String, ? extends Collection<Integer>> indexShardMap,
                                          final WhereClause whereClause) throws IOException, InterruptedException {
-
+        if (whereClause.noMatch()) {
+            return CompletableFuture.completedFuture(0L);
+        }
         List<Supplier<Long>> suppliers = new ArrayList<>();
         MetaData metaData = clusterService.state().getMetaData();
         for (Map.Entry<String, ? extends Collection<Integer>> entry : indexShardMap.entrySet()) {
@@ -97,6 +115,14 @@ public class InternalCountOperation implements CountOperation {
             }
         }
         MergePartialCountFunction mergeFunction = new MergePartialCountFunction();
+        if (!whereClause.hasQuery()) {
+            // counting the live docs of each shard is cheap; no need to dispatch it to the search threads
+            List<Long> partialCounts = new ArrayList<>(suppliers.size());
+            for (Supplier<Long> supplier : suppliers) {
+                partialCounts.add(supplier.get());
+            }
+            return CompletableFuture.completedFuture(mergeFunction.apply(partialCounts));
+        }
         CompletableFuture<List<Long>> futurePartialCounts = ThreadPools.runWithAvailableThreads(
             executor, corePoolSize, suppliers, mergeFunction);
         return futurePartialCounts.thenApply(mergeFunction);
@@ -116,6 +142,12 @@ public class InternalCountOperation implements CountOperation {
 
         IndexShard indexShard = indexService.getShard(shardId);
         try (Engine.Searcher searcher = indexShard.acquireSearcher("count-operation")) {
+            if (whereClause.noMatch()) {
+                return 0L;
+            }
+            if (!whereClause.hasQuery()) {
+                return searcher.reader().numDocs();
+            }
             LuceneQueryBuilder.Context queryCtx = queryBuilder.convert(
                 whereClause,
                 indexService.mapperService(),
@@ -125,11 +157,20 @@ public class InternalCountOperation implements CountOperation {
             if (Thread.interrupted()) {
                 throw new InterruptedException("thread interrupted during count-operation");
             }
+            if (isDeterministic(whereClause)) {
+                return segmentCountCache.count(searcher.searcher(), queryCtx.query());
+            }
             return searcher.searcher().count(queryCtx.query());
         }
     }
 
-    private static class MergePartialCountFunction implements Function<List<Long>, Long> {
+    private static boolean isDeterministic(WhereClause whereClause) {
+        return !SymbolVisitors.any(
+            s -> s instanceof Function && !((Function) s).info().features().contains(FunctionInfo.Feature.DETERMINISTIC),
+            whereClause.query());
+    }
+
+    private static class MergePartialCountFunction implements java.util.function.Function<List<Long>, Long> {
 
         @Override
         public Long apply(List<Long> partialResults) {
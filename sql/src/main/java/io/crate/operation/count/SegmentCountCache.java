@@ -0,0 +1,175 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.count;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.BulkScorer;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the number of documents matching a query per segment.
+ *
+ * An entry is keyed by the query, the core of the segment and the number of deleted documents in the segment.
+ * The core of a segment doesn't change and documents can only be deleted from it, so an entry can't become stale:
+ * once a document of the segment is deleted the count is looked up with a different key.
+ * All entries of a segment are removed once its core is closed.
+ *
+ * Only queries which always match the same documents, e.g. without non-deterministic functions, must be counted
+ * using this cache.
+ *
+ * The size of the cache is limited in bytes. An entry is weighed by the size of its query, which is retained by the
+ * key; queries which don't report their size are assumed to use 1kb, like in Lucene's LRUQueryCache.
+ */
+class SegmentCountCache {
+
+    private static final int QUERY_DEFAULT_RAM_BYTES_USED = 1024;
+    private static final int ENTRY_SHALLOW_BYTES_USED =
+        (int) (RamUsageEstimator.shallowSizeOfInstance(Key.class) + RamUsageEstimator.shallowSizeOfInstance(Integer.class)
+               + 2 * RamUsageEstimator.NUM_BYTES_OBJECT_REF);
+
+    private final Cache<Key, Integer> cache;
+    private final Set<Object> coresWithListener = ConcurrentHashMap.newKeySet();
+
+    SegmentCountCache(long maxBytes) {
+        cache = CacheBuilder.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((Key key, Integer count) -> weigh(key.query))
+            .build();
+    }
+
+    private static int weigh(Query query) {
+        long queryBytes = query instanceof Accountable
+            ? ((Accountable) query).ramBytesUsed()
+            : QUERY_DEFAULT_RAM_BYTES_USED;
+        return (int) Math.min(Integer.MAX_VALUE, ENTRY_SHALLOW_BYTES_USED + queryBytes);
+    }
+
+    /**
+     * Count the documents matching {@code query}, re-using the counts of the segments which have already been
+     * counted for the same query.
+     */
+    long count(IndexSearcher searcher, Query query) throws IOException, InterruptedException {
+        Weight weight = null;
+        long count = 0L;
+        for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException("thread interrupted during count-operation");
+            }
+            LeafReader reader = leaf.reader();
+            Key key = new Key(query, reader.getCoreCacheKey(), reader.numDeletedDocs());
+            Integer leafCount = cache.getIfPresent(key);
+            if (leafCount == null) {
+                if (weight == null) {
+                    weight = searcher.createNormalizedWeight(query, false);
+                }
+                leafCount = countLeaf(weight, leaf);
+                removeEntriesOnClose(reader);
+                cache.put(key, leafCount);
+            }
+            count += leafCount;
+        }
+        return count;
+    }
+
+    int size() {
+        return (int) cache.size();
+    }
+
+    private void removeEntriesOnClose(LeafReader reader) {
+        Object coreKey = reader.getCoreCacheKey();
+        if (coresWithListener.add(coreKey)) {
+            reader.addCoreClosedListener(ownerCoreCacheKey -> {
+                coresWithListener.remove(ownerCoreCacheKey);
+                cache.asMap().keySet().removeIf(key -> key.coreKey == ownerCoreCacheKey);
+            });
+        }
+    }
+
+    private static int countLeaf(Weight weight, LeafReaderContext leaf) throws IOException {
+        BulkScorer bulkScorer = weight.bulkScorer(leaf);
+        if (bulkScorer == null) {
+            return 0;
+        }
+        CountingLeafCollector collector = new CountingLeafCollector();
+        bulkScorer.score(collector, leaf.reader().getLiveDocs());
+        return collector.count;
+    }
+
+    private static class CountingLeafCollector implements LeafCollector {
+
+        private int count = 0;
+
+        @Override
+        public void setScorer(Scorer scorer) {
+        }
+
+        @Override
+        public void collect(int doc) {
+            count++;
+        }
+    }
+
+    private static class Key {
+
+        private final Query query;
+        private final Object coreKey;
+        private final int numDeletedDocs;
+
+        Key(Query query, Object coreKey, int numDeletedDocs) {
+            this.query = query;
+            this.coreKey = coreKey;
+            this.numDeletedDocs = numDeletedDocs;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return coreKey == key.coreKey &&
+                   numDeletedDocs == key.numDeletedDocs &&
+                   query.equals(key.query);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = query.hashCode();
+            result = 31 * result + System.identityHashCode(coreKey);
+            result = 31 * result + numDeletedDocs;
+            return result;
+        }
+    }
+}
@@ -23,7 +23,6 @@
 package io.crate.operation.fetch;
 
 import com.carrotsearch.hppc.IntContainer;
-import com.carrotsearch.hppc.cursors.IntCursor;
 import io.crate.Streamer;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.executor.transport.StreamBucket;
@@ -33,10 +32,14 @@ import io.crate.operation.reference.doc.lucene.CollectorContext;
 import io.crate.operation.reference.doc.lucene.LuceneCollectorExpression;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.ReaderUtil;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.fielddata.IndexFieldDataService;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 class FetchCollector {
@@ -70,26 +73,116 @@ class FetchCollector {
 
     }
 
+    private void setNextReader(LeafReaderContext readerContext) throws IOException {
+        for (LuceneCollectorExpression e : collectorExpressions) {
+            e.setNextReader(readerContext);
+        }
+    }
+
     private void setNextDocId(LeafReaderContext readerContext, int doc) throws IOException {
         if (visitorEnabled) {
             fieldsVisitor.reset();
             readerContext.reader().document(doc, fieldsVisitor);
         }
         for (LuceneCollectorExpression e : collectorExpressions) {
-            e.setNextReader(readerContext);
             e.setNextDocId(doc);
         }
     }
 
+    /**
+     * Fetches the docs in the order of their doc ids, so that each segment is visited only once and the doc values
+     * and stored fields are read sequentially. The rows of the resulting bucket are in the iteration order of
+     * {@code docIds}, as expected by the requester.
+     */
     public StreamBucket collect(IntContainer docIds) throws IOException {
+        int[] ids = docIds.toArray();
+        int[] positions = positionsByDocId(ids);
         StreamBucket.Builder builder = new StreamBucket.Builder(streamers, ramAccountingContext);
-        for (IntCursor cursor : docIds) {
-            int docId = cursor.value;
-            int readerIndex = ReaderUtil.subIndex(docId, readerContexts);
-            LeafReaderContext subReaderContext = readerContexts.get(readerIndex);
-            setNextDocId(subReaderContext, docId - subReaderContext.docBase);
-            builder.add(row);
+        if (positions == null) {
+            collectInDocIdOrder(ids, null, sortedIdx -> builder.add(row));
+            return builder.build();
+        }
+
+        // rows are serialized in doc id order first and then copied in the requested order
+        BytesStreamOutput rowsInDocIdOrder = new BytesStreamOutput(ids.length * 16);
+        int[] rowEndOffsets = new int[ids.length];
+        collectInDocIdOrder(ids, positions, sortedIdx -> {
+            for (int i = 0; i < streamers.length; i++) {
+                streamers[i].writeValueTo(rowsInDocIdOrder, row.get(i));
+            }
+            rowEndOffsets[sortedIdx] = rowsInDocIdOrder.size();
+        });
+        long tmpBytes = rowsInDocIdOrder.size();
+        ramAccountingContext.addBytes(tmpBytes);
+        try {
+            int[] sortedIdxByPosition = new int[ids.length];
+            for (int sortedIdx = 0; sortedIdx < positions.length; sortedIdx++) {
+                sortedIdxByPosition[positions[sortedIdx]] = sortedIdx;
+            }
+            BytesReference bytes = rowsInDocIdOrder.bytes();
+            for (int sortedIdx : sortedIdxByPosition) {
+                int start = sortedIdx == 0 ? 0 : rowEndOffsets[sortedIdx - 1];
+                builder.addSerialized(bytes.slice(start, rowEndOffsets[sortedIdx] - start));
+            }
+            return builder.build();
+        } finally {
+            ramAccountingContext.addBytesWithoutBreaking(-tmpBytes);
+        }
+    }
+
+    /**
+     * @param positions the positions of the doc ids in ascending doc id order or null if they're already sorted
+     */
+    private void collectInDocIdOrder(int[] ids, @Nullable int[] positions, RowHandler rowHandler) throws IOException {
+        int leafIdx = -1;
+        LeafReaderContext leaf = null;
+        int leafEnd = 0;
+        for (int sortedIdx = 0; sortedIdx < ids.length; sortedIdx++) {
+            int docId = positions == null ? ids[sortedIdx] : ids[positions[sortedIdx]];
+            if (leaf == null || docId >= leafEnd) {
+                int newLeafIdx = ReaderUtil.subIndex(docId, readerContexts);
+                assert newLeafIdx > leafIdx : "leaves must be visited in ascending order";
+                leafIdx = newLeafIdx;
+                leaf = readerContexts.get(leafIdx);
+                leafEnd = leaf.docBase + leaf.reader().maxDoc();
+                setNextReader(leaf);
+            }
+            setNextDocId(leaf, docId - leaf.docBase);
+            rowHandler.onRow(sortedIdx);
+        }
+    }
+
+    /**
+     * Returns the positions of the doc ids in ascending doc id order or null if the doc ids are already sorted.
+     */
+    @Nullable
+    static int[] positionsByDocId(int[] ids) {
+        boolean sorted = true;
+        for (int i = 1; i < ids.length; i++) {
+            if (ids[i - 1] > ids[i]) {
+                sorted = false;
+                break;
+            }
+        }
+        if (sorted) {
+            return null;
         }
-        return builder.build();
+        // doc ids are positive, so docId/position pairs can be sorted as longs
+        long[] docIdAndPosition = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            docIdAndPosition[i] = ((long) ids[i] << 32) | i;
+        }
+        Arrays.sort(docIdAndPosition);
+        int[] positions = new int[ids.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = (int) docIdAndPosition[i];
+        }
+        return positions;
+    }
+
+    @FunctionalInterface
+    private interface RowHandler {
+
+        void onRow(int sortedIdx) throws IOException;
     }
 }
@@ -0,0 +1,74 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.join;
+
+import io.crate.analyze.symbol.Symbol;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.operation.InputFactory;
+import io.crate.operation.collect.CollectExpression;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Evaluates the equi-join keys of a hash join for a row.
+ *
+ * A single key is returned as is, multiple keys are returned as a list.
+ * If any key is null the result is null, as null never matches in an equality comparison.
+ */
+public class HashJoinKey implements Function<Row, Object> {
+
+    private final List<Input<?>> keyInputs;
+    private final List<CollectExpression<Row, ?>> expressions;
+
+    public HashJoinKey(InputFactory inputFactory, List<Symbol> keys) {
+        assert !keys.isEmpty() : "hash join requires at least one key";
+        InputFactory.Context<CollectExpression<Row, ?>> ctx = inputFactory.ctxForInputColumns(keys);
+        keyInputs = ctx.topLevelInputs();
+        expressions = ctx.expressions();
+    }
+
+    @Nullable
+    @Override
+    public Object apply(Row row) {
+        //noinspection ForLoopReplaceableByForEach // avoids iterator allocation - invoked per row
+        for (int i = 0, expressionsSize = expressions.size(); i < expressionsSize; i++) {
+            expressions.get(i).setNextRow(row);
+        }
+        if (keyInputs.size() == 1) {
+            return keyInputs.get(0).value();
+        }
+        Object[] values = new Object[keyInputs.size()];
+        for (int i = 0; i < values.length; i++) {
+            Object value = keyInputs.get(i).value();
+            if (value == null) {
+                return null;
+            }
+            values[i] = value;
+        }
+        return Arrays.asList(values);
+    }
+}
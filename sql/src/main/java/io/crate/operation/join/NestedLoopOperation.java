@@ -23,14 +23,18 @@ package io.crate.operation.join;
 
 import io.crate.concurrent.CompletionListenable;
 import io.crate.data.*;
+import io.crate.data.join.HashJoinBatchIterator;
 import io.crate.data.join.NestedLoopBatchIterator;
 import io.crate.planner.node.dql.join.JoinType;
 
 import javax.annotation.Nullable;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
 import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 
 public class NestedLoopOperation implements CompletionListenable {
@@ -38,19 +42,55 @@ public class NestedLoopOperation implements CompletionListenable {
     private final CompletableFuture<BatchIterator> leftBatchIterator = new CompletableFuture<>();
     private final CompletableFuture<BatchIterator> rightBatchIterator = new CompletableFuture<>();
     private final CompletableFuture<Void> completionFuture = new CompletableFuture<>();
+    private final boolean rightRequiresRepeat;
 
     public NestedLoopOperation(BatchConsumer nlResultConsumer,
                                Predicate<Row> joinPredicate,
                                JoinType joinType) {
+        this(
+            nlResultConsumer,
+            (left, right) -> createNestedLoopIterator(left, right, joinType, joinPredicate),
+            true
+        );
+    }
+
+    /**
+     * Creates an operation which executes an inner join as hash join.
+     * The hash table is built from the rows of the left or right side which are accounted using {@code rowAccounting}.
+     * Neither side has to be repeatable, so the resulting iterator doesn't support
+     * {@link BatchIterator#moveToStart()}.
+     */
+    public NestedLoopOperation(BatchConsumer nlResultConsumer,
+                               Predicate<Row> joinPredicate,
+                               Function<Row, Object> leftKey,
+                               Function<Row, Object> rightKey,
+                               boolean buildOnLeft,
+                               Consumer<Row> rowAccounting) {
+        this(
+            nlResultConsumer,
+            (left, right) -> HashJoinBatchIterator.innerJoin(
+                left,
+                right,
+                getHashKey(leftKey),
+                getHashKey(rightKey),
+                getJoinCondition(joinPredicate),
+                buildOnLeft,
+                rowAccounting
+            ),
+            false
+        );
+    }
 
+    private NestedLoopOperation(BatchConsumer nlResultConsumer,
+                                BiFunction<BatchIterator, BatchIterator, BatchIterator> joinIteratorFactory,
+                                boolean rightRequiresRepeat) {
+        this.rightRequiresRepeat = rightRequiresRepeat;
         CompletableFuture.allOf(leftBatchIterator, rightBatchIterator)
             .whenComplete((result, failure) -> {
                 if (failure == null) {
-                    BatchIterator nlIterator = new ListenableBatchIterator(createNestedLoopIterator(
+                    BatchIterator nlIterator = new ListenableBatchIterator(joinIteratorFactory.apply(
                         leftBatchIterator.join(),
-                        rightBatchIterator.join(),
-                        joinType,
-                        joinPredicate
+                        rightBatchIterator.join()
                     ), completionFuture);
                     nlResultConsumer.accept(nlIterator, null);
                 } else {
@@ -90,12 +130,19 @@ public class NestedLoopOperation implements CompletionListenable {
         };
     }
 
+    private static Function<Columns, Supplier<Object>> getHashKey(Function<Row, Object> key) {
+        return columns -> {
+            final Row row = RowBridging.toRow(columns);
+            return () -> key.apply(row);
+        };
+    }
+
     public BatchConsumer leftConsumer() {
         return getBatchConsumer(leftBatchIterator, false);
     }
 
     public BatchConsumer rightConsumer() {
-        return getBatchConsumer(rightBatchIterator, true);
+        return getBatchConsumer(rightBatchIterator, rightRequiresRepeat);
     }
 
     private BatchConsumer getBatchConsumer(CompletableFuture<BatchIterator> future, boolean requiresRepeat) {
@@ -28,6 +28,7 @@ import io.crate.operation.AggregationContext;
 import io.crate.operation.aggregation.AggregationFunction;
 import io.crate.operation.collect.CollectExpression;
 
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -35,6 +36,8 @@ import java.util.stream.Collectors;
 public class AggregationPipe implements Projector {
 
     private final AggregateCollector collector;
+    @Nullable
+    private final ColumnBatchAggregateCollector columnBatchCollector;
     private final int numAggregations;
 
     public AggregationPipe(List<CollectExpression<Row, ?>> expressions,
@@ -56,10 +59,29 @@ public class AggregationPipe implements Projector {
             functions,
             inputs
         );
+        columnBatchCollector = ColumnBatchAggregateCollector.create(
+            aggregateMode,
+            functions,
+            inputs,
+            ramAccountingContext
+        );
     }
 
     @Override
     public BatchIterator apply(BatchIterator batchIterator) {
+        if (columnBatchCollector != null
+            && batchIterator instanceof ColumnarBatchIterator
+            && ((ColumnarBatchIterator) batchIterator).columnBatch() != null) {
+            ColumnarBatchIterator columnarBatchIterator = (ColumnarBatchIterator) batchIterator;
+            return CollectingBatchIterator.newInstance(
+                batchIterator,
+                bi -> ColumnBatchVisitor.visitBatches(
+                    columnarBatchIterator,
+                    Collectors.collectingAndThen(
+                        columnBatchCollector,
+                        cells -> Collections.<Row>singletonList(new RowN(cells)))),
+                numAggregations);
+        }
         return CollectingBatchIterator.newInstance(batchIterator,
             Collectors.collectingAndThen(
                 collector,
@@ -0,0 +1,150 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import io.crate.analyze.symbol.AggregateMode;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.ColumnBatch;
+import io.crate.data.ColumnVector;
+import io.crate.data.Input;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.VectorizedAggregation;
+import io.crate.operation.collect.InputCollectExpression;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * The {@link ColumnBatch} counterpart of {@link AggregateCollector}.
+ *
+ * It can only be used if all aggregations implement {@link VectorizedAggregation} and their arguments are plain
+ * columns of the batch; see {@link #create(AggregateMode, AggregationFunction[], Input[][], RamAccountingContext)}.
+ */
+class ColumnBatchAggregateCollector implements Collector<ColumnBatch, Object[], Object[]> {
+
+    private static final int NO_ARG = -1;
+
+    private final AggregationFunction[] aggregations;
+    private final VectorizedAggregation[] vectorizedAggregations;
+    private final int[] argColumns;
+    private final RamAccountingContext ramAccounting;
+    private final Function<Object[], Object[]> finisher;
+
+    /**
+     * @return the collector or null if the aggregations can't be computed on column batches.
+     */
+    @Nullable
+    static ColumnBatchAggregateCollector create(AggregateMode mode,
+                                                AggregationFunction[] aggregations,
+                                                Input[][] inputs,
+                                                RamAccountingContext ramAccounting) {
+        if (mode == AggregateMode.PARTIAL_FINAL) {
+            // the inputs are partial states which aren't stored in column vectors
+            return null;
+        }
+        VectorizedAggregation[] vectorizedAggregations = new VectorizedAggregation[aggregations.length];
+        int[] argColumns = new int[aggregations.length];
+        for (int i = 0; i < aggregations.length; i++) {
+            if (!(aggregations[i] instanceof VectorizedAggregation)) {
+                return null;
+            }
+            vectorizedAggregations[i] = (VectorizedAggregation) aggregations[i];
+            Input[] args = inputs[i];
+            if (args.length == 0) {
+                argColumns[i] = NO_ARG;
+            } else if (args.length == 1 && args[0] instanceof InputCollectExpression) {
+                argColumns[i] = ((InputCollectExpression) args[0]).position();
+            } else {
+                return null;
+            }
+        }
+        return new ColumnBatchAggregateCollector(mode, aggregations, vectorizedAggregations, argColumns, ramAccounting);
+    }
+
+    private ColumnBatchAggregateCollector(AggregateMode mode,
+                                          AggregationFunction[] aggregations,
+                                          VectorizedAggregation[] vectorizedAggregations,
+                                          int[] argColumns,
+                                          RamAccountingContext ramAccounting) {
+        this.aggregations = aggregations;
+        this.vectorizedAggregations = vectorizedAggregations;
+        this.argColumns = argColumns;
+        this.ramAccounting = ramAccounting;
+        this.finisher = mode == AggregateMode.ITER_FINAL ? this::finishCollect : s -> s;
+    }
+
+    @Override
+    public Supplier<Object[]> supplier() {
+        return this::prepareState;
+    }
+
+    @Override
+    public BiConsumer<Object[], ColumnBatch> accumulator() {
+        return this::iterate;
+    }
+
+    @Override
+    public BinaryOperator<Object[]> combiner() {
+        return (state1, state2) -> { throw new UnsupportedOperationException("combine not supported"); };
+    }
+
+    @Override
+    public Function<Object[], Object[]> finisher() {
+        return finisher;
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return Collections.emptySet();
+    }
+
+    private Object[] prepareState() {
+        Object[] states = new Object[aggregations.length];
+        for (int i = 0; i < aggregations.length; i++) {
+            states[i] = aggregations[i].newState(ramAccounting);
+        }
+        return states;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void iterate(Object[] state, ColumnBatch batch) {
+        for (int i = 0; i < vectorizedAggregations.length; i++) {
+            int argColumn = argColumns[i];
+            ColumnVector arg = argColumn == NO_ARG ? null : batch.get(argColumn);
+            state[i] = vectorizedAggregations[i].iterate(ramAccounting, state[i], batch, arg);
+        }
+    }
+
+    private Object[] finishCollect(Object[] state) {
+        for (int i = 0; i < aggregations.length; i++) {
+            state[i] = aggregations[i].terminatePartial(ramAccounting, state[i]);
+        }
+        return state;
+    }
+}
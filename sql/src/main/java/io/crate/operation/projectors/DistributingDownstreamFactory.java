@@ -36,6 +36,7 @@ import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.threadpool.ThreadPool;
 
@@ -50,10 +51,20 @@ public class DistributingDownstreamFactory extends AbstractComponent {
     @VisibleForTesting
     public static final String RESPONSE_EXECUTOR_NAME = ThreadPool.Names.SEARCH;
 
+    /**
+     * Number of pages an upstream sends to its downstreams without waiting for their responses.
+     */
+    public static final Setting<Integer> PAGES_IN_FLIGHT_SETTING = Setting.intSetting(
+        "node.sql.distributed.pages_in_flight",
+        2,
+        1,
+        Setting.Property.NodeScope);
+
     private final ClusterService clusterService;
     private final Executor responseExecutor;
     private final TransportDistributedResultAction transportDistributedResultAction;
     private final Logger distributingDownstreamLogger;
+    private final int pagesInFlight;
 
     @Inject
     public DistributingDownstreamFactory(Settings settings,
@@ -65,6 +76,7 @@ public class DistributingDownstreamFactory extends AbstractComponent {
         this.responseExecutor = threadPool.executor(RESPONSE_EXECUTOR_NAME);
         this.transportDistributedResultAction = transportDistributedResultAction;
         distributingDownstreamLogger = Loggers.getLogger(DistributingConsumer.class, settings);
+        this.pagesInFlight = PAGES_IN_FLIGHT_SETTING.get(settings);
     }
 
     public BatchConsumer create(NodeOperation nodeOperation,
@@ -109,7 +121,8 @@ public class DistributingDownstreamFactory extends AbstractComponent {
             nodeOperation.downstreamNodes(),
             transportDistributedResultAction,
             streamers,
-            pageSize
+            pageSize,
+            pagesInFlight
         );
     }
 }
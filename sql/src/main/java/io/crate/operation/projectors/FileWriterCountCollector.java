@@ -23,6 +23,7 @@
 package io.crate.operation.projectors;
 
 import com.google.common.annotations.VisibleForTesting;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.Row1;
@@ -52,6 +53,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
@@ -80,6 +82,8 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
     private final RowWriter rowWriter;
 
     public FileWriterCountCollector(ExecutorService executorService,
+                                    Executor compressionExecutor,
+                                    RamAccountingContext ramAccountingContext,
                                     String uri,
                                     @Nullable WriterProjection.CompressionType compressionType,
                                     @Nullable List<Input<?>> inputs,
@@ -99,9 +103,9 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
             throw new SQLParseException(String.format(Locale.ENGLISH, "Invalid uri '%s'", uri), e);
         }
         if (this.uri.getScheme() == null || this.uri.getScheme().equals("file")) {
-            this.output = new OutputFile(this.uri, this.compressionType);
+            this.output = new OutputFile(compressionExecutor, ramAccountingContext, this.uri, this.compressionType);
         } else if (this.uri.getScheme().equalsIgnoreCase("s3")) {
-            this.output = new OutputS3(executorService, this.uri, this.compressionType);
+            this.output = new OutputS3(executorService, compressionExecutor, ramAccountingContext, this.uri, this.compressionType);
         } else {
             throw new UnsupportedFeatureException(String.format(Locale.ENGLISH, "Unknown scheme '%s'", this.uri.getScheme()));
         }
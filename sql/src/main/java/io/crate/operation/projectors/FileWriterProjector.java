@@ -21,6 +21,7 @@
 
 package io.crate.operation.projectors;
 
+import io.crate.breaker.RamAccountingContext;
 import io.crate.data.*;
 import io.crate.metadata.ColumnIdent;
 import io.crate.operation.collect.CollectExpression;
@@ -29,6 +30,7 @@ import io.crate.planner.projection.WriterProjection;
 import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 
 public class FileWriterProjector implements Projector {
@@ -42,6 +44,8 @@ public class FileWriterProjector implements Projector {
     private final WriterProjection.OutputFormat outputFormat;
     private final WriterProjection.CompressionType compressionType;
     private final ExecutorService executorService;
+    private final Executor compressionExecutor;
+    private final RamAccountingContext ramAccountingContext;
 
     /**
      * @param inputs a list of {@link Input}.
@@ -50,8 +54,11 @@ public class FileWriterProjector implements Projector {
      *               That raw source is then written to the output
      *               <p/>
      *               If inputs is not null the inputs are consumed to write a JSON array to the output.
+     * @param compressionExecutor a bounded executor used to compress the output if {@code compressionType} is set.
      */
     public FileWriterProjector(ExecutorService executorService,
+                               Executor compressionExecutor,
+                               RamAccountingContext ramAccountingContext,
                                String uri,
                                @Nullable WriterProjection.CompressionType compressionType,
                                @Nullable List<Input<?>> inputs,
@@ -61,6 +68,8 @@ public class FileWriterProjector implements Projector {
                                WriterProjection.OutputFormat outputFormat) {
         this.collectExpressions = collectExpressions;
         this.executorService = executorService;
+        this.compressionExecutor = compressionExecutor;
+        this.ramAccountingContext = ramAccountingContext;
         this.inputs = inputs;
         this.overwrites = overwrites;
         this.outputNames = outputNames;
@@ -75,6 +84,8 @@ public class FileWriterProjector implements Projector {
             batchIterator,
             new FileWriterCountCollector(
                 executorService,
+                compressionExecutor,
+                ramAccountingContext,
                 uri.toString(),
                 compressionType,
                 inputs,
@@ -22,6 +22,7 @@
 
 package io.crate.operation.projectors;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import io.crate.analyze.symbol.AggregateMode;
 import io.crate.breaker.RamAccountingContext;
@@ -33,22 +34,35 @@ import io.crate.data.RowN;
 import io.crate.operation.aggregation.AggregationFunction;
 import io.crate.operation.collect.CollectExpression;
 import io.crate.types.DataType;
+import io.crate.types.DataTypes;
 
 import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.function.LongPredicate;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collector;
 
 /**
  * Collector implementation which uses {@link Aggregator}s and {@code keyInputs}
  * to group rows by key and aggregate the grouped values.
  *
+ * If the groups don't fit into memory they are written to {@link SpilledGroups}.
+ *
  * @param <K> type of the key
  */
-public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, Iterable<Row>> {
+public class GroupingCollector<K> implements Collector<Row, GroupingCollector.Groups<K>, Iterable<Row>> {
+
+    /**
+     * Key types which are grouped using {@link GroupingLongCollector}
+     */
+    private static final Set<DataType> INTEGRAL_TYPES = ImmutableSet.<DataType>of(
+        DataTypes.BYTE, DataTypes.SHORT, DataTypes.INTEGER, DataTypes.LONG, DataTypes.TIMESTAMP);
 
     private final CollectExpression<Row, ?>[] expressions;
     private final AggregationFunction[] aggregations;
@@ -59,14 +73,37 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
     private final int numKeyColumns;
     private final SizeEstimator<K> keySizeEstimator;
     private final Function<Row, K> keyExtractor;
+    private final UnaryOperator<K> keyCopier;
+    private final List<? extends DataType> keyTypes;
+    private final LongPredicate spillCondition;
+    private final Path spillDirectory;
 
-    static GroupingCollector<Object> singleKey(CollectExpression<Row, ?>[] expressions,
-                                               AggregateMode mode,
-                                               AggregationFunction[] aggregations,
-                                               Input[][] inputs,
-                                               RamAccountingContext ramAccountingContext,
-                                               Input<?> keyInput,
-                                               DataType keyType) {
+    /**
+     * @param spillCondition tested with the bytes used by the groups in memory after each row;
+     *                       the groups are written to {@code spillDirectory} once it is met.
+     */
+    static Collector<Row, ? extends Closeable, Iterable<Row>> singleKey(CollectExpression<Row, ?>[] expressions,
+                                                                        AggregateMode mode,
+                                                                        AggregationFunction[] aggregations,
+                                                                        Input[][] inputs,
+                                                                        RamAccountingContext ramAccountingContext,
+                                                                        Input<?> keyInput,
+                                                                        DataType keyType,
+                                                                        LongPredicate spillCondition,
+                                                                        Path spillDirectory) {
+        if (INTEGRAL_TYPES.contains(keyType)) {
+            return new GroupingLongCollector(
+                expressions,
+                aggregations,
+                mode,
+                inputs,
+                ramAccountingContext,
+                keyInput,
+                keyType,
+                spillCondition,
+                spillDirectory
+            );
+        }
         return new GroupingCollector<>(
             expressions,
             aggregations,
@@ -76,7 +113,11 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
             (key, cells) -> cells[0] = key,
             1,
             SizeEstimatorFactory.create(keyType),
-            row -> keyInput.value()
+            row -> keyInput.value(),
+            key -> key,
+            Collections.singletonList(keyType),
+            spillCondition,
+            spillDirectory
         );
     }
 
@@ -86,7 +127,12 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                                                     Input[][] inputs,
                                                     RamAccountingContext ramAccountingContext,
                                                     List<Input<?>> keyInputs,
-                                                    List<? extends DataType> keyTypes) {
+                                                    List<? extends DataType> keyTypes,
+                                                    LongPredicate spillCondition,
+                                                    Path spillDirectory) {
+        // the key of the current row is evaluated into a re-used buffer which is only copied if a new group is added
+        Object[] keyBuffer = new Object[keyInputs.size()];
+        List<Object> currentKey = Arrays.asList(keyBuffer);
         return new GroupingCollector<>(
             expressions,
             aggregations,
@@ -96,14 +142,17 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
             GroupingCollector::applyKeysToCells,
             keyInputs.size(),
             new MultiSizeEstimator(keyTypes),
-            row -> evalKeyInputs(keyInputs)
+            row -> evalKeyInputs(keyInputs, keyBuffer, currentKey),
+            key -> Arrays.asList(key.toArray()),
+            keyTypes,
+            spillCondition,
+            spillDirectory
         );
     }
 
-    private static List<Object> evalKeyInputs(List<Input<?>> keyInputs) {
-        List<Object> key = new ArrayList<>(keyInputs.size());
-        for (Input<?> keyInput : keyInputs) {
-            key.add(keyInput.value());
+    private static List<Object> evalKeyInputs(List<Input<?>> keyInputs, Object[] keyBuffer, List<Object> key) {
+        for (int i = 0; i < keyBuffer.length; i++) {
+            keyBuffer[i] = keyInputs.get(i).value();
         }
         return key;
     }
@@ -122,7 +171,11 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                               BiConsumer<K, Object[]> applyKeyToCells,
                               int numKeyColumns,
                               SizeEstimator<K> keySizeEstimator,
-                              Function<Row, K> keyExtractor) {
+                              Function<Row, K> keyExtractor,
+                              UnaryOperator<K> keyCopier,
+                              List<? extends DataType> keyTypes,
+                              LongPredicate spillCondition,
+                              Path spillDirectory) {
         this.expressions = expressions;
         this.aggregations = aggregations;
         this.mode = mode;
@@ -132,26 +185,54 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         this.numKeyColumns = numKeyColumns;
         this.keySizeEstimator = keySizeEstimator;
         this.keyExtractor = keyExtractor;
+        this.keyCopier = keyCopier;
+        this.keyTypes = keyTypes;
+        this.spillCondition = spillCondition;
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * The groups in memory and the groups which have already been spilled to disk.
+     * Closing it deletes the spilled groups if the collection doesn't complete.
+     */
+    static final class Groups<K> implements Closeable {
+
+        private Map<K, Object[]> statesByKey = new HashMap<>();
+
+        /**
+         * bytes accounted for while the groups in memory were aggregated
+         */
+        private long bytes = 0L;
+
+        @Nullable
+        private SpilledGroups spilled;
+
+        @Override
+        public void close() {
+            if (spilled != null) {
+                spilled.close();
+            }
+        }
     }
 
     @Override
-    public Supplier<Map<K, Object[]>> supplier() {
-        return HashMap::new;
+    public Supplier<Groups<K>> supplier() {
+        return Groups::new;
     }
 
     @Override
-    public BiConsumer<Map<K, Object[]>, Row> accumulator() {
+    public BiConsumer<Groups<K>, Row> accumulator() {
         return this::onNextRow;
     }
 
     @Override
-    public BinaryOperator<Map<K, Object[]>> combiner() {
+    public BinaryOperator<Groups<K>> combiner() {
         return (state1, state2) -> { throw new UnsupportedOperationException("combine not supported"); };
     }
 
     @Override
-    public Function<Map<K, Object[]>, Iterable<Row>> finisher() {
-        return this::mapToRows;
+    public Function<Groups<K>, Iterable<Row>> finisher() {
+        return this::groupsToRows;
     }
 
     @Override
@@ -159,19 +240,41 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         return Collections.emptySet();
     }
 
-    private void onNextRow(Map<K, Object[]> statesByKey, Row row) {
+    private void onNextRow(Groups<K> groups, Row row) {
+        long bytesBefore = ramAccountingContext.totalBytes();
         for (CollectExpression<Row, ?> expression : expressions) {
             expression.setNextRow(row);
         }
         K key = keyExtractor.apply(row);
-        Object[] states = statesByKey.get(key);
+        Object[] states = groups.statesByKey.get(key);
         if (states == null) {
-            addNewEntry(statesByKey, key);
+            addNewEntry(groups.statesByKey, key);
         } else {
             for (int i = 0; i < aggregations.length; i++) {
                 states[i] = mode.onRow(ramAccountingContext, aggregations[i], states[i], inputs[i]);
             }
         }
+        groups.bytes += ramAccountingContext.totalBytes() - bytesBefore;
+        if (spillCondition.test(groups.bytes)) {
+            spill(groups);
+        }
+    }
+
+    /**
+     * Writes the groups in memory to disk and releases their memory.
+     */
+    private void spill(Groups<K> groups) {
+        if (groups.spilled == null) {
+            groups.spilled = new SpilledGroups(keyTypes, aggregations, mode, ramAccountingContext, spillDirectory);
+        }
+        Object[] keyCells = new Object[numKeyColumns];
+        for (Map.Entry<K, Object[]> entry : groups.statesByKey.entrySet()) {
+            applyKeyToCells.accept(entry.getKey(), keyCells);
+            groups.spilled.add(keyCells, entry.getValue());
+        }
+        ramAccountingContext.addBytesWithoutBreaking(-groups.bytes);
+        groups.statesByKey = new HashMap<>();
+        groups.bytes = 0L;
     }
 
     private void addNewEntry(Map<K, Object[]> statesByKey, K key) {
@@ -182,13 +285,20 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
             states[i] = mode.onRow(
                 ramAccountingContext, aggregation, aggregation.newState(ramAccountingContext), inputs[i]);
         }
-        ramAccountingContext.addBytes( // key size + 32 bytes for entry + 4 bytes for increased capacity
-            RamAccountingContext.roundUp(keySizeEstimator.estimateSize(key) + 36L));
-        statesByKey.put(key, states);
+        // key size + 32 bytes for entry + 4 bytes for increased capacity
+        // + states array (16 bytes header + 8 bytes per state reference)
+        ramAccountingContext.addBytes(RamAccountingContext.roundUp(
+            keySizeEstimator.estimateSize(key) + 36L + 16L + 8L * aggregations.length));
+        statesByKey.put(keyCopier.apply(key), states);
     }
 
-    private Iterable<Row> mapToRows(Map<K, Object[]> statesByKey) {
-        return Iterables.transform(statesByKey.entrySet(), new com.google.common.base.Function<Map.Entry<K, Object[]>, Row>() {
+    private Iterable<Row> groupsToRows(Groups<K> groups) {
+        if (groups.spilled != null) {
+            spill(groups);
+            groups.spilled.finish();
+            return groups.spilled;
+        }
+        return Iterables.transform(groups.statesByKey.entrySet(), new com.google.common.base.Function<Map.Entry<K, Object[]>, Row>() {
 
             RowN row = new RowN(numKeyColumns + aggregations.length);
             Object[] cells = new Object[row.numColumns()];
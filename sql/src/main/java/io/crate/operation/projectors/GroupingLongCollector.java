@@ -0,0 +1,313 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import com.carrotsearch.hppc.LongIntHashMap;
+import io.crate.analyze.symbol.AggregateMode;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.collect.CollectExpression;
+import io.crate.types.DataType;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * Collector implementation which groups rows by a single integral key (byte, short, integer, long or timestamp)
+ * and aggregates the grouped values.
+ *
+ * Instead of a {@code Map<Object, Object[]>} with boxed keys it uses a primitive open-addressing hash map which
+ * maps each key to a slot. The keys and aggregation states are stored in parallel arrays at that slot.
+ * The null key is kept separate as it can't be represented as primitive.
+ *
+ * If the groups don't fit into memory they are written to {@link SpilledGroups}, like in {@link GroupingCollector}.
+ */
+class GroupingLongCollector implements Collector<Row, GroupingLongCollector.Groups, Iterable<Row>> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * key (8 bytes) + slot (4 bytes) of every slot in the hash map, including the free slots of its load factor
+     */
+    private static final long BYTES_PER_MAP_SLOT = 12L;
+
+    /**
+     * key in the keys array (8 bytes) + reference to the states in the states array (8 bytes)
+     */
+    private static final long BYTES_PER_GROUP_SLOT = 16L;
+
+    private final CollectExpression<Row, ?>[] expressions;
+    private final AggregationFunction[] aggregations;
+    private final AggregateMode mode;
+    private final Input[][] inputs;
+    private final RamAccountingContext ramAccountingContext;
+    private final Input<?> keyInput;
+    private final DataType keyType;
+    private final LongPredicate spillCondition;
+    private final Path spillDirectory;
+
+    GroupingLongCollector(CollectExpression<Row, ?>[] expressions,
+                          AggregationFunction[] aggregations,
+                          AggregateMode mode,
+                          Input[][] inputs,
+                          RamAccountingContext ramAccountingContext,
+                          Input<?> keyInput,
+                          DataType keyType,
+                          LongPredicate spillCondition,
+                          Path spillDirectory) {
+        this.expressions = expressions;
+        this.aggregations = aggregations;
+        this.mode = mode;
+        this.inputs = inputs;
+        this.ramAccountingContext = ramAccountingContext;
+        this.keyInput = keyInput;
+        this.keyType = keyType;
+        this.spillCondition = spillCondition;
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * The arrays of the hash map and of the keys and states are accounted for with their capacity
+     * whenever they grow; the states of a group are accounted for once the group is added.
+     * Closing it deletes the spilled groups if the collection doesn't complete.
+     */
+    static final class Groups implements Closeable {
+
+        private final RamAccountingContext ramAccountingContext;
+        private LongIntHashMap slotByKey = new LongIntHashMap(INITIAL_CAPACITY);
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private Object[][] states = new Object[INITIAL_CAPACITY][];
+        private int size = 0;
+        private int mapCapacity;
+
+        private Object[] nullKeyStates = null;
+
+        /**
+         * bytes accounted for while the groups in memory were aggregated, excluding the initial capacities
+         */
+        private long bytes = 0L;
+
+        @Nullable
+        private SpilledGroups spilled;
+
+        Groups(RamAccountingContext ramAccountingContext) {
+            this.ramAccountingContext = ramAccountingContext;
+            this.mapCapacity = slotByKey.keys.length;
+            ramAccountingContext.addBytes(RamAccountingContext.roundUp(
+                mapCapacity * BYTES_PER_MAP_SLOT + INITIAL_CAPACITY * BYTES_PER_GROUP_SLOT));
+        }
+
+        private int addSlot(long key, Object[] groupStates) {
+            if (size == keys.length) {
+                int newCapacity = size + (size >> 1);
+                ramAccountingContext.addBytes(
+                    RamAccountingContext.roundUp((newCapacity - size) * BYTES_PER_GROUP_SLOT));
+                keys = Arrays.copyOf(keys, newCapacity);
+                states = Arrays.copyOf(states, newCapacity);
+            }
+            int slot = size;
+            keys[slot] = key;
+            states[slot] = groupStates;
+            size++;
+            return slot;
+        }
+
+        private void insert(int index, long key, Object[] groupStates) {
+            int slot = addSlot(key, groupStates);
+            slotByKey.indexInsert(index, key, slot);
+            int newMapCapacity = slotByKey.keys.length;
+            if (newMapCapacity != mapCapacity) {
+                ramAccountingContext.addBytes(
+                    RamAccountingContext.roundUp((newMapCapacity - mapCapacity) * BYTES_PER_MAP_SLOT));
+                mapCapacity = newMapCapacity;
+            }
+        }
+
+        /**
+         * Removes all groups; only the initial capacities remain accounted for.
+         */
+        private void clear() {
+            slotByKey = new LongIntHashMap(INITIAL_CAPACITY);
+            keys = new long[INITIAL_CAPACITY];
+            states = new Object[INITIAL_CAPACITY][];
+            size = 0;
+            mapCapacity = slotByKey.keys.length;
+            nullKeyStates = null;
+            bytes = 0L;
+        }
+
+        @Override
+        public void close() {
+            if (spilled != null) {
+                spilled.close();
+            }
+        }
+    }
+
+    @Override
+    public Supplier<Groups> supplier() {
+        return () -> new Groups(ramAccountingContext);
+    }
+
+    @Override
+    public BiConsumer<Groups, Row> accumulator() {
+        return this::onNextRow;
+    }
+
+    @Override
+    public BinaryOperator<Groups> combiner() {
+        return (state1, state2) -> { throw new UnsupportedOperationException("combine not supported"); };
+    }
+
+    @Override
+    public Function<Groups, Iterable<Row>> finisher() {
+        return this::groupsToRows;
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return Collections.emptySet();
+    }
+
+    private void onNextRow(Groups groups, Row row) {
+        long bytesBefore = ramAccountingContext.totalBytes();
+        for (CollectExpression<Row, ?> expression : expressions) {
+            expression.setNextRow(row);
+        }
+        Object value = keyInput.value();
+        if (value == null) {
+            if (groups.nullKeyStates == null) {
+                groups.nullKeyStates = newStates();
+            } else {
+                aggregate(groups.nullKeyStates);
+            }
+        } else {
+            long key = ((Number) value).longValue();
+            LongIntHashMap slotByKey = groups.slotByKey;
+            int index = slotByKey.indexOf(key);
+            if (slotByKey.indexExists(index)) {
+                aggregate(groups.states[slotByKey.indexGet(index)]);
+            } else {
+                groups.insert(index, key, newStates());
+            }
+        }
+        groups.bytes += ramAccountingContext.totalBytes() - bytesBefore;
+        if (spillCondition.test(groups.bytes)) {
+            spill(groups);
+        }
+    }
+
+    /**
+     * Writes the groups in memory to disk and releases their memory.
+     */
+    private void spill(Groups groups) {
+        if (groups.spilled == null) {
+            groups.spilled = new SpilledGroups(
+                Collections.singletonList(keyType), aggregations, mode, ramAccountingContext, spillDirectory);
+        }
+        Object[] keyCells = new Object[1];
+        for (int i = 0; i < groups.size; i++) {
+            keyCells[0] = keyType.value(groups.keys[i]);
+            groups.spilled.add(keyCells, groups.states[i]);
+        }
+        if (groups.nullKeyStates != null) {
+            keyCells[0] = null;
+            groups.spilled.add(keyCells, groups.nullKeyStates);
+        }
+        ramAccountingContext.addBytesWithoutBreaking(-groups.bytes);
+        groups.clear();
+    }
+
+    private void aggregate(Object[] states) {
+        for (int i = 0; i < aggregations.length; i++) {
+            states[i] = mode.onRow(ramAccountingContext, aggregations[i], states[i], inputs[i]);
+        }
+    }
+
+    private Object[] newStates() {
+        Object[] states = new Object[aggregations.length];
+        for (int i = 0; i < aggregations.length; i++) {
+            AggregationFunction aggregation = aggregations[i];
+            states[i] = mode.onRow(
+                ramAccountingContext, aggregation, aggregation.newState(ramAccountingContext), inputs[i]);
+        }
+        // states array (16 bytes header + 8 bytes per state reference), like in GroupingCollector
+        ramAccountingContext.addBytes(RamAccountingContext.roundUp(16L + 8L * aggregations.length));
+        return states;
+    }
+
+    private Iterable<Row> groupsToRows(Groups groups) {
+        if (groups.spilled != null) {
+            spill(groups);
+            groups.spilled.finish();
+            return groups.spilled;
+        }
+        return () -> new Iterator<Row>() {
+
+            final Object[] cells = new Object[1 + aggregations.length];
+            final RowN row = new RowN(cells);
+            final int numGroups = groups.size + (groups.nullKeyStates == null ? 0 : 1);
+            int idx = 0;
+
+            @Override
+            public boolean hasNext() {
+                return idx < numGroups;
+            }
+
+            @Override
+            public Row next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("Iterator is exhausted");
+                }
+                Object[] states;
+                if (idx < groups.size) {
+                    cells[0] = keyType.value(groups.keys[idx]);
+                    states = groups.states[idx];
+                } else {
+                    cells[0] = null;
+                    states = groups.nullKeyStates;
+                }
+                idx++;
+                for (int i = 0; i < states.length; i++) {
+                    cells[i + 1] = mode.finishCollect(ramAccountingContext, aggregations[i], states[i]);
+                }
+                return row;
+            }
+        };
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import com.carrotsearch.hppc.IntObjectHashMap;
+import com.google.common.annotations.VisibleForTesting;
+import io.crate.analyze.symbol.AggregateMode;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.breaker.SizeEstimator;
+import io.crate.breaker.SizeEstimatorFactory;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.reference.doc.lucene.BytesRefColumnReference;
+import io.crate.types.DataTypes;
+import org.apache.lucene.index.RandomAccessOrds;
+import org.apache.lucene.util.BytesRef;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * Collector implementation which groups the documents of a shard by a single string column and aggregates the
+ * grouped values.
+ *
+ * Instead of reading, copying and hashing the value of each row it uses the ordinals of the current segment:
+ * The aggregation states of a segment are kept in an array indexed by ordinal. An ordinal is only resolved to its
+ * term, to look up the states in the map of all groups, the first time it occurs in a segment.
+ *
+ * Segments with more than {@link #MAX_DENSE_ORDINALS} ordinals keep the states in a map by ordinal instead,
+ * so that only the ordinals which occur are paid for.
+ */
+class GroupingOrdinalsCollector implements Collector<Row, GroupingOrdinalsCollector.Groups, Iterable<Row>> {
+
+    /**
+     * Reference in the per-segment states array
+     */
+    private static final long BYTES_PER_ORDINAL = 8L;
+
+    /**
+     * Int key and reference per slot of the per-segment map, with the default load factor of 0.75
+     */
+    private static final long BYTES_PER_SPARSE_ORDINAL = 16L;
+
+    /**
+     * Segments with up to this many ordinals use an array indexed by ordinal, taking at most 512KB
+     */
+    static final int MAX_DENSE_ORDINALS = 1 << 16;
+
+    private static final SizeEstimator<Object> KEY_SIZE_ESTIMATOR = SizeEstimatorFactory.create(DataTypes.STRING);
+
+    private final CollectExpression<Row, ?>[] expressions;
+    private final AggregationFunction[] aggregations;
+    private final AggregateMode mode;
+    private final Input[][] inputs;
+    private final RamAccountingContext ramAccountingContext;
+    private final BytesRefColumnReference keyColumn;
+    private final int maxDenseOrdinals;
+
+    GroupingOrdinalsCollector(CollectExpression<Row, ?>[] expressions,
+                              AggregationFunction[] aggregations,
+                              AggregateMode mode,
+                              Input[][] inputs,
+                              RamAccountingContext ramAccountingContext,
+                              BytesRefColumnReference keyColumn) {
+        this(expressions, aggregations, mode, inputs, ramAccountingContext, keyColumn, MAX_DENSE_ORDINALS);
+    }
+
+    @VisibleForTesting
+    GroupingOrdinalsCollector(CollectExpression<Row, ?>[] expressions,
+                              AggregationFunction[] aggregations,
+                              AggregateMode mode,
+                              Input[][] inputs,
+                              RamAccountingContext ramAccountingContext,
+                              BytesRefColumnReference keyColumn,
+                              int maxDenseOrdinals) {
+        this.expressions = expressions;
+        this.aggregations = aggregations;
+        this.mode = mode;
+        this.inputs = inputs;
+        this.ramAccountingContext = ramAccountingContext;
+        this.keyColumn = keyColumn;
+        this.maxDenseOrdinals = maxDenseOrdinals;
+    }
+
+    static final class Groups {
+
+        private final Map<BytesRef, Object[]> statesByKey = new HashMap<>();
+
+        private RandomAccessOrds segmentOrdinals = null;
+        private Object[][] statesByOrdinal = null;
+        private IntObjectHashMap<Object[]> sparseStatesByOrdinal = null;
+        private long segmentBytes = 0L;
+    }
+
+    @Override
+    public Supplier<Groups> supplier() {
+        return Groups::new;
+    }
+
+    @Override
+    public BiConsumer<Groups, Row> accumulator() {
+        return this::onNextRow;
+    }
+
+    @Override
+    public BinaryOperator<Groups> combiner() {
+        return (state1, state2) -> { throw new UnsupportedOperationException("combine not supported"); };
+    }
+
+    @Override
+    public Function<Groups, Iterable<Row>> finisher() {
+        return this::groupsToRows;
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return Collections.emptySet();
+    }
+
+    private void onNextRow(Groups groups, Row row) {
+        for (CollectExpression<Row, ?> expression : expressions) {
+            expression.setNextRow(row);
+        }
+        // positioned on the current document by the key column
+        RandomAccessOrds ordinals = keyColumn.ordinals();
+        if (ordinals != groups.segmentOrdinals) {
+            startSegment(groups, ordinals);
+        }
+        if (ordinals.cardinality() == 0) {
+            Object[] states = groups.statesByKey.get(null);
+            if (states == null) {
+                addNewGroup(groups, null);
+            } else {
+                aggregate(states);
+            }
+            return;
+        }
+        int ordinal = (int) ordinals.ordAt(0);
+        Object[] states = groups.statesByOrdinal == null
+            ? groups.sparseStatesByOrdinal.get(ordinal)
+            : groups.statesByOrdinal[ordinal];
+        if (states == null) {
+            BytesRef key = ordinals.lookupOrd(ordinal);
+            states = groups.statesByKey.get(key);
+            if (states == null) {
+                states = addNewGroup(groups, BytesRef.deepCopyOf(key));
+            } else {
+                aggregate(states);
+            }
+            if (groups.statesByOrdinal == null) {
+                ramAccountingContext.addBytes(BYTES_PER_SPARSE_ORDINAL);
+                groups.segmentBytes += BYTES_PER_SPARSE_ORDINAL;
+                groups.sparseStatesByOrdinal.put(ordinal, states);
+            } else {
+                groups.statesByOrdinal[ordinal] = states;
+            }
+        } else {
+            aggregate(states);
+        }
+    }
+
+    private void startSegment(Groups groups, RandomAccessOrds ordinals) {
+        ramAccountingContext.addBytesWithoutBreaking(-RamAccountingContext.roundUp(groups.segmentBytes));
+        groups.segmentBytes = 0L;
+        groups.segmentOrdinals = ordinals;
+        long valueCount = ordinals.getValueCount();
+        assert valueCount <= Integer.MAX_VALUE : "number of ordinals of a segment must fit into an int";
+        if (valueCount <= maxDenseOrdinals) {
+            groups.segmentBytes = BYTES_PER_ORDINAL * valueCount;
+            ramAccountingContext.addBytes(RamAccountingContext.roundUp(groups.segmentBytes));
+            groups.statesByOrdinal = new Object[(int) valueCount][];
+            groups.sparseStatesByOrdinal = null;
+        } else {
+            groups.statesByOrdinal = null;
+            groups.sparseStatesByOrdinal = new IntObjectHashMap<>();
+        }
+    }
+
+    private Object[] addNewGroup(Groups groups, BytesRef key) {
+        Object[] states = new Object[aggregations.length];
+        for (int i = 0; i < aggregations.length; i++) {
+            AggregationFunction aggregation = aggregations[i];
+            states[i] = mode.onRow(
+                ramAccountingContext, aggregation, aggregation.newState(ramAccountingContext), inputs[i]);
+        }
+        // key size + 32 bytes for entry + 4 bytes for increased capacity
+        // + states array (16 bytes header + 8 bytes per state reference)
+        ramAccountingContext.addBytes(RamAccountingContext.roundUp(
+            KEY_SIZE_ESTIMATOR.estimateSize(key) + 36L + 16L + 8L * aggregations.length));
+        groups.statesByKey.put(key, states);
+        return states;
+    }
+
+    private void aggregate(Object[] states) {
+        for (int i = 0; i < aggregations.length; i++) {
+            states[i] = mode.onRow(ramAccountingContext, aggregations[i], states[i], inputs[i]);
+        }
+    }
+
+    private Iterable<Row> groupsToRows(Groups groups) {
+        return () -> new Iterator<Row>() {
+
+            final Iterator<Map.Entry<BytesRef, Object[]>> entries = groups.statesByKey.entrySet().iterator();
+            final Object[] cells = new Object[1 + aggregations.length];
+            final RowN row = new RowN(cells);
+
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public Row next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("Iterator is exhausted");
+                }
+                Map.Entry<BytesRef, Object[]> entry = entries.next();
+                cells[0] = entry.getKey();
+                Object[] states = entry.getValue();
+                for (int i = 0; i < states.length; i++) {
+                    cells[i + 1] = mode.finishCollect(ramAccountingContext, aggregations[i], states[i]);
+                }
+                return row;
+            }
+        };
+    }
+}
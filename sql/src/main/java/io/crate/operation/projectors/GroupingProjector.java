@@ -27,23 +27,61 @@ import io.crate.data.*;
 import io.crate.operation.AggregationContext;
 import io.crate.operation.aggregation.AggregationFunction;
 import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.collect.InputCollectExpression;
+import io.crate.operation.reference.doc.lucene.BytesRefColumnReference;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
+import org.apache.lucene.util.IOUtils;
 
+import java.io.Closeable;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongPredicate;
+import java.util.stream.Collector;
 
 public class GroupingProjector implements Projector {
 
-    private final GroupingCollector<Object> collector;
+    private static final int NO_STRING_KEY = -1;
+
+    private final Collector<Row, ? extends Closeable, Iterable<Row>> collector;
     private final int numCols;
 
+    private final CollectExpression<Row, ?>[] collectExpressions;
+    private final AggregateMode mode;
+    private final AggregationFunction[] functions;
+    private final Input[][] inputs;
+    private final RamAccountingContext ramAccountingContext;
+    /**
+     * Position of the column of a single string key; used to group by the ordinals of the segments
+     * if the rows are read from a shard.
+     */
+    private final int stringKeyColumn;
+
 
     public GroupingProjector(List<? extends DataType> keyTypes,
                              List<Input<?>> keyInputs,
                              CollectExpression<Row, ?>[] collectExpressions,
                              AggregateMode mode,
                              AggregationContext[] aggregations,
-                             RamAccountingContext ramAccountingContext) {
+                             RamAccountingContext ramAccountingContext,
+                             Path spillDirectory) {
+        this(keyTypes, keyInputs, collectExpressions, mode, aggregations, ramAccountingContext,
+            SpilledGroups.breakerIsNearLimit(ramAccountingContext), spillDirectory);
+    }
+
+    /**
+     * @param spillCondition tested with the bytes used by the groups in memory after each row;
+     *                       the groups are written to {@code spillDirectory} once it is met.
+     */
+    GroupingProjector(List<? extends DataType> keyTypes,
+                      List<Input<?>> keyInputs,
+                      CollectExpression<Row, ?>[] collectExpressions,
+                      AggregateMode mode,
+                      AggregationContext[] aggregations,
+                      RamAccountingContext ramAccountingContext,
+                      LongPredicate spillCondition,
+                      Path spillDirectory) {
         assert keyTypes.size() == keyInputs.size() : "number of key types must match with number of key inputs";
         assert allTypesKnown(keyTypes) : "must have a known type for each key input";
 
@@ -63,21 +101,37 @@ public class GroupingProjector implements Projector {
                 inputs,
                 ramAccountingContext,
                 keyInputs.get(0),
-                keyTypes.get(0)
+                keyTypes.get(0),
+                spillCondition,
+                spillDirectory
             );
         } else {
-            //noinspection unchecked
-            collector = (GroupingCollector<Object>) (GroupingCollector) GroupingCollector.manyKeys(
+            collector = GroupingCollector.manyKeys(
                 collectExpressions,
                 mode,
                 functions,
                 inputs,
                 ramAccountingContext,
                 keyInputs,
-                keyTypes
+                keyTypes,
+                spillCondition,
+                spillDirectory
             );
         }
         numCols = keyInputs.size() + functions.length;
+
+        this.collectExpressions = collectExpressions;
+        this.mode = mode;
+        this.functions = functions;
+        this.inputs = inputs;
+        this.ramAccountingContext = ramAccountingContext;
+        if (keyInputs.size() == 1
+            && keyTypes.get(0).equals(DataTypes.STRING)
+            && keyInputs.get(0) instanceof InputCollectExpression) {
+            stringKeyColumn = ((InputCollectExpression) keyInputs.get(0)).position();
+        } else {
+            stringKeyColumn = NO_STRING_KEY;
+        }
     }
 
     private static boolean allTypesKnown(List<? extends DataType> keyTypes) {
@@ -86,7 +140,37 @@ public class GroupingProjector implements Projector {
 
     @Override
     public BatchIterator apply(BatchIterator batchIterator) {
-        return CollectingBatchIterator.newInstance(batchIterator, collector, numCols);
+        if (stringKeyColumn != NO_STRING_KEY) {
+            Input<?> keyColumn = batchIterator.rowData().get(stringKeyColumn);
+            if (keyColumn instanceof BytesRefColumnReference) {
+                return CollectingBatchIterator.newInstance(
+                    batchIterator,
+                    new GroupingOrdinalsCollector(
+                        collectExpressions,
+                        functions,
+                        mode,
+                        inputs,
+                        ramAccountingContext,
+                        (BytesRefColumnReference) keyColumn),
+                    numCols);
+            }
+        }
+        return CollectingBatchIterator.newInstance(batchIterator, source -> collectGroups(source, collector), numCols);
+    }
+
+    /**
+     * Collects the groups and deletes the groups which have been spilled to disk if the collection fails.
+     */
+    private static <A extends Closeable> CompletableFuture<Iterable<Row>> collectGroups(
+        BatchIterator source, Collector<Row, A, Iterable<Row>> collector) {
+
+        A groups = collector.supplier().get();
+        return BatchRowVisitor.visitRows(source, groups, collector, new CompletableFuture<>())
+            .whenComplete((result, t) -> {
+                if (t != null) {
+                    IOUtils.closeWhileHandlingException(groups);
+                }
+            });
     }
 
     @Override
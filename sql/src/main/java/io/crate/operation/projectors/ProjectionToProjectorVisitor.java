@@ -29,6 +29,7 @@ import io.crate.analyze.symbol.Symbol;
 import io.crate.analyze.symbol.Symbols;
 import io.crate.analyze.symbol.ValueSymbolVisitor;
 import io.crate.breaker.RamAccountingContext;
+import io.crate.collections.Lists2;
 import io.crate.data.Input;
 import io.crate.data.Projector;
 import io.crate.data.Row;
@@ -50,6 +51,7 @@ import io.crate.operation.projectors.fetch.FetchProjector;
 import io.crate.operation.projectors.fetch.FetchProjectorContext;
 import io.crate.operation.projectors.fetch.TransportFetchOperation;
 import io.crate.operation.projectors.sorting.OrderingByPosition;
+import io.crate.operation.projectors.writer.ParallelGzipOutputStream;
 import io.crate.operation.reference.StaticTableDefinition;
 import io.crate.operation.reference.sys.SysRowUpdater;
 import io.crate.planner.projection.AggregationProjection;
@@ -75,6 +77,7 @@ import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -98,6 +101,7 @@ public class ProjectionToProjectorVisitor
     private final EvaluatingNormalizer normalizer;
     private final Function<TableIdent, SysRowUpdater<?>> sysUpdaterGetter;
     private final Function<TableIdent, StaticTableDefinition<?>> staticTableDefinitionGetter;
+    private final Path spillDirectory;
     @Nullable
     private final ShardId shardId;
 
@@ -111,6 +115,7 @@ public class ProjectionToProjectorVisitor
                                         EvaluatingNormalizer normalizer,
                                         Function<TableIdent, SysRowUpdater<?>> sysUpdaterGetter,
                                         Function<TableIdent, StaticTableDefinition<?>> staticTableDefinitionGetter,
+                                        Path spillDirectory,
                                         @Nullable ShardId shardId) {
         this.clusterService = clusterService;
         this.nodeJobsCounter = nodeJobsCounter;
@@ -122,6 +127,7 @@ public class ProjectionToProjectorVisitor
         this.normalizer = normalizer;
         this.sysUpdaterGetter = sysUpdaterGetter;
         this.staticTableDefinitionGetter = staticTableDefinitionGetter;
+        this.spillDirectory = spillDirectory;
         this.shardId = shardId;
     }
 
@@ -134,7 +140,8 @@ public class ProjectionToProjectorVisitor
                                         InputFactory inputFactory,
                                         EvaluatingNormalizer normalizer,
                                         Function<TableIdent, SysRowUpdater<?>> sysUpdaterGetter,
-                                        Function<TableIdent, StaticTableDefinition<?>> staticTableDefinitionGetter) {
+                                        Function<TableIdent, StaticTableDefinition<?>> staticTableDefinitionGetter,
+                                        Path spillDirectory) {
         this(clusterService,
             nodeJobsCounter,
             functions,
@@ -145,6 +152,7 @@ public class ProjectionToProjectorVisitor
             normalizer,
             sysUpdaterGetter,
             staticTableDefinitionGetter,
+            spillDirectory,
             null
         );
     }
@@ -186,7 +194,10 @@ public class ProjectionToProjectorVisitor
             ctx.expressions(),
             numOutputs,
             OrderingByPosition.arrayOrdering(orderByIndices, projection.reverseFlags(), projection.nullsFirst()),
-            projection.offset()
+            projection.offset(),
+            Lists2.concat(Symbols.typeView(projection.outputs()), Symbols.typeView(projection.orderBy())),
+            context.ramAccountingContext,
+            spillDirectory
         );
     }
 
@@ -221,7 +232,8 @@ public class ProjectionToProjectorVisitor
             Iterables.toArray(ctx.expressions(), CollectExpression.class),
             projection.mode(),
             ctx.aggregations().toArray(new AggregationContext[0]),
-            context.ramAccountingContext
+            context.ramAccountingContext,
+            spillDirectory
         );
     }
 
@@ -273,6 +285,8 @@ public class ProjectionToProjectorVisitor
 
         return new FileWriterProjector(
             threadPool.generic(),
+            threadPool.executor(ParallelGzipOutputStream.THREAD_POOL_NAME),
+            context.ramAccountingContext,
             uri,
             projection.compressionType(),
             inputs,
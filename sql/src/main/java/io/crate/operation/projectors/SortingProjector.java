@@ -22,29 +22,37 @@
 package io.crate.operation.projectors;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.data.*;
 import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.projectors.sorting.SpillingSorter;
+import io.crate.types.DataType;
 
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collector;
-import java.util.stream.Collectors;
 
 /**
  * Sort rows by ordering criteria and process given offset before emitting.
  * <p>
  * Compared to {@link SortingTopNProjector} this projector does not support limiting,
  * while the {@link SortingTopNProjector} does not work WITHOUT a limit.
+ * <p>
+ * If the rows don't fit into memory they're sorted using a {@link SpillingSorter}.
  */
 class SortingProjector implements Projector {
 
     private final Collection<? extends Input<?>> inputs;
     private final Iterable<? extends CollectExpression<Row, ?>> collectExpressions;
 
-    private final Comparator<Object[]> comparator;
     private final int offset;
     private final int numOutputs;
+    private final Supplier<SpillingSorter> sorterFactory;
 
     /**
      * @param inputs             contains output {@link Input}s and orderBy {@link Input}s
@@ -52,27 +60,57 @@ class SortingProjector implements Projector {
      * @param numOutputs         <code>inputs</code> contains this much output {@link Input}s starting form index 0
      * @param comparator         ordering that is used to compare the rows
      * @param offset             the initial offset, this number of rows are skipped
+     * @param rowTypes           the types of <code>inputs</code>
+     * @param spillDirectory     the directory for sorted runs if the rows don't fit into memory
      */
     SortingProjector(Collection<? extends Input<?>> inputs,
                      Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
                      int numOutputs,
                      Comparator<Object[]> comparator,
-                     int offset) {
+                     int offset,
+                     List<? extends DataType> rowTypes,
+                     RamAccountingContext ramAccountingContext,
+                     Path spillDirectory) {
+        this(inputs, collectExpressions, numOutputs, offset,
+            () -> SpillingSorter.spillIfBreakerIsNearLimit(
+                comparator.reversed(), rowTypes, ramAccountingContext, spillDirectory));
+    }
+
+    SortingProjector(Collection<? extends Input<?>> inputs,
+                     Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
+                     int numOutputs,
+                     int offset,
+                     Supplier<SpillingSorter> sorterFactory) {
         Preconditions.checkArgument(offset >= 0, "invalid offset %s", offset);
         this.numOutputs = numOutputs;
         this.inputs = inputs;
         this.collectExpressions = collectExpressions;
-        this.comparator = comparator;
         this.offset = offset;
+        this.sorterFactory = sorterFactory;
     }
 
 
     @Override
     public BatchIterator apply(BatchIterator batchIterator) {
-        Collector<Row, ?, Bucket> collector = Collectors.mapping(
-            this::getCells,
-            Collectors.collectingAndThen(Collectors.toList(), this::sortAndCreateBucket));
-        return CollectingBatchIterator.newInstance(batchIterator, collector, numOutputs);
+        return CollectingBatchIterator.newInstance(
+            batchIterator,
+            source -> {
+                SpillingSorter sorter = sorterFactory.get();
+                Collector<Row, SpillingSorter, Iterable<Row>> collector = Collector.of(
+                    () -> sorter,
+                    (s, row) -> s.add(getCells(row)),
+                    (s1, s2) -> { throw new UnsupportedOperationException("combine not supported"); },
+                    this::sortAndCreateRows
+                );
+                return BatchRowVisitor.visitRows(source, collector)
+                    .whenComplete((result, t) -> {
+                        if (t != null) {
+                            sorter.close();
+                        }
+                    });
+            },
+            numOutputs
+        );
     }
 
     @Override
@@ -92,11 +130,41 @@ class SortingProjector implements Projector {
         return newRow;
     }
 
-    private Bucket sortAndCreateBucket(List<Object[]> rows) {
-        rows.sort(comparator.reversed());
+    private Iterable<Row> sortAndCreateRows(SpillingSorter sorter) {
+        Iterable<Object[]> sortedRows = sorter.sortedRows();
+        if (sorter.hasSpilled()) {
+            return new SpilledRows(sorter, Iterables.skip(sortedRows, offset), numOutputs);
+        }
+        List<Object[]> rows = (List<Object[]>) sortedRows;
         if (offset == 0) {
             return new CollectionBucket(rows, numOutputs);
         }
         return new CollectionBucket(rows.subList(offset, rows.size()), numOutputs);
     }
+
+    /**
+     * Sorted rows which are partially stored on disk. The files are deleted on {@link #close()}.
+     */
+    private static class SpilledRows implements Iterable<Row>, AutoCloseable {
+
+        private final SpillingSorter sorter;
+        private final Iterable<Object[]> sortedRows;
+        private final int numOutputs;
+
+        SpilledRows(SpillingSorter sorter, Iterable<Object[]> sortedRows, int numOutputs) {
+            this.sorter = sorter;
+            this.sortedRows = sortedRows;
+            this.numOutputs = numOutputs;
+        }
+
+        @Override
+        public Iterator<Row> iterator() {
+            return Iterables.transform(sortedRows, Buckets.arrayToRowFunction(numOutputs)).iterator();
+        }
+
+        @Override
+        public void close() {
+            sorter.close();
+        }
+    }
 }
@@ -0,0 +1,72 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.util.IOUtils;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.io.PathUtils;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.env.NodeEnvironment;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The directory to which operations write rows which don't fit into memory,
+ * e.g. the sorted runs of a {@link io.crate.operation.projectors.sorting.SpillingSorter} or the groups of a GROUP BY.
+ *
+ * It's a directory in the first data path of the node. Files which are left over because a node
+ * didn't shut down properly are deleted once the node starts.
+ */
+@Singleton
+public class SpillDirectory {
+
+    private static final Logger LOGGER = Loggers.getLogger(SpillDirectory.class);
+
+    static final String NAME = "spill";
+
+    private final Path path;
+
+    @Inject
+    public SpillDirectory(NodeEnvironment nodeEnvironment) {
+        if (nodeEnvironment.hasNodeFile()) {
+            path = nodeEnvironment.nodeDataPaths()[0].resolve(NAME);
+            try {
+                IOUtils.rm(path);
+            } catch (IOException e) {
+                LOGGER.warn("Could not delete the left over files in the spill directory: {} {}", path, e);
+            }
+        } else {
+            path = PathUtils.get(System.getProperty("java.io.tmpdir"));
+        }
+    }
+
+    /**
+     * The directory; it doesn't necessarily exist yet.
+     */
+    public Path path() {
+        return path;
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import com.carrotsearch.hppc.BitMixer;
+import io.crate.Streamer;
+import io.crate.analyze.symbol.AggregateMode;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.util.IOUtils;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.logging.Loggers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.LongPredicate;
+
+/**
+ * Groups of a GROUP BY which have been written to disk because they didn't fit into memory.
+ *
+ * Each group - its key and the states of its aggregations - is written to one of {@link #NUM_PARTITIONS} files,
+ * chosen by the hash of the key, using the {@link Streamer}s of the key types and of the partial types of the
+ * aggregations. The same key is written again by every spill which contains it.
+ * Once all rows have been grouped the partitions are read one after another and the states of equal keys are
+ * reduced, so that only the groups of one partition have to fit into memory at a time.
+ */
+final class SpilledGroups implements Iterable<Row>, Closeable {
+
+    private static final Logger LOGGER = Loggers.getLogger(SpilledGroups.class);
+
+    static final int NUM_PARTITIONS = 16;
+
+    /**
+     * Groups are only spilled if they use at least this many bytes, to avoid writing many small spills.
+     */
+    private static final long MIN_SPILL_BYTES = 8 * 1024 * 1024;
+
+    /**
+     * The groups are spilled if the breaker uses more than this ratio of its limit.
+     */
+    private static final double SPILL_AT_LIMIT_RATIO = 0.8;
+
+    /**
+     * entry in the hash map (36 bytes) + key array and states array (2 * 16 bytes header)
+     */
+    private static final long GROUP_OVERHEAD = 68L;
+
+    private final Streamer[] keyStreamers;
+    private final Streamer[] stateStreamers;
+    private final AggregationFunction[] aggregations;
+    private final AggregateMode mode;
+    private final RamAccountingContext ramAccountingContext;
+    private final Path directory;
+    private final Path[] files = new Path[NUM_PARTITIONS];
+    private final StreamOutput[] outputs = new StreamOutput[NUM_PARTITIONS];
+    private final int[] numGroups = new int[NUM_PARTITIONS];
+    private final BytesStreamOutput groupBuffer = new BytesStreamOutput();
+
+    private boolean finished = false;
+    private long loadedPartitionBytes = 0L;
+
+    /**
+     * Returns a spill condition for the bytes used by the groups in memory
+     * which is met once the breaker of {@code ramAccountingContext} is close to its limit.
+     */
+    static LongPredicate breakerIsNearLimit(RamAccountingContext ramAccountingContext) {
+        return bytes -> bytes >= MIN_SPILL_BYTES && ramAccountingContext.exceedsLimitRatio(SPILL_AT_LIMIT_RATIO);
+    }
+
+    /**
+     * @param directory the directory in which the partitions are written; created if it doesn't exist.
+     */
+    SpilledGroups(List<? extends DataType> keyTypes,
+                  AggregationFunction[] aggregations,
+                  AggregateMode mode,
+                  RamAccountingContext ramAccountingContext,
+                  Path directory) {
+        this.keyStreamers = DataTypes.getStreamers(keyTypes);
+        this.stateStreamers = new Streamer[aggregations.length];
+        for (int i = 0; i < aggregations.length; i++) {
+            stateStreamers[i] = aggregations[i].partialType().streamer();
+        }
+        this.aggregations = aggregations;
+        this.mode = mode;
+        this.ramAccountingContext = ramAccountingContext;
+        this.directory = directory;
+    }
+
+    /**
+     * Writes a group to the partition of its key. {@code key} is only read within this call and can be re-used.
+     */
+    @SuppressWarnings("unchecked")
+    void add(Object[] key, Object[] states) {
+        assert !finished : "groups must not be added after finish has been called";
+        int partition = (BitMixer.mix32(Arrays.hashCode(key)) & Integer.MAX_VALUE) % NUM_PARTITIONS;
+        try {
+            StreamOutput out = outputs[partition];
+            if (out == null) {
+                Files.createDirectories(directory);
+                Path file = Files.createTempFile(directory, "crate-groups-", ".partition");
+                files[partition] = file;
+                out = new OutputStreamStreamOutput(new BufferedOutputStream(Files.newOutputStream(file)));
+                outputs[partition] = out;
+            }
+            groupBuffer.reset();
+            for (int i = 0; i < keyStreamers.length; i++) {
+                keyStreamers[i].writeValueTo(groupBuffer, key[i]);
+            }
+            for (int i = 0; i < stateStreamers.length; i++) {
+                stateStreamers[i].writeValueTo(groupBuffer, states[i]);
+            }
+            out.writeBytesReference(groupBuffer.bytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        numGroups[partition]++;
+    }
+
+    /**
+     * Flushes the partitions. No more groups must be added after this has been called.
+     */
+    void finish() {
+        finished = true;
+        try {
+            IOUtils.close(outputs);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            Arrays.fill(outputs, null);
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Spilled {} groups to partitions in {}", Arrays.stream(numGroups).sum(), directory);
+        }
+    }
+
+    /**
+     * Returns the reduced groups as rows of the keys followed by the results of {@link AggregateMode#finishCollect}.
+     * Every iteration re-reads the partitions.
+     */
+    @Override
+    public Iterator<Row> iterator() {
+        assert finished : "finish must be called before the groups are read";
+        return new PartitionsIterator();
+    }
+
+    /**
+     * Reads the groups of a partition and reduces the states of equal keys.
+     * The groups are accounted for until the next partition is loaded or this is closed.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<List<Object>, Object[]> loadPartition(int partition) {
+        releaseLoadedPartition();
+        if (numGroups[partition] == 0) {
+            return Collections.emptyMap();
+        }
+        long bytesBefore = ramAccountingContext.totalBytes();
+        Map<List<Object>, Object[]> statesByKey = new HashMap<>();
+        try (StreamInput in = new InputStreamStreamInput(
+            new BufferedInputStream(Files.newInputStream(files[partition])))) {
+
+            for (int g = 0; g < numGroups[partition]; g++) {
+                BytesReference group = in.readBytesReference();
+                StreamInput groupIn = group.streamInput();
+                Object[] key = new Object[keyStreamers.length];
+                for (int i = 0; i < key.length; i++) {
+                    key[i] = keyStreamers[i].readValueFrom(groupIn);
+                }
+                Object[] states = new Object[stateStreamers.length];
+                for (int i = 0; i < states.length; i++) {
+                    states[i] = stateStreamers[i].readValueFrom(groupIn);
+                }
+                List<Object> groupKey = Arrays.asList(key);
+                Object[] existingStates = statesByKey.get(groupKey);
+                if (existingStates == null) {
+                    ramAccountingContext.addBytes(RamAccountingContext.roundUp(
+                        group.length() + GROUP_OVERHEAD + 8L * (key.length + states.length)));
+                    statesByKey.put(groupKey, states);
+                } else {
+                    for (int i = 0; i < states.length; i++) {
+                        existingStates[i] = aggregations[i].reduce(ramAccountingContext, existingStates[i], states[i]);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            loadedPartitionBytes = ramAccountingContext.totalBytes() - bytesBefore;
+        }
+        return statesByKey;
+    }
+
+    private void releaseLoadedPartition() {
+        ramAccountingContext.addBytesWithoutBreaking(-loadedPartitionBytes);
+        loadedPartitionBytes = 0L;
+    }
+
+    /**
+     * Deletes the partitions. Must be called once the rows are no longer used.
+     */
+    @Override
+    public void close() {
+        IOUtils.closeWhileHandlingException(outputs);
+        Arrays.fill(outputs, null);
+        for (int i = 0; i < files.length; i++) {
+            Path file = files[i];
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    LOGGER.warn("Couldn't delete spilled groups " + file, e);
+                }
+                files[i] = null;
+            }
+        }
+        releaseLoadedPartition();
+    }
+
+    private class PartitionsIterator implements Iterator<Row> {
+
+        private final Object[] cells = new Object[keyStreamers.length + aggregations.length];
+        private final RowN row = new RowN(cells);
+        private Iterator<Map.Entry<List<Object>, Object[]>> groups = Collections.emptyIterator();
+        private int nextPartition = 0;
+
+        @Override
+        public boolean hasNext() {
+            while (!groups.hasNext() && nextPartition < NUM_PARTITIONS) {
+                groups = loadPartition(nextPartition).entrySet().iterator();
+                nextPartition++;
+            }
+            return groups.hasNext();
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("Iterator is exhausted");
+            }
+            Map.Entry<List<Object>, Object[]> group = groups.next();
+            List<Object> key = group.getKey();
+            for (int i = 0; i < key.size(); i++) {
+                cells[i] = key.get(i);
+            }
+            Object[] states = group.getValue();
+            int c = key.size();
+            for (int i = 0; i < states.length; i++) {
+                cells[c] = mode.finishCollect(ramAccountingContext, aggregations[i], states[i]);
+                c++;
+            }
+            return row;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors.sorting;
+
+import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.breaker.SizeEstimator;
+import io.crate.breaker.SizeEstimatorFactory;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.logging.Loggers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.LongPredicate;
+
+/**
+ * Sorts rows using an external merge sort if they don't fit into memory.
+ *
+ * Rows are buffered in memory until {@code spillCondition} is met for the size of the buffer.
+ * The buffer is then sorted and written as a sorted run to a temporary file in {@code directory}, using the {@link Streamer}s
+ * of the column types. Once all rows have been added the runs and the remaining buffer are merged.
+ *
+ * The buffered rows are accounted for without breaking, so that other operations see the memory usage
+ * and this sorter can spill instead of failing.
+ */
+public class SpillingSorter implements Closeable {
+
+    private static final Logger LOGGER = Loggers.getLogger(SpillingSorter.class);
+
+    /**
+     * A run is only spilled if the buffer has at least this size, to avoid creating many small runs.
+     */
+    private static final long MIN_RUN_BYTES = 8 * 1024 * 1024;
+
+    /**
+     * The buffer is spilled if the breaker uses more than this ratio of its limit.
+     */
+    private static final double SPILL_AT_LIMIT_RATIO = 0.8;
+
+    /**
+     * Object[] header (16 bytes) + reference in the buffer (8 bytes)
+     */
+    private static final long ROW_OVERHEAD = 24L;
+
+    private final Comparator<Object[]> sortOrder;
+    private final Streamer[] streamers;
+    private final List<SizeEstimator<Object>> estimators;
+    private final RamAccountingContext ramAccountingContext;
+    private final LongPredicate spillCondition;
+    private final Path directory;
+    private final List<SortedRun> runs = new ArrayList<>();
+    private final List<Closeable> openReaders = new ArrayList<>();
+
+    private ArrayList<Object[]> buffer = new ArrayList<>();
+    private long bufferBytes = 0L;
+
+    /**
+     * Create a sorter which spills once the breaker of {@code ramAccountingContext} is close to its limit.
+     */
+    public static SpillingSorter spillIfBreakerIsNearLimit(Comparator<Object[]> sortOrder,
+                                                           List<? extends DataType> columnTypes,
+                                                           RamAccountingContext ramAccountingContext,
+                                                           Path directory) {
+        return new SpillingSorter(
+            sortOrder,
+            columnTypes,
+            ramAccountingContext,
+            bufferBytes -> bufferBytes >= MIN_RUN_BYTES && ramAccountingContext.exceedsLimitRatio(SPILL_AT_LIMIT_RATIO),
+            directory
+        );
+    }
+
+    /**
+     * @param sortOrder the order of the sorted rows
+     * @param columnTypes the types of the columns of the rows; used to write and read the rows of sorted runs
+     * @param spillCondition tested with the estimated size of the buffered rows in bytes after each added row.
+     * @param directory the directory in which the sorted runs are written; created if it doesn't exist.
+     */
+    public SpillingSorter(Comparator<Object[]> sortOrder,
+                          List<? extends DataType> columnTypes,
+                          RamAccountingContext ramAccountingContext,
+                          LongPredicate spillCondition,
+                          Path directory) {
+        this.sortOrder = sortOrder;
+        this.streamers = DataTypes.getStreamers(columnTypes);
+        this.estimators = new ArrayList<>(columnTypes.size());
+        for (DataType columnType : columnTypes) {
+            estimators.add(SizeEstimatorFactory.create(columnType));
+        }
+        this.ramAccountingContext = ramAccountingContext;
+        this.spillCondition = spillCondition;
+        this.directory = directory;
+    }
+
+    public void add(Object[] row) {
+        long size = ROW_OVERHEAD + 8L * row.length;
+        for (int i = 0; i < row.length; i++) {
+            size += estimators.get(i).estimateSize(row[i]);
+        }
+        buffer.add(row);
+        bufferBytes += size;
+        ramAccountingContext.addBytesWithoutBreaking(size);
+        if (spillCondition.test(bufferBytes)) {
+            try {
+                spill();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * @return true if some rows have been spilled to disk.
+     */
+    public boolean hasSpilled() {
+        return !runs.isEmpty();
+    }
+
+    /**
+     * Sort the buffered rows. If there are sorted runs on disk the result is the merge of the runs and the buffer,
+     * which re-reads the runs on each iteration.
+     *
+     * No more rows must be added after this has been called.
+     */
+    public Iterable<Object[]> sortedRows() {
+        buffer.sort(sortOrder);
+        if (runs.isEmpty()) {
+            return buffer;
+        }
+        return MergingIterator::new;
+    }
+
+    private void spill() throws IOException {
+        buffer.sort(sortOrder);
+        Files.createDirectories(directory);
+        Path file = Files.createTempFile(directory, "crate-sort-", ".run");
+        runs.add(new SortedRun(file, buffer.size()));
+        try (OutputStreamStreamOutput out =
+                 new OutputStreamStreamOutput(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (Object[] row : buffer) {
+                for (int i = 0; i < streamers.length; i++) {
+                    streamers[i].writeValueTo(out, row[i]);
+                }
+            }
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Spilled sorted run of {} rows (~{} bytes) to {}", buffer.size(), bufferBytes, file);
+        }
+        ramAccountingContext.addBytesWithoutBreaking(-bufferBytes);
+        buffer = new ArrayList<>();
+        bufferBytes = 0L;
+    }
+
+    /**
+     * Deletes the sorted runs. Must be called once the sorted rows are no longer used.
+     */
+    @Override
+    public void close() {
+        for (Closeable reader : openReaders) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                LOGGER.warn("Couldn't close reader of sorted run", e);
+            }
+        }
+        openReaders.clear();
+        for (SortedRun run : runs) {
+            try {
+                Files.deleteIfExists(run.file);
+            } catch (IOException e) {
+                LOGGER.warn("Couldn't delete sorted run " + run.file, e);
+            }
+        }
+        runs.clear();
+        buffer = new ArrayList<>();
+    }
+
+    private static class SortedRun {
+
+        private final Path file;
+        private final int numRows;
+
+        SortedRun(Path file, int numRows) {
+            this.file = file;
+            this.numRows = numRows;
+        }
+    }
+
+    private abstract static class RunCursor {
+
+        Object[] current;
+
+        abstract boolean advance() throws IOException;
+    }
+
+    private static class BufferCursor extends RunCursor {
+
+        private final Iterator<Object[]> it;
+
+        BufferCursor(Iterator<Object[]> it) {
+            this.it = it;
+        }
+
+        @Override
+        boolean advance() {
+            if (it.hasNext()) {
+                current = it.next();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private class FileCursor extends RunCursor {
+
+        private final StreamInput in;
+        private int remainingRows;
+
+        FileCursor(SortedRun run) throws IOException {
+            this.in = new InputStreamStreamInput(new BufferedInputStream(Files.newInputStream(run.file)));
+            this.remainingRows = run.numRows;
+            openReaders.add(in);
+        }
+
+        @Override
+        boolean advance() throws IOException {
+            if (remainingRows == 0) {
+                in.close();
+                openReaders.remove(in);
+                return false;
+            }
+            Object[] row = new Object[streamers.length];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = streamers[i].readValueFrom(in);
+            }
+            current = row;
+            remainingRows--;
+            return true;
+        }
+    }
+
+    /**
+     * k-way merge of the sorted runs and the sorted buffer.
+     */
+    private class MergingIterator implements Iterator<Object[]> {
+
+        private final PriorityQueue<RunCursor> cursors;
+
+        MergingIterator() {
+            cursors = new PriorityQueue<>(runs.size() + 1, (c1, c2) -> sortOrder.compare(c1.current, c2.current));
+            try {
+                for (SortedRun run : runs) {
+                    addIfNotExhausted(new FileCursor(run));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            addIfNotExhausted(new BufferCursor(buffer.iterator()));
+        }
+
+        private void addIfNotExhausted(RunCursor cursor) {
+            try {
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !cursors.isEmpty();
+        }
+
+        @Override
+        public Object[] next() {
+            RunCursor cursor = cursors.poll();
+            if (cursor == null) {
+                throw new NoSuchElementException("Iterator is exhausted");
+            }
+            Object[] row = cursor.current;
+            addIfNotExhausted(cursor);
+            return row;
+        }
+    }
+}
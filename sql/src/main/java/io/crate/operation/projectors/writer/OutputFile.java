@@ -22,6 +22,7 @@
 package io.crate.operation.projectors.writer;
 
 import com.google.common.base.Preconditions;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.planner.projection.WriterProjection;
 
 import java.io.File;
@@ -29,16 +30,23 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.Executor;
 
 public class OutputFile extends Output {
 
     private final String path;
     private final boolean overwrite;
     private final boolean compression;
+    private final Executor compressionExecutor;
+    private final RamAccountingContext ramAccountingContext;
 
-    public OutputFile(URI uri, WriterProjection.CompressionType compressionType) {
+    public OutputFile(Executor compressionExecutor,
+                      RamAccountingContext ramAccountingContext,
+                      URI uri,
+                      WriterProjection.CompressionType compressionType) {
         Preconditions.checkArgument(uri.getHost() == null);
+        this.compressionExecutor = compressionExecutor;
+        this.ramAccountingContext = ramAccountingContext;
         this.path = uri.getPath();
         compression = compressionType != null;
         this.overwrite = true;
@@ -57,7 +65,7 @@ public class OutputFile extends Output {
         }
         OutputStream os = new FileOutputStream(outFile);
         if (compression) {
-            os = new GZIPOutputStream(os);
+            os = new ParallelGzipOutputStream(os, compressionExecutor, ramAccountingContext);
         }
         return os;
     }
@@ -27,6 +27,7 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.external.S3ClientHelper;
 import io.crate.planner.projection.WriterProjection;
 
@@ -40,18 +41,26 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.zip.GZIPOutputStream;
 
 @NotThreadSafe
 public class OutputS3 extends Output {
 
     private final ExecutorService executorService;
+    private final Executor compressionExecutor;
+    private final RamAccountingContext ramAccountingContext;
     private final URI uri;
     private final boolean compression;
 
-    public OutputS3(ExecutorService executorService, URI uri, WriterProjection.CompressionType compressionType) {
+    public OutputS3(ExecutorService executorService,
+                    Executor compressionExecutor,
+                    RamAccountingContext ramAccountingContext,
+                    URI uri,
+                    WriterProjection.CompressionType compressionType) {
         this.executorService = executorService;
+        this.compressionExecutor = compressionExecutor;
+        this.ramAccountingContext = ramAccountingContext;
         this.uri = uri;
         compression = compressionType != null;
     }
@@ -60,7 +69,7 @@ public class OutputS3 extends Output {
     public OutputStream acquireOutputStream() throws IOException {
         OutputStream outputStream = new S3OutputStream(executorService, uri, new S3ClientHelper());
         if (compression) {
-            outputStream = new GZIPOutputStream(outputStream);
+            outputStream = new ParallelGzipOutputStream(outputStream, compressionExecutor, ramAccountingContext);
         }
         return outputStream;
     }
@@ -0,0 +1,200 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors.writer;
+
+import io.crate.breaker.RamAccountingContext;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.threadpool.ExecutorBuilder;
+import org.elasticsearch.threadpool.FixedExecutorBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * OutputStream which compresses the written data with gzip using multiple threads.
+ *
+ * The data is split into blocks which are compressed independently on the given executor. Each block becomes a
+ * gzip member of its own; the members are written in order, which results in a valid multi-member gzip file.
+ *
+ * At most {@code maxPendingBlocks} blocks of a stream are buffered at the same time. If the executor hasn't
+ * started to compress a block once it has to be written, it is compressed by the writing thread.
+ *
+ * The executor should be bounded, like the {@link #THREAD_POOL_NAME} thread pool; blocks which it rejects are
+ * compressed by the writing thread. The buffered blocks are accounted for on the given {@link RamAccountingContext}.
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    /**
+     * Name of the node thread pool on which the blocks of compressed COPY TO outputs are compressed.
+     * Its size and queue size can be configured using the {@code thread_pool.gzip_compression.*} settings.
+     */
+    public static final String THREAD_POOL_NAME = "gzip_compression";
+
+    private static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    private final OutputStream out;
+    private final Executor executor;
+    private final RamAccountingContext ramAccountingContext;
+    private final int blockSize;
+    private final int maxPendingBlocks;
+    private final ArrayDeque<FutureTask<byte[]>> pendingBlocks = new ArrayDeque<>();
+
+    private byte[] buffer;
+    private int bufferPos = 0;
+    private boolean wroteBlock = false;
+    private boolean closed = false;
+
+    public ParallelGzipOutputStream(OutputStream out, Executor executor, RamAccountingContext ramAccountingContext) {
+        this(out, executor, ramAccountingContext, DEFAULT_BLOCK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    ParallelGzipOutputStream(OutputStream out,
+                             Executor executor,
+                             RamAccountingContext ramAccountingContext,
+                             int blockSize,
+                             int maxPendingBlocks) {
+        this.out = out;
+        this.executor = executor;
+        this.ramAccountingContext = ramAccountingContext;
+        this.blockSize = blockSize;
+        this.maxPendingBlocks = Math.max(1, maxPendingBlocks);
+        this.buffer = newBuffer();
+    }
+
+    public static ExecutorBuilder<?> executorBuilder(Settings settings) {
+        int size = EsExecutors.boundedNumberOfProcessors(settings);
+        return new FixedExecutorBuilder(settings, THREAD_POOL_NAME, size, size);
+    }
+
+    private byte[] newBuffer() {
+        ramAccountingContext.addBytes(blockSize);
+        return new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        buffer[bufferPos++] = (byte) b;
+        if (bufferPos == buffer.length) {
+            submitBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = Math.min(len, buffer.length - bufferPos);
+            System.arraycopy(b, off, buffer, bufferPos, n);
+            bufferPos += n;
+            off += n;
+            len -= n;
+            if (bufferPos == buffer.length) {
+                submitBlock();
+            }
+        }
+    }
+
+    /**
+     * Only flushes the underlying stream; blocks are compressed once they are full or the stream is closed.
+     */
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private void submitBlock() throws IOException {
+        final byte[] block = buffer;
+        final int length = bufferPos;
+        buffer = null;
+        bufferPos = 0;
+
+        FutureTask<byte[]> task = new FutureTask<>(() -> compress(block, length));
+        pendingBlocks.add(task);
+        try {
+            executor.execute(task);
+        } catch (EsRejectedExecutionException | RejectedExecutionException e) {
+            task.run();
+        }
+        while (pendingBlocks.size() > maxPendingBlocks) {
+            writeBlock(pendingBlocks.poll());
+        }
+        if (!closed) {
+            buffer = newBuffer();
+        }
+    }
+
+    private void writeBlock(FutureTask<byte[]> task) throws IOException {
+        // no-op if the task has already been started by the executor
+        task.run();
+        try {
+            out.write(task.get());
+            wroteBlock = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a compressed block");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to compress block", e.getCause());
+        } finally {
+            ramAccountingContext.addBytesWithoutBreaking(-blockSize);
+        }
+    }
+
+    private static byte[] compress(byte[] block, int length) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(block, 0, length);
+        }
+        return compressed.toByteArray();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (bufferPos > 0 || (pendingBlocks.isEmpty() && !wroteBlock)) {
+                // an empty stream still needs a gzip member to be a valid gzip file
+                submitBlock();
+            } else {
+                buffer = null;
+                ramAccountingContext.addBytesWithoutBreaking(-blockSize);
+            }
+            while (!pendingBlocks.isEmpty()) {
+                writeBlock(pendingBlocks.poll());
+            }
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -35,6 +35,7 @@ public class BytesRefColumnReference extends FieldCacheExpression<IndexOrdinalsF
 
     private RandomAccessOrds values;
     private BytesRef value;
+    private boolean valueLoaded = true;
 
     public BytesRefColumnReference(String columnName, MappedFieldType mappedFieldType) {
         super(columnName, mappedFieldType);
@@ -42,6 +43,11 @@ public class BytesRefColumnReference extends FieldCacheExpression<IndexOrdinalsF
 
     @Override
     public BytesRef value() throws ValidationException {
+        // the value is only looked up and copied if it's used, e.g. grouping by ordinals doesn't need it
+        if (!valueLoaded) {
+            value = BytesRef.deepCopyOf(values.lookupOrd(values.ordAt(0)));
+            valueLoaded = true;
+        }
         return value;
     }
 
@@ -52,9 +58,10 @@ public class BytesRefColumnReference extends FieldCacheExpression<IndexOrdinalsF
         switch (values.cardinality()) {
             case 0:
                 value = null;
+                valueLoaded = true;
                 break;
             case 1:
-                value = BytesRef.deepCopyOf(values.lookupOrd(values.ordAt(0)));
+                valueLoaded = false;
                 break;
             default:
                 throw new GroupByOnArrayUnsupportedException(columnName);
@@ -70,6 +77,14 @@ public class BytesRefColumnReference extends FieldCacheExpression<IndexOrdinalsF
         values = indexFieldData.load(context).getOrdinalsValues();
     }
 
+    /**
+     * The ordinals of the current segment, available after {@link #setNextReader(LeafReaderContext)}.
+     * After {@link #setNextDocId(int)} they are positioned on that document.
+     */
+    public RandomAccessOrds ordinals() {
+        return values;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == null)
@@ -0,0 +1,41 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.reference.doc.lucene;
+
+import io.crate.data.ColumnBatch;
+import io.crate.data.ColumnVector;
+
+/**
+ * A {@link LuceneCollectorExpression} which can read the values of many documents of the current reader at once
+ * into a {@link ColumnVector}, used to fill {@link ColumnBatch}es.
+ */
+public interface ColumnVectorExpression {
+
+    ColumnVector newVector(int capacity);
+
+    /**
+     * Reads the values of {@code docs[0..numDocs-1]} into the positions {@code 0..numDocs-1} of {@code vector}.
+     * The doc ids must belong to the reader passed to the last {@code setNextReader} call.
+     */
+    void fillVector(ColumnVector vector, int[] docs, int numDocs);
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.reference.doc.lucene;
+
+import io.crate.data.ColumnVector;
+import io.crate.data.DoubleColumnVector;
+import io.crate.data.LongColumnVector;
+import io.crate.exceptions.GroupByOnArrayUnsupportedException;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
+
+final class ColumnVectors {
+
+    private ColumnVectors() {
+    }
+
+    static void fillLongs(SortedNumericDocValues values,
+                          String columnName,
+                          ColumnVector vector,
+                          int[] docs,
+                          int numDocs) {
+        LongColumnVector longVector = (LongColumnVector) vector;
+        long[] vectorValues = longVector.values;
+        boolean[] isNull = longVector.isNull;
+        boolean noNulls = true;
+        for (int i = 0; i < numDocs; i++) {
+            values.setDocument(docs[i]);
+            switch (values.count()) {
+                case 0:
+                    isNull[i] = true;
+                    noNulls = false;
+                    break;
+                case 1:
+                    isNull[i] = false;
+                    vectorValues[i] = values.valueAt(0);
+                    break;
+                default:
+                    throw new GroupByOnArrayUnsupportedException(columnName);
+            }
+        }
+        longVector.noNulls = noNulls;
+    }
+
+    static void fillDoubles(SortedNumericDoubleValues values,
+                            String columnName,
+                            ColumnVector vector,
+                            int[] docs,
+                            int numDocs) {
+        DoubleColumnVector doubleVector = (DoubleColumnVector) vector;
+        double[] vectorValues = doubleVector.values;
+        boolean[] isNull = doubleVector.isNull;
+        boolean noNulls = true;
+        for (int i = 0; i < numDocs; i++) {
+            values.setDocument(docs[i]);
+            switch (values.count()) {
+                case 0:
+                    isNull[i] = true;
+                    noNulls = false;
+                    break;
+                case 1:
+                    isNull[i] = false;
+                    vectorValues[i] = values.valueAt(0);
+                    break;
+                default:
+                    throw new GroupByOnArrayUnsupportedException(columnName);
+            }
+        }
+        doubleVector.noNulls = noNulls;
+    }
+}
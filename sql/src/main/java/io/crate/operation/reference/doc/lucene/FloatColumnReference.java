@@ -21,6 +21,8 @@
 
 package io.crate.operation.reference.doc.lucene;
 
+import io.crate.data.ColumnVector;
+import io.crate.data.DoubleColumnVector;
 import io.crate.exceptions.GroupByOnArrayUnsupportedException;
 import org.apache.lucene.index.LeafReaderContext;
 import org.elasticsearch.index.fielddata.IndexNumericFieldData;
@@ -29,7 +31,8 @@ import org.elasticsearch.index.mapper.MappedFieldType;
 
 import java.io.IOException;
 
-public class FloatColumnReference extends FieldCacheExpression<IndexNumericFieldData, Float> {
+public class FloatColumnReference extends FieldCacheExpression<IndexNumericFieldData, Float>
+    implements ColumnVectorExpression {
 
     private SortedNumericDoubleValues values;
     private Float value;
@@ -65,6 +68,16 @@ public class FloatColumnReference extends FieldCacheExpression<IndexNumericField
         values = indexFieldData.load(context).getDoubleValues();
     }
 
+    @Override
+    public ColumnVector newVector(int capacity) {
+        return new DoubleColumnVector(capacity);
+    }
+
+    @Override
+    public void fillVector(ColumnVector vector, int[] docs, int numDocs) {
+        ColumnVectors.fillDoubles(values, columnName, vector, docs, numDocs);
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == null)
@@ -21,6 +21,8 @@
 
 package io.crate.operation.reference.doc.lucene;
 
+import io.crate.data.ColumnVector;
+import io.crate.data.LongColumnVector;
 import io.crate.exceptions.GroupByOnArrayUnsupportedException;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReaderContext;
@@ -28,7 +30,7 @@ import org.apache.lucene.index.SortedNumericDocValues;
 
 import java.io.IOException;
 
-public class ShortColumnReference extends LuceneCollectorExpression<Short> {
+public class ShortColumnReference extends LuceneCollectorExpression<Short> implements ColumnVectorExpression {
 
     private SortedNumericDocValues values;
     private Short value;
@@ -64,6 +66,16 @@ public class ShortColumnReference extends LuceneCollectorExpression<Short> {
         values = DocValues.getSortedNumeric(context.reader(), columnName);
     }
 
+    @Override
+    public ColumnVector newVector(int capacity) {
+        return new LongColumnVector(capacity);
+    }
+
+    @Override
+    public void fillVector(ColumnVector vector, int[] docs, int numDocs) {
+        ColumnVectors.fillLongs(values, columnName, vector, docs, numDocs);
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == null)
@@ -0,0 +1,144 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner;
+
+import io.crate.types.DataType;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Statistics of a single column of a table, used to estimate the selectivity of predicates on that column.
+ */
+public class ColumnStats {
+
+    @Nullable
+    private final DataType type;
+    private final double nullFraction;
+    private final double approxDistinct;
+    @Nullable
+    private final Object minValue;
+    @Nullable
+    private final Object maxValue;
+    private final List<Object> histogram;
+
+    /**
+     * @param nullFraction the fraction of rows where the column is null, between 0.0 and 1.0
+     * @param approxDistinct the estimated number of distinct non-null values of the column
+     */
+    public ColumnStats(double nullFraction, double approxDistinct) {
+        this(null, nullFraction, approxDistinct, null, null, Collections.emptyList());
+    }
+
+    /**
+     * @param type the type of the column; the min/max values and the histogram bounds are values of this type
+     * @param nullFraction the fraction of rows where the column is null, between 0.0 and 1.0
+     * @param approxDistinct the estimated number of distinct non-null values of the column
+     * @param histogram the bounds of an equi-depth histogram of the non-null values in ascending order.
+     *                  Each of the buckets between two bounds contains the same number of values.
+     */
+    public ColumnStats(@Nullable DataType type,
+                       double nullFraction,
+                       double approxDistinct,
+                       @Nullable Object minValue,
+                       @Nullable Object maxValue,
+                       List<Object> histogram) {
+        assert nullFraction >= 0.0 && nullFraction <= 1.0 : "nullFraction must be between 0.0 and 1.0";
+        assert approxDistinct >= 0.0 : "approxDistinct must not be negative";
+        assert histogram.isEmpty() || type != null : "histogram requires a type";
+        this.type = type;
+        this.nullFraction = nullFraction;
+        this.approxDistinct = approxDistinct;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        this.histogram = histogram;
+    }
+
+    @Nullable
+    public DataType type() {
+        return type;
+    }
+
+    public double nullFraction() {
+        return nullFraction;
+    }
+
+    public double approxDistinct() {
+        return approxDistinct;
+    }
+
+    @Nullable
+    public Object minValue() {
+        return minValue;
+    }
+
+    @Nullable
+    public Object maxValue() {
+        return maxValue;
+    }
+
+    public List<Object> histogram() {
+        return histogram;
+    }
+
+    /**
+     * Estimates the fraction of the non-null values which are smaller than {@code value} using the histogram.
+     *
+     * @param value a value of {@link #type()}
+     * @return the fraction between 0.0 and 1.0 or -1 if there is no histogram
+     */
+    @SuppressWarnings("unchecked")
+    public double fractionBelow(Object value) {
+        int numBuckets = histogram.size() - 1;
+        if (numBuckets < 1) {
+            return -1;
+        }
+        int numBoundsBelow = 0;
+        for (Object bound : histogram) {
+            if (type.compareValueTo(bound, value) >= 0) {
+                break;
+            }
+            numBoundsBelow++;
+        }
+        if (numBoundsBelow == 0) {
+            return 0.0;
+        }
+        if (numBoundsBelow > numBuckets) {
+            return 1.0;
+        }
+        // assume the value is in the middle of the bucket
+        return (numBoundsBelow - 0.5) / numBuckets;
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnStats{" +
+               "nullFraction=" + nullFraction +
+               ", approxDistinct=" + approxDistinct +
+               ", minValue=" + minValue +
+               ", maxValue=" + maxValue +
+               ", histogram=" + histogram +
+               '}';
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner;
+
+import io.crate.types.DataType;
+import org.apache.lucene.util.BytesRef;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds the {@link ColumnStats} of a column from a sample of its values.
+ */
+final class ColumnStatsBuilder {
+
+    static final int NUM_HISTOGRAM_BUCKETS = 20;
+    private static final int HLL_PRECISION = 14;
+
+    /**
+     * If more than this fraction of the sampled values is distinct, the column is assumed to be (nearly) unique
+     * and the number of distinct values is extrapolated to the whole table.
+     */
+    private static final double UNIQUE_RATIO = 0.9;
+
+    private final DataType type;
+    private final HyperLogLog hyperLogLog = new HyperLogLog(HLL_PRECISION);
+    private final List<Object> values = new ArrayList<>();
+    private long numNulls = 0;
+
+    ColumnStatsBuilder(DataType type) {
+        this.type = type;
+    }
+
+    void add(@Nullable Object value) {
+        if (value == null) {
+            numNulls++;
+            return;
+        }
+        if (value instanceof BytesRef) {
+            value = BytesRef.deepCopyOf((BytesRef) value);
+        }
+        hyperLogLog.add(value);
+        values.add(value);
+    }
+
+    /**
+     * @param numDocs the number of docs of the whole table
+     */
+    @SuppressWarnings("unchecked")
+    ColumnStats build(long numDocs) {
+        long sampleSize = values.size() + numNulls;
+        if (sampleSize == 0) {
+            return new ColumnStats(type, 0.0, 0.0, null, null, Collections.emptyList());
+        }
+        double nullFraction = (double) numNulls / sampleSize;
+        if (values.isEmpty()) {
+            return new ColumnStats(type, nullFraction, 0.0, null, null, Collections.emptyList());
+        }
+        double approxDistinct = Math.min(hyperLogLog.cardinality(), values.size());
+        if (sampleSize < numDocs && approxDistinct > UNIQUE_RATIO * values.size()) {
+            approxDistinct = approxDistinct / values.size() * numDocs * (1.0 - nullFraction);
+        }
+        values.sort(type::compareValueTo);
+        List<Object> histogram = new ArrayList<>(NUM_HISTOGRAM_BUCKETS + 1);
+        int lastIdx = values.size() - 1;
+        for (int i = 0; i <= NUM_HISTOGRAM_BUCKETS; i++) {
+            histogram.add(values.get((int) ((long) i * lastIdx / NUM_HISTOGRAM_BUCKETS)));
+        }
+        return new ColumnStats(
+            type,
+            nullFraction,
+            approxDistinct,
+            values.get(0),
+            values.get(lastIdx),
+            histogram
+        );
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner;
+
+import com.carrotsearch.hppc.BitMixer;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.StringHelper;
+
+/**
+ * HyperLogLog sketch to estimate the number of distinct values.
+ * <p>
+ * Each value is hashed to 64 bits. The first {@code precision} bits select a register which keeps the maximum
+ * number of leading zeros (+1) seen in the remaining bits. The relative error is about {@code 1.04 / sqrt(2^precision)}.
+ */
+final class HyperLogLog {
+
+    private final int precision;
+    private final byte[] registers;
+
+    HyperLogLog(int precision) {
+        assert precision >= 4 && precision <= 18 : "precision must be between 4 and 18";
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    void add(Object value) {
+        addHash(hash(value));
+    }
+
+    void addHash(long hash) {
+        int idx = (int) (hash >>> (64 - precision));
+        // the set bit bounds the number of leading zeros to the number of remaining bits
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (rank > registers[idx]) {
+            registers[idx] = rank;
+        }
+    }
+
+    long cardinality() {
+        int m = registers.length;
+        double sum = 0.0;
+        int numZeroRegisters = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                numZeroRegisters++;
+            }
+        }
+        double alpha = 0.7213 / (1.0 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && numZeroRegisters > 0) {
+            // linear counting is more accurate for small cardinalities
+            estimate = m * Math.log((double) m / numZeroRegisters);
+        }
+        return Math.round(estimate);
+    }
+
+    static long hash(Object value) {
+        if (value instanceof Double || value instanceof Float) {
+            return BitMixer.mix64(Double.doubleToLongBits(((Number) value).doubleValue()));
+        }
+        if (value instanceof Number) {
+            return BitMixer.mix64(((Number) value).longValue());
+        }
+        if (value instanceof BytesRef) {
+            BytesRef bytesRef = (BytesRef) value;
+            long high = StringHelper.murmurhash3_x86_32(bytesRef, 0);
+            long low = StringHelper.murmurhash3_x86_32(bytesRef, 1);
+            return BitMixer.mix64((high << 32) | (low & 0xFFFFFFFFL));
+        }
+        if (value instanceof Boolean) {
+            return BitMixer.mix64((Boolean) value ? 1L : 0L);
+        }
+        return BitMixer.mix64(value.hashCode());
+    }
+}
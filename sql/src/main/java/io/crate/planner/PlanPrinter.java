@@ -216,5 +216,16 @@ public class PlanPrinter {
                 .put("subPlan", toMap(merge.subPlan()))
                 .put("mergePhase", phaseMap(merge.mergePhase()));
         }
+
+        @Override
+        public ImmutableMap.Builder<String, Object> visitUnionPlan(UnionPlan plan, Void context) {
+            List<Map<String, Object>> subPlans = new ArrayList<>(plan.subPlans().size());
+            for (Plan subPlan : plan.subPlans()) {
+                subPlans.add(toMap(subPlan));
+            }
+            return visitPlan(plan, context)
+                .put("subPlans", subPlans)
+                .put("mergePhase", phaseMap(plan.mergePhase()));
+        }
     }
 }
@@ -30,6 +30,7 @@ import io.crate.planner.node.dql.Collect;
 import io.crate.planner.node.dql.CountPlan;
 import io.crate.planner.node.dql.ESGet;
 import io.crate.planner.node.dql.QueryThenFetch;
+import io.crate.planner.node.dql.UnionPlan;
 import io.crate.planner.node.dql.join.NestedLoop;
 import io.crate.planner.node.management.ExplainPlan;
 import io.crate.planner.node.management.ShowCreateTablePlan;
@@ -130,4 +131,8 @@ public class PlanVisitor<C, R> {
     public R visitMerge(Merge merge, C context) {
         return visitPlan(merge, context);
     }
+
+    public R visitUnionPlan(UnionPlan plan, C context) {
+        return visitPlan(plan, context);
+    }
 }
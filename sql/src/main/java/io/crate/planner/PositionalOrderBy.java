@@ -62,6 +62,24 @@ public class PositionalOrderBy {
         return nullsFirst;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PositionalOrderBy that = (PositionalOrderBy) o;
+        return Arrays.equals(indices, that.indices) &&
+               Arrays.equals(reverseFlags, that.reverseFlags) &&
+               Arrays.equals(nullsFirst, that.nullsFirst);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(indices);
+        result = 31 * result + Arrays.hashCode(reverseFlags);
+        result = 31 * result + Arrays.hashCode(nullsFirst);
+        return result;
+    }
+
     @Override
     public String toString() {
         return "OrderByPositions{" +
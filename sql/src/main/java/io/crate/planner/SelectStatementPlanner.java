@@ -26,6 +26,7 @@ import io.crate.analyze.MultiSourceSelect;
 import io.crate.analyze.QueriedTable;
 import io.crate.analyze.QuerySpec;
 import io.crate.analyze.SelectAnalyzedStatement;
+import io.crate.analyze.UnionSelect;
 import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.relations.AnalyzedRelationVisitor;
 import io.crate.analyze.relations.QueriedDocTable;
@@ -106,5 +107,11 @@ class SelectStatementPlanner {
             }
             return invokeConsumingPlanner(mss, context);
         }
+
+        @Override
+        public Plan visitUnionSelect(UnionSelect unionSelect, Planner.Context context) {
+            context.applySoftLimit(unionSelect.querySpec());
+            return invokeConsumingPlanner(unionSelect, context);
+        }
     }
 }
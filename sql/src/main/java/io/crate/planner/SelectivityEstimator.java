@@ -0,0 +1,221 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner;
+
+import io.crate.analyze.symbol.Field;
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.analyze.symbol.SymbolVisitor;
+import io.crate.metadata.Reference;
+import io.crate.operation.operator.AndOperator;
+import io.crate.operation.operator.EqOperator;
+import io.crate.operation.operator.GtOperator;
+import io.crate.operation.operator.GteOperator;
+import io.crate.operation.operator.LikeOperator;
+import io.crate.operation.operator.LtOperator;
+import io.crate.operation.operator.LteOperator;
+import io.crate.operation.operator.OrOperator;
+import io.crate.operation.operator.any.AnyEqOperator;
+import io.crate.operation.predicate.IsNullPredicate;
+import io.crate.operation.predicate.NotPredicate;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Estimates the fraction of rows which match a query.
+ *
+ * If {@link ColumnStats} are available for a column they're used to estimate the selectivity of equality, range
+ * and null checks on the column. Otherwise, and for all other predicates, fixed default selectivities are used.
+ */
+public final class SelectivityEstimator {
+
+    static final double DEFAULT_EQ_SELECTIVITY = 0.1;
+    static final double DEFAULT_RANGE_SELECTIVITY = 1.0 / 3.0;
+    static final double DEFAULT_LIKE_SELECTIVITY = 0.2;
+    static final double DEFAULT_NULL_SELECTIVITY = 0.1;
+    static final double DEFAULT_SELECTIVITY = 0.5;
+
+    private static final Visitor VISITOR = new Visitor();
+
+    /**
+     * Resolves the statistics of a column symbol ({@link Reference} or {@link Field}).
+     */
+    @FunctionalInterface
+    public interface ColumnStatsLookup {
+
+        @Nullable
+        ColumnStats get(Symbol column);
+    }
+
+    private SelectivityEstimator() {
+    }
+
+    /**
+     * @return the estimated fraction of rows matching {@code query}, between 0.0 and 1.0
+     */
+    public static double estimate(Symbol query, ColumnStatsLookup columnStats) {
+        return clamp(VISITOR.process(query, columnStats));
+    }
+
+    /**
+     * @return the estimated selectivity of {@code column = <value>}
+     */
+    public static double eqSelectivity(@Nullable ColumnStats stats) {
+        if (stats == null || stats.approxDistinct() < 1.0) {
+            return DEFAULT_EQ_SELECTIVITY;
+        }
+        return (1.0 - stats.nullFraction()) / stats.approxDistinct();
+    }
+
+    static boolean isColumn(Symbol symbol) {
+        return symbol instanceof Reference || symbol instanceof Field;
+    }
+
+    private static double clamp(double selectivity) {
+        return Math.max(0.0, Math.min(1.0, selectivity));
+    }
+
+    private static class Visitor extends SymbolVisitor<ColumnStatsLookup, Double> {
+
+        @Override
+        public Double visitLiteral(Literal symbol, ColumnStatsLookup context) {
+            Object value = symbol.value();
+            if (value instanceof Boolean) {
+                return (Boolean) value ? 1.0 : 0.0;
+            }
+            return value == null ? 0.0 : DEFAULT_SELECTIVITY;
+        }
+
+        @Override
+        public Double visitFunction(Function function, ColumnStatsLookup context) {
+            List<Symbol> args = function.arguments();
+            String name = function.info().ident().name();
+            if (name.equals(AnyEqOperator.NAME)) {
+                double eq = eqSelectivity(columnStatsOfColumnAndValue(args, context));
+                Symbol values = args.get(1);
+                if (values instanceof Literal && ((Literal) values).value() instanceof Object[]) {
+                    return clamp(eq * ((Object[]) ((Literal) values).value()).length);
+                }
+                return eq;
+            }
+            switch (name) {
+                case AndOperator.NAME:
+                    return clamp(process(args.get(0), context)) * clamp(process(args.get(1), context));
+
+                case OrOperator.NAME:
+                    double s1 = clamp(process(args.get(0), context));
+                    double s2 = clamp(process(args.get(1), context));
+                    return s1 + s2 - s1 * s2;
+
+                case NotPredicate.NAME:
+                    return 1.0 - clamp(process(args.get(0), context));
+
+                case EqOperator.NAME:
+                    return eqSelectivity(columnStatsOfColumnAndValue(args, context));
+
+                case IsNullPredicate.NAME:
+                    Symbol arg = args.get(0);
+                    if (isColumn(arg)) {
+                        ColumnStats stats = context.get(arg);
+                        if (stats != null) {
+                            return stats.nullFraction();
+                        }
+                    }
+                    return DEFAULT_NULL_SELECTIVITY;
+
+                case GtOperator.NAME:
+                case GteOperator.NAME:
+                    return rangeSelectivity(args, false, context);
+
+                case LtOperator.NAME:
+                case LteOperator.NAME:
+                    return rangeSelectivity(args, true, context);
+
+                case LikeOperator.NAME:
+                    return DEFAULT_LIKE_SELECTIVITY;
+
+                default:
+                    return DEFAULT_SELECTIVITY;
+            }
+        }
+
+        @Override
+        protected Double visitSymbol(Symbol symbol, ColumnStatsLookup context) {
+            return DEFAULT_SELECTIVITY;
+        }
+
+        /**
+         * Estimates {@code column < value} (lessThan) or {@code column > value} using the histogram of the column
+         */
+        private static double rangeSelectivity(List<Symbol> args, boolean lessThan, ColumnStatsLookup context) {
+            Symbol left = args.get(0);
+            Symbol right = args.get(1);
+            Symbol column;
+            Literal value;
+            if (isColumn(left) && right instanceof Literal) {
+                column = left;
+                value = (Literal) right;
+            } else if (isColumn(right) && left instanceof Literal) {
+                // value < column is column > value
+                column = right;
+                value = (Literal) left;
+                lessThan = !lessThan;
+            } else {
+                return DEFAULT_RANGE_SELECTIVITY;
+            }
+            ColumnStats stats = context.get(column);
+            if (stats == null || stats.type() == null || value.value() == null) {
+                return DEFAULT_RANGE_SELECTIVITY;
+            }
+            double fractionBelow;
+            try {
+                fractionBelow = stats.fractionBelow(stats.type().value(value.value()));
+            } catch (IllegalArgumentException | ClassCastException e) {
+                return DEFAULT_RANGE_SELECTIVITY;
+            }
+            if (fractionBelow < 0) {
+                return DEFAULT_RANGE_SELECTIVITY;
+            }
+            double notNull = 1.0 - stats.nullFraction();
+            return lessThan ? fractionBelow * notNull : (1.0 - fractionBelow) * notNull;
+        }
+
+        /**
+         * Returns the stats of the column if the arguments are a column and a literal value
+         */
+        @Nullable
+        private static ColumnStats columnStatsOfColumnAndValue(List<Symbol> args, ColumnStatsLookup context) {
+            Symbol left = args.get(0);
+            Symbol right = args.get(1);
+            if (isColumn(left) && right instanceof Literal) {
+                return context.get(left);
+            }
+            if (isColumn(right) && left instanceof Literal) {
+                return context.get(right);
+            }
+            return null;
+        }
+    }
+}
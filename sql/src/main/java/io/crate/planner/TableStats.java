@@ -24,16 +24,28 @@ package io.crate.planner;
 
 import com.carrotsearch.hppc.ObjectLongHashMap;
 import com.carrotsearch.hppc.ObjectLongMap;
+import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.TableIdent;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 public class TableStats {
 
     private volatile ObjectLongMap<TableIdent> tableStats = new ObjectLongHashMap<>(0);
+    private volatile Map<TableIdent, Map<ColumnIdent, ColumnStats>> columnStats = Collections.emptyMap();
 
     public void updateTableStats(ObjectLongMap<TableIdent> tableStats) {
         this.tableStats = tableStats;
     }
 
+    public void updateColumnStats(Map<TableIdent, Map<ColumnIdent, ColumnStats>> columnStats) {
+        this.columnStats = columnStats;
+    }
+
     /**
      * Returns the number of docs a table has.
      * <p>
@@ -45,4 +57,65 @@ public class TableStats {
     public long numDocs(TableIdent tableIdent) {
         return tableStats.getOrDefault(tableIdent, -1);
     }
+
+    /**
+     * Returns the statistics of a column or null if there are no statistics for the column.
+     * <p>
+     * Like {@link #numDocs(TableIdent)} the statistics are periodically updated and not accurate.
+     */
+    @Nullable
+    public ColumnStats columnStats(TableIdent tableIdent, ColumnIdent column) {
+        Map<ColumnIdent, ColumnStats> statsByColumn = columnStats.get(tableIdent);
+        if (statsByColumn == null) {
+            return null;
+        }
+        return statsByColumn.get(column);
+    }
+
+    /**
+     * Returns the statistics of the columns of a table or null if the table hasn't been sampled.
+     */
+    @Nullable
+    public Map<ColumnIdent, ColumnStats> columnStats(TableIdent tableIdent) {
+        return columnStats.get(tableIdent);
+    }
+
+    /**
+     * Returns the statistics of all columns, e.g. to expose them in a sys table.
+     */
+    public Iterable<ColumnStatsEntry> columnStatsEntries() {
+        Map<TableIdent, Map<ColumnIdent, ColumnStats>> columnStats = this.columnStats;
+        List<ColumnStatsEntry> entries = new ArrayList<>();
+        for (Map.Entry<TableIdent, Map<ColumnIdent, ColumnStats>> table : columnStats.entrySet()) {
+            for (Map.Entry<ColumnIdent, ColumnStats> column : table.getValue().entrySet()) {
+                entries.add(new ColumnStatsEntry(table.getKey(), column.getKey(), column.getValue()));
+            }
+        }
+        return entries;
+    }
+
+    public static class ColumnStatsEntry {
+
+        private final TableIdent tableIdent;
+        private final ColumnIdent column;
+        private final ColumnStats stats;
+
+        ColumnStatsEntry(TableIdent tableIdent, ColumnIdent column, ColumnStats stats) {
+            this.tableIdent = tableIdent;
+            this.column = column;
+            this.stats = stats;
+        }
+
+        public TableIdent tableIdent() {
+            return tableIdent;
+        }
+
+        public ColumnIdent column() {
+            return column;
+        }
+
+        public ColumnStats stats() {
+            return stats;
+        }
+    }
 }
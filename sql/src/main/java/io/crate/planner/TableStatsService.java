@@ -29,8 +29,16 @@ import com.google.common.annotations.VisibleForTesting;
 import io.crate.action.sql.BaseResultReceiver;
 import io.crate.action.sql.SQLOperations;
 import io.crate.data.Row;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.metadata.Schemas;
 import io.crate.metadata.TableIdent;
+import io.crate.metadata.doc.DocSchemaInfo;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.table.SchemaInfo;
+import io.crate.metadata.table.TableInfo;
 import io.crate.settings.CrateSetting;
+import io.crate.sql.Identifiers;
 import io.crate.types.DataTypes;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.cluster.service.ClusterService;
@@ -45,7 +53,14 @@ import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 @Singleton
@@ -55,13 +70,23 @@ public class TableStatsService extends AbstractComponent implements Runnable {
         "stats.service.interval", TimeValue.timeValueHours(1), Setting.Property.NodeScope, Setting.Property.Dynamic),
         DataTypes.STRING);
 
+    public static final CrateSetting<TimeValue> STATS_SERVICE_COLUMN_STATS_INTERVAL_SETTING = CrateSetting.of(Setting.timeSetting(
+        "stats.service.column_stats_interval", TimeValue.timeValueHours(1), Setting.Property.NodeScope, Setting.Property.Dynamic),
+        DataTypes.STRING);
+
     static final String TABLE_STATS = "table_stats";
     static final int DEFAULT_SOFT_LIMIT = 10_000;
     static final String STMT =
         "select cast(sum(num_docs) as long), schema_name, table_name from sys.shards group by 2, 3";
 
+    static final String COLUMN_STATS = "column_stats";
+    static final int COLUMN_STATS_SAMPLE_SIZE = 10_000;
+
     private final ClusterService clusterService;
     private final ThreadPool threadPool;
+    private final TableStats tableStats;
+    private final Schemas schemas;
+    private final SQLOperations sqlOperations;
     private final TableStatsResultReceiver resultReceiver;
     private final SQLOperations.SQLDirectExecutor sqlDirectExecutor;
 
@@ -69,23 +94,39 @@ public class TableStatsService extends AbstractComponent implements Runnable {
     ThreadPool.Cancellable refreshScheduledTask = null;
     @VisibleForTesting
     TimeValue refreshInterval;
+    @VisibleForTesting
+    ThreadPool.Cancellable columnStatsScheduledTask = null;
+    @VisibleForTesting
+    TimeValue columnStatsInterval;
+
+    private final AtomicBoolean samplingColumnStats = new AtomicBoolean(false);
+    // the number of docs of the tables when their column stats were sampled, replaced after each sampling
+    private volatile ObjectLongMap<TableIdent> numDocsOfSampledTables = new ObjectLongHashMap<>(0);
 
     @Inject
     public TableStatsService(Settings settings,
                              ThreadPool threadPool,
                              ClusterService clusterService,
                              TableStats tableStats,
+                             Schemas schemas,
                              SQLOperations sqlOperations) {
         super(settings);
         this.threadPool = threadPool;
         this.clusterService = clusterService;
-        resultReceiver = new TableStatsResultReceiver(tableStats::updateTableStats);
+        this.tableStats = tableStats;
+        this.schemas = schemas;
+        this.sqlOperations = sqlOperations;
+        resultReceiver = new TableStatsResultReceiver(this::onTableStats);
         refreshInterval = STATS_SERVICE_REFRESH_INTERVAL_SETTING.setting().get(settings);
         refreshScheduledTask = scheduleRefresh(refreshInterval);
         sqlDirectExecutor = sqlOperations.createSQLDirectExecutor("sys", TABLE_STATS, STMT, DEFAULT_SOFT_LIMIT);
+        columnStatsInterval = STATS_SERVICE_COLUMN_STATS_INTERVAL_SETTING.setting().get(settings);
+        columnStatsScheduledTask = scheduleColumnStats(columnStatsInterval);
 
         clusterService.getClusterSettings().addSettingsUpdateConsumer(
             STATS_SERVICE_REFRESH_INTERVAL_SETTING.setting(), this::setRefreshInterval);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(
+            STATS_SERVICE_COLUMN_STATS_INTERVAL_SETTING.setting(), this::setColumnStatsInterval);
     }
 
     @Override
@@ -110,6 +151,149 @@ public class TableStatsService extends AbstractComponent implements Runnable {
         }
     }
 
+    private void onTableStats(ObjectLongMap<TableIdent> numDocsByTable) {
+        tableStats.updateTableStats(numDocsByTable);
+    }
+
+    /**
+     * Samples the column stats of the tables whose number of docs changed since they have been sampled the last time,
+     * using the number of docs of the last table stats refresh. The stats of the other tables are kept.
+     */
+    @VisibleForTesting
+    void sampleColumnStats() {
+        if (clusterService.localNode() == null) {
+            logger.debug("Could not sample column stats. localNode is not fully available yet.");
+            return;
+        }
+        if (samplingColumnStats.compareAndSet(false, true) == false) {
+            logger.debug("Column stats are still being sampled, skipping this interval");
+            return;
+        }
+        ObjectLongMap<TableIdent> numDocsOfSampledTables = this.numDocsOfSampledTables;
+        ObjectLongMap<TableIdent> numDocsByTable = new ObjectLongHashMap<>();
+        Map<TableIdent, Map<ColumnIdent, ColumnStats>> newColumnStats = new HashMap<>();
+        List<DocTableInfo> tables = new ArrayList<>();
+        try {
+            for (SchemaInfo schemaInfo : schemas) {
+                if (schemaInfo instanceof DocSchemaInfo) {
+                    for (TableInfo tableInfo : schemaInfo) {
+                        TableIdent ident = tableInfo.ident();
+                        long numDocs = tableStats.numDocs(ident);
+                        if (numDocs <= 0L) {
+                            continue;
+                        }
+                        numDocsByTable.put(ident, numDocs);
+                        Map<ColumnIdent, ColumnStats> previousStats = tableStats.columnStats(ident);
+                        if (previousStats != null && numDocsOfSampledTables.getOrDefault(ident, -1L) == numDocs) {
+                            newColumnStats.put(ident, previousStats);
+                        } else {
+                            tables.add((DocTableInfo) tableInfo);
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.error("error retrieving the tables to sample column stats", e);
+            samplingColumnStats.set(false);
+            return;
+        }
+        collectColumnStats(tables.iterator(), numDocsByTable, newColumnStats);
+    }
+
+    /**
+     * Samples the rows of one table after another and updates the column stats once all tables have been sampled.
+     */
+    private void collectColumnStats(Iterator<DocTableInfo> tables,
+                                    ObjectLongMap<TableIdent> numDocsByTable,
+                                    Map<TableIdent, Map<ColumnIdent, ColumnStats>> newColumnStats) {
+        if (tables.hasNext() == false) {
+            ObjectLongMap<TableIdent> numDocsOfSampledTables = new ObjectLongHashMap<>(newColumnStats.size());
+            for (TableIdent ident : newColumnStats.keySet()) {
+                numDocsOfSampledTables.put(ident, numDocsByTable.get(ident));
+            }
+            this.numDocsOfSampledTables = numDocsOfSampledTables;
+            tableStats.updateColumnStats(newColumnStats);
+            samplingColumnStats.set(false);
+            return;
+        }
+        DocTableInfo table = tables.next();
+        List<Reference> columns = sampledColumns(table);
+        if (columns.isEmpty()) {
+            collectColumnStats(tables, numDocsByTable, newColumnStats);
+            return;
+        }
+        ColumnStatsResultReceiver receiver = new ColumnStatsResultReceiver(columns);
+        receiver.completionFuture().whenComplete((result, t) -> {
+            if (t == null) {
+                newColumnStats.put(table.ident(), receiver.build(numDocsByTable.get(table.ident())));
+            } else {
+                logger.debug("error sampling the column stats of table " + table.ident(), t);
+            }
+            collectColumnStats(tables, numDocsByTable, newColumnStats);
+        });
+        try {
+            sqlOperations.createSQLDirectExecutor(
+                table.ident().schema(),
+                COLUMN_STATS,
+                sampleStatement(table.ident(), columns),
+                COLUMN_STATS_SAMPLE_SIZE
+            ).execute(receiver, Collections.emptyList());
+        } catch (Throwable t) {
+            receiver.fail(t);
+        }
+    }
+
+    /**
+     * Columns of primitive types; objects, arrays and geo types are not sampled.
+     */
+    static List<Reference> sampledColumns(DocTableInfo table) {
+        List<Reference> columns = new ArrayList<>();
+        for (Reference reference : table.columns()) {
+            if (reference.ident().columnIdent().isColumn() && DataTypes.isPrimitive(reference.valueType())) {
+                columns.add(reference);
+            }
+        }
+        return columns;
+    }
+
+    static String sampleStatement(TableIdent tableIdent, List<Reference> columns) {
+        StringJoiner outputs = new StringJoiner(", ");
+        for (Reference column : columns) {
+            outputs.add(Identifiers.quote(column.ident().columnIdent().name()));
+        }
+        return "select " + outputs + " from " + Identifiers.quote(tableIdent.schema()) + "." +
+               Identifiers.quote(tableIdent.name()) + " limit " + COLUMN_STATS_SAMPLE_SIZE;
+    }
+
+    static class ColumnStatsResultReceiver extends BaseResultReceiver {
+
+        private final List<Reference> columns;
+        private final ColumnStatsBuilder[] builders;
+
+        ColumnStatsResultReceiver(List<Reference> columns) {
+            this.columns = columns;
+            this.builders = new ColumnStatsBuilder[columns.size()];
+            for (int i = 0; i < builders.length; i++) {
+                builders[i] = new ColumnStatsBuilder(columns.get(i).valueType());
+            }
+        }
+
+        @Override
+        public void setNextRow(Row row) {
+            for (int i = 0; i < builders.length; i++) {
+                builders[i].add(row.get(i));
+            }
+        }
+
+        Map<ColumnIdent, ColumnStats> build(long numDocs) {
+            Map<ColumnIdent, ColumnStats> statsByColumn = new HashMap<>(builders.length);
+            for (int i = 0; i < builders.length; i++) {
+                statsByColumn.put(columns.get(i).ident().columnIdent(), builders[i].build(numDocs));
+            }
+            return statsByColumn;
+        }
+    }
+
     static class TableStatsResultReceiver extends BaseResultReceiver {
 
         private final static Logger LOGGER = Loggers.getLogger(TableStatsResultReceiver.class);
@@ -158,5 +342,23 @@ public class TableStatsService extends AbstractComponent implements Runnable {
         refreshScheduledTask = scheduleRefresh(newRefreshInterval);
         refreshInterval = newRefreshInterval;
     }
+
+    private ThreadPool.Cancellable scheduleColumnStats(TimeValue newColumnStatsInterval) {
+        if (newColumnStatsInterval.millis() > 0) {
+            return threadPool.scheduleWithFixedDelay(
+                this::sampleColumnStats,
+                newColumnStatsInterval,
+                ThreadPool.Names.REFRESH);
+        }
+        return null;
+    }
+
+    private void setColumnStatsInterval(TimeValue newColumnStatsInterval) {
+        if (columnStatsScheduledTask != null) {
+            columnStatsScheduledTask.cancel();
+        }
+        columnStatsScheduledTask = scheduleColumnStats(newColumnStatsInterval);
+        columnStatsInterval = newColumnStatsInterval;
+    }
 }
 
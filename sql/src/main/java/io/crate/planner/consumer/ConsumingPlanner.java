@@ -51,9 +51,10 @@ public class ConsumingPlanner {
         consumers.add(new QueryAndFetchConsumer());
         consumers.add(new MultiSourceAggregationConsumer(projectionBuilder));
         consumers.add(new MultiSourceGroupByConsumer(projectionBuilder));
-        consumers.add(new ManyTableConsumer());
+        consumers.add(new ManyTableConsumer(tableStats));
         consumers.add(new NestedLoopConsumer(clusterService, tableStats));
         consumers.add(new GroupingSubselectConsumer(projectionBuilder));
+        consumers.add(new UnionConsumer());
     }
 
     @Nullable
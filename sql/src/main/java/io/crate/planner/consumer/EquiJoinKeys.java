@@ -0,0 +1,159 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.consumer;
+
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.symbol.Field;
+import io.crate.analyze.symbol.FieldsVisitor;
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.analyze.symbol.SymbolVisitors;
+import io.crate.metadata.FunctionInfo;
+import io.crate.operation.operator.AndOperator;
+import io.crate.operation.operator.EqOperator;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Equality predicates of a join condition which compare an expression of the left relation
+ * with an expression of the right relation, e.g.:
+ *
+ * <pre>
+ *     t1.a = t2.b AND t1.c + 1 = t2.d AND t1.x > t2.y
+ *
+ *     leftKeys:  [t1.a, t1.c + 1]
+ *     rightKeys: [t2.b, t2.d]
+ * </pre>
+ *
+ * These can be used as keys for a hash join. Other parts of the join condition (like {@code t1.x > t2.y})
+ * must still be evaluated on the joined rows.
+ */
+final class EquiJoinKeys {
+
+    private final List<Symbol> leftKeys;
+    private final List<Symbol> rightKeys;
+
+    private EquiJoinKeys(List<Symbol> leftKeys, List<Symbol> rightKeys) {
+        this.leftKeys = leftKeys;
+        this.rightKeys = rightKeys;
+    }
+
+    List<Symbol> leftKeys() {
+        return leftKeys;
+    }
+
+    List<Symbol> rightKeys() {
+        return rightKeys;
+    }
+
+    /**
+     * @return the equi-join keys of the joinCondition or null if the joinCondition doesn't contain any
+     *         equality predicate usable as hash key.
+     */
+    @Nullable
+    static EquiJoinKeys of(@Nullable Symbol joinCondition, AnalyzedRelation left, AnalyzedRelation right) {
+        if (joinCondition == null) {
+            return null;
+        }
+        List<Symbol> leftKeys = new ArrayList<>();
+        List<Symbol> rightKeys = new ArrayList<>();
+        collectKeys(joinCondition, left, right, leftKeys, rightKeys);
+        if (leftKeys.isEmpty()) {
+            return null;
+        }
+        return new EquiJoinKeys(leftKeys, rightKeys);
+    }
+
+    private static void collectKeys(Symbol symbol,
+                                    AnalyzedRelation left,
+                                    AnalyzedRelation right,
+                                    List<Symbol> leftKeys,
+                                    List<Symbol> rightKeys) {
+        if (!(symbol instanceof Function)) {
+            return;
+        }
+        Function function = (Function) symbol;
+        String functionName = function.info().ident().name();
+        if (functionName.equals(AndOperator.NAME)) {
+            for (Symbol arg : function.arguments()) {
+                collectKeys(arg, left, right, leftKeys, rightKeys);
+            }
+            return;
+        }
+        if (!functionName.equals(EqOperator.NAME) || function.arguments().size() != 2) {
+            return;
+        }
+        Symbol arg1 = function.arguments().get(0);
+        Symbol arg2 = function.arguments().get(1);
+        if (!isHashable(arg1.valueType()) || !arg1.valueType().equals(arg2.valueType())) {
+            return;
+        }
+        if (onlyContainsFieldsOf(arg1, left) && onlyContainsFieldsOf(arg2, right)) {
+            leftKeys.add(arg1);
+            rightKeys.add(arg2);
+        } else if (onlyContainsFieldsOf(arg1, right) && onlyContainsFieldsOf(arg2, left)) {
+            leftKeys.add(arg2);
+            rightKeys.add(arg1);
+        }
+    }
+
+    /**
+     * Values of primitive types implement equals/hashCode based on their content.
+     * Arrays and objects do not (or not consistently) and cannot be used as hash keys.
+     */
+    private static boolean isHashable(DataType type) {
+        return DataTypes.isPrimitive(type);
+    }
+
+    private static boolean onlyContainsFieldsOf(Symbol symbol, AnalyzedRelation relation) {
+        if (SymbolVisitors.any(EquiJoinKeys::isNotAllowedInKey, symbol)) {
+            return false;
+        }
+        boolean[] hasFields = new boolean[] { false };
+        boolean[] hasOtherFields = new boolean[] { false };
+        FieldsVisitor.visitFields(symbol, (Field f) -> {
+            if (f.relation().equals(relation)) {
+                hasFields[0] = true;
+            } else {
+                hasOtherFields[0] = true;
+            }
+        });
+        return hasFields[0] && !hasOtherFields[0];
+    }
+
+    private static boolean isNotAllowedInKey(Symbol symbol) {
+        switch (symbol.symbolType()) {
+            case RELATION_OUTPUT:
+            case LITERAL:
+                return false;
+            case FUNCTION:
+                return !((Function) symbol).info().features().contains(FunctionInfo.Feature.DETERMINISTIC);
+            default:
+                return true;
+        }
+    }
+}
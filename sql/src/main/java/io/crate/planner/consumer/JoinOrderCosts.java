@@ -0,0 +1,231 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.consumer;
+
+import io.crate.analyze.QueriedTableRelation;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.symbol.Field;
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.metadata.TableIdent;
+import io.crate.operation.operator.AndOperator;
+import io.crate.operation.operator.EqOperator;
+import io.crate.planner.ColumnStats;
+import io.crate.planner.SelectivityEstimator;
+import io.crate.planner.TableStats;
+import io.crate.sql.tree.QualifiedName;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimates the cost of joining relations in a given order, using the {@link TableStats}.
+ * <p>
+ * The number of rows of each relation is estimated from its number of docs and the selectivity of the filters
+ * which only apply to that relation. The cost of an order is the sum of the estimated number of rows of all
+ * intermediate results of the left-deep join tree built from it. Equi-join conditions are estimated as
+ * {@code |L| * |R| / max(ndv(L.key), ndv(R.key))}; joins without condition as {@code |L| * |R|}.
+ */
+final class JoinOrderCosts {
+
+    private final Map<QualifiedName, RelationStats> statsByRelation;
+    private final Map<Set<QualifiedName>, Symbol> joinConditions;
+
+    private JoinOrderCosts(Map<QualifiedName, RelationStats> statsByRelation,
+                           Map<Set<QualifiedName>, Symbol> joinConditions) {
+        this.statsByRelation = statsByRelation;
+        this.joinConditions = joinConditions;
+    }
+
+    /**
+     * @param filters conditions by the relations they refer to, as returned by the QuerySplitter.
+     *                Conditions on a single relation are used as filters, the others as join conditions.
+     * @return the costs or null if the number of docs of a relation is unknown
+     */
+    @Nullable
+    static JoinOrderCosts of(Map<QualifiedName, AnalyzedRelation> sources,
+                             Map<Set<QualifiedName>, Symbol> filters,
+                             Map<Set<QualifiedName>, Symbol> joinConditions,
+                             TableStats tableStats) {
+        Map<QualifiedName, RelationStats> statsByRelation = new HashMap<>(sources.size());
+        for (Map.Entry<QualifiedName, AnalyzedRelation> entry : sources.entrySet()) {
+            if (!(entry.getValue() instanceof QueriedTableRelation)) {
+                return null;
+            }
+            QueriedTableRelation<?> relation = (QueriedTableRelation<?>) entry.getValue();
+            TableIdent tableIdent = relation.tableRelation().tableInfo().ident();
+            long numDocs = tableStats.numDocs(tableIdent);
+            if (numDocs < 0) {
+                return null;
+            }
+            RelationStats stats = new RelationStats(relation, tableIdent, numDocs, tableStats);
+            double selectivity = 1.0;
+            if (relation.querySpec().where().hasQuery()) {
+                selectivity *= SelectivityEstimator.estimate(relation.querySpec().where().query(), stats::columnStats);
+            }
+            Symbol filter = filters.get(Collections.singleton(entry.getKey()));
+            if (filter != null) {
+                selectivity *= SelectivityEstimator.estimate(filter, stats::columnStats);
+            }
+            stats.filteredRows = Math.max(1.0, stats.totalRows * selectivity);
+            statsByRelation.put(entry.getKey(), stats);
+        }
+        Map<Set<QualifiedName>, Symbol> allJoinConditions = new HashMap<>(joinConditions);
+        for (Map.Entry<Set<QualifiedName>, Symbol> entry : filters.entrySet()) {
+            if (entry.getKey().size() > 1) {
+                allJoinConditions.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return new JoinOrderCosts(statsByRelation, allJoinConditions);
+    }
+
+    /**
+     * @return the estimated cost of joining the relations in the given order
+     */
+    double cost(List<QualifiedName> order) {
+        Set<QualifiedName> joined = new HashSet<>(order.size());
+        QualifiedName first = order.get(0);
+        joined.add(first);
+        double rows = statsByRelation.get(first).filteredRows;
+        double cost = rows;
+        for (int i = 1; i < order.size(); i++) {
+            QualifiedName name = order.get(i);
+            joined.add(name);
+            rows = rows * statsByRelation.get(name).filteredRows * joinSelectivity(name, joined);
+            cost += rows;
+        }
+        return cost;
+    }
+
+    /**
+     * Returns the selectivity of the most selective join condition between {@code name} and the other
+     * relations in {@code joined}, or 1.0 if there is no such condition.
+     */
+    private double joinSelectivity(QualifiedName name, Set<QualifiedName> joined) {
+        double selectivity = 1.0;
+        for (Map.Entry<Set<QualifiedName>, Symbol> entry : joinConditions.entrySet()) {
+            Set<QualifiedName> relations = entry.getKey();
+            if (relations.contains(name) && joined.containsAll(relations)) {
+                selectivity = Math.min(selectivity, conditionSelectivity(entry.getValue()));
+            }
+        }
+        return selectivity;
+    }
+
+    private double conditionSelectivity(Symbol condition) {
+        if (condition instanceof Function) {
+            Function function = (Function) condition;
+            String name = function.info().ident().name();
+            if (name.equals(AndOperator.NAME)) {
+                return Math.min(
+                    conditionSelectivity(function.arguments().get(0)),
+                    conditionSelectivity(function.arguments().get(1)));
+            }
+            if (name.equals(EqOperator.NAME)) {
+                Symbol left = function.arguments().get(0);
+                Symbol right = function.arguments().get(1);
+                if (left instanceof Field && right instanceof Field) {
+                    return equiJoinSelectivity((Field) left, (Field) right);
+                }
+            }
+        }
+        return SelectivityEstimator.estimate(condition, column -> null);
+    }
+
+    private double equiJoinSelectivity(Field left, Field right) {
+        RelationStats leftStats = statsByRelation.get(left.relation().getQualifiedName());
+        RelationStats rightStats = statsByRelation.get(right.relation().getQualifiedName());
+        if (leftStats == null || rightStats == null) {
+            return SelectivityEstimator.eqSelectivity(null);
+        }
+        ColumnStats leftColumn = leftStats.columnStats(left);
+        ColumnStats rightColumn = rightStats.columnStats(right);
+        double distinct;
+        if (leftColumn != null && rightColumn != null) {
+            distinct = Math.max(leftColumn.approxDistinct(), rightColumn.approxDistinct());
+        } else if (leftColumn != null) {
+            distinct = leftColumn.approxDistinct();
+        } else if (rightColumn != null) {
+            distinct = rightColumn.approxDistinct();
+        } else {
+            // assume the join is on the key of the smaller relation
+            distinct = Math.min(leftStats.totalRows, rightStats.totalRows);
+        }
+        return 1.0 / Math.max(1.0, distinct);
+    }
+
+    private static class RelationStats {
+
+        private final QueriedTableRelation<?> relation;
+        private final TableIdent tableIdent;
+        private final double totalRows;
+        private final TableStats tableStats;
+        private double filteredRows;
+
+        RelationStats(QueriedTableRelation<?> relation, TableIdent tableIdent, long numDocs, TableStats tableStats) {
+            this.relation = relation;
+            this.tableIdent = tableIdent;
+            this.totalRows = Math.max(1.0, numDocs);
+            this.tableStats = tableStats;
+        }
+
+        /**
+         * Returns the stats of a column of this relation. If there are no stats for a single column primary key
+         * all its values are assumed to be distinct.
+         */
+        @Nullable
+        ColumnStats columnStats(Symbol column) {
+            Reference reference = null;
+            if (column instanceof Reference) {
+                reference = (Reference) column;
+            } else if (column instanceof Field && ((Field) column).relation() == relation) {
+                int idx = relation.fields().indexOf(column);
+                if (idx >= 0 && idx < relation.querySpec().outputs().size()) {
+                    Symbol output = relation.querySpec().outputs().get(idx);
+                    if (output instanceof Reference) {
+                        reference = (Reference) output;
+                    }
+                }
+            }
+            if (reference == null) {
+                return null;
+            }
+            ColumnIdent columnIdent = reference.ident().columnIdent();
+            ColumnStats stats = tableStats.columnStats(tableIdent, columnIdent);
+            if (stats == null) {
+                List<ColumnIdent> primaryKey = relation.tableRelation().tableInfo().primaryKey();
+                if (primaryKey.size() == 1 && primaryKey.get(0).equals(columnIdent)) {
+                    return new ColumnStats(0.0, totalRows);
+                }
+            }
+            return stats;
+        }
+    }
+}
@@ -26,7 +26,6 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import io.crate.analyze.MultiSourceSelect;
 import io.crate.analyze.OrderBy;
@@ -52,6 +51,7 @@ import io.crate.operation.operator.AndOperator;
 import io.crate.planner.Merge;
 import io.crate.planner.Plan;
 import io.crate.planner.Planner;
+import io.crate.planner.TableStats;
 import io.crate.planner.fetch.FetchPushDown;
 import io.crate.planner.node.dql.QueryThenFetch;
 import io.crate.sql.tree.QualifiedName;
@@ -77,10 +77,16 @@ public class ManyTableConsumer implements Consumer {
 
     private static final Logger LOGGER = Loggers.getLogger(ManyTableConsumer.class);
 
+    /**
+     * Beyond this number of relations the join order isn't chosen by cost, because all permutations of the
+     * relations have to be evaluated.
+     */
+    private static final int MAX_RELATIONS_FOR_COST_BASED_ORDERING = 8;
+
     private final Visitor visitor;
 
-    ManyTableConsumer() {
-        this.visitor = new Visitor();
+    ManyTableConsumer(TableStats tableStats) {
+        this.visitor = new Visitor(tableStats);
     }
 
     @Override
@@ -102,6 +108,18 @@ public class ManyTableConsumer implements Consumer {
                                                            Set<? extends Set<QualifiedName>> implicitJoinedRelations,
                                                            List<JoinPair> joinPairs,
                                                            Collection<QualifiedName> preSorted) {
+        return orderByJoinConditions(relations, implicitJoinedRelations, joinPairs, preSorted, null);
+    }
+
+    /**
+     * Like {@link #orderByJoinConditions(Collection, Set, List, Collection)}, but if {@code costs} are given
+     * the cheapest order out of those which allow the most join condition push downs is chosen.
+     */
+    static Collection<QualifiedName> orderByJoinConditions(Collection<QualifiedName> relations,
+                                                           Set<? extends Set<QualifiedName>> implicitJoinedRelations,
+                                                           List<JoinPair> joinPairs,
+                                                           Collection<QualifiedName> preSorted,
+                                                           @Nullable JoinOrderCosts costs) {
         if (relations.size() == preSorted.size()) {
             return preSorted;
         }
@@ -117,6 +135,7 @@ public class ManyTableConsumer implements Consumer {
         Set<QualifiedName> outerJoinRelations = JoinPairs.outerJoinRelations(joinPairs);
         Collection<QualifiedName> bestOrder = null;
         int best = -1;
+        double bestCost = Double.MAX_VALUE;
         List<JoinPair> currentPermutationJoinPairs = new ArrayList<>(joinPairs.size());
         outerloop:
         for (List<QualifiedName> permutation : Collections2.permutations(relations)) {
@@ -149,12 +168,21 @@ public class ManyTableConsumer implements Consumer {
                     currentPermutationJoinPairs.add(JoinPair.crossJoin(a, b));
                 }
             }
-            if (joinPushDowns == relations.size() - 1) {
-                return permutation;
-            }
-            if (joinPushDowns > best) {
-                best = joinPushDowns;
-                bestOrder = permutation;
+            if (costs == null) {
+                if (joinPushDowns == relations.size() - 1) {
+                    return permutation;
+                }
+                if (joinPushDowns > best) {
+                    best = joinPushDowns;
+                    bestOrder = permutation;
+                }
+            } else if (joinPushDowns >= best) {
+                double cost = costs.cost(permutation);
+                if (joinPushDowns > best || cost < bestCost) {
+                    best = joinPushDowns;
+                    bestCost = cost;
+                    bestOrder = permutation;
+                }
             }
         }
         if (bestOrder == null) {
@@ -175,13 +203,20 @@ public class ManyTableConsumer implements Consumer {
     }
 
     private static Collection<QualifiedName> getOrderedRelationNames(MultiSourceSelect statement,
-                                                                     Set<? extends Set<QualifiedName>> relationPairs) {
+                                                                     Map<Set<QualifiedName>, Symbol> splitQuery,
+                                                                     TableStats tableStats) {
         Collection<QualifiedName> orderedRelations = ImmutableList.of();
         Optional<OrderBy> orderBy = statement.querySpec().orderBy();
         if (orderBy.isPresent()) {
             orderedRelations = getNamesFromOrderBy(orderBy.get());
         }
-        return orderByJoinConditions(statement.sources().keySet(), relationPairs, statement.joinPairs(), orderedRelations);
+        JoinOrderCosts costs = null;
+        if (statement.sources().size() > 2 && statement.sources().size() <= MAX_RELATIONS_FOR_COST_BASED_ORDERING) {
+            costs = JoinOrderCosts.of(
+                statement.sources(), splitQuery, buildJoinConditionsMap(statement.joinPairs()), tableStats);
+        }
+        return orderByJoinConditions(
+            statement.sources().keySet(), splitQuery.keySet(), statement.joinPairs(), orderedRelations, costs);
     }
 
     /**
@@ -219,14 +254,14 @@ public class ManyTableConsumer implements Consumer {
      * <p>
      * </code>
      */
-    static TwoTableJoin buildTwoTableJoinTree(MultiSourceSelect mss) {
+    static TwoTableJoin buildTwoTableJoinTree(MultiSourceSelect mss, TableStats tableStats) {
         Map<Set<QualifiedName>, Symbol> splitQuery = ImmutableMap.of();
         if (mss.querySpec().where().hasQuery()) {
             splitQuery = QuerySplitter.split(mss.querySpec().where().query());
             mss.querySpec().where(WhereClause.MATCH_ALL);
         }
 
-        Collection<QualifiedName> orderedRelationNames = getOrderedRelationNames(mss, splitQuery.keySet());
+        Collection<QualifiedName> orderedRelationNames = getOrderedRelationNames(mss, splitQuery, tableStats);
         Iterator<QualifiedName> it = orderedRelationNames.iterator();
         if (LOGGER.isTraceEnabled()) {
             LOGGER.trace("relations={} orderedRelations={}", mss.sources().keySet(), orderedRelationNames);
@@ -443,7 +478,7 @@ public class ManyTableConsumer implements Consumer {
 
     static TwoTableJoin twoTableJoin(MultiSourceSelect mss) {
         assert mss.sources().size() == 2 : "number of mss.sources() must be 2";
-        Iterator<QualifiedName> it = getOrderedRelationNames(mss, ImmutableSet.of()).iterator();
+        Iterator<QualifiedName> it = getOrderedRelationNames(mss, ImmutableMap.of(), new TableStats()).iterator();
         QualifiedName left = it.next();
         QualifiedName right = it.next();
         JoinPair joinPair = JoinPairs.ofRelationsWithMergedConditions(left, right, mss.joinPairs(), true);
@@ -469,6 +504,12 @@ public class ManyTableConsumer implements Consumer {
 
     private static class Visitor extends RelationPlanningVisitor {
 
+        private final TableStats tableStats;
+
+        Visitor(TableStats tableStats) {
+            this.tableStats = tableStats;
+        }
+
         @Override
         public Plan visitMultiSourceSelect(MultiSourceSelect mss, ConsumerContext context) {
             if (isUnsupportedStatement(mss, context)) return null;
@@ -498,11 +539,11 @@ public class ManyTableConsumer implements Consumer {
             return new QueryThenFetch(plan,  phaseAndProjection.phase);
         }
 
-        private static Plan getPlan(MultiSourceSelect mss, ConsumerContext context) {
+        private Plan getPlan(MultiSourceSelect mss, ConsumerContext context) {
             if (mss.sources().size() == 2) {
                 return planSubRelation(context, twoTableJoin(mss));
             }
-            return planSubRelation(context, buildTwoTableJoinTree(mss));
+            return planSubRelation(context, buildTwoTableJoinTree(mss, tableStats));
         }
 
 
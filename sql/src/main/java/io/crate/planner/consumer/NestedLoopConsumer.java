@@ -34,6 +34,7 @@ import io.crate.metadata.TableIdent;
 import io.crate.operation.projectors.TopN;
 import io.crate.planner.*;
 import io.crate.planner.distribution.DistributionInfo;
+import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.node.dql.MergePhase;
 import io.crate.planner.node.dql.join.JoinType;
 import io.crate.planner.node.dql.join.NestedLoop;
@@ -41,18 +42,27 @@ import io.crate.planner.node.dql.join.NestedLoopPhase;
 import io.crate.planner.projection.Projection;
 import io.crate.planner.projection.builder.InputColumns;
 import io.crate.planner.projection.builder.ProjectionBuilder;
+import io.crate.types.DataType;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.logging.Loggers;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.TreeSet;
 
 class NestedLoopConsumer implements Consumer {
 
     private final static Logger LOGGER = Loggers.getLogger(NestedLoopConsumer.class);
+
+    /**
+     * Minimum number of docs both relations of an equi-join must have to be joined distributed by
+     * hash-partitioning both sides. Below that broadcasting one side is cheaper.
+     */
+    static final long HASH_PARTITIONING_MIN_DOCS = 100_000L;
     private final Visitor visitor;
 
     NestedLoopConsumer(ClusterService clusterService, TableStats tableStats) {
@@ -92,6 +102,7 @@ class NestedLoopConsumer implements Consumer {
             JoinPair joinPair = statement.joinPair();
             JoinType joinType = joinPair.joinType();
             Symbol joinCondition = joinPair.condition();
+            EquiJoinKeys equiJoinKeys = joinType == JoinType.INNER ? EquiJoinKeys.of(joinCondition, left, right) : null;
 
             WhereClause where = querySpec.where();
             /*
@@ -121,78 +132,120 @@ class NestedLoopConsumer implements Consumer {
             ResultDescription rightResultDesc = rightPlan.resultDescription();
             isDistributed = isDistributed &&
                             (!leftResultDesc.nodeIds().isEmpty() && !rightResultDesc.nodeIds().isEmpty());
+            boolean hashPartitioned = isHashPartitioningPossible(
+                equiJoinKeys, left, right, leftResultDesc, rightResultDesc);
+            isDistributed = isDistributed || hashPartitioned;
             boolean broadcastLeftTable = false;
-            if (isDistributed) {
-                broadcastLeftTable = isLeftSmallerThanRight(left, right);
-                if (broadcastLeftTable) {
-                    Plan tmpPlan = leftPlan;
-                    leftPlan = rightPlan;
-                    rightPlan = tmpPlan;
-
-                    QueriedRelation tmpRelation = left;
-                    left = right;
-                    right = tmpRelation;
-                    joinType = joinType.invert();
-                    leftResultDesc = leftPlan.resultDescription();
-                    rightResultDesc = rightPlan.resultDescription();
-                }
-            }
             Collection<String> nlExecutionNodes = ImmutableSet.of(clusterService.localNode().getId());
-
             MergePhase leftMerge = null;
             MergePhase rightMerge = null;
-            if (isDistributed) {
-                leftPlan.setDistributionInfo(DistributionInfo.DEFAULT_SAME_NODE);
-                nlExecutionNodes = leftResultDesc.nodeIds();
+            if (hashPartitioned) {
+                /*
+                 * Both sides are partitioned by the first join key, so every node receives the rows of one
+                 * partition from both sides and joins them locally.
+                 * The order of the nodes must be deterministic as the n-th bucket is sent to the n-th downstream node.
+                 */
+                TreeSet<String> partitionNodes = new TreeSet<>(leftResultDesc.nodeIds());
+                partitionNodes.addAll(rightResultDesc.nodeIds());
+                nlExecutionNodes = ImmutableSet.copyOf(partitionNodes);
+
+                leftPlan.setDistributionInfo(new DistributionInfo(
+                    DistributionType.MODULO, left.fields().indexOf(equiJoinKeys.leftKeys().get(0))));
+                rightPlan.setDistributionInfo(new DistributionInfo(
+                    DistributionType.MODULO, right.fields().indexOf(equiJoinKeys.rightKeys().get(0))));
+                leftMerge = new MergePhase(
+                    context.plannerContext().jobId(),
+                    context.plannerContext().nextExecutionPhaseId(),
+                    "nl-merge",
+                    leftResultDesc.nodeIds().size(),
+                    nlExecutionNodes,
+                    leftResultDesc.streamOutputs(),
+                    Collections.emptyList(),
+                    DistributionInfo.DEFAULT_SAME_NODE,
+                    null
+                );
+                rightMerge = new MergePhase(
+                    context.plannerContext().jobId(),
+                    context.plannerContext().nextExecutionPhaseId(),
+                    "nl-merge",
+                    rightResultDesc.nodeIds().size(),
+                    nlExecutionNodes,
+                    rightResultDesc.streamOutputs(),
+                    Collections.emptyList(),
+                    DistributionInfo.DEFAULT_SAME_NODE,
+                    null
+                );
             } else {
-                leftPlan.setDistributionInfo(DistributionInfo.DEFAULT_BROADCAST);
-                if (isMergePhaseNeeded(nlExecutionNodes, leftResultDesc.nodeIds(), false)) {
-                    leftMerge = new MergePhase(
-                        context.plannerContext().jobId(),
-                        context.plannerContext().nextExecutionPhaseId(),
-                        "nl-merge",
-                        leftResultDesc.nodeIds().size(),
-                        nlExecutionNodes,
-                        leftResultDesc.streamOutputs(),
-                        Collections.emptyList(),
-                        DistributionInfo.DEFAULT_SAME_NODE,
-                        PositionalOrderBy.of(left.querySpec().orderBy().orElse(null), left.querySpec().outputs())
-                    );
+                if (isDistributed) {
+                    broadcastLeftTable = isLeftSmallerThanRight(left, right);
+                    if (broadcastLeftTable) {
+                        LOGGER.debug("Will change left plan to broadcast its result");
+                        Plan tmpPlan = leftPlan;
+                        leftPlan = rightPlan;
+                        rightPlan = tmpPlan;
+
+                        QueriedRelation tmpRelation = left;
+                        left = right;
+                        right = tmpRelation;
+                        joinType = joinType.invert();
+                        leftResultDesc = leftPlan.resultDescription();
+                        rightResultDesc = rightPlan.resultDescription();
+                    }
                 }
-            }
-            if (nlExecutionNodes.size() == 1
-                && nlExecutionNodes.equals(rightResultDesc.nodeIds())) {
-                // if the left and the right plan are executed on the same single node the mergePhase
-                // should be omitted. This is the case if the left and right table have only one shards which
-                // are on the same node
-                rightPlan.setDistributionInfo(DistributionInfo.DEFAULT_SAME_NODE);
-            } else {
-                if (isMergePhaseNeeded(nlExecutionNodes, rightResultDesc.nodeIds(), isDistributed)) {
-                    rightMerge = new MergePhase(
-                        context.plannerContext().jobId(),
-                        context.plannerContext().nextExecutionPhaseId(),
-                        "nl-merge",
-                        rightResultDesc.nodeIds().size(),
-                        nlExecutionNodes,
-                        rightResultDesc.streamOutputs(),
-                        Collections.emptyList(),
-                        DistributionInfo.DEFAULT_SAME_NODE,
-                        PositionalOrderBy.of(right.querySpec().orderBy().orElse(null), right.querySpec().outputs())
-                    );
+                if (isDistributed) {
+                    leftPlan.setDistributionInfo(DistributionInfo.DEFAULT_SAME_NODE);
+                    nlExecutionNodes = leftResultDesc.nodeIds();
+                } else {
+                    leftPlan.setDistributionInfo(DistributionInfo.DEFAULT_BROADCAST);
+                    if (isMergePhaseNeeded(nlExecutionNodes, leftResultDesc.nodeIds(), false)) {
+                        leftMerge = new MergePhase(
+                            context.plannerContext().jobId(),
+                            context.plannerContext().nextExecutionPhaseId(),
+                            "nl-merge",
+                            leftResultDesc.nodeIds().size(),
+                            nlExecutionNodes,
+                            leftResultDesc.streamOutputs(),
+                            Collections.emptyList(),
+                            DistributionInfo.DEFAULT_SAME_NODE,
+                            PositionalOrderBy.of(left.querySpec().orderBy().orElse(null), left.querySpec().outputs())
+                        );
+                    }
+                }
+                if (nlExecutionNodes.size() == 1
+                    && nlExecutionNodes.equals(rightResultDesc.nodeIds())) {
+                    // if the left and the right plan are executed on the same single node the mergePhase
+                    // should be omitted. This is the case if the left and right table have only one shards which
+                    // are on the same node
+                    rightPlan.setDistributionInfo(DistributionInfo.DEFAULT_SAME_NODE);
+                } else {
+                    if (isMergePhaseNeeded(nlExecutionNodes, rightResultDesc.nodeIds(), isDistributed)) {
+                        rightMerge = new MergePhase(
+                            context.plannerContext().jobId(),
+                            context.plannerContext().nextExecutionPhaseId(),
+                            "nl-merge",
+                            rightResultDesc.nodeIds().size(),
+                            nlExecutionNodes,
+                            rightResultDesc.streamOutputs(),
+                            Collections.emptyList(),
+                            DistributionInfo.DEFAULT_SAME_NODE,
+                            PositionalOrderBy.of(right.querySpec().orderBy().orElse(null), right.querySpec().outputs())
+                        );
+                    }
+                    rightPlan.setDistributionInfo(DistributionInfo.DEFAULT_BROADCAST);
                 }
-                rightPlan.setDistributionInfo(DistributionInfo.DEFAULT_BROADCAST);
-            }
 
 
-            if (broadcastLeftTable) {
-                Plan tmpPlan = leftPlan;
-                leftPlan = rightPlan;
-                rightPlan = tmpPlan;
-                leftMerge = rightMerge;
-                rightMerge = null;
-                leftResultDesc = leftPlan.resultDescription();
-                rightResultDesc = rightPlan.resultDescription();
+                if (broadcastLeftTable) {
+                    Plan tmpPlan = leftPlan;
+                    leftPlan = rightPlan;
+                    rightPlan = tmpPlan;
+                    leftMerge = rightMerge;
+                    rightMerge = null;
+                    leftResultDesc = leftPlan.resultDescription();
+                    rightResultDesc = rightPlan.resultDescription();
+                }
             }
+
             List<Projection> projections = new ArrayList<>();
 
             if (filterNeeded) {
@@ -230,10 +283,33 @@ class NestedLoopConsumer implements Consumer {
             );
             projections.add(topN);
 
+            List<Symbol> leftJoinKeys = Collections.emptyList();
+            List<Symbol> rightJoinKeys = Collections.emptyList();
+            boolean buildOnLeft = false;
+            List<DataType> buildSideTypes = Collections.emptyList();
+            String name = isDistributed ? "distributed-nested-loop" : "nested-loop";
+            if (equiJoinKeys != null) {
+                QueriedRelation originalLeft = statement.left();
+                QueriedRelation originalRight = statement.right();
+                leftJoinKeys = InputColumns.create(
+                    equiJoinKeys.leftKeys(), new InputColumns.Context(originalLeft.fields()));
+                rightJoinKeys = InputColumns.create(
+                    equiJoinKeys.rightKeys(), new InputColumns.Context(originalRight.fields()));
+
+                // Probing the right side would change the order of the result compared to a nested loop,
+                // so the left side is only used to build the hash table if no ordering has been pushed down.
+                buildOnLeft = !originalLeft.querySpec().orderBy().isPresent()
+                              && !originalRight.querySpec().orderBy().isPresent()
+                              && isLeftSmallerThanRight(originalLeft, originalRight);
+                LOGGER.debug("Will build the hash table from the {} relation", buildOnLeft ? "left" : "right");
+                buildSideTypes = Symbols.typeView(buildOnLeft ? originalLeft.fields() : originalRight.fields());
+                name = isDistributed ? "distributed-hash-join" : "hash-join";
+            }
+
             NestedLoopPhase nl = new NestedLoopPhase(
                 context.plannerContext().jobId(),
                 context.plannerContext().nextExecutionPhaseId(),
-                isDistributed ? "distributed-nested-loop" : "nested-loop",
+                name,
                 projections,
                 leftMerge,
                 rightMerge,
@@ -241,7 +317,11 @@ class NestedLoopConsumer implements Consumer {
                 joinType,
                 joinCondition,
                 left.querySpec().outputs().size(),
-                right.querySpec().outputs().size()
+                right.querySpec().outputs().size(),
+                leftJoinKeys,
+                rightJoinKeys,
+                buildOnLeft,
+                buildSideTypes
             );
 
              // postNLOutputs includes orderBy only symbols, these need to be stripped in the handlerMerge
@@ -262,6 +342,47 @@ class NestedLoopConsumer implements Consumer {
             }
         }
 
+        /**
+         * Both sides of an inner equi-join can be partitioned by the join key instead of broadcasting one side,
+         * so that each node only has to join a fraction of both relations.
+         *
+         * This is only done for joins on large tables with the first join key being a plain column on both sides.
+         * Pushed down ordering or limits would be lost by re-partitioning the rows.
+         */
+        private boolean isHashPartitioningPossible(@Nullable EquiJoinKeys equiJoinKeys,
+                                                   QueriedRelation left,
+                                                   QueriedRelation right,
+                                                   ResultDescription leftResultDesc,
+                                                   ResultDescription rightResultDesc) {
+            if (equiJoinKeys == null) {
+                return false;
+            }
+            int leftKeyIdx = left.fields().indexOf(equiJoinKeys.leftKeys().get(0));
+            int rightKeyIdx = right.fields().indexOf(equiJoinKeys.rightKeys().get(0));
+            if (leftKeyIdx == -1 || rightKeyIdx == -1) {
+                return false;
+            }
+            if (left.querySpec().orderBy().isPresent() || right.querySpec().orderBy().isPresent()
+                || leftResultDesc.orderBy() != null || rightResultDesc.orderBy() != null) {
+                return false;
+            }
+            if (leftResultDesc.limit() != TopN.NO_LIMIT || rightResultDesc.limit() != TopN.NO_LIMIT) {
+                return false;
+            }
+            if (leftResultDesc.nodeIds().isEmpty() || rightResultDesc.nodeIds().isEmpty()) {
+                return false;
+            }
+            if (leftResultDesc.nodeIds().size() == 1 && leftResultDesc.nodeIds().equals(rightResultDesc.nodeIds())) {
+                return false;
+            }
+            if (!(left instanceof QueriedTableRelation) || !(right instanceof QueriedTableRelation)) {
+                return false;
+            }
+            long leftNumDocs = tableStats.numDocs(((QueriedTableRelation) left).tableRelation().tableInfo().ident());
+            long rightNumDocs = tableStats.numDocs(((QueriedTableRelation) right).tableRelation().tableInfo().ident());
+            return Math.min(leftNumDocs, rightNumDocs) >= HASH_PARTITIONING_MIN_DOCS;
+        }
+
         private boolean isLeftSmallerThanRight(QueriedRelation qrLeft, QueriedRelation qrRight) {
             if (qrLeft instanceof QueriedTableRelation && qrRight instanceof QueriedTableRelation) {
                 return isLeftSmallerThanRight(
@@ -277,8 +398,7 @@ class NestedLoopConsumer implements Consumer {
             long rightNumDocs = tableStats.numDocs(rightIdent);
 
             if (leftNumDocs < rightNumDocs) {
-                LOGGER.debug("Right table is larger with {} docs (left has {}. Will change left plan to broadcast its result",
-                    rightNumDocs, leftNumDocs);
+                LOGGER.debug("Right table is larger with {} docs (left has {})", rightNumDocs, leftNumDocs);
                 return true;
             }
             return false;
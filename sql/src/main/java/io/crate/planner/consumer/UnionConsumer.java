@@ -0,0 +1,208 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.consumer;
+
+import io.crate.analyze.OrderBy;
+import io.crate.analyze.QuerySpec;
+import io.crate.analyze.UnionSelect;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.QueriedRelation;
+import io.crate.analyze.symbol.InputColumn;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.analyze.symbol.Symbols;
+import io.crate.exceptions.UnsupportedFeatureException;
+import io.crate.operation.Paging;
+import io.crate.operation.projectors.TopN;
+import io.crate.planner.Limits;
+import io.crate.planner.Merge;
+import io.crate.planner.Plan;
+import io.crate.planner.Planner;
+import io.crate.planner.PositionalOrderBy;
+import io.crate.planner.ResultDescription;
+import io.crate.planner.distribution.DistributionInfo;
+import io.crate.planner.node.dql.MergePhase;
+import io.crate.planner.node.dql.UnionPlan;
+import io.crate.planner.projection.EvalProjection;
+import io.crate.planner.projection.Projection;
+import io.crate.planner.projection.builder.ProjectionBuilder;
+import io.crate.types.DataType;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Plans a {@link UnionSelect} as one job: the relations are planned on their own and all of them send their
+ * results to a single {@link MergePhase} on the handler, so that they're executed concurrently.
+ *
+ * If the ORDER BY of the union only refers to its columns it is pushed down into the relations together with the
+ * LIMIT (+ OFFSET). The sorted results are then merged instead of sorting the rows of all relations again:
+ *
+ * <pre>
+ *     select x from t1 union all select y from t2 order by 1 limit 10
+ *
+ *      Collect t1 (order by x limit 10)   Collect t2 (order by y limit 10)
+ *                       \                  /
+ *                        MergePhase (sorted merge, limit 10)
+ * </pre>
+ */
+class UnionConsumer implements Consumer {
+
+    /**
+     * The relations are identified by the inputId of the merge phase, which is a byte.
+     */
+    private static final int MAX_RELATIONS = Byte.MAX_VALUE + 1;
+
+    private final Visitor visitor = new Visitor();
+
+    @Override
+    public Plan consume(AnalyzedRelation relation, ConsumerContext context) {
+        return visitor.process(relation, context);
+    }
+
+    private static class Visitor extends RelationPlanningVisitor {
+
+        @Override
+        public Plan visitUnionSelect(UnionSelect unionSelect, ConsumerContext context) {
+            List<QueriedRelation> relations = unionSelect.relations();
+            if (relations.size() > MAX_RELATIONS) {
+                throw new UnsupportedFeatureException(String.format(Locale.ENGLISH,
+                    "UNION ALL is not supported for more than %d relations", MAX_RELATIONS));
+            }
+            Planner.Context plannerContext = context.plannerContext();
+            QuerySpec querySpec = unionSelect.querySpec();
+            List<Symbol> outputs = querySpec.outputs();
+            Limits limits = plannerContext.getLimits(querySpec);
+            OrderBy orderBy = querySpec.orderBy().orElse(null);
+            PositionalOrderBy positionalOrderBy = PositionalOrderBy.of(orderBy, outputs);
+            Optional<Symbol> limitAndOffset = querySpec.limit().isPresent()
+                ? Limits.mergeAdd(querySpec.limit(), querySpec.offset())
+                : Optional.empty();
+
+            List<Plan> subPlans = new ArrayList<>(relations.size());
+            int[] numUpstreamsByInput = new int[relations.size()];
+            boolean sortedMerge = positionalOrderBy != null;
+            for (int i = 0; i < relations.size(); i++) {
+                QueriedRelation relation = relations.get(i);
+                boolean pushedDown = tryPushDown(unionSelect, relation, orderBy, limitAndOffset);
+
+                ConsumerContext relationContext = new ConsumerContext(plannerContext);
+                relationContext.setFetchMode(FetchMode.NEVER);
+                Plan plan = plannerContext.planSubRelation(relation, relationContext);
+                if (plan == null) {
+                    throw new UnsupportedOperationException("Cannot create plan for: " + relation);
+                }
+                ResultDescription resultDescription = plan.resultDescription();
+                if (!pushedDown && (resultDescription.limit() != TopN.NO_LIMIT || resultDescription.offset() != 0)) {
+                    // the limit of the relation must be applied before the rows are merged with the other relations
+                    plan = Merge.ensureOnHandler(plan, plannerContext);
+                    resultDescription = plan.resultDescription();
+                }
+                sortedMerge = sortedMerge && pushedDown && positionalOrderBy.equals(resultDescription.orderBy());
+                stripColumnsOnlyRequiredForOrdering(plan, resultDescription);
+                if (Paging.shouldPage(resultDescription.maxRowsPerNode())) {
+                    Paging.updateNodePageSizeHint(plan, resultDescription.maxRowsPerNode());
+                }
+                // also results which are already on the handler must be sent to the merge phase,
+                // it receives the results of all relations
+                plan.setDistributionInfo(DistributionInfo.DEFAULT_BROADCAST);
+
+                numUpstreamsByInput[i] = resultDescription.nodeIds().size();
+                subPlans.add(plan);
+            }
+
+            List<Projection> projections = new ArrayList<>(1);
+            OrderBy orderByToApply = sortedMerge ? null : orderBy;
+            if (orderByToApply != null || limits.hasLimit() || limits.offset() > 0) {
+                projections.add(ProjectionBuilder.topNOrEval(
+                    outputs,
+                    orderByToApply,
+                    limits.offset(),
+                    limits.finalLimit(),
+                    outputs
+                ));
+            }
+            MergePhase mergePhase = new MergePhase(
+                plannerContext.jobId(),
+                plannerContext.nextExecutionPhaseId(),
+                "union",
+                numUpstreamsByInput,
+                Collections.singletonList(plannerContext.handlerNode()),
+                Symbols.typeView(outputs),
+                projections,
+                DistributionInfo.DEFAULT_SAME_NODE,
+                sortedMerge ? positionalOrderBy : null
+            );
+            return new UnionPlan(subPlans, mergePhase, outputs.size(), limits.finalLimit());
+        }
+    }
+
+    /**
+     * Push the ORDER BY and LIMIT of the union into the relation, if the ORDER BY only contains columns of the union
+     * and the relation doesn't have an ORDER BY or LIMIT of its own.
+     *
+     * @return true if the relation now returns its rows ordered by the ORDER BY of the union (if there is one)
+     *         and at most the limit + offset of the union.
+     */
+    private static boolean tryPushDown(UnionSelect unionSelect,
+                                       QueriedRelation relation,
+                                       @Nullable OrderBy orderBy,
+                                       Optional<Symbol> limitAndOffset) {
+        QuerySpec qs = relation.querySpec();
+        if (qs.orderBy().isPresent() || qs.limit().isPresent() || qs.offset().isPresent()) {
+            return false;
+        }
+        if (qs.hasAggregates() && !qs.groupBy().isPresent()) {
+            // a global aggregate returns a single row
+            return false;
+        }
+        if (orderBy == null) {
+            qs.limit(limitAndOffset);
+            return true;
+        }
+        List<Symbol> orderBySymbols = orderBy.orderBySymbols();
+        List<Symbol> relationOrderBySymbols = new ArrayList<>(orderBySymbols.size());
+        for (Symbol orderBySymbol : orderBySymbols) {
+            int idx = unionSelect.fields().indexOf(orderBySymbol);
+            if (idx < 0) {
+                return false;
+            }
+            relationOrderBySymbols.add(qs.outputs().get(idx));
+        }
+        qs.orderBy(new OrderBy(relationOrderBySymbols, orderBy.reverseFlags(), orderBy.nullsFirst()));
+        qs.limit(limitAndOffset);
+        return true;
+    }
+
+    private static void stripColumnsOnlyRequiredForOrdering(Plan plan, ResultDescription resultDescription) {
+        List<DataType> streamOutputs = resultDescription.streamOutputs();
+        int numOutputs = resultDescription.numOutputs();
+        if (numOutputs < streamOutputs.size()) {
+            plan.addProjection(
+                new EvalProjection(InputColumn.fromTypes(streamOutputs.subList(0, numOutputs))), null, null, null);
+        }
+    }
+}
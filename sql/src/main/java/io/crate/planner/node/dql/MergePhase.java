@@ -45,6 +45,7 @@ import java.util.*;
 public class MergePhase extends AbstractProjectionsPhase implements UpstreamPhase {
 
     private final Collection<? extends DataType> inputTypes;
+    private final int[] numUpstreamsByInput;
     private final int numUpstreams;
     private final Collection<String> executionNodes;
 
@@ -64,9 +65,28 @@ public class MergePhase extends AbstractProjectionsPhase implements UpstreamPhas
                       List<Projection> projections,
                       DistributionInfo distributionInfo,
                       @Nullable PositionalOrderBy positionalOrderBy) {
+        this(jobId, executionNodeId, name, new int[] { numUpstreams }, executionNodes, inputTypes, projections,
+            distributionInfo, positionalOrderBy);
+    }
+
+    /**
+     * Create a MergePhase which receives the results of several upstream phases, one per input.
+     *
+     * @param numUpstreamsByInput the number of upstreams of each input; the inputId of an upstream phase is the index
+     */
+    public MergePhase(UUID jobId,
+                      int executionNodeId,
+                      String name,
+                      int[] numUpstreamsByInput,
+                      Collection<String> executionNodes,
+                      Collection<? extends DataType> inputTypes,
+                      List<Projection> projections,
+                      DistributionInfo distributionInfo,
+                      @Nullable PositionalOrderBy positionalOrderBy) {
         super(jobId, executionNodeId, name, projections);
         this.inputTypes = inputTypes;
-        this.numUpstreams = numUpstreams;
+        this.numUpstreamsByInput = numUpstreamsByInput;
+        this.numUpstreams = sum(numUpstreamsByInput);
         this.distributionInfo = distributionInfo;
         if (projections.isEmpty()) {
             outputTypes = Lists.newArrayList(inputTypes);
@@ -101,6 +121,22 @@ public class MergePhase extends AbstractProjectionsPhase implements UpstreamPhas
         return numUpstreams;
     }
 
+    /**
+     * The number of upstreams of each input. Contains a single entry unless the phase merges the results of
+     * several upstream phases.
+     */
+    public int[] numUpstreamsByInput() {
+        return numUpstreamsByInput;
+    }
+
+    private static int sum(int[] values) {
+        int sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
     public Collection<? extends DataType> inputTypes() {
         return inputTypes;
     }
@@ -118,7 +154,12 @@ public class MergePhase extends AbstractProjectionsPhase implements UpstreamPhas
     public MergePhase(StreamInput in) throws IOException {
         super(in);
         distributionInfo = DistributionInfo.fromStream(in);
-        numUpstreams = in.readVInt();
+        int numInputs = in.readVInt();
+        numUpstreamsByInput = new int[numInputs];
+        for (int i = 0; i < numInputs; i++) {
+            numUpstreamsByInput[i] = in.readVInt();
+        }
+        numUpstreams = sum(numUpstreamsByInput);
 
         int numCols = in.readVInt();
         if (numCols > 0) {
@@ -147,7 +188,10 @@ public class MergePhase extends AbstractProjectionsPhase implements UpstreamPhas
     public void writeTo(StreamOutput out) throws IOException {
         super.writeTo(out);
         distributionInfo.writeTo(out);
-        out.writeVInt(numUpstreams);
+        out.writeVInt(numUpstreamsByInput.length);
+        for (int numUpstreamsOfInput : numUpstreamsByInput) {
+            out.writeVInt(numUpstreamsOfInput);
+        }
 
         int numCols = inputTypes.size();
         out.writeVInt(numCols);
@@ -172,6 +216,7 @@ public class MergePhase extends AbstractProjectionsPhase implements UpstreamPhas
             .add("outputTypes", outputTypes)
             .add("jobId", jobId())
             .add("numUpstreams", numUpstreams)
+            .add("numUpstreamsByInput", Arrays.toString(numUpstreamsByInput))
             .add("nodeOperations", executionNodes)
             .add("inputTypes", inputTypes)
             .add("orderBy", positionalOrderBy);
@@ -0,0 +1,153 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.node.dql;
+
+import io.crate.operation.projectors.TopN;
+import io.crate.planner.Plan;
+import io.crate.planner.PlanVisitor;
+import io.crate.planner.PositionalOrderBy;
+import io.crate.planner.ResultDescription;
+import io.crate.planner.distribution.DistributionInfo;
+import io.crate.planner.projection.Projection;
+import io.crate.types.DataType;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Plan of a {@code UNION ALL}.
+ *
+ * The sub plans are executed concurrently, each of them sends its result to the {@link MergePhase} using its index
+ * as inputId. The mergePhase runs on the handler and returns the rows of all sub plans; it applies the ORDER BY,
+ * LIMIT and OFFSET of the union.
+ */
+public class UnionPlan implements Plan, ResultDescription {
+
+    private final List<Plan> subPlans;
+    private final MergePhase mergePhase;
+
+    private int limit;
+    private int offset;
+    private int numOutputs;
+
+    private final int maxRowsPerNode;
+    @Nullable
+    private PositionalOrderBy orderBy;
+
+    public UnionPlan(List<Plan> subPlans,
+                     MergePhase mergePhase,
+                     int numOutputs,
+                     int maxRowsPerNode) {
+        this.subPlans = subPlans;
+        this.mergePhase = mergePhase;
+        this.limit = TopN.NO_LIMIT;
+        this.offset = 0;
+        this.numOutputs = numOutputs;
+        this.maxRowsPerNode = maxRowsPerNode;
+        this.orderBy = null;
+    }
+
+    public List<Plan> subPlans() {
+        return subPlans;
+    }
+
+    public MergePhase mergePhase() {
+        return mergePhase;
+    }
+
+    @Override
+    public <C, R> R accept(PlanVisitor<C, R> visitor, C context) {
+        return visitor.visitUnionPlan(this, context);
+    }
+
+    @Override
+    public UUID jobId() {
+        return mergePhase.jobId();
+    }
+
+    @Override
+    public void addProjection(Projection projection,
+                              @Nullable Integer newLimit,
+                              @Nullable Integer newOffset,
+                              @Nullable PositionalOrderBy newOrderBy) {
+        mergePhase.addProjection(projection);
+        if (newLimit != null) {
+            limit = newLimit;
+        }
+        if (newOffset != null) {
+            offset = newOffset;
+        }
+        if (newOrderBy != null) {
+            orderBy = newOrderBy;
+        }
+        numOutputs = projection.outputs().size();
+    }
+
+    @Override
+    public ResultDescription resultDescription() {
+        return this;
+    }
+
+    @Override
+    public void setDistributionInfo(DistributionInfo distributionInfo) {
+        mergePhase.distributionInfo(distributionInfo);
+    }
+
+    @Override
+    public Collection<String> nodeIds() {
+        return mergePhase.nodeIds();
+    }
+
+    @Nullable
+    @Override
+    public PositionalOrderBy orderBy() {
+        return orderBy;
+    }
+
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public int maxRowsPerNode() {
+        return maxRowsPerNode;
+    }
+
+    @Override
+    public int offset() {
+        return offset;
+    }
+
+    @Override
+    public int numOutputs() {
+        return numOutputs;
+    }
+
+    @Override
+    public List<DataType> streamOutputs() {
+        return mergePhase.outputTypes();
+    }
+}
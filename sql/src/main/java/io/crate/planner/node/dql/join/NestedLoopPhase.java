@@ -32,12 +32,16 @@ import io.crate.planner.node.ExecutionPhaseVisitor;
 import io.crate.planner.node.dql.AbstractProjectionsPhase;
 import io.crate.planner.node.dql.MergePhase;
 import io.crate.planner.projection.Projection;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
@@ -54,6 +58,15 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
     private final int numLeftOutputs;
     private final int numRightOutputs;
 
+    /**
+     * Equi-join keys for a hash join, as {@link io.crate.analyze.symbol.InputColumn}s relative to the outputs
+     * of the left/right side. Empty if the join is executed as a nested loop.
+     */
+    private final List<Symbol> leftJoinKeys;
+    private final List<Symbol> rightJoinKeys;
+    private final boolean buildOnLeft;
+    private final List<DataType> buildSideTypes;
+
     private DistributionInfo distributionInfo = DistributionInfo.DEFAULT_BROADCAST;
 
     public NestedLoopPhase(UUID jobId,
@@ -67,7 +80,46 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
                            @Nullable Symbol joinCondition,
                            int numLeftOutputs,
                            int numRightOutputs) {
+        this(jobId,
+            executionNodeId,
+            name,
+            projections,
+            leftMergePhase,
+            rightMergePhase,
+            executionNodes,
+            joinType,
+            joinCondition,
+            numLeftOutputs,
+            numRightOutputs,
+            Collections.emptyList(),
+            Collections.emptyList(),
+            false,
+            Collections.emptyList());
+    }
+
+    /**
+     * @param leftJoinKeys   equi-join keys of the left side. If not empty a hash join is used instead of a nested loop.
+     * @param rightJoinKeys  equi-join keys of the right side, must have the same size as {@code leftJoinKeys}
+     * @param buildOnLeft    if true the hash table is built from the left side, otherwise from the right side
+     * @param buildSideTypes the output types of the side the hash table is built from
+     */
+    public NestedLoopPhase(UUID jobId,
+                           int executionNodeId,
+                           String name,
+                           List<Projection> projections,
+                           @Nullable MergePhase leftMergePhase,
+                           @Nullable MergePhase rightMergePhase,
+                           Collection<String> executionNodes,
+                           JoinType joinType,
+                           @Nullable Symbol joinCondition,
+                           int numLeftOutputs,
+                           int numRightOutputs,
+                           List<Symbol> leftJoinKeys,
+                           List<Symbol> rightJoinKeys,
+                           boolean buildOnLeft,
+                           List<DataType> buildSideTypes) {
         super(jobId, executionNodeId, name, projections);
+        assert leftJoinKeys.size() == rightJoinKeys.size() : "left and right join keys must have the same size";
         Projection lastProjection = Iterables.getLast(projections, null);
         assert lastProjection != null : "lastProjection must not be null";
         outputTypes = Symbols.typeView(lastProjection.outputs());
@@ -78,6 +130,10 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
         this.joinCondition = joinCondition;
         this.numLeftOutputs = numLeftOutputs;
         this.numRightOutputs = numRightOutputs;
+        this.leftJoinKeys = leftJoinKeys;
+        this.rightJoinKeys = rightJoinKeys;
+        this.buildOnLeft = buildOnLeft;
+        this.buildSideTypes = buildSideTypes;
     }
 
     @Override
@@ -121,6 +177,29 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
         return numRightOutputs;
     }
 
+    /**
+     * @return true if the join is executed as hash join using {@link #leftJoinKeys()} and {@link #rightJoinKeys()}
+     */
+    public boolean isHashJoin() {
+        return !leftJoinKeys.isEmpty();
+    }
+
+    public List<Symbol> leftJoinKeys() {
+        return leftJoinKeys;
+    }
+
+    public List<Symbol> rightJoinKeys() {
+        return rightJoinKeys;
+    }
+
+    public boolean buildOnLeft() {
+        return buildOnLeft;
+    }
+
+    public List<DataType> buildSideTypes() {
+        return buildSideTypes;
+    }
+
     @Override
     public <C, R> R accept(ExecutionPhaseVisitor<C, R> visitor, C context) {
         return visitor.visitNestedLoopPhase(this, context);
@@ -151,6 +230,14 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
         joinType = JoinType.values()[in.readVInt()];
         numLeftOutputs = in.readVInt();
         numRightOutputs = in.readVInt();
+        leftJoinKeys = Symbols.listFromStream(in);
+        rightJoinKeys = Symbols.listFromStream(in);
+        buildOnLeft = in.readBoolean();
+        int numBuildSideTypes = in.readVInt();
+        buildSideTypes = new ArrayList<>(numBuildSideTypes);
+        for (int i = 0; i < numBuildSideTypes; i++) {
+            buildSideTypes.add(DataTypes.fromStream(in));
+        }
     }
 
     @Override
@@ -181,6 +268,13 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
         out.writeVInt(joinType.ordinal());
         out.writeVInt(numLeftOutputs);
         out.writeVInt(numRightOutputs);
+        Symbols.toStream(leftJoinKeys, out);
+        Symbols.toStream(rightJoinKeys, out);
+        out.writeBoolean(buildOnLeft);
+        out.writeVInt(buildSideTypes.size());
+        for (DataType buildSideType : buildSideTypes) {
+            DataTypes.toStream(buildSideType, out);
+        }
     }
 
     @Override
@@ -190,6 +284,8 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
             .add("name", name())
             .add("joinType", joinType)
             .add("joinCondition", joinCondition)
+            .add("leftJoinKeys", leftJoinKeys)
+            .add("rightJoinKeys", rightJoinKeys)
             .add("outputTypes", outputTypes)
             .add("jobId", jobId())
             .add("executionNodes", executionNodes);
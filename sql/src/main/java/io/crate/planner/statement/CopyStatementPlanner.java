@@ -134,11 +134,19 @@ public class CopyStatementPlanner {
         rewriteToCollectToUsePartitionValues(table.partitionedByColumns(), partitionValues, toCollect);
 
         DiscoveryNodes allNodes = clusterService.state().nodes();
+        Collection<String> executionNodes;
+        if (copyFrom.fromStdin()) {
+            // the rows are received by the handler
+            executionNodes = Collections.singletonList(context.handlerNode());
+        } else {
+            executionNodes = getExecutionNodes(
+                allNodes, copyFrom.settings().getAsInt("num_readers", allNodes.getSize()), copyFrom.nodePredicate());
+        }
         FileUriCollectPhase collectPhase = new FileUriCollectPhase(
             context.jobId(),
             context.nextExecutionPhaseId(),
             "copyFrom",
-            getExecutionNodes(allNodes, copyFrom.settings().getAsInt("num_readers", allNodes.getSize()), copyFrom.nodePredicate()),
+            executionNodes,
             copyFrom.uri(),
             toCollect,
             projections,
@@ -22,6 +22,7 @@
 package io.crate.plugin;
 
 import com.google.common.collect.ImmutableList;
+import io.crate.action.sql.QueryResultCache;
 import io.crate.action.sql.SQLOperations;
 import io.crate.analyze.repositories.RepositorySettingsModule;
 import io.crate.breaker.CircuitBreakerModule;
@@ -45,8 +46,12 @@ import io.crate.operation.aggregation.impl.AggregationImplModule;
 import io.crate.operation.auth.AuthSettings;
 import io.crate.operation.collect.CollectOperationModule;
 import io.crate.operation.collect.files.FileCollectModule;
+import io.crate.operation.collect.sources.ShardCollectSource;
+import io.crate.operation.count.InternalCountOperation;
 import io.crate.operation.operator.OperatorModule;
 import io.crate.operation.predicate.PredicateModule;
+import io.crate.operation.projectors.DistributingDownstreamFactory;
+import io.crate.operation.projectors.writer.ParallelGzipOutputStream;
 import io.crate.operation.reference.sys.check.SysChecksModule;
 import io.crate.operation.reference.sys.check.node.SysNodeChecksModule;
 import io.crate.operation.reference.sys.cluster.SysClusterExpressionModule;
@@ -80,6 +85,7 @@ import org.elasticsearch.plugins.ClusterPlugin;
 import org.elasticsearch.plugins.MapperPlugin;
 import org.elasticsearch.plugins.Plugin;
 import org.elasticsearch.rest.RestHandler;
+import org.elasticsearch.threadpool.ExecutorBuilder;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -121,6 +127,11 @@ public class SQLPlugin extends Plugin implements ActionPlugin, MapperPlugin, Clu
         List<Setting<?>> settings = new ArrayList<>();
         settings.add(AnalyzerSettings.CUSTOM_ANALYSIS_SETTING_GROUP);
         settings.add(SQLOperations.NODE_READ_ONLY_SETTING);
+        settings.add(QueryResultCache.SIZE_SETTING);
+        settings.add(DistributingDownstreamFactory.PAGES_IN_FLIGHT_SETTING);
+        settings.add(ShardCollectSource.PARTITIONS_PER_SHARD_SETTING);
+        settings.add(ShardCollectSource.MIN_DOCS_PER_PARTITION_SETTING);
+        settings.add(InternalCountOperation.SEGMENT_COUNT_CACHE_SIZE_SETTING);
 
         // Postgres settings are node settings
         settings.add(PostgresNetty.PSQL_ENABLED_SETTING.setting());
@@ -148,6 +159,11 @@ public class SQLPlugin extends Plugin implements ActionPlugin, MapperPlugin, Clu
         return settings;
     }
 
+    @Override
+    public List<ExecutorBuilder<?>> getExecutorBuilders(Settings settings) {
+        return Collections.singletonList(ParallelGzipOutputStream.executorBuilder(settings));
+    }
+
     @Override
     public Collection<Class<? extends LifecycleComponent>> getGuiceServiceClasses() {
         return ImmutableList.of(
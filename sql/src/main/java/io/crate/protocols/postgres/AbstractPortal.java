@@ -22,6 +22,7 @@
 
 package io.crate.protocols.postgres;
 
+import io.crate.action.sql.QueryResultCache;
 import io.crate.action.sql.SessionContext;
 import io.crate.analyze.Analyzer;
 import io.crate.executor.Executor;
@@ -33,10 +34,15 @@ abstract class AbstractPortal implements Portal {
     final SessionContext sessionContext;
     boolean synced = false;
 
-    AbstractPortal(String name, Analyzer analyzer, Executor executor, boolean isReadOnly, SessionContext sessionContext) {
+    AbstractPortal(String name,
+                   Analyzer analyzer,
+                   Executor executor,
+                   QueryResultCache queryResultCache,
+                   boolean isReadOnly,
+                   SessionContext sessionContext) {
         this.name = name;
         this.sessionContext = sessionContext;
-        portalContext = new PortalContext(analyzer, executor, isReadOnly);
+        portalContext = new PortalContext(analyzer, executor, queryResultCache, isReadOnly);
     }
 
     AbstractPortal(String name, SessionContext sessionContext, PortalContext portalContext) {
@@ -63,11 +69,16 @@ abstract class AbstractPortal implements Portal {
 
         private final Analyzer analyzer;
         private final Executor executor;
+        private final QueryResultCache queryResultCache;
         private final boolean isReadOnly;
 
-        private PortalContext(Analyzer analyzer, Executor executor, boolean isReadOnly) {
+        private PortalContext(Analyzer analyzer,
+                              Executor executor,
+                              QueryResultCache queryResultCache,
+                              boolean isReadOnly) {
             this.analyzer = analyzer;
             this.executor = executor;
+            this.queryResultCache = queryResultCache;
             this.isReadOnly = isReadOnly;
         }
 
@@ -79,6 +90,10 @@ abstract class AbstractPortal implements Portal {
             return executor;
         }
 
+        QueryResultCache getQueryResultCache() {
+            return queryResultCache;
+        }
+
         boolean isReadOnly() {
             return isReadOnly;
         }
@@ -28,6 +28,7 @@ import io.crate.action.sql.SessionContext;
 import io.crate.analyze.Analysis;
 import io.crate.analyze.AnalyzedStatement;
 import io.crate.analyze.ParameterContext;
+import io.crate.analyze.PreparedAnalysis;
 import io.crate.analyze.symbol.Field;
 import io.crate.analyze.symbol.Symbols;
 import io.crate.concurrent.CountdownFutureCallback;
@@ -39,7 +40,6 @@ import io.crate.exceptions.SQLExceptions;
 import io.crate.operation.collect.stats.JobsLogs;
 import io.crate.planner.Plan;
 import io.crate.planner.Planner;
-import io.crate.sql.tree.Statement;
 import io.crate.types.DataType;
 
 import javax.annotation.Nullable;
@@ -95,13 +95,13 @@ class BatchPortal extends AbstractPortal {
     }
 
     @Override
-    public Portal bind(String statementName, String query, Statement statement,
+    public Portal bind(String statementName, String query, PreparedAnalysis preparedAnalysis,
                        List<Object> params, @Nullable FormatCodes.FormatCode[] resultFormatCodes) {
         queries.add(query);
         batchParams.add(params);
         this.resultFormatCodes.add(resultFormatCodes);
         analysis.add(portalContext.getAnalyzer().boundAnalyze(
-            statement, sessionContext, new ParameterContext(getArgs(), Collections.emptyList())));
+            preparedAnalysis, sessionContext, new ParameterContext(getArgs(), Collections.emptyList())));
         return this;
     }
 
@@ -26,6 +26,7 @@ import io.crate.action.sql.ResultReceiver;
 import io.crate.action.sql.SessionContext;
 import io.crate.analyze.Analysis;
 import io.crate.analyze.ParameterContext;
+import io.crate.analyze.PreparedAnalysis;
 import io.crate.analyze.symbol.Field;
 import io.crate.data.Row;
 import io.crate.data.RowN;
@@ -92,7 +93,7 @@ class BulkPortal extends AbstractPortal {
     @Override
     public Portal bind(String statementName,
                        String query,
-                       Statement statement,
+                       PreparedAnalysis preparedAnalysis,
                        List<Object> params,
                        @Nullable FormatCodes.FormatCode[] resultFormatCodes) {
         this.bulkArgs.add(params);
@@ -0,0 +1,612 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.analyze.CopyFromAnalyzedStatement;
+import io.crate.metadata.GeneratedReference;
+import io.crate.metadata.Reference;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.operation.collect.files.AsyncInput;
+import io.crate.operation.collect.files.DataNotAvailableException;
+import io.crate.protocols.postgres.types.PGType;
+import io.crate.protocols.postgres.types.PGTypes;
+import io.netty.buffer.Unpooled;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Converts the rows a client sends in the text, csv or binary format of {@code COPY ... FROM STDIN}
+ * into JSON objects, one per line, which is the format read by COPY FROM. Rows sent in the json format are
+ * passed through line by line.
+ *
+ * The values of each row are assigned to the {@link #columns(CopyFromAnalyzedStatement)} of the table in order and
+ * decoded using the {@link PGType} of the column, the same way as parameters sent by the client.
+ * The conversion is done by the reader of the stream, not on the netty event loop.
+ *
+ * The stream only returns complete lines. If the data of a row hasn't been received yet, the underlying stream
+ * is reset to the start of the row and the {@link DataNotAvailableException} is passed on; the row is converted
+ * again once {@link #dataAvailable()} completes.
+ */
+abstract class CopyInRows extends InputStream implements AsyncInput {
+
+    private static final byte[] END_OF_DATA = new byte[]{'\\', '.'};
+
+    /**
+     * Binary values and header extensions which claim to be longer are rejected instead of allocating a buffer
+     * for them.
+     */
+    static final int MAX_VALUE_LENGTH = 100 * 1024 * 1024;
+
+    final InputStream in;
+    private final List<String> names;
+    private final PGType[] types;
+
+    private byte[] line = new byte[0];
+    private int pos = 0;
+    long rowNumber = 0L;
+
+    static InputStream forFormat(String format, InputStream in, List<Reference> columns, boolean header) {
+        switch (format) {
+            case "json":
+                return new Json(in);
+            case "text":
+                return new Text(in, columns);
+            case "csv":
+                return new Csv(in, columns, header);
+            case "binary":
+                return new Binary(in, columns);
+            default:
+                throw new IllegalArgumentException("Unsupported format for COPY FROM STDIN: " + format);
+        }
+    }
+
+    /**
+     * The columns the values of a row are assigned to: all top level columns of the table except generated
+     * columns and, if the statement contains a PARTITION clause, the partitioned by columns.
+     */
+    static List<Reference> columns(CopyFromAnalyzedStatement copyFrom) {
+        DocTableInfo table = copyFrom.table();
+        List<Reference> columns = new ArrayList<>();
+        for (Reference ref : table.columns()) {
+            if (ref instanceof GeneratedReference) {
+                continue;
+            }
+            if (copyFrom.partitionIdent() != null && table.partitionedByColumns().contains(ref)) {
+                continue;
+            }
+            columns.add(ref);
+        }
+        return columns;
+    }
+
+    private CopyInRows(InputStream in, List<Reference> columns) {
+        this.in = in;
+        this.names = new ArrayList<>(columns.size());
+        this.types = new PGType[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            Reference column = columns.get(i);
+            names.add(column.ident().columnIdent().fqn());
+            types[i] = PGTypes.get(column.valueType());
+        }
+    }
+
+    /**
+     * @return the decoded values of the next row or null if there are no more rows
+     */
+    @Nullable
+    abstract Object[] nextRow() throws IOException;
+
+    /**
+     * @return the next row as JSON line, terminated by a line feed, or null if there are no more rows
+     */
+    @Nullable
+    byte[] nextLine() throws IOException {
+        Object[] values = nextRow();
+        if (values == null) {
+            return null;
+        }
+        rowNumber++;
+        return toJsonLine(values);
+    }
+
+    /**
+     * Called if the stream has been reset to the start of a row; discards the state of a partially read row.
+     */
+    void resetRow() {
+    }
+
+    @Override
+    public CompletableFuture<?> dataAvailable() {
+        if (in instanceof AsyncInput) {
+            return ((AsyncInput) in).dataAvailable();
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return line[pos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int numBytes = Math.min(len, line.length - pos);
+        System.arraycopy(line, pos, b, off, numBytes);
+        pos += numBytes;
+        return numBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private boolean fill() throws IOException {
+        if (pos < line.length) {
+            return true;
+        }
+        in.mark(Integer.MAX_VALUE);
+        byte[] nextLine;
+        try {
+            nextLine = nextLine();
+        } catch (DataNotAvailableException e) {
+            in.reset();
+            resetRow();
+            throw e;
+        }
+        if (nextLine == null) {
+            return false;
+        }
+        line = nextLine;
+        pos = 0;
+        return true;
+    }
+
+    /**
+     * Reads the bytes up to the next line feed into {@code lineBuffer}, without the line feed.
+     *
+     * @return false if the end of the stream has been reached and there are no more bytes
+     */
+    boolean readLine(ByteArrayOutputStream lineBuffer) throws IOException {
+        lineBuffer.reset();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            lineBuffer.write(b);
+        }
+        return b != -1 || lineBuffer.size() > 0;
+    }
+
+    private byte[] toJsonLine(Object[] values) throws IOException {
+        XContentBuilder builder = JsonXContent.contentBuilder();
+        builder.startObject();
+        for (int i = 0; i < values.length; i++) {
+            builder.field(names.get(i));
+            writeValue(builder, values[i]);
+        }
+        builder.endObject();
+        builder.close();
+        byte[] json = BytesReference.toBytes(builder.bytes());
+        byte[] jsonLine = Arrays.copyOf(json, json.length + 1);
+        jsonLine[json.length] = '\n';
+        return jsonLine;
+    }
+
+    private static void writeValue(XContentBuilder builder, @Nullable Object value) throws IOException {
+        if (value == null) {
+            builder.nullValue();
+        } else if (value instanceof BytesRef) {
+            builder.value(((BytesRef) value).utf8ToString());
+        } else if (value instanceof Object[]) {
+            builder.startArray();
+            for (Object element : (Object[]) value) {
+                writeValue(builder, element);
+            }
+            builder.endArray();
+        } else {
+            builder.value(value);
+        }
+    }
+
+    void ensureNumValues(int numValues) throws IOException {
+        if (numValues != types.length) {
+            throw new IOException(String.format(Locale.ENGLISH,
+                "Expected %d values but got %d in row %d", types.length, numValues, rowNumber + 1));
+        }
+    }
+
+    Object decodeText(int column, byte[] bytes) throws IOException {
+        try {
+            return types[column].readTextValue(Unpooled.wrappedBuffer(bytes), bytes.length);
+        } catch (Exception e) {
+            throw invalidValue(column, e);
+        }
+    }
+
+    Object decodeBinary(int column, byte[] bytes) throws IOException {
+        try {
+            return types[column].readBinaryValue(Unpooled.wrappedBuffer(bytes), bytes.length);
+        } catch (Exception e) {
+            throw invalidValue(column, e);
+        }
+    }
+
+    private IOException invalidValue(int column, Exception cause) {
+        return new IOException(String.format(Locale.ENGLISH,
+            "Invalid value for column '%s' in row %d", names.get(column), rowNumber + 1), cause);
+    }
+
+    /**
+     * JSON format: the lines are already JSON objects and are passed through unchanged.
+     */
+    private static class Json extends CopyInRows {
+
+        private final ByteArrayOutputStream lineBuffer = new ByteArrayOutputStream();
+
+        Json(InputStream in) {
+            super(in, Collections.emptyList());
+        }
+
+        @Override
+        Object[] nextRow() {
+            throw new UnsupportedOperationException("JSON lines are not decoded");
+        }
+
+        @Nullable
+        @Override
+        byte[] nextLine() throws IOException {
+            if (!readLine(lineBuffer)) {
+                return null;
+            }
+            lineBuffer.write('\n');
+            rowNumber++;
+            return lineBuffer.toByteArray();
+        }
+    }
+
+    /**
+     * PostgreSQL text format: the values are separated by tabs, {@code \N} is null and special characters
+     * are escaped with a backslash.
+     */
+    private static class Text extends CopyInRows {
+
+        private final ByteArrayOutputStream lineBuffer = new ByteArrayOutputStream();
+
+        Text(InputStream in, List<Reference> columns) {
+            super(in, columns);
+        }
+
+        @Nullable
+        @Override
+        Object[] nextRow() throws IOException {
+            byte[] line;
+            do {
+                line = readLine();
+                if (line == null || Arrays.equals(line, END_OF_DATA)) {
+                    return null;
+                }
+            } while (line.length == 0);
+
+            List<int[]> ranges = new ArrayList<>();
+            int start = 0;
+            for (int i = 0; i <= line.length; i++) {
+                if (i == line.length || line[i] == '\t') {
+                    ranges.add(new int[]{start, i});
+                    start = i + 1;
+                }
+            }
+            ensureNumValues(ranges.size());
+            Object[] values = new Object[ranges.size()];
+            for (int i = 0; i < values.length; i++) {
+                int valueStart = ranges.get(i)[0];
+                int valueEnd = ranges.get(i)[1];
+                if (valueEnd - valueStart == 2 && line[valueStart] == '\\' && line[valueStart + 1] == 'N') {
+                    values[i] = null;
+                } else {
+                    values[i] = decodeText(i, unescape(line, valueStart, valueEnd));
+                }
+            }
+            return values;
+        }
+
+        @Nullable
+        private byte[] readLine() throws IOException {
+            if (!readLine(lineBuffer)) {
+                return null;
+            }
+            byte[] line = lineBuffer.toByteArray();
+            if (line.length > 0 && line[line.length - 1] == '\r') {
+                return Arrays.copyOf(line, line.length - 1);
+            }
+            return line;
+        }
+
+        private static byte[] unescape(byte[] bytes, int start, int end) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(end - start);
+            for (int i = start; i < end; i++) {
+                byte b = bytes[i];
+                if (b != '\\' || i + 1 == end) {
+                    out.write(b);
+                    continue;
+                }
+                i++;
+                byte c = bytes[i];
+                switch (c) {
+                    case 'b':
+                        out.write('\b');
+                        break;
+                    case 'f':
+                        out.write('\f');
+                        break;
+                    case 'n':
+                        out.write('\n');
+                        break;
+                    case 'r':
+                        out.write('\r');
+                        break;
+                    case 't':
+                        out.write('\t');
+                        break;
+                    case 'v':
+                        out.write(0x0B);
+                        break;
+                    case 'x':
+                        int hexValue = 0;
+                        int numHexDigits = 0;
+                        while (numHexDigits < 2 && i + 1 < end && Character.digit(bytes[i + 1], 16) != -1) {
+                            i++;
+                            hexValue = hexValue * 16 + Character.digit(bytes[i], 16);
+                            numHexDigits++;
+                        }
+                        out.write(numHexDigits == 0 ? 'x' : hexValue);
+                        break;
+                    default:
+                        if (c >= '0' && c <= '7') {
+                            int octalValue = c - '0';
+                            int numOctalDigits = 1;
+                            while (numOctalDigits < 3 && i + 1 < end && bytes[i + 1] >= '0' && bytes[i + 1] <= '7') {
+                                i++;
+                                octalValue = octalValue * 8 + (bytes[i] - '0');
+                                numOctalDigits++;
+                            }
+                            out.write(octalValue);
+                        } else {
+                            out.write(c);
+                        }
+                }
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * PostgreSQL csv format: the values are separated by commas and may be quoted with double quotes.
+     * An unquoted empty value is null, a quoted empty value is an empty string.
+     */
+    private static class Csv extends CopyInRows {
+
+        private boolean skipHeader;
+        private int pushedBack = -1;
+
+        Csv(InputStream in, List<Reference> columns, boolean header) {
+            super(in, columns);
+            this.skipHeader = header;
+        }
+
+        private int read(InputStream in) throws IOException {
+            if (pushedBack != -1) {
+                int b = pushedBack;
+                pushedBack = -1;
+                return b;
+            }
+            return in.read();
+        }
+
+        @Override
+        void resetRow() {
+            pushedBack = -1;
+        }
+
+        @Nullable
+        @Override
+        Object[] nextRow() throws IOException {
+            while (true) {
+                List<byte[]> rawValues = readRawValues();
+                if (rawValues == null || rawValues.size() == 1 && Arrays.equals(rawValues.get(0), END_OF_DATA)) {
+                    return null;
+                }
+                if (rawValues.size() == 1 && rawValues.get(0) == null) {
+                    // empty line
+                    continue;
+                }
+                if (skipHeader) {
+                    skipHeader = false;
+                    continue;
+                }
+                ensureNumValues(rawValues.size());
+                Object[] values = new Object[rawValues.size()];
+                for (int i = 0; i < values.length; i++) {
+                    byte[] rawValue = rawValues.get(i);
+                    values[i] = rawValue == null ? null : decodeText(i, rawValue);
+                }
+                return values;
+            }
+        }
+
+        /**
+         * @return the values of the next line, null for unquoted empty values; or null at the end of the stream
+         */
+        @Nullable
+        private List<byte[]> readRawValues() throws IOException {
+            List<byte[]> values = new ArrayList<>();
+            ByteArrayOutputStream value = new ByteArrayOutputStream();
+            boolean quoted = false;
+            boolean inQuotes = false;
+            boolean empty = true;
+            while (true) {
+                int b = read(in);
+                if (b == -1) {
+                    if (empty) {
+                        return null;
+                    }
+                    if (inQuotes) {
+                        throw new IOException("Unterminated quoted value in row " + (rowNumber + 1));
+                    }
+                    values.add(rawValue(value, quoted));
+                    return values;
+                }
+                empty = false;
+                if (inQuotes) {
+                    if (b == '"') {
+                        int next = read(in);
+                        if (next == '"') {
+                            value.write('"');
+                        } else {
+                            inQuotes = false;
+                            pushedBack = next;
+                        }
+                    } else {
+                        value.write(b);
+                    }
+                } else if (b == '"') {
+                    inQuotes = true;
+                    quoted = true;
+                } else if (b == ',') {
+                    values.add(rawValue(value, quoted));
+                    value.reset();
+                    quoted = false;
+                } else if (b == '\n') {
+                    values.add(rawValue(value, quoted));
+                    return values;
+                } else if (b != '\r') {
+                    value.write(b);
+                }
+            }
+        }
+
+        @Nullable
+        private static byte[] rawValue(ByteArrayOutputStream value, boolean quoted) {
+            if (value.size() == 0 && !quoted) {
+                return null;
+            }
+            return value.toByteArray();
+        }
+    }
+
+    /**
+     * PostgreSQL binary format: a header followed by tuples of length prefixed values and a trailer.
+     */
+    private static class Binary extends CopyInRows {
+
+        private static final byte[] SIGNATURE = new byte[]{'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+        private static final int OIDS_FLAG = 1 << 16;
+
+        private final DataInputStream dataIn;
+        private boolean headerRead = false;
+
+        Binary(InputStream in, List<Reference> columns) {
+            super(in, columns);
+            this.dataIn = new DataInputStream(in);
+        }
+
+        @Nullable
+        @Override
+        Object[] nextRow() throws IOException {
+            if (!headerRead) {
+                readHeader();
+                headerRead = true;
+            }
+            short numValues;
+            try {
+                numValues = dataIn.readShort();
+            } catch (EOFException e) {
+                return null;
+            }
+            if (numValues == -1) {
+                return null;
+            }
+            ensureNumValues(numValues);
+            Object[] values = new Object[numValues];
+            for (int i = 0; i < numValues; i++) {
+                int length = dataIn.readInt();
+                if (length == -1) {
+                    values[i] = null;
+                } else {
+                    byte[] bytes = new byte[checkLength(length, "value in row " + (rowNumber + 1))];
+                    dataIn.readFully(bytes);
+                    values[i] = decodeBinary(i, bytes);
+                }
+            }
+            return values;
+        }
+
+        private void readHeader() throws IOException {
+            byte[] signature = new byte[SIGNATURE.length];
+            dataIn.readFully(signature);
+            if (!Arrays.equals(signature, SIGNATURE)) {
+                throw new IOException("Invalid COPY file signature: " +
+                                      new String(signature, StandardCharsets.ISO_8859_1));
+            }
+            int flags = dataIn.readInt();
+            if ((flags & OIDS_FLAG) != 0) {
+                throw new IOException("COPY with OIDs is not supported");
+            }
+            int extensionLength = checkLength(dataIn.readInt(), "header extension");
+            if (dataIn.skip(extensionLength) != extensionLength) {
+                throw new EOFException("Unexpected end of the COPY header extension");
+            }
+        }
+
+        private static int checkLength(int length, String what) throws IOException {
+            if (length < 0 || length > MAX_VALUE_LENGTH) {
+                throw new IOException(String.format(Locale.ENGLISH,
+                    "Invalid length %d of %s, must be between 0 and %d", length, what, MAX_VALUE_LENGTH));
+            }
+            return length;
+        }
+    }
+}
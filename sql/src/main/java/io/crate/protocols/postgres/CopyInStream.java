@@ -0,0 +1,336 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.operation.collect.files.AsyncInput;
+import io.crate.operation.collect.files.DataNotAvailableException;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelConfig;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stream of the data a client sends with CopyData messages during {@code COPY ... FROM STDIN}.
+ *
+ * The messages are added on the netty event loop and read by the collect phase of the COPY statement.
+ * If the reader can't keep up and more than {@link #HIGH_WATERMARK} bytes are buffered, the channel stops
+ * reading from the socket (auto read is disabled) until the reader consumed the buffer down to {@link #LOW_WATERMARK}.
+ * This way the client is throttled by TCP flow control instead of filling up the heap.
+ *
+ * Reading never blocks: if the reader caught up with the received data a {@link DataNotAvailableException} is
+ * thrown and {@link #dataAvailable()} completes once the next message arrives. The stream supports
+ * {@link #mark(int)} and {@link #reset()}, so that a reader can go back to the start of an incomplete row.
+ */
+class CopyInStream extends InputStream implements AsyncInput {
+
+    static final long HIGH_WATERMARK = 4 * 1024 * 1024;
+    static final long LOW_WATERMARK = 1024 * 1024;
+
+    private static final Chunk END = new Chunk(null);
+
+    private final ChannelConfig channelConfig;
+    private final Executor executor;
+    private final BlockingQueue<Chunk> chunks = new LinkedBlockingQueue<>();
+    private final AtomicLong bufferedBytes = new AtomicLong(0L);
+
+    @Nullable
+    private volatile String failure = null;
+    private volatile boolean closed = false;
+
+    // guarded by this
+    @Nullable
+    private CompletableFuture<Void> dataAvailable = null;
+
+    // only accessed by the reader
+    private ByteBuf current = null;
+    private boolean finished = false;
+    private boolean marked = false;
+    private final ArrayDeque<ByteBuf> retained = new ArrayDeque<>();
+    private final ArrayDeque<ByteBuf> replay = new ArrayDeque<>();
+
+    /**
+     * @param executor used to notify a reader waiting for data, so that it doesn't continue on the netty event loop
+     */
+    CopyInStream(ChannelConfig channelConfig, Executor executor) {
+        this.channelConfig = channelConfig;
+        this.executor = executor;
+    }
+
+    /**
+     * Add the data of a CopyData message. The stream takes the ownership of the buffer.
+     */
+    void add(ByteBuf data) {
+        int numBytes = data.readableBytes();
+        if (closed || numBytes == 0) {
+            data.release();
+            return;
+        }
+        chunks.add(new Chunk(data));
+        if (bufferedBytes.addAndGet(numBytes) > HIGH_WATERMARK && channelConfig.isAutoRead()) {
+            channelConfig.setAutoRead(false);
+        }
+        if (closed) {
+            // aborted concurrently, make sure the buffer isn't leaked and the channel isn't paused
+            releaseChunks();
+            channelConfig.setAutoRead(true);
+        }
+        signalDataAvailable();
+    }
+
+    /**
+     * Called on CopyDone, the reader reaches the end of the stream once it consumed the buffered data.
+     */
+    void finish() {
+        chunks.add(END);
+        signalDataAvailable();
+    }
+
+    /**
+     * Called on CopyFail or if the connection is closed; the reader fails once it consumed the buffered data.
+     */
+    void fail(String message) {
+        failure = message;
+        chunks.add(END);
+        signalDataAvailable();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public synchronized CompletableFuture<?> dataAvailable() {
+        if (!chunks.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (dataAvailable == null) {
+            dataAvailable = new CompletableFuture<>();
+        }
+        return dataAvailable;
+    }
+
+    private void signalDataAvailable() {
+        CompletableFuture<Void> future;
+        synchronized (this) {
+            future = dataAvailable;
+            dataAvailable = null;
+        }
+        if (future != null) {
+            try {
+                executor.execute(() -> future.complete(null));
+            } catch (RejectedExecutionException e) {
+                future.complete(null);
+            }
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureReadable()) {
+            return -1;
+        }
+        int b = current.readByte() & 0xFF;
+        consumed(1);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureReadable()) {
+            return -1;
+        }
+        int numBytes = Math.min(len, current.readableBytes());
+        current.readBytes(b, off, numBytes);
+        consumed(numBytes);
+        return numBytes;
+    }
+
+    /**
+     * Makes sure that {@link #current} has readable bytes.
+     *
+     * @return false if the end of the stream has been reached
+     * @throws DataNotAvailableException if all received data has been read
+     */
+    private boolean ensureReadable() throws IOException {
+        while (current == null || !current.isReadable()) {
+            if (current != null && !marked) {
+                current.release();
+            }
+            current = null;
+            ByteBuf next = replay.poll();
+            if (next == null) {
+                if (finished || closed) {
+                    return false;
+                }
+                Chunk chunk = chunks.poll();
+                if (chunk == null) {
+                    // nothing buffered; make sure the channel isn't paused before waiting for more data
+                    if (!channelConfig.isAutoRead()) {
+                        channelConfig.setAutoRead(true);
+                    }
+                    synchronized (this) {
+                        if (chunks.isEmpty()) {
+                            if (dataAvailable == null) {
+                                dataAvailable = new CompletableFuture<>();
+                            }
+                            throw new DataNotAvailableException();
+                        }
+                    }
+                    continue;
+                }
+                if (chunk == END) {
+                    finished = true;
+                    String failure = this.failure;
+                    if (failure != null) {
+                        throw new IOException("COPY FROM STDIN failed: " + failure);
+                    }
+                    return false;
+                }
+                next = chunk.data;
+                next.markReaderIndex();
+            }
+            if (marked) {
+                retained.add(next);
+            }
+            current = next;
+        }
+        return true;
+    }
+
+    private void consumed(int numBytes) {
+        if (bufferedBytes.addAndGet(-numBytes) <= LOW_WATERMARK && !channelConfig.isAutoRead()) {
+            channelConfig.setAutoRead(true);
+        }
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    /**
+     * Marks the current position; the data read afterwards is retained until the next mark or until the stream is
+     * closed, regardless of {@code readLimit}.
+     */
+    @Override
+    public void mark(int readLimit) {
+        for (ByteBuf buf : retained) {
+            if (buf != current) {
+                buf.release();
+            }
+        }
+        retained.clear();
+        if (current != null) {
+            current.markReaderIndex();
+            retained.add(current);
+        }
+        marked = true;
+    }
+
+    @Override
+    public void reset() throws IOException {
+        if (!marked) {
+            throw new IOException("Stream has not been marked");
+        }
+        long numBytes = 0L;
+        while (!retained.isEmpty()) {
+            ByteBuf buf = retained.pollLast();
+            int readable = buf.readableBytes();
+            buf.resetReaderIndex();
+            numBytes += buf.readableBytes() - readable;
+            replay.addFirst(buf);
+        }
+        bufferedBytes.addAndGet(numBytes);
+        current = null;
+    }
+
+    @Override
+    public void close() {
+        if (current != null && !marked) {
+            current.release();
+        }
+        current = null;
+        releaseAll(retained);
+        releaseAll(replay);
+        abort();
+    }
+
+    private static void releaseAll(ArrayDeque<ByteBuf> buffers) {
+        ByteBuf buf;
+        while ((buf = buffers.poll()) != null) {
+            buf.release();
+        }
+    }
+
+    /**
+     * Releases the buffered data and resumes reading from the channel. Data added afterwards is discarded
+     * and the reader reaches the end of the stream.
+     */
+    void abort() {
+        closed = true;
+        releaseChunks();
+        chunks.add(END);
+        if (!channelConfig.isAutoRead()) {
+            channelConfig.setAutoRead(true);
+        }
+        signalDataAvailable();
+    }
+
+    private void releaseChunks() {
+        boolean ended = false;
+        Chunk chunk;
+        while ((chunk = chunks.poll()) != null) {
+            if (chunk == END) {
+                ended = true;
+            } else {
+                bufferedBytes.addAndGet(-chunk.data.readableBytes());
+                chunk.data.release();
+            }
+        }
+        if (ended) {
+            // keep the end marker for a reader waiting for more data
+            chunks.add(END);
+        }
+    }
+
+    private static class Chunk {
+
+        private final ByteBuf data;
+
+        Chunk(ByteBuf data) {
+            this.data = data;
+        }
+    }
+}
@@ -431,4 +431,27 @@ public class Messages {
     static void sendCloseComplete(Channel channel) {
         sendShortMsg(channel, '3', "sentCloseComplete");
     }
+
+    /**
+     * CopyInResponse
+     * | 'G' | int32 len | int8 format | int16 numColumns | int16 formatCode (numColumns times) |
+     * <p>
+     * The format is 0 for textual and 1 for binary copy data. The format codes of the columns are all set
+     * to the format.
+     */
+    static void sendCopyInResponse(Channel channel, boolean binary, int numColumns) {
+        int length = 4 + 1 + 2 + 2 * numColumns;
+        ByteBuf buffer = channel.alloc().buffer(length + 1);
+        buffer.writeByte('G');
+        buffer.writeInt(length);
+        buffer.writeByte(binary ? 1 : 0);
+        buffer.writeShort(numColumns);
+        for (int i = 0; i < numColumns; i++) {
+            buffer.writeShort(binary ? 1 : 0);
+        }
+        ChannelFuture channelFuture = channel.writeAndFlush(buffer);
+        if (LOGGER.isTraceEnabled()) {
+            channelFuture.addListener((ChannelFutureListener) future -> LOGGER.trace("sentCopyInResponse"));
+        }
+    }
 }
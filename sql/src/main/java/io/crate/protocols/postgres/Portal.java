@@ -23,10 +23,11 @@
 package io.crate.protocols.postgres;
 
 import io.crate.action.sql.ResultReceiver;
+import io.crate.analyze.CopyFromAnalyzedStatement;
+import io.crate.analyze.PreparedAnalysis;
 import io.crate.analyze.symbol.Field;
 import io.crate.operation.collect.stats.JobsLogs;
 import io.crate.planner.Planner;
-import io.crate.sql.tree.Statement;
 import io.crate.types.DataType;
 
 import javax.annotation.Nullable;
@@ -41,11 +42,19 @@ public interface Portal {
 
     String getLastQuery();
 
+    /**
+     * @return the analyzed statement if the portal is bound to a {@code COPY ... FROM STDIN} statement, otherwise null.
+     */
+    @Nullable
+    default CopyFromAnalyzedStatement getCopyFromStdin() {
+        return null;
+    }
+
     /**
      * If bind() is called on a synced portal, all pending result receiving operations must be stopped.
      * This is primarily relevant for the UNNAMED simple portal.
      */
-    Portal bind(String statementName, String query, Statement statement,
+    Portal bind(String statementName, String query, PreparedAnalysis preparedAnalysis,
                 List<Object> params, @Nullable FormatCodes.FormatCode[] resultFormatCodes);
 
     List<Field> describe();
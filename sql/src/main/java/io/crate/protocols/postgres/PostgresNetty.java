@@ -27,6 +27,7 @@ import com.carrotsearch.hppc.IntSet;
 import com.google.common.annotations.VisibleForTesting;
 import io.crate.action.sql.SQLOperations;
 import io.crate.operation.auth.Authentication;
+import io.crate.operation.collect.files.StdinStreams;
 import io.crate.protocols.ssl.SslConfigSettings;
 import io.crate.protocols.ssl.SslContextProvider;
 import io.crate.settings.CrateSetting;
@@ -56,6 +57,7 @@ import org.elasticsearch.common.transport.InetSocketTransportAddress;
 import org.elasticsearch.common.transport.PortsRange;
 import org.elasticsearch.common.transport.TransportAddress;
 import org.elasticsearch.http.BindHttpException;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.BindTransportException;
 import org.elasticsearch.transport.netty4.Netty4Transport;
 
@@ -67,6 +69,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
@@ -90,6 +93,8 @@ public class PostgresNetty extends AbstractLifecycleComponent {
     private final String port;
     private final Authentication authentication;
     private final SslContextProvider sslContextProvider;
+    private final StdinStreams stdinStreams;
+    private final Executor copyInExecutor;
     private final Logger namedLogger;
 
     private ServerBootstrap bootstrap;
@@ -104,13 +109,17 @@ public class PostgresNetty extends AbstractLifecycleComponent {
                          SQLOperations sqlOperations,
                          NetworkService networkService,
                          Authentication authentication,
-                         SslContextProvider sslContextProvider) {
+                         SslContextProvider sslContextProvider,
+                         StdinStreams stdinStreams,
+                         ThreadPool threadPool) {
         super(settings);
         namedLogger = Loggers.getLogger("psql", settings);
         this.sqlOperations = sqlOperations;
         this.networkService = networkService;
         this.authentication = authentication;
         this.sslContextProvider = sslContextProvider;
+        this.stdinStreams = stdinStreams;
+        this.copyInExecutor = threadPool.executor(ThreadPool.Names.SEARCH);
 
         enabled = PSQL_ENABLED_SETTING.setting().get(settings);
         port = PSQL_PORT_SETTING.setting().get(settings);
@@ -149,7 +158,7 @@ public class PostgresNetty extends AbstractLifecycleComponent {
                 protected void initChannel(Channel ch) throws Exception {
                     ChannelPipeline pipeline = ch.pipeline();
                     PostgresWireProtocol postgresWireProtocol =
-                        new PostgresWireProtocol(sqlOperations, authentication, sslContext);
+                        new PostgresWireProtocol(sqlOperations, authentication, sslContext, stdinStreams, copyInExecutor);
                     pipeline.addLast("frame-decoder", postgresWireProtocol.decoder);
                     pipeline.addLast("handler", postgresWireProtocol.handler);
                 }
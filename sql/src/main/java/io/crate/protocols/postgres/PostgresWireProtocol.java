@@ -25,11 +25,15 @@ package io.crate.protocols.postgres;
 import com.google.common.annotations.VisibleForTesting;
 import io.crate.action.sql.ResultReceiver;
 import io.crate.action.sql.SQLOperations;
+import io.crate.analyze.CopyFromAnalyzedStatement;
 import io.crate.analyze.symbol.Field;
+import io.crate.analyze.symbol.ValueSymbolVisitor;
 import io.crate.collections.Lists2;
+import io.crate.metadata.Reference;
 import io.crate.operation.auth.Authentication;
 import io.crate.operation.auth.AuthenticationMethod;
 import io.crate.operation.auth.Protocol;
+import io.crate.operation.collect.files.StdinStreams;
 import io.crate.operation.user.User;
 import io.crate.protocols.http.CrateNettyHttpServerTransport;
 import io.crate.protocols.postgres.types.PGType;
@@ -47,6 +51,7 @@ import org.elasticsearch.common.logging.Loggers;
 
 import javax.annotation.Nullable;
 import javax.net.ssl.SSLSession;
+import java.io.InputStream;
 import java.net.InetAddress;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -55,6 +60,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Properties;
+import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
 
 import static io.crate.protocols.SSL.getSession;
@@ -155,6 +161,28 @@ import static io.crate.protocols.postgres.PostgresWireProtocol.State.STARTUP_HEA
  *          |                                  |
  *          |  ReadyForQuery                   |
  *          |<---------------------------------|
+ *
+ * Copy In (COPY ... FROM STDIN using a simple query)
+ *
+ *          +                                  +
+ *          |   Q (query)                      |
+ *          |--------------------------------->|
+ *          |                                  |
+ *          |     CopyInResponse               |
+ *          |<---------------------------------|
+ *          |                                  |
+ *          |   CopyData                       |
+ *          |--------------------------------->|
+ *          |   CopyData                       |
+ *          |--------------------------------->|
+ *          |   CopyDone or CopyFail           |
+ *          |--------------------------------->|
+ *          |                                  |
+ *          |     CommandComplete or           |
+ *          |     ErrorResponse                |
+ *          |<---------------------------------|
+ *          |     ReadyForQuery                |
+ *          |<---------------------------------|
  * </pre>
  * <p>
  * Take a look at {@link Messages} to see how the messages are structured.
@@ -171,12 +199,20 @@ class PostgresWireProtocol {
     private final SQLOperations sqlOperations;
     private final Authentication authService;
     private final SslReqHandler sslReqHandler;
+    private final StdinStreams stdinStreams;
+    private final Executor copyInExecutor;
 
     private int msgLength;
     private byte msgType;
     private SQLOperations.Session session;
     private boolean ignoreTillSync = false;
 
+    /**
+     * The stream receiving the CopyData messages while in copy-in mode, otherwise null.
+     */
+    @Nullable
+    private CopyInStream copyIn = null;
+
     enum State {
         PRE_STARTUP,
         STARTUP_HEADER,
@@ -187,10 +223,16 @@ class PostgresWireProtocol {
 
     private State state = PRE_STARTUP;
 
-    PostgresWireProtocol(SQLOperations sqlOperations, Authentication authService, @Nullable SslContext sslContext) {
+    PostgresWireProtocol(SQLOperations sqlOperations,
+                         Authentication authService,
+                         @Nullable SslContext sslContext,
+                         StdinStreams stdinStreams,
+                         Executor copyInExecutor) {
         this.sqlOperations = sqlOperations;
         this.authService = authService;
         this.sslReqHandler = new SslReqHandler(sslContext);
+        this.stdinStreams = stdinStreams;
+        this.copyInExecutor = copyInExecutor;
         this.decoder = new MessageDecoder();
         this.handler = new MessageHandler();
     }
@@ -306,14 +348,27 @@ class PostgresWireProtocol {
                     handleExecute(buffer, channel);
                     return;
                 case 'H':
-                    handleFlush(channel);
+                    if (!inCopyIn()) {
+                        handleFlush(channel);
+                    }
                     return;
                 case 'S':
-                    handleSync(channel);
+                    if (!inCopyIn()) {
+                        handleSync(channel);
+                    }
                     return;
                 case 'C':
                     handleClose(buffer, channel);
                     return;
+                case 'd':
+                    handleCopyData(buffer);
+                    return;
+                case 'c':
+                    handleCopyDone();
+                    return;
+                case 'f':
+                    handleCopyFail(buffer);
+                    return;
                 case 'X': // Terminate (called when jdbc connection is closed)
                     closeSession();
                     channel.close();
@@ -325,6 +380,10 @@ class PostgresWireProtocol {
         }
 
         private void closeSession() {
+            if (copyIn != null) {
+                copyIn.fail("connection closed");
+                copyIn = null;
+            }
             if (session != null) {
                 session.close();
                 session = null;
@@ -598,6 +657,10 @@ class PostgresWireProtocol {
             List<Field> fields = session.describe('P', "");
             if (fields == null) {
                 RowCountReceiver rowCountReceiver = new RowCountReceiver(query, channel, session.sessionContext());
+                CopyFromAnalyzedStatement copyFromStdin = session.getCopyFromStdin("");
+                if (copyFromStdin != null) {
+                    startCopyIn(channel, copyFromStdin, rowCountReceiver);
+                }
                 session.execute("", 0, rowCountReceiver);
             } else {
                 Messages.sendRowDescription(channel, fields, null);
@@ -613,12 +676,77 @@ class PostgresWireProtocol {
             ReadyForQueryCallback readyForQueryCallback = new ReadyForQueryCallback(channel);
             session.sync().whenComplete(readyForQueryCallback);
         } catch (Throwable t) {
+            if (copyIn != null) {
+                // any further copy data is discarded
+                copyIn.abort();
+                copyIn = null;
+            }
             session.clearState();
             Messages.sendErrorResponse(channel, t);
             Messages.sendReadyForQuery(channel);
         }
     }
 
+    /**
+     * Switches to copy-in mode: the data of the following CopyData messages is streamed to the collect phase
+     * of the COPY statement, which reads it from {@link StdinStreams}. The statement completes once the client
+     * sent CopyDone and all rows have been written.
+     */
+    private void startCopyIn(Channel channel, CopyFromAnalyzedStatement copyFrom, RowCountReceiver rowCountReceiver) {
+        String uri = ValueSymbolVisitor.STRING.process(copyFrom.uri());
+        String format = copyFrom.stdinFormat();
+        List<Reference> columns = CopyInRows.columns(copyFrom);
+        CopyInStream stream = new CopyInStream(channel.config(), copyInExecutor);
+        InputStream rows = CopyInRows.forFormat(
+            format, stream, columns, copyFrom.settings().getAsBoolean("header", false));
+        stdinStreams.register(uri, rows);
+        rowCountReceiver.completionFuture().whenComplete((r, t) -> {
+            stdinStreams.remove(uri);
+            stream.abort();
+        });
+        copyIn = stream;
+        Messages.sendCopyInResponse(channel, "binary".equals(format), columns.size());
+    }
+
+    private boolean inCopyIn() {
+        return copyIn != null && !copyIn.isClosed();
+    }
+
+    /**
+     * CopyData
+     * | 'd' | int32 len | byteN data |
+     * <p>
+     * Data which is received after the COPY failed is discarded.
+     */
+    private void handleCopyData(ByteBuf buffer) {
+        if (copyIn != null) {
+            copyIn.add(buffer.readRetainedSlice(buffer.readableBytes()));
+        }
+    }
+
+    /**
+     * CopyDone
+     * | 'c' | int32 len |
+     */
+    private void handleCopyDone() {
+        if (copyIn != null) {
+            copyIn.finish();
+            copyIn = null;
+        }
+    }
+
+    /**
+     * CopyFail
+     * | 'f' | int32 len | string errorMessage |
+     */
+    private void handleCopyFail(ByteBuf buffer) {
+        String message = readCString(buffer);
+        if (copyIn != null) {
+            copyIn.fail(message);
+            copyIn = null;
+        }
+    }
+
 
     /**
      * FrameDecoder that makes sure that a full message is in the buffer before delegating work to the MessageHandler
@@ -60,6 +60,11 @@ class RetryOnFailureResultReceiver implements ResultReceiver {
         delegate.batchFinished();
     }
 
+    @Override
+    public void suspended(Runnable resumeAction) {
+        delegate.suspended(resumeAction);
+    }
+
     @Override
     public void allFinished(boolean interrupted) {
         delegate.allFinished(interrupted);
@@ -23,11 +23,14 @@
 package io.crate.protocols.postgres;
 
 import io.crate.action.sql.BatchConsumerToResultReceiver;
+import io.crate.action.sql.QueryResultCache;
 import io.crate.action.sql.ResultReceiver;
 import io.crate.action.sql.SessionContext;
 import io.crate.analyze.Analysis;
 import io.crate.analyze.Analyzer;
+import io.crate.analyze.CopyFromAnalyzedStatement;
 import io.crate.analyze.ParameterContext;
+import io.crate.analyze.PreparedAnalysis;
 import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.symbol.Field;
 import io.crate.collections.Lists2;
@@ -70,9 +73,10 @@ public class SimplePortal extends AbstractPortal {
     public SimplePortal(String name,
                         Analyzer analyzer,
                         Executor executor,
+                        QueryResultCache queryResultCache,
                         boolean isReadOnly,
                         SessionContext sessionContext) {
-        super(name, analyzer, executor, isReadOnly, sessionContext);
+        super(name, analyzer, executor, queryResultCache, isReadOnly, sessionContext);
         this.defaultLimit = sessionContext.defaultLimit();
     }
 
@@ -92,13 +96,26 @@ public class SimplePortal extends AbstractPortal {
         return this.query;
     }
 
+    @Nullable
+    @Override
+    public CopyFromAnalyzedStatement getCopyFromStdin() {
+        if (analysis != null && analysis.analyzedStatement() instanceof CopyFromAnalyzedStatement) {
+            CopyFromAnalyzedStatement copyFrom = (CopyFromAnalyzedStatement) analysis.analyzedStatement();
+            if (copyFrom.fromStdin()) {
+                return copyFrom;
+            }
+        }
+        return null;
+    }
+
     @Override
     public Portal bind(String statementName,
                        String query,
-                       Statement statement,
+                       PreparedAnalysis preparedAnalysis,
                        List<Object> params,
                        @Nullable FormatCodes.FormatCode[] resultFormatCodes) {
 
+        Statement statement = preparedAnalysis.statement();
         if (statement.equals(this.statement)) {
             if (portalContext.isReadOnly()) { // Cannot have a bulk operation in read only mode
                 throw new ReadOnlyException();
@@ -111,7 +128,7 @@ public class SimplePortal extends AbstractPortal {
                 outputTypes,
                 fields(),
                 resultReceiver, maxRows, this.params, sessionContext, portalContext);
-            return portal.bind(statementName, query, statement, params, resultFormatCodes);
+            return portal.bind(statementName, query, preparedAnalysis, params, resultFormatCodes);
         } else if (this.statement != null) {
             assert consumer == null : "Existing portal must not have a consumer";
             if (portalContext.isReadOnly()) { // Cannot have a batch operation in read only mode
@@ -119,7 +136,7 @@ public class SimplePortal extends AbstractPortal {
             }
             BatchPortal portal = new BatchPortal(
                 name, this.query, analysis, outputTypes, resultReceiver, this.params, sessionContext, portalContext);
-            return portal.bind(statementName, query, statement, params, resultFormatCodes);
+            return portal.bind(statementName, query, preparedAnalysis, params, resultFormatCodes);
         }
 
         this.query = query;
@@ -129,7 +146,7 @@ public class SimplePortal extends AbstractPortal {
         this.resultFormatCodes = resultFormatCodes;
         if (analysis == null) {
             analysis = portalContext.getAnalyzer().boundAnalyze(
-                statement,
+                preparedAnalysis,
                 sessionContext,
                 new ParameterContext(this.rowParams, Collections.emptyList()));
             AnalyzedRelation rootRelation = analysis.rootRelation();
@@ -174,7 +191,13 @@ public class SimplePortal extends AbstractPortal {
 
         if (!resumeIfSuspended()) {
             consumer = new BatchConsumerToResultReceiver(resultReceiver, maxRows);
-            portalContext.getExecutor().execute(plan, consumer, this.rowParams);
+            portalContext.getQueryResultCache().execute(
+                statement,
+                analysis,
+                params,
+                defaultLimit,
+                consumer,
+                c -> portalContext.getExecutor().execute(plan, c, rowParams));
         }
         synced = true;
         return completableFuture;
@@ -0,0 +1,108 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.rest.action;
+
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.rest.RestUtils;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.elasticsearch.http.HttpTransportSettings.SETTING_CORS_ALLOW_CREDENTIALS;
+import static org.elasticsearch.http.HttpTransportSettings.SETTING_CORS_ALLOW_ORIGIN;
+import static org.elasticsearch.http.HttpTransportSettings.SETTING_CORS_ENABLED;
+
+/**
+ * The CORS headers of responses which are written to the Netty channel directly instead of through the
+ * {@link org.elasticsearch.rest.RestChannel}, which would add them otherwise.
+ *
+ * Preflight requests are still handled by the CORS handler of the http transport; only the headers of the
+ * actual response are set here, based on the same http.cors.* settings.
+ */
+class CorsResponseHeaders {
+
+    private static final String ANY_ORIGIN = "*";
+
+    private final boolean enabled;
+    private final boolean anyOrigin;
+    @Nullable
+    private final Pattern originPattern;
+    private final Set<String> origins;
+    private final boolean allowCredentials;
+
+    CorsResponseHeaders(Settings settings) {
+        enabled = SETTING_CORS_ENABLED.get(settings);
+        String allowOrigin = SETTING_CORS_ALLOW_ORIGIN.get(settings);
+        anyOrigin = ANY_ORIGIN.equals(allowOrigin);
+        originPattern = anyOrigin ? null : RestUtils.checkCorsSettingForRegex(allowOrigin);
+        origins = anyOrigin || originPattern != null
+            ? Collections.emptySet()
+            : Strings.splitStringByCommaToSet(allowOrigin);
+        allowCredentials = SETTING_CORS_ALLOW_CREDENTIALS.get(settings);
+    }
+
+    /**
+     * @param origin the Origin header of the request
+     * @param host the Host header of the request, a request from the same origin is always allowed
+     * @return the headers which must be added to the response
+     */
+    Map<String, String> headers(@Nullable String origin, @Nullable String host) {
+        if (enabled == false) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> headers = new HashMap<>();
+        if (Strings.isNullOrEmpty(origin) == false) {
+            if (anyOrigin) {
+                headers.put("Access-Control-Allow-Origin", ANY_ORIGIN);
+            } else if (isAllowed(origin) || isSameOrigin(origin, host)) {
+                headers.put("Access-Control-Allow-Origin", origin);
+                headers.put("Vary", "Origin");
+            }
+        }
+        if (allowCredentials) {
+            headers.put("Access-Control-Allow-Credentials", "true");
+        }
+        return headers;
+    }
+
+    private boolean isAllowed(String origin) {
+        if (originPattern != null) {
+            return originPattern.matcher(origin).matches();
+        }
+        return origins.contains(origin);
+    }
+
+    private static boolean isSameOrigin(String origin, @Nullable String host) {
+        if (Strings.isNullOrEmpty(host)) {
+            return false;
+        }
+        // the origin has the form scheme://host[:port]
+        int schemeEnd = origin.indexOf("://");
+        return schemeEnd >= 0 && origin.substring(schemeEnd + 3).equals(host);
+    }
+}
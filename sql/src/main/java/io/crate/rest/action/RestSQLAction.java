@@ -42,18 +42,22 @@ import io.crate.operation.auth.AuthSettings;
 import io.crate.operation.user.ExceptionAuthorizedValidator;
 import io.crate.operation.user.User;
 import io.crate.operation.user.UserManager;
+import io.netty.channel.Channel;
 import org.elasticsearch.client.node.NodeClient;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Provider;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.http.HttpTransportSettings;
+import org.elasticsearch.http.netty4.Netty4HttpRequest;
 import org.elasticsearch.rest.BaseRestHandler;
 import org.elasticsearch.rest.BytesRestResponse;
 import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestController;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -73,20 +77,32 @@ public class RestSQLAction extends BaseRestHandler {
     private static final String REQUEST_HEADER_SCHEMA = "Default-Schema";
     private static final int DEFAULT_SOFT_LIMIT = 10_000;
 
+    /**
+     * Number of rows written per chunk if the result set is streamed
+     */
+    private static final int STREAM_PAGE_SIZE = 1_000;
+
     private final SQLOperations sqlOperations;
     private final UserManager userManager;
     private final CircuitBreaker circuitBreaker;
+    private final CorsResponseHeaders corsResponseHeaders;
+    private final boolean pipeliningEnabled;
+    private final ThreadPool threadPool;
 
     @Inject
     public RestSQLAction(Settings settings,
                          RestController controller,
                          SQLOperations sqlOperations,
                          Provider<UserManager> userManagerProvider,
-                         CrateCircuitBreakerService breakerService) {
+                         CrateCircuitBreakerService breakerService,
+                         ThreadPool threadPool) {
         super(settings);
+        this.threadPool = threadPool;
         this.sqlOperations = sqlOperations;
         this.userManager = userManagerProvider.get();
         this.circuitBreaker = breakerService.getBreaker(CrateCircuitBreakerService.QUERY);
+        this.corsResponseHeaders = new CorsResponseHeaders(settings);
+        this.pipeliningEnabled = HttpTransportSettings.SETTING_PIPELINING.get(settings);
 
         controller.registerHandler(RestRequest.Method.POST, "/_sql", this);
     }
@@ -132,7 +148,7 @@ public class RestSQLAction extends BaseRestHandler {
 
     @Override
     protected Set<String> responseParams() {
-        return ImmutableSet.of("types");
+        return ImmutableSet.of("types", "stream");
     }
 
     private static Set<Option> toOptions(RestRequest request) {
@@ -153,6 +169,10 @@ public class RestSQLAction extends BaseRestHandler {
     }
 
     private RestChannelConsumer executeSimpleRequest(SQLXContentSourceContext context, final RestRequest request) {
+        // a chunked response can't be ordered by the http pipelining, the buffered response is used instead
+        boolean stream = request.paramAsBoolean("stream", false)
+                         && request instanceof Netty4HttpRequest
+                         && pipeliningEnabled == false;
         SQLOperations.Session session = sqlOperations.createSession(
             request.header(REQUEST_HEADER_SCHEMA),
             userFromRequest(request),
@@ -177,6 +197,29 @@ public class RestSQLAction extends BaseRestHandler {
                     }
                 };
             }
+            if (stream) {
+                Channel nettyChannel = ((Netty4HttpRequest) request).getChannel();
+                return channel -> {
+                    try {
+                        ResultReceiver resultReceiver = new RestStreamingResultSetReceiver(
+                            channel,
+                            nettyChannel,
+                            threadPool.generic(),
+                            session.sessionContext(),
+                            outputFields,
+                            startTime,
+                            new RowAccounting(
+                                Symbols.typeView(outputFields),
+                                new RamAccountingContext("http-result", circuitBreaker)),
+                            corsResponseHeaders.headers(request.header("Origin"), request.header("Host")),
+                            request.paramAsBoolean("types", false));
+                        session.execute(UNNAMED, STREAM_PAGE_SIZE, resultReceiver);
+                        session.sync();
+                    } catch (Throwable t) {
+                        errorResponse(channel, t, session.sessionContext());
+                    }
+                };
+            }
             return channel -> {
                 try {
                     ResultReceiver resultReceiver = new RestResultSetReceiver(
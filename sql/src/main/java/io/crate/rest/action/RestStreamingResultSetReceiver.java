@@ -0,0 +1,229 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.rest.action;
+
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.analyze.symbol.Field;
+import io.crate.breaker.RowAccounting;
+import io.crate.data.Row;
+import io.crate.operation.user.ExceptionAuthorizedValidator;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.rest.RestChannel;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static io.crate.exceptions.SQLExceptions.createSQLActionException;
+
+/**
+ * Receiver which streams the result set to the client as chunked HTTP response instead of building the whole
+ * response in memory.
+ *
+ * The consumer must suspend after each page of rows (maxRows > 0). Each page is written as chunk and the
+ * consumer is resumed right away if the channel is still writable, otherwise once the chunk has been written.
+ * The consumer is resumed on the given executor, so that the next page isn't read and serialized on the
+ * event loop of the channel. The rows of a page are accounted for until its chunk has been written.
+ *
+ * The response is written to the netty channel directly, bypassing the {@link RestChannel}; the headers which
+ * the http layer would add (e.g. CORS) have to be provided by the caller. The response can't be ordered by the
+ * http pipelining, so streaming must only be used if pipelining is disabled.
+ *
+ * Once the first chunk has been sent a failure can't be turned into an error response anymore;
+ * in that case the connection is closed which leaves the client with an incomplete response.
+ */
+class RestStreamingResultSetReceiver extends BaseResultReceiver {
+
+    private static final Logger LOGGER = Loggers.getLogger(RestStreamingResultSetReceiver.class);
+
+    private final RestChannel restChannel;
+    private final Channel channel;
+    private final Executor resumeExecutor;
+    private final ExceptionAuthorizedValidator exceptionAuthorizedValidator;
+    private final List<Field> outputFields;
+    private final long startTime;
+    private final BytesStreamOutput out;
+    private final XContentBuilder xContentBuilder;
+    private final ResultToXContentBuilder builder;
+    private final RowAccounting rowAccounting;
+    private final Map<String, String> headers;
+
+    private boolean headerSent = false;
+    private ChannelFuture lastWrite;
+    private long rowCount;
+    private long pageBytes;
+
+    RestStreamingResultSetReceiver(RestChannel restChannel,
+                                   Channel channel,
+                                   Executor resumeExecutor,
+                                   ExceptionAuthorizedValidator exceptionAuthorizedValidator,
+                                   List<Field> outputFields,
+                                   long startTime,
+                                   RowAccounting rowAccounting,
+                                   Map<String, String> headers,
+                                   boolean includeTypesOnResponse) throws IOException {
+        this.restChannel = restChannel;
+        this.channel = channel;
+        this.resumeExecutor = resumeExecutor;
+        this.exceptionAuthorizedValidator = exceptionAuthorizedValidator;
+        this.outputFields = outputFields;
+        this.startTime = startTime;
+        this.rowAccounting = rowAccounting;
+        this.headers = headers;
+        this.out = new BytesStreamOutput();
+        this.xContentBuilder = XContentFactory.jsonBuilder(out);
+        this.builder = ResultToXContentBuilder.builder(xContentBuilder);
+        builder.cols(outputFields);
+        if (includeTypesOnResponse) {
+            builder.colTypes(outputFields);
+        }
+        builder.startRows();
+    }
+
+    @Override
+    public void setNextRow(Row row) {
+        if (completionFuture().isDone()) {
+            // writing a previous chunk failed; stops the consumer
+            throw new IllegalStateException("Streaming the result set has already failed");
+        }
+        try {
+            pageBytes += rowAccounting.accountForAndMaybeBreak(row);
+            builder.addRow(row, outputFields.size());
+            rowCount++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public void batchFinished() {
+        try {
+            lastWrite = writeChunk(false);
+        } catch (Throwable t) {
+            fail(t);
+        }
+    }
+
+    @Override
+    public void suspended(Runnable resumeAction) {
+        if (lastWrite == null || channel.isWritable()) {
+            resumeExecutor.execute(resumeAction);
+        } else {
+            // once the last chunk is written the outbound buffer is empty again
+            lastWrite.addListener((ChannelFutureListener) f -> resumeExecutor.execute(resumeAction));
+        }
+    }
+
+    @Override
+    public void allFinished(boolean interrupted) {
+        try {
+            builder.finishRows()
+                .rowCount(rowCount)
+                .duration(startTime)
+                .build();
+            writeChunk(true).addListener(ChannelFutureListener.CLOSE);
+            rowAccounting.close();
+            super.allFinished(interrupted);
+        } catch (Throwable t) {
+            fail(t);
+        }
+    }
+
+    @Override
+    public void fail(@Nonnull Throwable t) {
+        if (completionFuture().isDone()) {
+            return;
+        }
+        try {
+            if (headerSent) {
+                LOGGER.error("failed to stream result set, closing connection", t);
+                channel.close();
+            } else {
+                restChannel.sendResponse(new CrateThrowableRestResponse(restChannel,
+                    createSQLActionException(t, exceptionAuthorizedValidator)));
+            }
+        } catch (Throwable e) {
+            LOGGER.error("failed to send failure response", e);
+        } finally {
+            rowAccounting.close();
+            super.fail(t);
+        }
+    }
+
+    /**
+     * Writes the content of the builder as chunk and clears the builder.
+     * The response header is sent along with the first chunk.
+     */
+    private ChannelFuture writeChunk(boolean last) throws IOException {
+        xContentBuilder.flush();
+        BytesRef bytes = out.bytes().toBytesRef();
+        ByteBuf content = Unpooled.copiedBuffer(bytes.bytes, bytes.offset, bytes.length);
+        out.reset();
+        long bytesWritten = pageBytes;
+        pageBytes = 0;
+        if (headerSent == false) {
+            HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+            response.headers().set(HttpHeaderNames.CONTENT_TYPE, XContentType.JSON.mediaType());
+            response.headers().set(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+            // the response isn't written through the http pipelining of the RestChannel
+            response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                response.headers().set(header.getKey(), header.getValue());
+            }
+            channel.write(response);
+            headerSent = true;
+        }
+        if (last) {
+            return channel.writeAndFlush(new DefaultLastHttpContent(content));
+        }
+        ChannelFuture future = channel.writeAndFlush(new DefaultHttpContent(content));
+        future.addListener((ChannelFutureListener) f -> {
+            rowAccounting.release(bytesWritten);
+            if (f.isSuccess() == false) {
+                fail(f.cause());
+            }
+        });
+        return future;
+    }
+}
@@ -47,13 +47,17 @@ class ResultToXContentBuilder {
 
     private final XContentBuilder builder;
 
-    private ResultToXContentBuilder(RestChannel channel) throws IOException {
-        builder = channel.newBuilder();
+    private ResultToXContentBuilder(XContentBuilder builder) throws IOException {
+        this.builder = builder;
         builder.startObject();
     }
 
     static ResultToXContentBuilder builder(RestChannel channel) throws IOException {
-        return new ResultToXContentBuilder(channel);
+        return new ResultToXContentBuilder(channel.newBuilder());
+    }
+
+    static ResultToXContentBuilder builder(XContentBuilder builder) throws IOException {
+        return new ResultToXContentBuilder(builder);
     }
 
     ResultToXContentBuilder cols(List<Field> fields) throws IOException {
@@ -0,0 +1,104 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import io.crate.analyze.Analysis;
+import io.crate.analyze.ParameterContext;
+import io.crate.analyze.TableDefinitions;
+import io.crate.breaker.CrateCircuitBreakerService;
+import io.crate.data.BatchConsumer;
+import io.crate.executor.transport.TransportReaderVersionsAction;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.Statement;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import org.elasticsearch.common.settings.Settings;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+
+public class QueryResultCacheTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+
+    @Before
+    public void prepare() {
+        e = SQLExecutor.builder(clusterService).enableDefaultTables().build();
+    }
+
+    private DocTableInfo cacheableTable(String stmt) {
+        Statement statement = SqlParser.createStatement(stmt);
+        Analysis analysis = e.analyzer.boundAnalyze(statement, SessionContext.SYSTEM_SESSION, ParameterContext.EMPTY);
+        return QueryResultCache.cacheableTable(statement, analysis);
+    }
+
+    @Test
+    public void testAggregationOnUserTableIsCacheable() throws Exception {
+        DocTableInfo table = cacheableTable("select name, count(*) from users where id > 10 group by name");
+        assertThat(table, notNullValue());
+        assertThat(table.ident(), is(TableDefinitions.USER_TABLE_IDENT));
+
+        assertThat(cacheableTable("select count(*) from users"), notNullValue());
+    }
+
+    @Test
+    public void testSelectWithoutAggregationIsNotCacheable() throws Exception {
+        assertThat(cacheableTable("select name from users where id > 10"), nullValue());
+    }
+
+    @Test
+    public void testNonDeterministicStatementIsNotCacheable() throws Exception {
+        assertThat(cacheableTable("select count(*) from users where random() > 0.5"), nullValue());
+        assertThat(cacheableTable("select count(*) from users where date < current_timestamp"), nullValue());
+    }
+
+    @Test
+    public void testSystemTableIsNotCacheable() throws Exception {
+        assertThat(cacheableTable("select count(*) from sys.nodes"), nullValue());
+    }
+
+    @Test
+    public void testDisabledCacheExecutesStatement() throws Exception {
+        QueryResultCache cache = new QueryResultCache(
+            Settings.EMPTY, clusterService, mock(CrateCircuitBreakerService.class), mock(TransportReaderVersionsAction.class));
+        String stmt = "select count(*) from users";
+        Statement statement = SqlParser.createStatement(stmt);
+        Analysis analysis = e.analyzer.boundAnalyze(statement, SessionContext.SYSTEM_SESSION, ParameterContext.EMPTY);
+        BatchConsumer consumer = mock(BatchConsumer.class);
+        AtomicReference<BatchConsumer> executedWith = new AtomicReference<>();
+
+        cache.execute(statement, analysis, Collections.emptyList(), 0, consumer, executedWith::set);
+        assertThat(executedWith.get(), sameInstance(consumer));
+        assertThat(cache.entries(), is(0L));
+        assertThat(cache.hits(), is(0L));
+    }
+}
@@ -108,6 +108,29 @@ public class CopyAnalyzerTest extends CrateDummyClusterServiceUnitTest {
         assertThat(BytesRefs.toString(value), is(path));
     }
 
+    @Test
+    public void testCopyFromStdin() throws Exception {
+        CopyFromAnalyzedStatement analysis = e.analyze("copy users from stdin with (format = 'csv')");
+        assertThat(analysis.table().ident(), is(USER_TABLE_IDENT));
+        assertThat(analysis.fromStdin(), is(true));
+        assertThat(analysis.stdinFormat(), is("csv"));
+        assertThat(BytesRefs.toString(((Literal) analysis.uri()).value()), startsWith("stdin:///"));
+    }
+
+    @Test
+    public void testCopyFromStdinWithInvalidFormat() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("'xml' is not an allowed value");
+        e.analyze("copy users from stdin with (format = 'xml')");
+    }
+
+    @Test
+    public void testCopyFromStdinWithCompression() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("compression is not supported for COPY FROM STDIN");
+        e.analyze("copy users from stdin with (compression = 'gzip')");
+    }
+
     @Test
     public void testCopyToFile() throws Exception {
         expectedException.expect(UnsupportedOperationException.class);
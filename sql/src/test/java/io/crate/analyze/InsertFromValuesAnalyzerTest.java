@@ -618,6 +618,21 @@ public class InsertFromValuesAnalyzerTest extends CrateDummyClusterServiceUnitTe
         assertThat((Long) analysis.sourceMaps().get(1)[0], is(2L));
     }
 
+    @Test
+    public void testInsertWithBulkArgsMixingParametersAndExpressions() throws Exception {
+        InsertFromValuesAnalyzedStatement analysis = e.analyze(
+            "insert into users (id, name, other_id) values (?, 'foo', ? + 1)",
+            new Object[][]{
+                new Object[]{1, 10},
+                new Object[]{"2", 20}
+            });
+        assertThat(analysis.sourceMaps().size(), is(2));
+        assertThat(analysis.sourceMaps().get(0), is(new Object[]{1L, new BytesRef("foo"), 11L}));
+        assertThat(analysis.sourceMaps().get(1), is(new Object[]{2L, new BytesRef("foo"), 21L}));
+        assertThat(analysis.ids(), contains("1", "2"));
+        assertThat(analysis.bulkIndices(), contains(0, 1));
+    }
+
     @Test
     public void testInsertWithBulkArgsMultiValue() throws Exception {
         // should be equal to testInsertWithBulkArgs()
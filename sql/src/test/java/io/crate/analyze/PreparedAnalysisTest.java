@@ -0,0 +1,153 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.analyze;
+
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.relations.QueriedRelation;
+import io.crate.data.RowN;
+import io.crate.sql.parser.SqlParser;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import io.crate.testing.SQLPrinter;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static io.crate.testing.SymbolMatchers.isLiteral;
+import static io.crate.testing.TestingHelpers.isDocKey;
+import static io.crate.testing.TestingHelpers.isSQL;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class PreparedAnalysisTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+
+    @Before
+    public void prepare() {
+        e = SQLExecutor.builder(clusterService).enableDefaultTables().build();
+    }
+
+    private Analysis bind(PreparedAnalysis preparedAnalysis, Object... params) {
+        return e.analyzer.boundAnalyze(
+            preparedAnalysis, SessionContext.SYSTEM_SESSION, new ParameterContext(new RowN(params), Collections.emptyList()));
+    }
+
+    private QuerySpec querySpec(Analysis analysis) {
+        return ((QueriedRelation) analysis.rootRelation()).querySpec();
+    }
+
+    private static boolean matches(PreparedAnalysis preparedAnalysis, long schemasVersion, DataType... paramTypes) {
+        return preparedAnalysis.matches(
+            new ParamTypeHints(Arrays.asList(paramTypes)), SessionContext.SYSTEM_SESSION.defaultSchema(), schemasVersion);
+    }
+
+    private void assertBoundLikeAnalyzed(String stmt, Object... params) {
+        assertBoundLikeAnalyzed(new PreparedAnalysis(SqlParser.createStatement(stmt)), params);
+    }
+
+    private void assertBoundLikeAnalyzed(PreparedAnalysis preparedAnalysis, Object... params) {
+        QuerySpec expected = querySpec(e.analyzer.boundAnalyze(
+            preparedAnalysis.statement(),
+            SessionContext.SYSTEM_SESSION,
+            new ParameterContext(new RowN(params), Collections.emptyList())));
+        assertThat(querySpec(bind(preparedAnalysis, params)), isSQL(SQLPrinter.print(expected)));
+    }
+
+    @Test
+    public void testParametersAreBoundToTheKeptRelation() throws Exception {
+        PreparedAnalysis preparedAnalysis = new PreparedAnalysis(
+            SqlParser.createStatement("select name from users where id = ? limit ?"));
+        QuerySpec first = querySpec(bind(preparedAnalysis, 1L, 10L));
+        assertThat(first.where().docKeys().get(), contains(isDocKey(1L)));
+        assertThat(first.limit().get(), isLiteral(10L));
+
+        assertThat(matches(preparedAnalysis, 0L, DataTypes.LONG, DataTypes.LONG), is(true));
+
+        QuerySpec second = querySpec(bind(preparedAnalysis, 2L, 5L));
+        assertThat(second.where().docKeys().get(), contains(isDocKey(2L)));
+        assertThat(second.limit().get(), isLiteral(5L));
+        // the previous execution must not be affected
+        assertThat(first.where().docKeys().get(), contains(isDocKey(1L)));
+    }
+
+    @Test
+    public void testBoundRelationIsTheSameAsTheAnalyzedRelation() throws Exception {
+        assertBoundLikeAnalyzed("select id, name from users where name = ? and other_id > ?", "Arthur", 3);
+        assertBoundLikeAnalyzed("select name, count(*) from users where ints in (?, ?) group by name " +
+                                "having count(*) > ? order by name limit ? offset ?", 1, 2, 3L, 10, 5);
+        assertBoundLikeAnalyzed("select id + ?, substr(name, ?) from users where tags = ANY(?)",
+            1, 2, new Object[]{"a", "b"});
+        assertBoundLikeAnalyzed("select id from users where name = ?", (Object) null);
+    }
+
+    @Test
+    public void testRelationIsAnalyzedAgainIfParameterTypesChange() throws Exception {
+        PreparedAnalysis preparedAnalysis = new PreparedAnalysis(
+            SqlParser.createStatement("select id from users where other_id = ?"));
+        assertBoundLikeAnalyzed(preparedAnalysis, 1L);
+        assertThat(matches(preparedAnalysis, 0L, DataTypes.LONG), is(true));
+
+        assertBoundLikeAnalyzed(preparedAnalysis, 1);
+        assertThat(matches(preparedAnalysis, 0L, DataTypes.LONG), is(false));
+        assertThat(matches(preparedAnalysis, 0L, DataTypes.INTEGER), is(true));
+    }
+
+    @Test
+    public void testRelationIsAnalyzedAgainIfSchemasVersionChanges() throws Exception {
+        PreparedAnalysis preparedAnalysis = new PreparedAnalysis(SqlParser.createStatement("select id from users"));
+        bind(preparedAnalysis);
+        assertThat(matches(preparedAnalysis, 0L), is(true));
+        assertThat(matches(preparedAnalysis, 1L), is(false));
+        assertThat(preparedAnalysis.matches(ParamTypeHints.EMPTY, "foo", 0L), is(false));
+    }
+
+    @Test
+    public void testParameterInOrderByIsNotKept() throws Exception {
+        PreparedAnalysis preparedAnalysis = new PreparedAnalysis(
+            SqlParser.createStatement("select id, name from users order by ?"));
+        assertBoundLikeAnalyzed(preparedAnalysis, 2);
+        assertThat(preparedAnalysis.isCacheable(), is(false));
+    }
+
+    @Test
+    public void testSubSelectIsNotKept() throws Exception {
+        PreparedAnalysis preparedAnalysis = new PreparedAnalysis(
+            SqlParser.createStatement("select id from users where id = (select 1)"));
+        bind(preparedAnalysis);
+        assertThat(preparedAnalysis.isCacheable(), is(false));
+    }
+
+    @Test
+    public void testOtherStatementsAreNotKept() throws Exception {
+        PreparedAnalysis preparedAnalysis = new PreparedAnalysis(
+            SqlParser.createStatement("insert into users (id, name) values (?, ?)"));
+        assertThat(preparedAnalysis.isCacheable(), is(false));
+        bind(preparedAnalysis, 1L, "Arthur");
+        assertThat(matches(preparedAnalysis, 0L, DataTypes.LONG, DataTypes.STRING), is(false));
+    }
+}
@@ -981,10 +981,75 @@ public class SelectStatementAnalyzerTest extends CrateDummyClusterServiceUnitTes
     @Test
     public void testUnion() {
         expectedException.expect(UnsupportedFeatureException.class);
-        expectedException.expectMessage("UNION is not supported");
+        expectedException.expectMessage("UNION DISTINCT is not supported");
         analyze("select * from users union select * from users_multi_pk");
     }
 
+    @Test
+    public void testUnionAll() {
+        SelectAnalyzedStatement analysis = analyze(
+            "select id, name from users " +
+            "union all select id, name from users_multi_pk " +
+            "union all select id, name from foo.users");
+        QueriedRelation relation = analysis.relation();
+        assertThat(relation, instanceOf(UnionSelect.class));
+        UnionSelect unionSelect = (UnionSelect) relation;
+        assertThat(unionSelect.relations().size(), is(3));
+        assertThat(unionSelect.fields(), contains(isField("id", DataTypes.LONG), isField("name", DataTypes.STRING)));
+        assertThat(unionSelect.querySpec().orderBy().isPresent(), is(false));
+        assertThat(unionSelect.querySpec().limit().isPresent(), is(false));
+    }
+
+    @Test
+    public void testUnionAllWithOrderByLimitAndOffset() {
+        SelectAnalyzedStatement analysis = analyze(
+            "select id, name from users " +
+            "union all select id, name from users_multi_pk " +
+            "order by name desc nulls first, 1 limit 10 offset 5");
+        UnionSelect unionSelect = (UnionSelect) analysis.relation();
+        QuerySpec querySpec = unionSelect.querySpec();
+        OrderBy orderBy = querySpec.orderBy().get();
+        assertThat(orderBy.orderBySymbols(), contains(isField("name"), isField("id")));
+        assertThat(orderBy.reverseFlags()[0], is(true));
+        assertThat(orderBy.nullsFirst()[0], is(true));
+        assertThat(orderBy.reverseFlags()[1], is(false));
+        assertThat(querySpec.limit().get(), isLiteral(10L));
+        assertThat(querySpec.offset().get(), isLiteral(5L));
+
+        // ORDER BY and LIMIT apply to the union, not to the last relation
+        QueriedRelation last = unionSelect.relations().get(1);
+        assertThat(last.querySpec().orderBy().isPresent(), is(false));
+        assertThat(last.querySpec().limit().isPresent(), is(false));
+    }
+
+    @Test
+    public void testUnionAllWithDifferentNumberOfColumns() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Number of output columns must be the same for all parts of a UNION");
+        analyze("select id, name from users union all select id from users_multi_pk");
+    }
+
+    @Test
+    public void testUnionAllWithDifferentTypes() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage(
+            "Corresponding output columns at position: 2 must be of the same type for all parts of a UNION");
+        analyze("select id, name from users union all select id, awesome from users_multi_pk");
+    }
+
+    @Test
+    public void testUnionAllOrderByUnknownColumn() {
+        expectedException.expect(ColumnUnknownException.class);
+        analyze("select id from users union all select id from users_multi_pk order by name");
+    }
+
+    @Test
+    public void testUnionAllInSubqueryInFrom() {
+        expectedException.expect(UnsupportedFeatureException.class);
+        expectedException.expectMessage("UNION ALL is not supported in a subquery in FROM");
+        analyze("select * from (select id from users union all select id from users_multi_pk) t");
+    }
+
     @Test
     public void testIntersect() {
         expectedException.expect(UnsupportedFeatureException.class);
@@ -171,7 +171,8 @@ public class SetAnalyzerTest extends CrateDummyClusterServiceUnitTest {
                 "stats.jobs_log_expiration",
                 "stats.operations_log_size",
                 "stats.operations_log_expiration",
-                "stats.service.interval")
+                "stats.service.interval",
+                "stats.service.column_stats_interval")
         );
     }
 
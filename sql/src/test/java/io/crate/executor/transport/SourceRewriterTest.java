@@ -0,0 +1,98 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.executor.transport;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class SourceRewriterTest extends CrateUnitTest {
+
+    private static final BytesReference SOURCE = new BytesArray(
+        "{\"id\":1,\"name\":\"Arthur\",\"o\":{\"x\":10,\"y\":{\"z\":\"foo\"}},\"tags\":[\"a\",\"b\"]," +
+        "\"objects\":[{\"a\":1},{\"a\":2}],\"n\":null}");
+
+    private static Map<String, Object> changes(Object... pathsAndValues) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        for (int i = 0; i < pathsAndValues.length; i += 2) {
+            changes.put((String) pathsAndValues[i], pathsAndValues[i + 1]);
+        }
+        return changes;
+    }
+
+    @Test
+    public void testUpdateTopLevelAndNestedValues() throws Exception {
+        BytesReference updated = SourceRewriter.updateByPaths(SOURCE, changes("name", "Trillian", "o.y.z", "bar"));
+        assertThat(updated.utf8ToString(), is(
+            "{\"id\":1,\"name\":\"Trillian\",\"o\":{\"x\":10,\"y\":{\"z\":\"bar\"}},\"tags\":[\"a\",\"b\"]," +
+            "\"objects\":[{\"a\":1},{\"a\":2}],\"n\":null}"));
+    }
+
+    @Test
+    public void testUpdateReplacesObjectsAndArrays() throws Exception {
+        BytesReference updated = SourceRewriter.updateByPaths(SOURCE, changes("o", changes("x", 1), "tags", null));
+        assertThat(updated.utf8ToString(), is(
+            "{\"id\":1,\"name\":\"Arthur\",\"o\":{\"x\":1},\"tags\":null," +
+            "\"objects\":[{\"a\":1},{\"a\":2}],\"n\":null}"));
+    }
+
+    @Test
+    public void testUpdateAddsMissingPaths() throws Exception {
+        BytesReference updated = SourceRewriter.updateByPaths(
+            new BytesArray("{\"id\":1,\"o\":{\"x\":10}}"),
+            changes("o.a", 2, "p.q.r", 3, "s", "t"));
+        assertThat(updated.utf8ToString(), is("{\"id\":1,\"o\":{\"x\":10,\"a\":2},\"s\":\"t\",\"p\":{\"q\":{\"r\":3}}}"));
+    }
+
+    @Test
+    public void testUpdateOfNullObjectFails() throws Exception {
+        expectedException.expect(NullPointerException.class);
+        expectedException.expectMessage("Object n is null, cannot write {x.y=5} onto it");
+        SourceRewriter.updateByPaths(SOURCE, changes("n.x.y", 5));
+    }
+
+    @Test
+    public void testUpdateWithOverlappingPathsIsNotSupported() throws Exception {
+        assertThat(SourceRewriter.updateByPaths(SOURCE, changes("o", null, "o.x", 1)), nullValue());
+    }
+
+    @Test
+    public void testExtractValue() throws Exception {
+        assertThat(SourceRewriter.extractValue(SOURCE, "id"), is(1));
+        assertThat(SourceRewriter.extractValue(SOURCE, "o.y.z"), is("foo"));
+        assertThat(SourceRewriter.extractValue(SOURCE, "o.y"), is(changes("z", "foo")));
+        assertThat(SourceRewriter.extractValue(SOURCE, "tags"), is(Arrays.asList("a", "b")));
+        assertThat(SourceRewriter.extractValue(SOURCE, "objects.a"), is(Arrays.asList(1, 2)));
+        assertThat(SourceRewriter.extractValue(SOURCE, "n"), nullValue());
+        assertThat(SourceRewriter.extractValue(SOURCE, "o.missing"), nullValue());
+        assertThat(SourceRewriter.extractValue(SOURCE, "name.x"), nullValue());
+    }
+}
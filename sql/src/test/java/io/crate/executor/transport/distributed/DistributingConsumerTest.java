@@ -88,6 +88,41 @@ public class DistributingConsumerTest extends CrateUnitTest {
         }
     }
 
+    @Test
+    public void testSendWithSeveralPagesInFlight() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            Streamer<?>[] streamers = {DataTypes.INTEGER.streamer()};
+            TestingBatchConsumer collectingConsumer = new TestingBatchConsumer();
+            PageDownstreamContext pageDownstreamContext = createPageDownstreamContext(streamers, collectingConsumer);
+            TransportDistributedResultAction distributedResultAction = createFakeTransport(streamers, pageDownstreamContext);
+            DistributingConsumer distributingConsumer = createDistributingConsumer(streamers, distributedResultAction, 3);
+
+            BatchSimulatingIterator batchSimulatingIterator =
+                new BatchSimulatingIterator(TestingBatchIterators.range(0, 9),
+                    2,
+                    5,
+                    executorService);
+            distributingConsumer.accept(batchSimulatingIterator, null);
+
+            List<Object[]> result = collectingConsumer.getResult();
+            assertThat(TestingHelpers.printedTable(new CollectionBucket(result)),
+                is("0\n" +
+                   "1\n" +
+                   "2\n" +
+                   "3\n" +
+                   "4\n" +
+                   "5\n" +
+                   "6\n" +
+                   "7\n" +
+                   "8\n"));
+            verify(distributedResultAction, times(5)).pushResult(anyString(), any(), any());
+        } finally {
+            executorService.shutdown();
+            executorService.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
     @Test
     public void testDistributingConsumerForwardsFailure() throws Exception {
         Streamer<?>[] streamers = { DataTypes.INTEGER.streamer() };
@@ -118,6 +153,12 @@ public class DistributingConsumerTest extends CrateUnitTest {
     }
 
     private DistributingConsumer createDistributingConsumer(Streamer<?>[] streamers, TransportDistributedResultAction distributedResultAction) {
+        return createDistributingConsumer(streamers, distributedResultAction, 1);
+    }
+
+    private DistributingConsumer createDistributingConsumer(Streamer<?>[] streamers,
+                                                            TransportDistributedResultAction distributedResultAction,
+                                                            int pagesInFlight) {
         return new DistributingConsumer(
             logger,
             MoreExecutors.directExecutor(),
@@ -129,7 +170,8 @@ public class DistributingConsumerTest extends CrateUnitTest {
             Collections.singletonList("n1"),
             distributedResultAction,
             streamers,
-            2 // pageSize
+            2, // pageSize
+            pagesInFlight
         );
     }
 
@@ -158,6 +200,7 @@ public class DistributingConsumerTest extends CrateUnitTest {
                 resultRequest.streamers(streamers);
                 pageDownstreamContext.setBucket(
                     resultRequest.bucketIdx(),
+                    resultRequest.pageIdx(),
                     resultRequest.rows(),
                     resultRequest.isLast(),
                     needMore -> listener.onResponse(new DistributedResultResponse(needMore)));
@@ -29,6 +29,13 @@ import io.crate.testing.TestingHelpers;
 import io.crate.types.DataTypes;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import static org.hamcrest.core.Is.is;
 
 public class ModuloBucketBuilderTest extends CrateUnitTest {
@@ -53,4 +60,36 @@ public class ModuloBucketBuilderTest extends CrateUnitTest {
         assertThat(rowsD2.size(), is(2));
         assertThat(TestingHelpers.printedTable(rowsD2), is("1\n3\n"));
     }
+
+    @Test
+    public void testConcurrentAddsAreAllContainedInBuckets() throws Exception {
+        final ModuloBucketBuilder builder = new ModuloBucketBuilder(new Streamer[]{DataTypes.INTEGER.streamer()}, 4, 0);
+        int numThreads = 4;
+        int rowsPerThread = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<?>> futures = new ArrayList<>(numThreads);
+            for (int t = 0; t < numThreads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < rowsPerThread; i++) {
+                        builder.add(new Row1(i));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        assertThat(builder.size(), is(numThreads * rowsPerThread));
+
+        Bucket[] buckets = new Bucket[4];
+        builder.build(buckets);
+        for (Bucket bucket : buckets) {
+            assertThat(bucket.size(), is(numThreads * rowsPerThread / 4));
+        }
+        assertThat(builder.size(), is(0));
+    }
 }
@@ -54,7 +54,7 @@ public class InformationSchemaTest extends SQLTransportIntegrationTest {
     @Test
     public void testDefaultTables() throws Exception {
         execute("select * from information_schema.tables order by table_schema, table_name");
-        assertEquals(20L, response.rowCount());
+        assertEquals(22L, response.rowCount());
 
         assertThat(TestingHelpers.printedTable(response.rows()), is(
             "NULL| NULL| NULL| strict| 0| 1| NULL| SYSTEM GENERATED| NULL| _id| NULL| information_schema| columns| information_schema| BASE TABLE| NULL\n" +
@@ -67,12 +67,14 @@ public class InformationSchemaTest extends SQLTransportIntegrationTest {
             "NULL| NULL| NULL| strict| 0| 1| NULL| SYSTEM GENERATED| NULL| _id| NULL| pg_catalog| pg_type| pg_catalog| BASE TABLE| NULL\n" +
             "NULL| NULL| NULL| strict| 0| 1| NULL| SYSTEM GENERATED| NULL| _id| NULL| sys| checks| sys| BASE TABLE| NULL\n" +
             "NULL| NULL| NULL| strict| 0| 1| NULL| SYSTEM GENERATED| NULL| _id| NULL| sys| cluster| sys| BASE TABLE| NULL\n" +
+            "NULL| NULL| NULL| strict| 0| 1| NULL| SYSTEM GENERATED| NULL| _id| NULL| sys| column_stats| sys| BASE TABLE| NULL\n" +
             "NULL| NULL| NULL| strict| 0| 1| NULL| SYSTEM GENERATED| NULL| _id| NULL| sys| jobs| sys| BASE TABLE| NULL\n" +
             "NULL| NULL| NULL| strict| 0| 1| NULL| SYSTEM GENERATED| NULL| _id| NULL| sys| jobs_log| sys| BASE TABLE| NULL\n" +
             "NULL| NULL| NULL| strict| 0| 1| NULL| SYSTEM GENERATED| NULL| _id| NULL| sys| node_checks| sys| BASE TABLE| NULL\n" +
             "NULL| NULL| NULL| strict| 0| 1| NULL| SYSTEM GENERATED| NULL| _id| NULL| sys| nodes| sys| BASE TABLE| NULL\n" +
             "NULL| NULL| NULL| strict| 0| 1| NULL| SYSTEM GENERATED| NULL| _id| NULL| sys| operations| sys| BASE TABLE| NULL\n" +
             "NULL| NULL| NULL| strict| 0| 1| NULL| SYSTEM GENERATED| NULL| _id| NULL| sys| operations_log| sys| BASE TABLE| NULL\n" +
+            "NULL| NULL| NULL| strict| 0| 1| NULL| SYSTEM GENERATED| NULL| _id| NULL| sys| query_result_cache| sys| BASE TABLE| NULL\n" +
             "NULL| NULL| NULL| strict| 0| 1| NULL| SYSTEM GENERATED| NULL| _id| NULL| sys| repositories| sys| BASE TABLE| NULL\n" +
             "NULL| NULL| NULL| strict| 0| 1| NULL| SYSTEM GENERATED| NULL| _id| NULL| sys| shards| sys| BASE TABLE| NULL\n" +
             "NULL| NULL| NULL| strict| 0| 1| NULL| SYSTEM GENERATED| NULL| _id| NULL| sys| snapshots| sys| BASE TABLE| NULL\n" +
@@ -111,13 +113,13 @@ public class InformationSchemaTest extends SQLTransportIntegrationTest {
     @Test
     public void testSearchInformationSchemaTablesRefresh() throws Exception {
         execute("select * from information_schema.tables");
-        assertEquals(20L, response.rowCount());
+        assertEquals(22L, response.rowCount());
 
         execute("create table t4 (col1 integer, col2 string) with(number_of_replicas=0)");
         ensureYellow("t4");
 
         execute("select * from information_schema.tables");
-        assertEquals(21L, response.rowCount());
+        assertEquals(23L, response.rowCount());
     }
 
     @Test
@@ -283,7 +285,7 @@ public class InformationSchemaTest extends SQLTransportIntegrationTest {
     public void testSelectFromTableConstraints() throws Exception {
 
         execute("select * from INFORMATION_SCHEMA.table_constraints order by table_schema asc, table_name asc");
-        assertEquals(13L, response.rowCount());
+        assertEquals(15L, response.rowCount());
         assertThat(response.cols(),
             arrayContaining("constraint_name", "constraint_type", "table_name", "table_schema"));
         assertThat(TestingHelpers.printedTable(response.rows()),
@@ -293,10 +295,12 @@ public class InformationSchemaTest extends SQLTransportIntegrationTest {
             "[feature_id, feature_name, sub_feature_id, sub_feature_name, is_supported, is_verified_by, comments]| PRIMARY_KEY| sql_features| information_schema\n" +
             "[table_schema, table_name]| PRIMARY_KEY| tables| information_schema\n" +
             "[id]| PRIMARY_KEY| checks| sys\n" +
+            "[schema_name, table_name, column_name]| PRIMARY_KEY| column_stats| sys\n" +
             "[id]| PRIMARY_KEY| jobs| sys\n" +
             "[id]| PRIMARY_KEY| jobs_log| sys\n" +
             "[id, node_id]| PRIMARY_KEY| node_checks| sys\n" +
             "[id]| PRIMARY_KEY| nodes| sys\n" +
+            "[node_id]| PRIMARY_KEY| query_result_cache| sys\n" +
             "[name]| PRIMARY_KEY| repositories| sys\n" +
             "[schema_name, table_name, id, partition_ident]| PRIMARY_KEY| shards| sys\n" +
             "[name, repository]| PRIMARY_KEY| snapshots| sys\n" +
@@ -460,7 +464,7 @@ public class InformationSchemaTest extends SQLTransportIntegrationTest {
     @Test
     public void testDefaultColumns() throws Exception {
         execute("select * from information_schema.columns order by table_schema, table_name");
-        assertEquals(418, response.rowCount());
+        assertEquals(433, response.rowCount());
     }
 
     @Test
@@ -0,0 +1,76 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.integrationtests;
+
+import io.crate.operation.collect.sources.ShardCollectSource;
+import org.elasticsearch.common.settings.Settings;
+import org.junit.Before;
+import org.junit.Test;
+
+import static io.crate.testing.TestingHelpers.printedTable;
+import static org.hamcrest.Matchers.is;
+
+public class PartitionedShardCollectIntegrationTest extends SQLTransportIntegrationTest {
+
+    private static final int NUM_DOCS = 1000;
+
+    @Override
+    protected Settings nodeSettings(int nodeOrdinal) {
+        return Settings.builder()
+            .put(super.nodeSettings(nodeOrdinal))
+            .put(ShardCollectSource.PARTITIONS_PER_SHARD_SETTING.getKey(), 4)
+            .put(ShardCollectSource.MIN_DOCS_PER_PARTITION_SETTING.getKey(), 10)
+            .build();
+    }
+
+    @Before
+    public void initTestData() {
+        execute("create table t (x int) clustered into 1 shards with (number_of_replicas = 0)");
+        ensureYellow();
+        // several refreshes so that the shard has more than one segment
+        int docsPerBulk = NUM_DOCS / 4;
+        for (int i = 0; i < NUM_DOCS; i += docsPerBulk) {
+            Object[][] bulkArgs = new Object[docsPerBulk][];
+            for (int j = 0; j < docsPerBulk; j++) {
+                bulkArgs[j] = new Object[]{i + j};
+            }
+            execute("insert into t (x) values (?)", bulkArgs);
+            refresh();
+        }
+    }
+
+    @Test
+    public void testGlobalAggregationWithGenericFunctionFilterOnPartitions() throws Exception {
+        // x % 3 = 0 can't be converted into a term or range query and is evaluated by a GenericFunctionQuery
+        // on each partition concurrently
+        execute("select count(*), sum(x) from t where x % 3 = 0");
+        assertThat(printedTable(response.rows()), is("334| 166833\n"));
+    }
+
+    @Test
+    public void testGroupByWithGenericFunctionFilterOnPartitions() throws Exception {
+        execute("select x % 2, count(*) from t where x % 3 = 0 group by 1 order by 1");
+        assertThat(printedTable(response.rows()), is(
+            "0| 167\n" +
+            "1| 167\n"));
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.integrationtests;
+
+import io.crate.action.sql.SQLActionException;
+import io.crate.testing.UseJdbc;
+import org.junit.Before;
+import org.junit.Test;
+
+import static io.crate.testing.TestingHelpers.printedTable;
+import static org.hamcrest.core.Is.is;
+
+@UseJdbc
+public class UnionIntegrationTest extends SQLTransportIntegrationTest {
+
+    @Before
+    public void setupTestData() {
+        execute("create table employees (id long, name string, office_id integer) " +
+                "clustered into 3 shards with (number_of_replicas = 0)");
+        execute("create table offices (id long, name string) " +
+                "clustered into 2 shards with (number_of_replicas = 0)");
+        ensureYellow();
+        execute("insert into employees (id, name, office_id) values" +
+                " (1, 'Trillian', 2), (2, 'Ford Perfect', 3), (3, 'Douglas Adams', 3), (4, 'Arthur Dent', 1)");
+        execute("insert into offices (id, name) values (1, 'Hobbit House'), (2, 'Entresol'), (3, 'Chief Office')");
+        execute("refresh table employees, offices");
+    }
+
+    @Test
+    public void testUnionAll() {
+        execute("select id from employees union all select id from offices union all select id from employees");
+        assertThat(response.rowCount(), is(11L));
+    }
+
+    @Test
+    public void testUnionAllWithLimit() {
+        execute("select id from employees union all select id from offices limit 5");
+        assertThat(response.rowCount(), is(5L));
+    }
+
+    @Test
+    public void testUnionAllOrderByIsMergedSorted() {
+        execute("select id, name from employees union all select id, name from offices order by name");
+        assertThat(printedTable(response.rows()), is("4| Arthur Dent\n" +
+                                                     "3| Chief Office\n" +
+                                                     "3| Douglas Adams\n" +
+                                                     "2| Entresol\n" +
+                                                     "2| Ford Perfect\n" +
+                                                     "1| Hobbit House\n" +
+                                                     "1| Trillian\n"));
+    }
+
+    @Test
+    public void testUnionAllOrderByWithLimitAndOffset() {
+        execute("select id, name from employees union all select id, name from offices " +
+                "order by name desc limit 3 offset 2");
+        assertThat(printedTable(response.rows()), is("2| Ford Perfect\n" +
+                                                     "2| Entresol\n" +
+                                                     "3| Douglas Adams\n"));
+    }
+
+    @Test
+    public void testUnionAllOrderByMultipleColumnsWithLimit() {
+        execute("select id, name from employees union all select id, name from offices order by 1, 2 limit 4");
+        assertThat(printedTable(response.rows()), is("1| Hobbit House\n" +
+                                                     "1| Trillian\n" +
+                                                     "2| Entresol\n" +
+                                                     "2| Ford Perfect\n"));
+    }
+
+    @Test
+    public void testUnionAllOrderByFunctionIsAppliedAfterMerge() {
+        execute("select id, name from employees union all select id, name from offices " +
+                "order by id * -1, name limit 3");
+        assertThat(printedTable(response.rows()), is("4| Arthur Dent\n" +
+                                                     "3| Chief Office\n" +
+                                                     "3| Douglas Adams\n"));
+    }
+
+    @Test
+    public void testUnionAllWithGlobalAggregate() {
+        execute("select count(*) from employees union all select id from offices order by 1");
+        assertThat(printedTable(response.rows()), is("1\n" +
+                                                      "2\n" +
+                                                      "3\n" +
+                                                      "4\n"));
+    }
+
+    @Test
+    public void testUnionAllWithGroupBy() {
+        execute("select office_id, count(*) from employees group by office_id " +
+                "union all " +
+                "select office_id, count(*) from employees where id > 2 group by office_id " +
+                "order by 1, 2");
+        assertThat(printedTable(response.rows()), is("1| 1\n" +
+                                                     "1| 1\n" +
+                                                     "2| 1\n" +
+                                                     "3| 1\n" +
+                                                     "3| 2\n"));
+    }
+
+    @Test
+    public void testUnionAllWithRelationOnHandler() {
+        // the information_schema relation is collected on the handler, the same node as the merge
+        execute("select name from offices " +
+                "union all " +
+                "select table_name from information_schema.tables where table_name = 'employees' " +
+                "order by 1");
+        assertThat(printedTable(response.rows()), is("Chief Office\n" +
+                                                     "Entresol\n" +
+                                                     "Hobbit House\n" +
+                                                     "employees\n"));
+    }
+
+    @Test
+    public void testUnionAllWithLimitedSubSelect() {
+        execute("select id from (select id from employees order by id limit 2) e " +
+                "union all " +
+                "select id from offices " +
+                "order by 1");
+        assertThat(printedTable(response.rows()), is("1\n" +
+                                                      "1\n" +
+                                                      "2\n" +
+                                                      "2\n" +
+                                                      "3\n"));
+    }
+
+    @Test
+    public void testUnionDistinctIsNotSupported() {
+        expectedException.expect(SQLActionException.class);
+        expectedException.expectMessage("UNION DISTINCT is not supported");
+        execute("select id from employees union select id from offices");
+    }
+
+    @Test
+    public void testUnionAllWithDifferentTypes() {
+        expectedException.expect(SQLActionException.class);
+        expectedException.expectMessage(
+            "Corresponding output columns at position: 1 must be of the same type for all parts of a UNION");
+        execute("select id from employees union all select name from offices");
+    }
+
+    @Test
+    public void testUnionAllInSubSelectIsNotSupported() {
+        expectedException.expect(SQLActionException.class);
+        expectedException.expectMessage("UNION ALL is not supported in a subquery in FROM");
+        execute("select * from (select id from employees union all select id from offices) t");
+    }
+}
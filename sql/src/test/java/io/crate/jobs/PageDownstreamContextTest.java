@@ -148,6 +148,27 @@ public class PageDownstreamContextTest extends CrateUnitTest {
                "4\n"));
     }
 
+    @Test
+    public void testPagesReceivedOutOfOrderAreConsumedInOrder() throws Throwable {
+        TestingBatchConsumer batchConsumer = new TestingBatchConsumer();
+        PageDownstreamContext ctx = getPageDownstreamContext(batchConsumer, PassThroughPagingIterator.oneShot(), 1);
+
+        PageResultListener listener1 = mock(PageResultListener.class);
+        PageResultListener listener2 = mock(PageResultListener.class);
+        ctx.setBucket(0, 2, new ArrayBucket(new Object[][] { new Object[] { 3 } }), true, listener2);
+        ctx.setBucket(0, 1, new ArrayBucket(new Object[][] { new Object[] { 2 } }), false, listener1);
+        verify(listener1, never()).needMore(anyBoolean());
+
+        ctx.setBucket(0, 0, new ArrayBucket(new Object[][] { new Object[] { 1 } }), false, needMore -> {});
+
+        List<Object[]> result = batchConsumer.getResult();
+        assertThat(TestingHelpers.printedTable(new CollectionBucket(result)),
+            is("1\n" +
+               "2\n" +
+               "3\n"));
+        verify(listener1, times(1)).needMore(true);
+    }
+
     @Test
     public void testListenersCalledWhenOtherUpstreamIsFailing() throws Exception {
         TestingBatchConsumer consumer = new TestingBatchConsumer();
@@ -172,6 +193,62 @@ public class PageDownstreamContextTest extends CrateUnitTest {
         verify(listener, times(1)).needMore(false);
     }
 
+    @Test
+    public void testBucketsOfAllInputsAreMerged() throws Throwable {
+        TestingBatchConsumer batchConsumer = new TestingBatchConsumer();
+        PageDownstreamContext ctx = new PageDownstreamContext(
+            Loggers.getLogger(PageDownstreamContext.class),
+            "n1",
+            1,
+            "dummy",
+            batchConsumer,
+            PassThroughPagingIterator.oneShot(),
+            new Streamer[1],
+            RAM_ACCOUNTING_CONTEXT,
+            new int[] { 1, 2 }
+        );
+
+        ctx.getBucketReceiver((byte) 1).setBucket(1, new ArrayBucket(new Object[][] { new Object[] { 3 } }), true, needMore -> {});
+        ctx.getBucketReceiver((byte) 0).setBucket(0, new ArrayBucket(new Object[][] { new Object[] { 1 } }), true, needMore -> {});
+        ctx.getBucketReceiver((byte) 1).setBucket(0, new ArrayBucket(new Object[][] { new Object[] { 2 } }), true, needMore -> {});
+
+        List<Object[]> result = batchConsumer.getResult();
+        result.sort(Comparator.comparingInt(r -> (int) r[0]));
+        assertThat(TestingHelpers.printedTable(new CollectionBucket(result)),
+            is("1\n" +
+               "2\n" +
+               "3\n"));
+    }
+
+    @Test
+    public void testPageReceivedAfterFailureIsReleased() throws Exception {
+        TestingBatchConsumer consumer = new TestingBatchConsumer();
+        PageDownstreamContext ctx = getPageDownstreamContext(consumer, PassThroughPagingIterator.oneShot(), 2);
+
+        ctx.failure(0, new Exception("dummy"));
+        PageResultListener listener = mock(PageResultListener.class);
+        ctx.setBucket(1, 1, Bucket.EMPTY, true, listener);
+
+        verify(listener, times(1)).needMore(false);
+    }
+
+    @Test
+    public void testQueuedPagesAndPagesReceivedAfterKillAreReleased() throws Exception {
+        TestingBatchConsumer consumer = new TestingBatchConsumer();
+        PageDownstreamContext ctx = getPageDownstreamContext(consumer, PassThroughPagingIterator.oneShot(), 2);
+
+        PageResultListener queuedListener = mock(PageResultListener.class);
+        ctx.setBucket(0, 1, Bucket.EMPTY, true, queuedListener);
+        verify(queuedListener, never()).needMore(anyBoolean());
+
+        ctx.kill(new InterruptedException("killed"));
+        verify(queuedListener, times(1)).needMore(false);
+
+        PageResultListener listener = mock(PageResultListener.class);
+        ctx.setBucket(1, 0, Bucket.EMPTY, false, listener);
+        verify(listener, times(1)).needMore(false);
+    }
+
     @Test
     public void testSetBucketOnAKilledCtxReleasesListener() throws Exception {
         TestingBatchConsumer consumer = new TestingBatchConsumer();
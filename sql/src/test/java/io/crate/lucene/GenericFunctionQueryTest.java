@@ -0,0 +1,119 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.lucene;
+
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.data.Input;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.operation.reference.doc.DocLevelExpressionsTest;
+import io.crate.operation.reference.doc.lucene.BytesRefColumnReference;
+import io.crate.types.DataTypes;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.StringFieldMapper;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.core.Is.is;
+
+public class GenericFunctionQueryTest extends DocLevelExpressionsTest {
+
+    private static final String COLUMN = "name";
+    private static final String[] VALUES = new String[]{"a", "b", "a", "c", "a", "b", "a", "c", "a", "b"};
+
+    @Override
+    protected void insertValues(IndexWriter writer) throws Exception {
+        for (int i = 0; i < VALUES.length; i++) {
+            Document doc = new Document();
+            doc.add(new StringField("_id", Integer.toString(i), Field.Store.NO));
+            doc.add(new StringField(COLUMN, VALUES[i], Field.Store.NO));
+            writer.addDocument(doc);
+        }
+        writer.addDocument(new Document());
+    }
+
+    private int countMatches(Set<FunctionInfo.Feature> features, AtomicInteger evaluations) throws Exception {
+        MappedFieldType fieldType = StringFieldMapper.Defaults.FIELD_TYPE.clone();
+        fieldType.setName(COLUMN);
+        BytesRefColumnReference nameRef = new BytesRefColumnReference(COLUMN, fieldType);
+        nameRef.startCollect(ctx);
+        Input<Boolean> condition = () -> {
+            evaluations.incrementAndGet();
+            BytesRef value = nameRef.value();
+            return value != null && value.utf8ToString().equals("a");
+        };
+        Function function = new Function(
+            new FunctionInfo(
+                new FunctionIdent("test_eq", Arrays.asList(DataTypes.STRING, DataTypes.STRING)),
+                DataTypes.BOOLEAN,
+                FunctionInfo.Type.SCALAR,
+                features),
+            Arrays.<Symbol>asList(Literal.of(COLUMN), Literal.of("a"))
+        );
+        GenericFunctionQuery query = new GenericFunctionQuery(
+            function, Collections.singletonList(nameRef), ctx, condition);
+
+        IndexSearcher searcher = new IndexSearcher(readerContext.reader());
+        searcher.setQueryCache(null);
+        return searcher.count(query);
+    }
+
+    @Test
+    public void testConditionOnStringColumnIsEvaluatedOncePerOrdinal() throws Exception {
+        AtomicInteger evaluations = new AtomicInteger(0);
+        int matches = countMatches(FunctionInfo.DETERMINISTIC_ONLY, evaluations);
+
+        assertThat(matches, is(5));
+        // 3 distinct values + the document without a value
+        assertThat(evaluations.get(), is(4));
+    }
+
+    @Test
+    public void testOrdinalsAreOnlyMemoizedIfValuesRepeat() throws Exception {
+        assertThat(GenericFunctionQuery.memoizeOrdinals(3, 11), is(true));
+        assertThat(GenericFunctionQuery.memoizeOrdinals(10, 11), is(false));
+        assertThat(GenericFunctionQuery.memoizeOrdinals(
+            GenericFunctionQuery.MAX_MEMOIZED_ORDINALS + 1, Integer.MAX_VALUE), is(false));
+    }
+
+    @Test
+    public void testNonDeterministicConditionIsEvaluatedForEachDocument() throws Exception {
+        AtomicInteger evaluations = new AtomicInteger(0);
+        int matches = countMatches(Collections.emptySet(), evaluations);
+
+        assertThat(matches, is(5));
+        assertThat(evaluations.get(), is(VALUES.length + 1));
+    }
+}
@@ -33,6 +33,8 @@ import io.crate.metadata.TableIdent;
 import io.crate.metadata.doc.DocTableInfo;
 import io.crate.metadata.table.ColumnPolicy;
 import io.crate.metadata.table.TestingTableInfo;
+import io.crate.operation.reference.doc.lucene.BytesRefColumnReference;
+import io.crate.operation.reference.doc.lucene.DocCollectorExpression;
 import io.crate.sql.tree.QualifiedName;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.SqlExpressions;
@@ -87,6 +89,9 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 
+import static io.crate.testing.SymbolMatchers.isReference;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
@@ -244,6 +249,27 @@ public class LuceneQueryBuilderTest extends CrateUnitTest {
         assertThat(query, instanceOf(GenericFunctionQuery.class));
     }
 
+    @Test
+    public void testGenericFunctionQueryReadsColumnsWithDocValuesFromDocValues() throws Exception {
+        Query query = convert("name = name");
+        assertThat(query, instanceOf(GenericFunctionQuery.class));
+        GenericFunctionQuery genericFunctionQuery = (GenericFunctionQuery) query;
+        assertThat(genericFunctionQuery.function().arguments(), contains(isReference("name"), isReference("name")));
+        assertThat(genericFunctionQuery.expressions(), arrayContaining(instanceOf(BytesRefColumnReference.class)));
+    }
+
+    @Test
+    public void testGenericFunctionQueryReadsArrayColumnsFromSource() throws Exception {
+        Query query = convert("y_array = [10, 20, 30]");
+        BooleanQuery booleanQuery = (BooleanQuery) query;
+        Query genericQuery = booleanQuery.clauses().get(1).getQuery();
+        assertThat(genericQuery, instanceOf(GenericFunctionQuery.class));
+        GenericFunctionQuery genericFunctionQuery = (GenericFunctionQuery) genericQuery;
+        assertThat(genericFunctionQuery.function().arguments().get(0), isReference("_doc['y_array']"));
+        assertThat(genericFunctionQuery.expressions(),
+            arrayContaining(instanceOf(DocCollectorExpression.ChildDocCollectorExpression.class)));
+    }
+
     @Test
     public void testLteQuery() throws Exception {
         Query query = convert("x <= 10");
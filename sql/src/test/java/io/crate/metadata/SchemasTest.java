@@ -30,8 +30,11 @@ import io.crate.metadata.table.TableInfo;
 import io.crate.operation.udf.UserDefinedFunctionMetaData;
 import io.crate.operation.udf.UserDefinedFunctionsMetaData;
 import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.settings.Settings;
@@ -47,6 +50,7 @@ import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -122,6 +126,28 @@ public class SchemasTest {
         assertThat(Schemas.getNewCurrentSchemas(metaData), contains("new_schema"));
     }
 
+    @Test
+    public void testVersionIsIncrementedIfMetaDataChanged() throws Exception {
+        SchemaInfo schemaInfo = mock(SchemaInfo.class);
+        when(schemaInfo.name()).thenReturn("foo");
+        Schemas schemas = getReferenceInfos(schemaInfo);
+        long version = schemas.version();
+
+        ClusterState previousState = ClusterState.builder(new ClusterName("crate"))
+            .nodes(DiscoveryNodes.builder().localNodeId("n1").masterNodeId("n2"))
+            .build();
+        ClusterState sameMetaData = ClusterState.builder(previousState).build();
+        schemas.clusterChanged(new ClusterChangedEvent("nodes changed", sameMetaData, previousState));
+        assertThat(schemas.version(), is(version));
+
+        ClusterState newMetaData = ClusterState.builder(previousState)
+            .metaData(MetaData.builder(previousState.metaData()).persistentSettings(
+                Settings.builder().put("foo", "bar").build()))
+            .build();
+        schemas.clusterChanged(new ClusterChangedEvent("settings changed", newMetaData, previousState));
+        assertThat(schemas.version(), is(version + 1));
+    }
+
     private Schemas getReferenceInfos(SchemaInfo schemaInfo) {
         Map<String, SchemaInfo> builtInSchema = new HashMap<>();
         builtInSchema.put(schemaInfo.name(), schemaInfo);
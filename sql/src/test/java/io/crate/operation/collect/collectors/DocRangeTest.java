@@ -0,0 +1,106 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.collectors;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+
+public class DocRangeTest extends CrateUnitTest {
+
+    private DirectoryReader reader;
+    private List<LeafReaderContext> leaves;
+
+    @Before
+    public void createSegments() throws Exception {
+        IndexWriter iw = new IndexWriter(
+            new RAMDirectory(),
+            new IndexWriterConfig(new StandardAnalyzer()).setMergePolicy(NoMergePolicy.INSTANCE));
+        for (int numDocs : new int[] { 10, 30, 20 }) {
+            for (int i = 0; i < numDocs; i++) {
+                Document doc = new Document();
+                doc.add(new NumericDocValuesField("x", i));
+                iw.addDocument(doc);
+            }
+            iw.commit();
+        }
+        reader = DirectoryReader.open(iw);
+        leaves = reader.leaves();
+        iw.close();
+    }
+
+    @After
+    public void closeReader() throws Exception {
+        reader.close();
+    }
+
+    private static int numDocs(List<DocRange> partition) {
+        int numDocs = 0;
+        for (DocRange range : partition) {
+            numDocs += range.toDoc() - range.fromDoc();
+        }
+        return numDocs;
+    }
+
+    @Test
+    public void testPartitionSplitsSegmentsIntoEqualParts() throws Exception {
+        assertThat(leaves.size(), is(3));
+        List<List<DocRange>> partitions = DocRange.partition(leaves, 4, 1);
+        assertThat(partitions.size(), is(4));
+        for (List<DocRange> partition : partitions) {
+            assertThat(numDocs(partition), is(15));
+        }
+        // first partition: the first segment and the beginning of the second one
+        assertThat(partitions.get(0).size(), is(2));
+        assertThat(partitions.get(0).get(1).fromDoc(), is(0));
+        assertThat(partitions.get(0).get(1).toDoc(), is(5));
+        // second partition: a range in the middle of the second segment
+        assertThat(partitions.get(1).size(), is(1));
+        assertThat(partitions.get(1).get(0).fromDoc(), is(5));
+        assertThat(partitions.get(1).get(0).toDoc(), is(20));
+    }
+
+    @Test
+    public void testPartitionRespectsMinDocsPerPartition() throws Exception {
+        assertThat(DocRange.partition(leaves, 4, 20).size(), is(3));
+
+        List<List<DocRange>> partitions = DocRange.partition(leaves, 4, 100);
+        assertThat(partitions.size(), is(1));
+        assertThat(partitions.get(0).size(), is(3));
+        assertThat(numDocs(partitions.get(0)), is(60));
+    }
+}
@@ -23,6 +23,8 @@
 package io.crate.operation.collect.collectors;
 
 import io.crate.breaker.RamAccountingContext;
+import io.crate.data.ColumnBatch;
+import io.crate.data.LongColumnVector;
 import io.crate.operation.reference.doc.lucene.CollectorContext;
 import io.crate.operation.reference.doc.lucene.LongColumnReference;
 import io.crate.test.integration.CrateUnitTest;
@@ -33,6 +35,7 @@ import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.store.RAMDirectory;
@@ -45,6 +48,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.mock;
 
 public class LuceneBatchIteratorTest extends CrateUnitTest {
@@ -91,4 +96,71 @@ public class LuceneBatchIteratorTest extends CrateUnitTest {
         );
         tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
     }
+
+    @Test
+    public void testLuceneBatchIteratorOnDocRange() throws Exception {
+        List<LeafReaderContext> leaves = indexSearcher.getTopReaderContext().leaves();
+        assertThat(leaves.size(), is(1));
+        BatchIteratorTester tester = new BatchIteratorTester(
+            () -> new LuceneBatchIterator(
+                indexSearcher,
+                new MatchAllDocsQuery(),
+                null,
+                false,
+                new CollectorContext(
+                    mock(IndexFieldDataService.class),
+                    new CollectorFieldsVisitor(0)
+                ),
+                new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy")),
+                columnRefs,
+                columnRefs,
+                Collections.singletonList(new DocRange(leaves.get(0), 5, 12))
+            )
+        );
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult.subList(5, 12));
+    }
+
+    private LuceneBatchIterator newBatchIterator(boolean doScores, List<DocRange> ranges) {
+        return new LuceneBatchIterator(
+            indexSearcher,
+            new MatchAllDocsQuery(),
+            null,
+            doScores,
+            new CollectorContext(
+                mock(IndexFieldDataService.class),
+                new CollectorFieldsVisitor(0)
+            ),
+            new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy")),
+            columnRefs,
+            columnRefs,
+            ranges
+        );
+    }
+
+    @Test
+    public void testMoveNextBatchFillsColumnVectors() throws Exception {
+        List<LeafReaderContext> leaves = indexSearcher.getTopReaderContext().leaves();
+        LuceneBatchIterator it = newBatchIterator(false, Collections.singletonList(new DocRange(leaves.get(0), 5, 12)));
+        ColumnBatch batch = it.columnBatch();
+        LongColumnVector vector = (LongColumnVector) batch.get(0);
+
+        assertThat(it.moveNextBatch(), is(true));
+        assertThat(batch.size(), is(7));
+        assertThat(vector.noNulls, is(true));
+        for (int i = 0; i < batch.size(); i++) {
+            assertThat(vector.values[batch.selected()[i]], is(5L + i));
+        }
+        assertThat(it.moveNextBatch(), is(false));
+        assertThat(it.allLoaded(), is(true));
+
+        it.moveToStart();
+        assertThat(it.moveNextBatch(), is(true));
+        assertThat(batch.size(), is(7));
+    }
+
+    @Test
+    public void testNoColumnBatchIfScoresAreRequired() throws Exception {
+        LuceneBatchIterator it = newBatchIterator(true, DocRange.allDocs(indexSearcher.getTopReaderContext().leaves()));
+        assertThat(it.columnBatch(), nullValue());
+    }
 }
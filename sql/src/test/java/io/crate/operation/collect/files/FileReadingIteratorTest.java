@@ -30,6 +30,7 @@ import io.crate.operation.InputFactory;
 import io.crate.operation.reference.file.FileLineReferenceResolver;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.BatchIteratorTester;
+import io.crate.testing.TestingBatchConsumer;
 import io.crate.types.DataTypes;
 import org.apache.lucene.util.BytesRef;
 import org.junit.Before;
@@ -40,6 +41,7 @@ import java.io.FileOutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -47,6 +49,7 @@ import java.util.List;
 import java.util.function.Supplier;
 
 import static io.crate.testing.TestingHelpers.createReference;
+import static org.hamcrest.Matchers.is;
 
 public class FileReadingIteratorTest extends CrateUnitTest {
 
@@ -86,7 +89,72 @@ public class FileReadingIteratorTest extends CrateUnitTest {
         tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
     }
 
+    @Test
+    public void testSharedFileIsSplitIntoLineRangesAcrossReaders() throws Exception {
+        List<String> lines = writeLines(50);
+        int numReaders = 3;
+        List<String> linesOfAllReaders = new ArrayList<>();
+        for (int readerNumber = 0; readerNumber < numReaders; readerNumber++) {
+            List<String> linesOfReader = readLines(numReaders, readerNumber, 1L);
+            // every reader reads a range of the file
+            assertThat(linesOfReader.isEmpty(), is(false));
+            linesOfAllReaders.addAll(linesOfReader);
+        }
+        // each line is read exactly once, by the reader whose range contains its first byte
+        assertThat(linesOfAllReaders, is(lines));
+    }
+
+    @Test
+    public void testSharedFileSmallerThanTheMinRangeIsReadByOneReader() throws Exception {
+        List<String> lines = writeLines(50);
+        int numReaders = 3;
+        int numReadersWithLines = 0;
+        for (int readerNumber = 0; readerNumber < numReaders; readerNumber++) {
+            List<String> linesOfReader = readLines(numReaders, readerNumber, Long.MAX_VALUE);
+            if (linesOfReader.isEmpty() == false) {
+                numReadersWithLines++;
+                assertThat(linesOfReader, is(lines));
+            }
+        }
+        assertThat(numReadersWithLines, is(1));
+    }
+
+    private List<String> writeLines(int numLines) throws Exception {
+        List<String> lines = new ArrayList<>(numLines);
+        try (OutputStreamWriter writer =
+                 new OutputStreamWriter(new FileOutputStream(tempFilePath.toFile()), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < numLines; i++) {
+                // lines of different length so that the range boundaries fall into different positions of a line
+                String line = "{\"id\": " + i + ", \"name\": \"" + String.join("", Collections.nCopies(i % 7, "x")) + "\"}";
+                writer.write(line + "\n");
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private List<String> readLines(int numReaders, int readerNumber, long minBytesPerRange) throws Exception {
+        BatchIterator batchIterator = createBatchIterator(
+            Collections.singletonList(tempFilePath.toUri().toString()), null, true, numReaders, readerNumber, minBytesPerRange);
+        TestingBatchConsumer consumer = new TestingBatchConsumer();
+        consumer.accept(batchIterator, null);
+        List<String> lines = new ArrayList<>();
+        for (Object[] row : consumer.getResult()) {
+            lines.add(((BytesRef) row[0]).utf8ToString());
+        }
+        return lines;
+    }
+
     private BatchIterator createBatchIterator(Collection<String> fileUris, String compression) {
+        return createBatchIterator(fileUris, compression, false, 1, 0, FileReadingIterator.MIN_BYTES_PER_RANGE);
+    }
+
+    private BatchIterator createBatchIterator(Collection<String> fileUris,
+                                              String compression,
+                                              boolean shared,
+                                              int numReaders,
+                                              int readerNumber,
+                                              long minBytesPerRange) {
         Reference raw = createReference("_raw", DataTypes.STRING);
         InputFactory.Context<LineCollectorExpression<?>> ctx =
             inputFactory.ctxForRefs(FileLineReferenceResolver::getImplementation);
@@ -98,9 +166,10 @@ public class FileReadingIteratorTest extends CrateUnitTest {
             compression,
             ImmutableMap.of(
                 LocalFsFileInputFactory.NAME, new LocalFsFileInputFactory()),
-            false,
-            1,
-            0
+            shared,
+            numReaders,
+            readerNumber,
+            minBytesPerRange
         );
     }
 }
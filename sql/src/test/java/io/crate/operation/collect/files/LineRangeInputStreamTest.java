@@ -0,0 +1,79 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import com.google.common.io.ByteStreams;
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.Matchers.is;
+
+public class LineRangeInputStreamTest extends CrateUnitTest {
+
+    private static final String CONTENT =
+        "{\"id\": 1}\n" +
+        "{\"id\": 2, \"name\": \"Arthur\"}\n" +
+        "\n" +
+        "{\"id\": 3}\r\n" +
+        "{\"id\": 4, \"name\": \"Trillian\"}";
+
+    private static String readRange(byte[] bytes, long start, long end) throws Exception {
+        int offset = start == 0 ? 0 : (int) start - 1;
+        InputStream in = new ByteArrayInputStream(bytes, offset, bytes.length - offset);
+        try (LineRangeInputStream rangeStream = new LineRangeInputStream(in, start, end)) {
+            return new String(ByteStreams.toByteArray(rangeStream), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testAdjacentRangesReturnEachLineOnce() throws Exception {
+        byte[] bytes = CONTENT.getBytes(StandardCharsets.UTF_8);
+        for (int numRanges = 1; numRanges <= bytes.length; numRanges++) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < numRanges; i++) {
+                long start = (long) bytes.length * i / numRanges;
+                long end = (long) bytes.length * (i + 1) / numRanges;
+                if (start < end) {
+                    sb.append(readRange(bytes, start, end));
+                }
+            }
+            assertThat("numRanges=" + numRanges, sb.toString(), is(CONTENT));
+        }
+    }
+
+    @Test
+    public void testRangeStartingAtLineStart() throws Exception {
+        byte[] bytes = CONTENT.getBytes(StandardCharsets.UTF_8);
+        assertThat(readRange(bytes, 10, 12), is("{\"id\": 2, \"name\": \"Arthur\"}\n"));
+    }
+
+    @Test
+    public void testRangeWithinALineIsEmpty() throws Exception {
+        byte[] bytes = CONTENT.getBytes(StandardCharsets.UTF_8);
+        assertThat(readRange(bytes, 12, 20), is(""));
+    }
+}
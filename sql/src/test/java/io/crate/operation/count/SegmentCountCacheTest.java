@@ -0,0 +1,112 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.count;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+
+public class SegmentCountCacheTest extends CrateUnitTest {
+
+    private RAMDirectory directory;
+    private IndexWriter iw;
+
+    @Before
+    public void createSegments() throws Exception {
+        directory = new RAMDirectory();
+        iw = new IndexWriter(
+            directory,
+            new IndexWriterConfig(new StandardAnalyzer()).setMergePolicy(NoMergePolicy.INSTANCE));
+        for (int segment = 0; segment < 2; segment++) {
+            for (int i = 0; i < 10; i++) {
+                Document doc = new Document();
+                doc.add(new StringField("id", segment + "-" + i, Field.Store.NO));
+                doc.add(new StringField("x", i % 2 == 0 ? "even" : "odd", Field.Store.NO));
+                iw.addDocument(doc);
+            }
+            iw.commit();
+        }
+    }
+
+    @After
+    public void closeWriter() throws Exception {
+        iw.close();
+        directory.close();
+    }
+
+    @Test
+    public void testCountIsCachedPerSegment() throws Exception {
+        SegmentCountCache cache = new SegmentCountCache(1024 * 1024);
+        TermQuery query = new TermQuery(new Term("x", "even"));
+        try (DirectoryReader reader = DirectoryReader.open(directory)) {
+            IndexSearcher searcher = new IndexSearcher(reader);
+            assertThat(cache.count(searcher, query), is(10L));
+            assertThat(cache.size(), is(2));
+
+            assertThat(cache.count(searcher, new TermQuery(new Term("x", "even"))), is(10L));
+            assertThat(cache.size(), is(2));
+        }
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void testNoCountIsCachedWithoutMemory() throws Exception {
+        SegmentCountCache cache = new SegmentCountCache(0);
+        try (DirectoryReader reader = DirectoryReader.open(directory)) {
+            assertThat(cache.count(new IndexSearcher(reader), new TermQuery(new Term("x", "even"))), is(10L));
+            assertThat(cache.size(), is(0));
+        }
+    }
+
+    @Test
+    public void testDeletedDocsAreNotCountedFromStaleEntries() throws Exception {
+        SegmentCountCache cache = new SegmentCountCache(1024 * 1024);
+        TermQuery query = new TermQuery(new Term("x", "even"));
+        try (DirectoryReader reader = DirectoryReader.open(directory)) {
+            assertThat(cache.count(new IndexSearcher(reader), query), is(10L));
+
+            iw.deleteDocuments(new Term("id", "0-0"));
+            iw.commit();
+            try (DirectoryReader newReader = DirectoryReader.openIfChanged(reader)) {
+                assertThat(cache.count(new IndexSearcher(newReader), query), is(9L));
+                // the unchanged segment is shared, the segment with the deletion has a new entry
+                assertThat(cache.size(), is(3));
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.fetch;
+
+import com.carrotsearch.hppc.IntArrayList;
+import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.Row;
+import io.crate.executor.transport.StreamBucket;
+import io.crate.operation.reference.doc.lucene.IntegerColumnReference;
+import io.crate.operation.reference.doc.lucene.LuceneCollectorExpression;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.fielddata.IndexFieldDataService;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+
+public class FetchCollectorTest extends CrateUnitTest {
+
+    private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
+        new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy"));
+
+    private static List<Integer> fetch(Engine.Searcher searcher, IntArrayList docIds) throws Exception {
+        FetchCollector collector = new FetchCollector(
+            Collections.<LuceneCollectorExpression<?>>singletonList(new IntegerColumnReference("x")),
+            new Streamer[] { DataTypes.INTEGER.streamer() },
+            searcher,
+            mock(IndexFieldDataService.class),
+            RAM_ACCOUNTING_CONTEXT,
+            0
+        );
+        StreamBucket bucket = collector.collect(docIds);
+        List<Integer> values = new ArrayList<>();
+        for (Row row : bucket) {
+            values.add((Integer) row.get(0));
+        }
+        return values;
+    }
+
+    @Test
+    public void testRowsAreInRequestedOrderIfDocsAreFetchedInDocIdOrder() throws Exception {
+        IndexWriter iw = new IndexWriter(
+            new RAMDirectory(),
+            new IndexWriterConfig(new StandardAnalyzer()).setMergePolicy(NoMergePolicy.INSTANCE));
+        for (int i = 0; i < 30; i++) {
+            Document doc = new Document();
+            doc.add(new SortedNumericDocValuesField("x", i * 10));
+            iw.addDocument(doc);
+            if (i % 10 == 9) {
+                // create several segments
+                iw.commit();
+            }
+        }
+        DirectoryReader reader = DirectoryReader.open(iw);
+        assertThat(reader.leaves().size(), is(3));
+        Engine.Searcher searcher = new Engine.Searcher("dummy", new IndexSearcher(reader));
+
+        assertThat(fetch(searcher, IntArrayList.from(25, 3, 14, 0, 29, 10)), is(
+            Arrays.asList(250, 30, 140, 0, 290, 100)));
+        assertThat(fetch(searcher, IntArrayList.from(1, 12, 28)), is(Arrays.asList(10, 120, 280)));
+        assertThat(fetch(searcher, new IntArrayList()).size(), is(0));
+        searcher.close();
+        iw.close();
+    }
+
+    @Test
+    public void testPositionsByDocId() throws Exception {
+        assertThat(FetchCollector.positionsByDocId(new int[] { 1, 5, 7 }), nullValue());
+        assertThat(FetchCollector.positionsByDocId(new int[] { 7, 1, 5 }), is(new int[] { 1, 2, 0 }));
+    }
+}
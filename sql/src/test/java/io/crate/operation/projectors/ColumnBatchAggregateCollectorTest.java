@@ -0,0 +1,145 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import io.crate.analyze.symbol.AggregateMode;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.ColumnBatch;
+import io.crate.data.DoubleColumnVector;
+import io.crate.data.Input;
+import io.crate.data.LongColumnVector;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.impl.CountAggregation;
+import io.crate.operation.aggregation.impl.SumAggregation;
+import io.crate.operation.collect.InputCollectExpression;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.function.BiConsumer;
+
+import static io.crate.testing.TestingHelpers.getFunctions;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ColumnBatchAggregateCollectorTest extends CrateUnitTest {
+
+    private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
+        new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
+
+    private AggregationFunction sumLong;
+    private AggregationFunction sumDouble;
+    private AggregationFunction countLong;
+    private AggregationFunction countStar;
+    private ColumnBatch batch;
+
+    @Before
+    public void prepare() throws Exception {
+        sumLong = (AggregationFunction) getFunctions().getBuiltin(
+            SumAggregation.NAME, Collections.singletonList(DataTypes.LONG));
+        sumDouble = (AggregationFunction) getFunctions().getBuiltin(
+            SumAggregation.NAME, Collections.singletonList(DataTypes.DOUBLE));
+        countLong = (AggregationFunction) getFunctions().getBuiltin(
+            CountAggregation.NAME, Collections.singletonList(DataTypes.LONG));
+        countStar = (AggregationFunction) getFunctions().getBuiltin(
+            CountAggregation.NAME, Collections.emptyList());
+
+        LongColumnVector longs = new LongColumnVector(8);
+        DoubleColumnVector doubles = new DoubleColumnVector(8);
+        for (int i = 0; i < 5; i++) {
+            longs.values[i] = i + 1;
+            doubles.values[i] = (i + 1) * 0.5;
+        }
+        longs.isNull[3] = true;
+        longs.noNulls = false;
+        batch = new ColumnBatch(longs, doubles);
+        batch.selectAll(5);
+    }
+
+    private static Object[] collect(ColumnBatchAggregateCollector collector, ColumnBatch... batches) {
+        Object[] state = collector.supplier().get();
+        BiConsumer<Object[], ColumnBatch> accumulator = collector.accumulator();
+        for (ColumnBatch batch : batches) {
+            accumulator.accept(state, batch);
+        }
+        return collector.finisher().apply(state);
+    }
+
+    @Test
+    public void testSumAndCountOnColumnBatches() throws Exception {
+        ColumnBatchAggregateCollector collector = ColumnBatchAggregateCollector.create(
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] { sumLong, sumDouble, countLong, countStar },
+            new Input[][] {
+                { new InputCollectExpression(0) },
+                { new InputCollectExpression(1) },
+                { new InputCollectExpression(0) },
+                {}
+            },
+            RAM_ACCOUNTING_CONTEXT
+        );
+        assertThat(collector, notNullValue());
+        Object[] result = collect(collector, batch, batch);
+        // the 4th long is null
+        assertThat(result[0], is(22.0));
+        assertThat(result[1], is(15.0));
+        assertThat(result[2], is(8L));
+        assertThat(result[3], is(10L));
+    }
+
+    @Test
+    public void testSumRespectsSelection() throws Exception {
+        ColumnBatchAggregateCollector collector = ColumnBatchAggregateCollector.create(
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] { sumLong },
+            new Input[][] { { new InputCollectExpression(0) } },
+            RAM_ACCOUNTING_CONTEXT
+        );
+        batch.filterLong(0, v -> v > 2);
+        assertThat(collect(collector, batch)[0], is(8.0));
+
+        batch.filterLong(0, v -> v > 10);
+        assertThat(collect(collector, batch)[0], nullValue());
+    }
+
+    @Test
+    public void testNotCreatedForPartialStatesOrComputedArguments() throws Exception {
+        assertThat(ColumnBatchAggregateCollector.create(
+            AggregateMode.PARTIAL_FINAL,
+            new AggregationFunction[] { sumLong },
+            new Input[][] { { new InputCollectExpression(0) } },
+            RAM_ACCOUNTING_CONTEXT), nullValue());
+
+        Input<Long> computed = () -> 1L;
+        assertThat(ColumnBatchAggregateCollector.create(
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] { sumLong },
+            new Input[][] { { computed } },
+            RAM_ACCOUNTING_CONTEXT), nullValue());
+    }
+}
@@ -23,6 +23,7 @@
 package io.crate.operation.projectors;
 
 import com.google.common.collect.ImmutableSet;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchIterator;
 import io.crate.data.RowsBatchIterator;
 import io.crate.exceptions.UnhandledServerException;
@@ -33,6 +34,7 @@ import io.crate.testing.RowGenerator;
 import io.crate.testing.TestingBatchConsumer;
 import io.crate.testing.TestingHelpers;
 import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -53,6 +55,9 @@ import static org.hamcrest.core.Is.is;
 
 public class FileWriterProjectorTest extends CrateUnitTest {
 
+    private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
+        new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy"));
+
     private ExecutorService executorService = Executors.newSingleThreadExecutor();
 
     @Rule
@@ -78,8 +83,8 @@ public class FileWriterProjectorTest extends CrateUnitTest {
     public void testWriteRawToFile() throws Exception {
         Path file = createTempFile("out", "json");
 
-        FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, file.toUri().toString(),
-            null, null, ImmutableSet.of(), new HashMap<>(),
+        FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, executorService, RAM_ACCOUNTING_CONTEXT,
+            file.toUri().toString(), null, null, ImmutableSet.of(), new HashMap<>(),
             null, WriterProjection.OutputFormat.JSON_OBJECT);
 
         new TestingBatchConsumer().accept(fileWriterProjector.apply(sourceSupplier.get()), null);
@@ -98,8 +103,8 @@ public class FileWriterProjectorTest extends CrateUnitTest {
 
         Path directory = createTempDir();
 
-        FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, directory.toUri().toString(),
-            null, null, ImmutableSet.of(), new HashMap<>(),
+        FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, executorService, RAM_ACCOUNTING_CONTEXT,
+            directory.toUri().toString(), null, null, ImmutableSet.of(), new HashMap<>(),
             null, WriterProjection.OutputFormat.JSON_OBJECT);
 
         new TestingBatchConsumer().accept(fileWriterProjector.apply(sourceSupplier.get()), null);
@@ -112,8 +117,8 @@ public class FileWriterProjectorTest extends CrateUnitTest {
 
         String uri = Paths.get(folder.newFile().toURI()).resolve("out.json").toUri().toString();
 
-        FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, uri,
-            null, null, ImmutableSet.of(), new HashMap<>(),
+        FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, executorService, RAM_ACCOUNTING_CONTEXT,
+            uri, null, null, ImmutableSet.of(), new HashMap<>(),
             null, WriterProjection.OutputFormat.JSON_OBJECT);
 
         new TestingBatchConsumer().accept(fileWriterProjector.apply(sourceSupplier.get()), null);
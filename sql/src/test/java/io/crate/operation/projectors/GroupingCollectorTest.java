@@ -0,0 +1,263 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import io.crate.analyze.symbol.AggregateMode;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.BatchRowVisitor;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.RowsBatchIterator;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.impl.SumAggregation;
+import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.collect.InputCollectExpression;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.io.FileSystemUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collector;
+
+import static io.crate.testing.TestingHelpers.getFunctions;
+import static io.crate.testing.TestingHelpers.printRows;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public class GroupingCollectorTest extends CrateUnitTest {
+
+    private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
+        new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
+
+    private AggregationFunction sumAgg;
+    private List<Row> rows;
+
+    @Before
+    public void prepare() throws Exception {
+        sumAgg = (AggregationFunction) getFunctions().getBuiltin(SumAggregation.NAME, Arrays.asList(DataTypes.LONG));
+        rows = new ArrayList<>();
+        rows.add(new RowN(new Object[] { 1, 2, 10L }));
+        rows.add(new RowN(new Object[] { 2, 2, 20L }));
+        rows.add(new RowN(new Object[] { null, 3, 30L }));
+        rows.add(new RowN(new Object[] { 1, 2, 40L }));
+        rows.add(new RowN(new Object[] { null, 3, 50L }));
+        rows.add(new RowN(new Object[] { 2, 4, 60L }));
+    }
+
+    private static List<Object[]> collect(Collector<Row, ?, Iterable<Row>> collector, List<Row> rows) throws Exception {
+        return materialize(BatchRowVisitor.visitRows(RowsBatchIterator.newInstance(rows, 3), collector).get());
+    }
+
+    private static List<Object[]> materialize(Iterable<Row> result) {
+        List<Object[]> materialized = new ArrayList<>();
+        for (Row row : result) {
+            materialized.add(row.materialize());
+        }
+        materialized.sort((o1, o2) -> {
+            if (o1[0] == null) {
+                return o2[0] == null ? 0 : 1;
+            }
+            if (o2[0] == null) {
+                return -1;
+            }
+            return Integer.compare((Integer) o1[0], (Integer) o2[0]);
+        });
+        return materialized;
+    }
+
+    @Test
+    public void testGroupByIntegerUsesPrimitiveKeys() throws Exception {
+        InputCollectExpression keyInput = new InputCollectExpression(0);
+        InputCollectExpression valueInput = new InputCollectExpression(2);
+        Collector<Row, ?, Iterable<Row>> collector = GroupingCollector.singleKey(
+            new CollectExpression[] { keyInput, valueInput },
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] { sumAgg },
+            new Input[][] { new Input[] { valueInput } },
+            RAM_ACCOUNTING_CONTEXT,
+            keyInput,
+            DataTypes.INTEGER,
+            bytes -> false,
+            createTempDir()
+        );
+        assertThat(collector, instanceOf(GroupingLongCollector.class));
+        assertThat(printRows(collect(collector, rows)), is(
+            "1| 50\n" +
+            "2| 80\n" +
+            "NULL| 80\n"));
+    }
+
+    @Test
+    public void testGroupByIntegerWithoutRows() throws Exception {
+        InputCollectExpression keyInput = new InputCollectExpression(0);
+        Collector<Row, ?, Iterable<Row>> collector = GroupingCollector.singleKey(
+            new CollectExpression[] { keyInput },
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] { sumAgg },
+            new Input[][] { new Input[] { keyInput } },
+            RAM_ACCOUNTING_CONTEXT,
+            keyInput,
+            DataTypes.INTEGER,
+            bytes -> false,
+            createTempDir()
+        );
+        assertThat(collect(collector, Collections.emptyList()).size(), is(0));
+    }
+
+    @Test
+    public void testGroupByIntegerAccountsForStatesAndArrays() throws Exception {
+        InputCollectExpression keyInput = new InputCollectExpression(0);
+        InputCollectExpression valueInput = new InputCollectExpression(1);
+        RamAccountingContext ramAccountingContext =
+            new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
+        Collector<Row, ?, Iterable<Row>> collector = GroupingCollector.singleKey(
+            new CollectExpression[] { keyInput, valueInput },
+            AggregateMode.ITER_PARTIAL,
+            new AggregationFunction[] { sumAgg },
+            new Input[][] { new Input[] { valueInput } },
+            ramAccountingContext,
+            keyInput,
+            DataTypes.INTEGER,
+            bytes -> false,
+            createTempDir()
+        );
+        int numGroups = 1000;
+        List<Row> distinctKeys = new ArrayList<>(numGroups);
+        for (int i = 0; i < numGroups; i++) {
+            distinctKeys.add(new RowN(new Object[] { i, 1L }));
+        }
+        assertThat(collect(collector, distinctKeys).size(), is(numGroups));
+
+        // per group at least: hash map slot (12 bytes / 0.75 load factor) + keys and states array slots (16 bytes)
+        // + states array (16 bytes + 8 bytes per state)
+        long minBytesPerGroup = 16L + 16L + 24L;
+        assertThat(ramAccountingContext.totalBytes() >= numGroups * minBytesPerGroup, is(true));
+    }
+
+    @Test
+    public void testGroupByManyKeysCopiesKeyOfNewGroups() throws Exception {
+        InputCollectExpression key1 = new InputCollectExpression(0);
+        InputCollectExpression key2 = new InputCollectExpression(1);
+        InputCollectExpression valueInput = new InputCollectExpression(2);
+        Collector<Row, ?, Iterable<Row>> collector = GroupingCollector.manyKeys(
+            new CollectExpression[] { key1, key2, valueInput },
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] { sumAgg },
+            new Input[][] { new Input[] { valueInput } },
+            RAM_ACCOUNTING_CONTEXT,
+            Arrays.<Input<?>>asList(key1, key2),
+            Arrays.asList(DataTypes.INTEGER, DataTypes.INTEGER),
+            bytes -> false,
+            createTempDir()
+        );
+        List<Object[]> result = collect(collector, rows);
+        result.sort((o1, o2) -> {
+            if (o1[0] == null || o2[0] == null) {
+                return o1[0] == null ? (o2[0] == null ? 0 : 1) : -1;
+            }
+            int cmp = Integer.compare((Integer) o1[0], (Integer) o2[0]);
+            return cmp == 0 ? Integer.compare((Integer) o1[1], (Integer) o2[1]) : cmp;
+        });
+        assertThat(printRows(result), is(
+            "1| 2| 50\n" +
+            "2| 2| 20\n" +
+            "2| 4| 60\n" +
+            "NULL| 3| 80\n"));
+    }
+
+    @Test
+    public void testGroupByIntegerWithSpilledGroups() throws Exception {
+        Path spillDirectory = createTempDir();
+        InputCollectExpression keyInput = new InputCollectExpression(0);
+        InputCollectExpression valueInput = new InputCollectExpression(2);
+        Collector<Row, ?, Iterable<Row>> collector = GroupingCollector.singleKey(
+            new CollectExpression[] { keyInput, valueInput },
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] { sumAgg },
+            new Input[][] { new Input[] { valueInput } },
+            RAM_ACCOUNTING_CONTEXT,
+            keyInput,
+            DataTypes.INTEGER,
+            // spill after every row, so that the states of a key are spilled several times
+            bytes -> true,
+            spillDirectory
+        );
+        Iterable<Row> result = BatchRowVisitor.visitRows(RowsBatchIterator.newInstance(rows, 3), collector).get();
+        assertThat(result, instanceOf(SpilledGroups.class));
+        assertThat(printRows(materialize(result)), is(
+            "1| 50\n" +
+            "2| 80\n" +
+            "NULL| 80\n"));
+
+        ((SpilledGroups) result).close();
+        assertThat(FileSystemUtils.files(spillDirectory).length, is(0));
+    }
+
+    @Test
+    public void testGroupByManyKeysWithSpilledGroups() throws Exception {
+        Path spillDirectory = createTempDir();
+        int[] numRows = new int[1];
+        InputCollectExpression key1 = new InputCollectExpression(0);
+        InputCollectExpression key2 = new InputCollectExpression(1);
+        InputCollectExpression valueInput = new InputCollectExpression(2);
+        Collector<Row, ?, Iterable<Row>> collector = GroupingCollector.manyKeys(
+            new CollectExpression[] { key1, key2, valueInput },
+            AggregateMode.ITER_PARTIAL,
+            new AggregationFunction[] { sumAgg },
+            new Input[][] { new Input[] { valueInput } },
+            RAM_ACCOUNTING_CONTEXT,
+            Arrays.<Input<?>>asList(key1, key2),
+            Arrays.asList(DataTypes.INTEGER, DataTypes.INTEGER),
+            // spill after the 4th row; the groups of the remaining rows are spilled once all rows are collected
+            bytes -> ++numRows[0] == 4,
+            spillDirectory
+        );
+        Iterable<Row> result = BatchRowVisitor.visitRows(RowsBatchIterator.newInstance(rows, 3), collector).get();
+        assertThat(result, instanceOf(SpilledGroups.class));
+        List<Object[]> groups = materialize(result);
+        groups.sort((o1, o2) -> {
+            if (o1[0] == null || o2[0] == null) {
+                return o1[0] == null ? (o2[0] == null ? 0 : 1) : -1;
+            }
+            int cmp = Integer.compare((Integer) o1[0], (Integer) o2[0]);
+            return cmp == 0 ? Integer.compare((Integer) o1[1], (Integer) o2[1]) : cmp;
+        });
+        assertThat(printRows(groups), is(
+            "1| 2| 50\n" +
+            "2| 2| 20\n" +
+            "2| 4| 60\n" +
+            "NULL| 3| 80\n"));
+
+        ((SpilledGroups) result).close();
+        assertThat(FileSystemUtils.files(spillDirectory).length, is(0));
+    }
+}
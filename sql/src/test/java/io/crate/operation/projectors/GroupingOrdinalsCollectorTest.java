@@ -0,0 +1,146 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import io.crate.analyze.symbol.AggregateMode;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.Columns;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowBridging;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.impl.CountAggregation;
+import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.reference.doc.DocLevelExpressionsTest;
+import io.crate.operation.reference.doc.lucene.BytesRefColumnReference;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.StringFieldMapper;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static io.crate.testing.TestingHelpers.getFunctions;
+import static io.crate.testing.TestingHelpers.printRows;
+import static org.hamcrest.Matchers.is;
+
+public class GroupingOrdinalsCollectorTest extends DocLevelExpressionsTest {
+
+    private static final String COLUMN = "name";
+    private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
+        new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
+
+    private IndexWriter writer;
+
+    @Override
+    protected void insertValues(IndexWriter writer) throws Exception {
+        this.writer = writer;
+        // two segments which have different ordinals for the same values
+        addDocs(writer, "a", "b", "a", null);
+        writer.commit();
+        addDocs(writer, "c", "b", "b", "a");
+        writer.commit();
+    }
+
+    private static void addDocs(IndexWriter writer, String... values) throws Exception {
+        for (String value : values) {
+            Document doc = new Document();
+            if (value != null) {
+                doc.add(new StringField(COLUMN, value, Field.Store.NO));
+            }
+            writer.addDocument(doc);
+        }
+    }
+
+    @Test
+    public void testGroupByOrdinalsMergesGroupsOfAllSegments() throws Exception {
+        assertThat(groupByCount(GroupingOrdinalsCollector.MAX_DENSE_ORDINALS), is(
+            "a| 3\n" +
+            "b| 3\n" +
+            "c| 1\n" +
+            "NULL| 1\n"));
+    }
+
+    @Test
+    public void testGroupByOrdinalsOfSegmentsWithManyOrdinals() throws Exception {
+        assertThat(groupByCount(1), is(
+            "a| 3\n" +
+            "b| 3\n" +
+            "c| 1\n" +
+            "NULL| 1\n"));
+    }
+
+    private String groupByCount(int maxDenseOrdinals) throws Exception {
+        MappedFieldType fieldType = StringFieldMapper.Defaults.FIELD_TYPE.clone();
+        fieldType.setName(COLUMN);
+        BytesRefColumnReference keyColumn = new BytesRefColumnReference(COLUMN, fieldType);
+        keyColumn.startCollect(ctx);
+
+        AggregationFunction countAgg = (AggregationFunction) getFunctions().getBuiltin(
+            CountAggregation.NAME, Collections.emptyList());
+        GroupingOrdinalsCollector collector = new GroupingOrdinalsCollector(
+            new CollectExpression[0],
+            new AggregationFunction[] { countAgg },
+            AggregateMode.ITER_FINAL,
+            new Input[][] { new Input[0] },
+            RAM_ACCOUNTING_CONTEXT,
+            keyColumn,
+            maxDenseOrdinals
+        );
+
+        GroupingOrdinalsCollector.Groups groups = collector.supplier().get();
+        Row row = RowBridging.toRow(Columns.wrap(Collections.singletonList(keyColumn)));
+        try (DirectoryReader reader = DirectoryReader.open(writer)) {
+            assertThat(reader.leaves().size(), is(2));
+            for (LeafReaderContext leaf : reader.leaves()) {
+                keyColumn.setNextReader(leaf);
+                for (int doc = 0; doc < leaf.reader().maxDoc(); doc++) {
+                    keyColumn.setNextDocId(doc);
+                    collector.accumulator().accept(groups, row);
+                }
+            }
+        }
+
+        List<Object[]> result = new ArrayList<>();
+        for (Row resultRow : collector.finisher().apply(groups)) {
+            result.add(resultRow.materialize());
+        }
+        result.sort((o1, o2) -> {
+            if (o1[0] == null || o2[0] == null) {
+                return o1[0] == null ? (o2[0] == null ? 0 : 1) : -1;
+            }
+            return ((BytesRef) o1[0]).compareTo((BytesRef) o2[0]);
+        });
+        return printRows(result);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import io.crate.analyze.symbol.AggregateMode;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.BatchIterator;
+import io.crate.data.Input;
+import io.crate.operation.AggregationContext;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.impl.SumAggregation;
+import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.collect.InputCollectExpression;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.TestingBatchConsumer;
+import io.crate.testing.TestingBatchIterators;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.io.FileSystemUtils;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static io.crate.testing.TestingHelpers.getFunctions;
+import static org.hamcrest.Matchers.is;
+
+public class GroupingProjectorTest extends CrateUnitTest {
+
+    private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
+        new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
+
+    private static GroupingProjector createSpillingProjector(Path spillDirectory) {
+        InputCollectExpression keyInput = new InputCollectExpression(0);
+        AggregationContext sum = new AggregationContext((AggregationFunction) getFunctions().getBuiltin(
+            SumAggregation.NAME, Collections.singletonList(DataTypes.INTEGER)));
+        sum.addInput(keyInput);
+        return new GroupingProjector(
+            Collections.singletonList(DataTypes.INTEGER),
+            Collections.<Input<?>>singletonList(keyInput),
+            new CollectExpression[] { keyInput },
+            AggregateMode.ITER_FINAL,
+            new AggregationContext[] { sum },
+            RAM_ACCOUNTING_CONTEXT,
+            // spill after every row
+            bytes -> true,
+            spillDirectory
+        );
+    }
+
+    @Test
+    public void testGroupByWithSpilledGroups() throws Exception {
+        GroupingProjector projector = createSpillingProjector(createTempDir());
+        TestingBatchConsumer consumer = new TestingBatchConsumer();
+
+        consumer.accept(projector.apply(TestingBatchIterators.range(0, 10)), null);
+        List<Object[]> result = consumer.getResult();
+        assertThat(result.size(), is(10));
+        for (Object[] row : result) {
+            assertThat(((Number) row[1]).intValue(), is(row[0]));
+        }
+    }
+
+    @Test
+    public void testSpilledGroupsAreDeletedOnClose() throws Exception {
+        Path spillDirectory = createTempDir();
+        GroupingProjector projector = createSpillingProjector(spillDirectory);
+
+        BatchIterator batchIterator = projector.apply(TestingBatchIterators.range(0, 10));
+        batchIterator.loadNextBatch().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        assertThat(FileSystemUtils.files(spillDirectory).length > 0, is(true));
+
+        batchIterator.close();
+        assertThat(FileSystemUtils.files(spillDirectory).length, is(0));
+    }
+
+    @Test
+    public void testSpilledGroupsAreDeletedOnKill() throws Exception {
+        Path spillDirectory = createTempDir();
+        GroupingProjector projector = createSpillingProjector(spillDirectory);
+
+        BatchIterator batchIterator = projector.apply(
+            TestingBatchIterators.rowsUntilKilled(TestingBatchIterators.range(0, 10)));
+        batchIterator.loadNextBatch();
+        assertThat(FileSystemUtils.files(spillDirectory).length > 0, is(true));
+
+        batchIterator.kill(new InterruptedException("Job killed"));
+        assertThat(FileSystemUtils.files(spillDirectory).length, is(0));
+    }
+}
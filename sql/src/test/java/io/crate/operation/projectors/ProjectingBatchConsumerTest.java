@@ -40,6 +40,7 @@ import io.crate.metadata.RowGranularity;
 import io.crate.operation.InputFactory;
 import io.crate.operation.NodeJobsCounter;
 import io.crate.operation.operator.EqOperator;
+import io.crate.operation.projectors.writer.ParallelGzipOutputStream;
 import io.crate.planner.projection.FilterProjection;
 import io.crate.planner.projection.GroupProjection;
 import io.crate.planner.projection.WriterProjection;
@@ -81,7 +82,8 @@ public class ProjectingBatchConsumerTest extends CrateUnitTest {
     @Before
     public void prepare() {
         functions = getFunctions();
-        threadPool = new TestThreadPool(Thread.currentThread().getName());
+        threadPool = new TestThreadPool(
+            Thread.currentThread().getName(), ParallelGzipOutputStream.executorBuilder(Settings.EMPTY));
         projectorFactory = new ProjectionToProjectorVisitor(
             mock(ClusterService.class),
             new NodeJobsCounter(),
@@ -98,6 +100,7 @@ public class ProjectingBatchConsumerTest extends CrateUnitTest {
                 null),
             t -> null,
             t-> null,
+            createTempDir(),
             new ShardId("dummy", UUID.randomUUID().toString(), 0)
         );
     }
@@ -109,7 +109,8 @@ public class ProjectionToProjectorVisitorTest extends CrateUnitTest {
             new InputFactory(functions),
             EvaluatingNormalizer.functionOnlyNormalizer(functions, ReplaceMode.COPY),
             t -> null,
-            t -> null
+            t -> null,
+            createTempDir()
         );
 
         countInfo = new FunctionInfo(
@@ -25,21 +25,36 @@ package io.crate.operation.projectors;
 import com.google.common.collect.ImmutableList;
 import io.crate.analyze.symbol.Literal;
 import io.crate.data.BatchIterator;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.data.Bucket;
 import io.crate.data.Row;
+import io.crate.data.RowsBatchIterator;
 import io.crate.operation.collect.CollectExpression;
 import io.crate.operation.collect.InputCollectExpression;
 import io.crate.operation.projectors.sorting.OrderingByPosition;
+import io.crate.operation.projectors.sorting.SpillingSorter;
 import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.RowGenerator;
 import io.crate.testing.TestingBatchConsumer;
 import io.crate.testing.TestingBatchIterators;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.io.FileSystemUtils;
 import org.junit.Test;
 
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
 import static io.crate.testing.TestingHelpers.isRow;
 import static org.hamcrest.core.Is.is;
 
 public class SortingProjectorTest extends CrateUnitTest {
 
+    private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
+        new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
+
     private TestingBatchConsumer consumer = new TestingBatchConsumer();
 
     private SortingProjector createProjector(int numOutputs, int offset) {
@@ -49,7 +64,32 @@ public class SortingProjectorTest extends CrateUnitTest {
             ImmutableList.<CollectExpression<Row, ?>>of(input),
             numOutputs,
             OrderingByPosition.arrayOrdering(0, false, null),
-            offset
+            offset,
+            ImmutableList.of(DataTypes.INTEGER, DataTypes.BOOLEAN),
+            RAM_ACCOUNTING_CONTEXT,
+            createTempDir()
+        );
+    }
+
+    private SortingProjector createSpillingProjector(int numOutputs, int offset) {
+        return createSpillingProjector(numOutputs, offset, createTempDir());
+    }
+
+    private SortingProjector createSpillingProjector(int numOutputs, int offset, Path spillDirectory) {
+        InputCollectExpression input = new InputCollectExpression(0);
+        return new SortingProjector(
+            ImmutableList.of(input, Literal.of(true)),
+            ImmutableList.<CollectExpression<Row, ?>>of(input),
+            numOutputs,
+            offset,
+            () -> new SpillingSorter(
+                OrderingByPosition.arrayOrdering(0, false, null).reversed(),
+                ImmutableList.of(DataTypes.INTEGER, DataTypes.BOOLEAN),
+                RAM_ACCOUNTING_CONTEXT,
+                // spill a sorted run every few rows
+                bufferBytes -> bufferBytes >= 100L,
+                spillDirectory
+            )
         );
     }
 
@@ -82,11 +122,66 @@ public class SortingProjectorTest extends CrateUnitTest {
         }
     }
 
+    @Test
+    public void testOrderByWithSpilledRuns() throws Exception {
+        SortingProjector projector = createSpillingProjector(2, 0);
+
+        BatchIterator batchIterator = projector.apply(
+            RowsBatchIterator.newInstance(RowGenerator.fromSingleColValues(Arrays.asList(5, 3, 9, 1, 7, 2, 10, 4, 8, 6)), 1));
+        consumer.accept(batchIterator, null);
+        Bucket rows = consumer.getBucket();
+        assertThat(rows.size(), is(10));
+        int iterateLength = 1;
+        for (Row row : rows) {
+            assertThat(row, isRow(iterateLength++, true));
+        }
+    }
+
+    @Test
+    public void testSortedRunsAreDeletedOnClose() throws Exception {
+        Path spillDirectory = createTempDir();
+        SortingProjector projector = createSpillingProjector(2, 0, spillDirectory);
+
+        BatchIterator batchIterator = projector.apply(TestingBatchIterators.range(1, 11));
+        batchIterator.loadNextBatch().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        assertThat(FileSystemUtils.files(spillDirectory).length > 0, is(true));
+
+        batchIterator.close();
+        assertThat(FileSystemUtils.files(spillDirectory).length, is(0));
+    }
+
+    @Test
+    public void testSortedRunsAreDeletedOnKill() throws Exception {
+        Path spillDirectory = createTempDir();
+        SortingProjector projector = createSpillingProjector(2, 0, spillDirectory);
+
+        BatchIterator batchIterator = projector.apply(TestingBatchIterators.rowsUntilKilled(TestingBatchIterators.range(1, 11)));
+        batchIterator.loadNextBatch();
+        assertThat(FileSystemUtils.files(spillDirectory).length > 0, is(true));
+
+        batchIterator.kill(new InterruptedException("Job killed"));
+        assertThat(FileSystemUtils.files(spillDirectory).length, is(0));
+    }
+
+    @Test
+    public void testOrderByWithSpilledRunsAndOffset() throws Exception {
+        SortingProjector projector = createSpillingProjector(2, 5);
+
+        BatchIterator batchIterator = projector.apply(TestingBatchIterators.range(1, 11));
+        consumer.accept(batchIterator, null);
+        Bucket rows = consumer.getBucket();
+        assertThat(rows.size(), is(5));
+        int iterateLength = 6;
+        for (Row row : rows) {
+            assertThat(row, isRow(iterateLength++, true));
+        }
+    }
+
     @Test
     public void testInvalidOffset() throws Exception {
         expectedException.expect(IllegalArgumentException.class);
         expectedException.expectMessage("invalid offset -1");
 
-        new SortingProjector(null, null, 2, null, -1);
+        new SortingProjector(null, null, 2, -1, null);
     }
 }
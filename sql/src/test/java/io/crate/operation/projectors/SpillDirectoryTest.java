@@ -0,0 +1,69 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.env.Environment;
+import org.elasticsearch.env.NodeEnvironment;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.is;
+
+public class SpillDirectoryTest extends CrateUnitTest {
+
+    private NodeEnvironment nodeEnvironment;
+
+    @Before
+    public void createNodeEnvironment() throws Exception {
+        Settings settings = Settings.builder()
+            .put("path.home", createTempDir()).build();
+        nodeEnvironment = new NodeEnvironment(settings, new Environment(settings));
+    }
+
+    @After
+    public void closeResources() throws Exception {
+        nodeEnvironment.close();
+    }
+
+    @Test
+    public void testSpillDirectoryIsInTheDataPathOfTheNode() throws Exception {
+        SpillDirectory spillDirectory = new SpillDirectory(nodeEnvironment);
+        assertThat(spillDirectory.path().startsWith(nodeEnvironment.nodeDataPaths()[0]), is(true));
+    }
+
+    @Test
+    public void testLeftOverFilesAreDeletedOnStart() throws Exception {
+        Path leftOverFile = nodeEnvironment.nodeDataPaths()[0].resolve(SpillDirectory.NAME).resolve("crate-sort-1.run");
+        Files.createDirectories(leftOverFile.getParent());
+        Files.createFile(leftOverFile);
+
+        new SpillDirectory(nodeEnvironment);
+        assertThat(Files.exists(leftOverFile), is(false));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors.writer;
+
+import com.google.common.io.ByteStreams;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.is;
+
+public class ParallelGzipOutputStreamTest extends CrateUnitTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+    private final RamAccountingContext ramAccountingContext =
+        new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy"));
+
+    @After
+    public void shutdownExecutor() throws Exception {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private static byte[] decompress(byte[] compressed) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return ByteStreams.toByteArray(in);
+        }
+    }
+
+    @Test
+    public void testOutputIsAValidMultiMemberGzipFile() throws Exception {
+        byte[] data = new byte[10_000];
+        Random random = new Random(42);
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ('a' + random.nextInt(26));
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (ParallelGzipOutputStream out = new ParallelGzipOutputStream(compressed, executor, ramAccountingContext, 1000, 2)) {
+            out.write(data, 0, 15);
+            out.write(data[15]);
+            out.flush();
+            out.write(data, 16, data.length - 16);
+            // the current buffer and at most 2 pending blocks
+            assertThat(ramAccountingContext.totalBytes() <= 3000L, is(true));
+        }
+        assertThat(decompress(compressed.toByteArray()), is(data));
+        assertThat(ramAccountingContext.totalBytes(), is(0L));
+    }
+
+    @Test
+    public void testBlocksRejectedByTheExecutorAreCompressedByTheWriter() throws Exception {
+        byte[] data = new byte[5_000];
+        Arrays.fill(data, (byte) 'x');
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        Executor rejectingExecutor = command -> {
+            throw new EsRejectedExecutionException("rejected");
+        };
+        try (ParallelGzipOutputStream out =
+                 new ParallelGzipOutputStream(compressed, rejectingExecutor, ramAccountingContext, 1000, 2)) {
+            out.write(data, 0, data.length);
+        }
+        assertThat(decompress(compressed.toByteArray()), is(data));
+        assertThat(ramAccountingContext.totalBytes(), is(0L));
+    }
+
+    @Test
+    public void testEmptyOutputIsAValidGzipFile() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new ParallelGzipOutputStream(compressed, executor, ramAccountingContext).close();
+        assertThat(decompress(compressed.toByteArray()).length, is(0));
+        assertThat(ramAccountingContext.totalBytes(), is(0L));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner;
+
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+public class ColumnStatsBuilderTest extends CrateUnitTest {
+
+    @Test
+    public void testStatsOfSampleWithNulls() throws Exception {
+        ColumnStatsBuilder builder = new ColumnStatsBuilder(DataTypes.INTEGER);
+        for (int i = 0; i < 1000; i++) {
+            builder.add(i % 10 == 0 ? null : i % 50);
+        }
+        ColumnStats stats = builder.build(1000);
+        assertThat(stats.nullFraction(), closeTo(0.1, 0.0001));
+        assertThat(stats.approxDistinct(), closeTo(45, 1));
+        assertThat(stats.minValue(), is(1));
+        assertThat(stats.maxValue(), is(49));
+        assertThat(stats.histogram().size(), is(ColumnStatsBuilder.NUM_HISTOGRAM_BUCKETS + 1));
+        assertThat(stats.fractionBelow(25), closeTo(0.5, 0.05));
+    }
+
+    @Test
+    public void testDistinctValuesOfUniqueColumnAreExtrapolated() throws Exception {
+        ColumnStatsBuilder builder = new ColumnStatsBuilder(DataTypes.STRING);
+        for (int i = 0; i < 1000; i++) {
+            builder.add(new BytesRef("value-" + i));
+        }
+        ColumnStats stats = builder.build(100_000);
+        assertThat(stats.approxDistinct(), closeTo(100_000, 2_000));
+        assertThat(stats.minValue(), is(new BytesRef("value-0")));
+        assertThat(stats.maxValue(), is(new BytesRef("value-999")));
+    }
+
+    @Test
+    public void testOnlyNulls() throws Exception {
+        ColumnStatsBuilder builder = new ColumnStatsBuilder(DataTypes.LONG);
+        builder.add(null);
+        builder.add(null);
+        ColumnStats stats = builder.build(2);
+        assertThat(stats.nullFraction(), is(1.0));
+        assertThat(stats.approxDistinct(), is(0.0));
+        assertThat(stats.histogram().isEmpty(), is(true));
+        assertThat(stats.fractionBelow(10L), is(-1.0));
+    }
+
+    @Test
+    public void testHyperLogLogEstimatesDistinctValues() throws Exception {
+        HyperLogLog hyperLogLog = new HyperLogLog(14);
+        for (int i = 0; i < 200_000; i++) {
+            hyperLogLog.add((long) (i % 100_000));
+        }
+        assertThat((double) hyperLogLog.cardinality(), closeTo(100_000, 3_000));
+    }
+}
@@ -57,6 +57,7 @@ import io.crate.planner.node.dql.ESGet;
 import io.crate.planner.node.dql.MergePhase;
 import io.crate.planner.node.dql.QueryThenFetch;
 import io.crate.planner.node.dql.RoutedCollectPhase;
+import io.crate.planner.node.dql.UnionPlan;
 import io.crate.planner.node.dql.join.JoinType;
 import io.crate.planner.node.dql.join.NestedLoop;
 import io.crate.planner.projection.AggregationProjection;
@@ -65,6 +66,7 @@ import io.crate.planner.projection.FetchProjection;
 import io.crate.planner.projection.FilterProjection;
 import io.crate.planner.projection.GroupProjection;
 import io.crate.planner.projection.MergeCountProjection;
+import io.crate.planner.projection.OrderedTopNProjection;
 import io.crate.planner.projection.Projection;
 import io.crate.planner.projection.TopNProjection;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
@@ -724,4 +726,58 @@ public class SelectPlannerTest extends CrateDummyClusterServiceUnitTest {
         assertThat(innerNL.nestedLoopPhase().outputTypes().get(0), is(DataTypes.LONG));
         assertThat(innerNL.nestedLoopPhase().outputTypes().get(1), is(DataTypes.LONG));
     }
+
+    @Test
+    public void testUnionAllWithOrderByAndLimitIsPushedDownAndMergedSorted() throws Exception {
+        UnionPlan plan = e.plan("select id, name from users where id > 10 " +
+                                "union all select id, name from users where id < 5 " +
+                                "order by id desc limit 10 offset 2");
+        assertThat(plan.subPlans().size(), is(2));
+        int[] numUpstreamsByInput = plan.mergePhase().numUpstreamsByInput();
+        assertThat(numUpstreamsByInput.length, is(2));
+        for (int i = 0; i < plan.subPlans().size(); i++) {
+            Collect collect = (Collect) plan.subPlans().get(i);
+            RoutedCollectPhase collectPhase = (RoutedCollectPhase) collect.collectPhase();
+            assertThat(collectPhase.orderBy().orderBySymbols(), contains(isReference("id")));
+            TopNProjection topN = (TopNProjection) collectPhase.projections().get(0);
+            assertThat(topN.limit(), is(12));
+            assertThat(numUpstreamsByInput[i], is(collect.resultDescription().nodeIds().size()));
+        }
+
+        MergePhase mergePhase = plan.mergePhase();
+        assertThat(mergePhase.orderByPositions(), notNullValue());
+        assertThat(mergePhase.orderByPositions().indices()[0], is(0));
+        assertThat(mergePhase.projections().size(), is(1));
+        TopNProjection topN = (TopNProjection) mergePhase.projections().get(0);
+        assertThat(topN.limit(), is(10));
+        assertThat(topN.offset(), is(2));
+    }
+
+    @Test
+    public void testUnionAllOrderByFunctionIsSortedAfterMerge() throws Exception {
+        UnionPlan plan = e.plan("select id from users union all select id from users order by id + 1 limit 5");
+        for (Plan subPlan : plan.subPlans()) {
+            RoutedCollectPhase collectPhase = (RoutedCollectPhase) ((Collect) subPlan).collectPhase();
+            assertThat(collectPhase.orderBy(), Matchers.nullValue());
+        }
+        MergePhase mergePhase = plan.mergePhase();
+        assertThat(mergePhase.orderByPositions(), Matchers.nullValue());
+        assertThat(mergePhase.projections().get(0), instanceOf(OrderedTopNProjection.class));
+    }
+
+    @Test
+    public void testUnionAllRelationsAreSentToTheMergePhaseWithTheirInputId() throws Exception {
+        UnionPlan plan = e.plan("select id from users union all select id from users union all select count(*) from users");
+        String handlerNodeId = plan.mergePhase().nodeIds().iterator().next();
+        NodeOperationTree operationTree = NodeOperationTreeGenerator.fromPlan(plan, handlerNodeId);
+        assertThat(operationTree.leaf(), is(plan.mergePhase()));
+
+        List<Byte> inputIds = new ArrayList<>();
+        for (NodeOperation nodeOperation : operationTree.nodeOperations()) {
+            if (nodeOperation.downstreamExecutionPhaseId() == plan.mergePhase().phaseId()) {
+                inputIds.add(nodeOperation.downstreamExecutionPhaseInputId());
+            }
+        }
+        assertThat(inputIds, containsInAnyOrder((byte) 0, (byte) 1, (byte) 2));
+    }
 }
@@ -0,0 +1,84 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner;
+
+import io.crate.analyze.symbol.Symbol;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.SqlExpressions;
+import io.crate.testing.T3;
+import io.crate.types.DataTypes;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.closeTo;
+
+public class SelectivityEstimatorTest extends CrateUnitTest {
+
+    private final SqlExpressions expressions = new SqlExpressions(T3.SOURCES);
+
+    private double estimate(String expression, ColumnStats stats) {
+        Symbol query = expressions.asSymbol(expression);
+        return SelectivityEstimator.estimate(query, column -> stats);
+    }
+
+    @Test
+    public void testEqualityUsesDistinctValues() throws Exception {
+        assertThat(estimate("t1.x = 10", new ColumnStats(0.5, 100)), closeTo(0.005, 0.0001));
+        assertThat(estimate("t1.x = 10", null), closeTo(SelectivityEstimator.DEFAULT_EQ_SELECTIVITY, 0.0001));
+    }
+
+    @Test
+    public void testAndOrNot() throws Exception {
+        ColumnStats stats = new ColumnStats(0.0, 10);
+        assertThat(estimate("t1.x = 10 and t1.i = 2", stats), closeTo(0.01, 0.0001));
+        assertThat(estimate("t1.x = 10 or t1.i = 2", stats), closeTo(0.19, 0.0001));
+        assertThat(estimate("not t1.x = 10", stats), closeTo(0.9, 0.0001));
+    }
+
+    @Test
+    public void testIsNullUsesNullFraction() throws Exception {
+        assertThat(estimate("t1.x is null", new ColumnStats(0.25, 10)), closeTo(0.25, 0.0001));
+    }
+
+    @Test
+    public void testAnyEqualityIsScaledByNumberOfValues() throws Exception {
+        assertThat(estimate("t1.x in (1, 2, 3)", new ColumnStats(0.0, 100)), closeTo(0.03, 0.0001));
+    }
+
+    @Test
+    public void testRangeUsesHistogram() throws Exception {
+        List<Object> histogram = new ArrayList<>();
+        for (int i = 0; i <= 100; i += 10) {
+            histogram.add(i);
+        }
+        ColumnStats stats = new ColumnStats(DataTypes.INTEGER, 0.2, 100, 0, 100, histogram);
+        assertThat(estimate("t1.x < 25", stats), closeTo(0.2, 0.0001));
+        assertThat(estimate("t1.x > 25", stats), closeTo(0.6, 0.0001));
+        assertThat(estimate("25 > t1.x", stats), closeTo(0.2, 0.0001));
+        assertThat(estimate("t1.x > 200", stats), closeTo(0.0, 0.0001));
+        assertThat(estimate("t1.x < 25", new ColumnStats(0.0, 100)),
+            closeTo(SelectivityEstimator.DEFAULT_RANGE_SELECTIVITY, 0.0001));
+    }
+}
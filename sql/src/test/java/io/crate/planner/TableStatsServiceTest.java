@@ -22,12 +22,23 @@
 
 package io.crate.planner;
 
+import com.carrotsearch.hppc.ObjectLongHashMap;
 import com.carrotsearch.hppc.ObjectLongMap;
+import io.crate.action.sql.BaseResultReceiver;
 import io.crate.action.sql.SQLOperations;
 import io.crate.data.RowN;
+import io.crate.metadata.Reference;
+import io.crate.metadata.ReferenceIdent;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.Schemas;
 import io.crate.metadata.TableIdent;
+import io.crate.metadata.doc.DocSchemaInfo;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.table.SchemaInfo;
+import io.crate.metadata.table.TableInfo;
 import io.crate.plugin.SQLPlugin;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.types.DataTypes;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
@@ -39,6 +50,7 @@ import org.mockito.Mockito;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -65,6 +77,7 @@ public class TableStatsServiceTest extends CrateDummyClusterServiceUnitTest {
             THREAD_POOL,
             clusterService,
             new TableStats(),
+            mock(Schemas.class),
             mock(SQLOperations.class, Answers.RETURNS_MOCKS.get()));
 
         assertThat(statsService.refreshInterval,
@@ -77,6 +90,7 @@ public class TableStatsServiceTest extends CrateDummyClusterServiceUnitTest {
             THREAD_POOL,
             clusterService,
             new TableStats(),
+            mock(Schemas.class),
             mock(SQLOperations.class, Answers.RETURNS_MOCKS.get()));
 
         assertThat(statsService.refreshInterval,
@@ -109,6 +123,84 @@ public class TableStatsServiceTest extends CrateDummyClusterServiceUnitTest {
         assertThat(statsService.refreshScheduledTask, is(notNullValue()));
     }
 
+    @Test
+    public void testColumnStatsIntervalSettingChanges() {
+        TableStatsService statsService = new TableStatsService(
+            Settings.builder().put(TableStatsService.STATS_SERVICE_COLUMN_STATS_INTERVAL_SETTING.getKey(), 0).build(),
+            THREAD_POOL,
+            clusterService,
+            new TableStats(),
+            mock(Schemas.class),
+            mock(SQLOperations.class, Answers.RETURNS_MOCKS.get()));
+        assertThat(statsService.columnStatsScheduledTask, is(nullValue()));
+
+        ClusterSettings clusterSettings = clusterService.getClusterSettings();
+        clusterSettings.applySettings(Settings.builder()
+            .put(TableStatsService.STATS_SERVICE_COLUMN_STATS_INTERVAL_SETTING.getKey(), "10m").build());
+        assertThat(statsService.columnStatsInterval, is(TimeValue.timeValueMinutes(10)));
+        assertThat(statsService.columnStatsScheduledTask, is(notNullValue()));
+
+        clusterSettings.applySettings(Settings.builder()
+            .put(TableStatsService.STATS_SERVICE_COLUMN_STATS_INTERVAL_SETTING.getKey(), 0).build());
+        assertThat(statsService.columnStatsScheduledTask, is(nullValue()));
+    }
+
+    @Test
+    public void testTablesAreOnlySampledAgainIfTheirNumberOfDocsChanged() throws Throwable {
+        TableIdent tableIdent = new TableIdent("doc", "t1");
+        DocTableInfo table = mock(DocTableInfo.class);
+        when(table.ident()).thenReturn(tableIdent);
+        List<Reference> columns = Collections.singletonList(
+            new Reference(new ReferenceIdent(tableIdent, "x"), RowGranularity.DOC, DataTypes.INTEGER));
+        when(table.columns()).thenReturn(columns);
+        DocSchemaInfo schemaInfo = mock(DocSchemaInfo.class);
+        when(schemaInfo.iterator()).thenAnswer(i -> Collections.<TableInfo>singletonList(table).iterator());
+        Schemas schemas = mock(Schemas.class);
+        when(schemas.iterator()).thenAnswer(i -> Collections.<SchemaInfo>singletonList(schemaInfo).iterator());
+
+        SQLOperations sqlOperations = mock(SQLOperations.class);
+        SQLOperations.SQLDirectExecutor sampleExecutor = mock(SQLOperations.SQLDirectExecutor.class);
+        doAnswer(i -> {
+            BaseResultReceiver receiver = (BaseResultReceiver) i.getArguments()[0];
+            receiver.setNextRow(new RowN(new Object[] { 1 }));
+            receiver.allFinished(false);
+            return null;
+        }).when(sampleExecutor).execute(any(), any());
+        when(sqlOperations.createSQLDirectExecutor(
+            eq("doc"), eq(TableStatsService.COLUMN_STATS), anyString(), eq(TableStatsService.COLUMN_STATS_SAMPLE_SIZE)))
+            .thenReturn(sampleExecutor);
+
+        TableStats tableStats = new TableStats();
+        TableStatsService statsService = new TableStatsService(
+            Settings.builder()
+                .put(TableStatsService.STATS_SERVICE_REFRESH_INTERVAL_SETTING.getKey(), 0)
+                .put(TableStatsService.STATS_SERVICE_COLUMN_STATS_INTERVAL_SETTING.getKey(), 0)
+                .build(),
+            THREAD_POOL,
+            clusterService,
+            tableStats,
+            schemas,
+            sqlOperations
+        );
+        ObjectLongMap<TableIdent> numDocs = new ObjectLongHashMap<>();
+        numDocs.put(tableIdent, 10L);
+        tableStats.updateTableStats(numDocs);
+
+        statsService.sampleColumnStats();
+        verify(sampleExecutor, times(1)).execute(any(), any());
+        assertThat(tableStats.columnStats(tableIdent), is(notNullValue()));
+
+        statsService.sampleColumnStats();
+        verify(sampleExecutor, times(1)).execute(any(), any());
+        assertThat(tableStats.columnStats(tableIdent), is(notNullValue()));
+
+        numDocs = new ObjectLongHashMap<>();
+        numDocs.put(tableIdent, 20L);
+        tableStats.updateTableStats(numDocs);
+        statsService.sampleColumnStats();
+        verify(sampleExecutor, times(2)).execute(any(), any());
+    }
+
     @Test
     public void testRowsToTableStatConversion() throws InterruptedException, ExecutionException, TimeoutException {
         CompletableFuture<ObjectLongMap<TableIdent>> statsFuture = new CompletableFuture<>();
@@ -141,6 +233,7 @@ public class TableStatsServiceTest extends CrateDummyClusterServiceUnitTest {
             THREAD_POOL,
             clusterService,
             new TableStats(),
+            mock(Schemas.class),
             sqlOperations
         );
         statsService.run();
@@ -164,6 +257,7 @@ public class TableStatsServiceTest extends CrateDummyClusterServiceUnitTest {
             THREAD_POOL,
             clusterService,
             new TableStats(),
+            mock(Schemas.class),
             sqlOperations
         );
 
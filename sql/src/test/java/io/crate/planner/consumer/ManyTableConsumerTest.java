@@ -22,6 +22,8 @@
 
 package io.crate.planner.consumer;
 
+import com.carrotsearch.hppc.ObjectLongHashMap;
+import com.carrotsearch.hppc.ObjectLongMap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import io.crate.action.sql.SessionContext;
@@ -29,9 +31,12 @@ import io.crate.analyze.Analysis;
 import io.crate.analyze.MultiSourceSelect;
 import io.crate.analyze.ParameterContext;
 import io.crate.analyze.SelectAnalyzedStatement;
+import io.crate.analyze.TableDefinitions;
 import io.crate.analyze.TwoTableJoin;
 import io.crate.analyze.relations.JoinPair;
 import io.crate.analyze.symbol.Symbol;
+import io.crate.metadata.TableIdent;
+import io.crate.planner.TableStats;
 import io.crate.planner.node.dql.join.JoinType;
 import io.crate.sql.parser.SqlParser;
 import io.crate.sql.tree.QualifiedName;
@@ -76,7 +81,7 @@ public class ManyTableConsumerTest extends CrateDummyClusterServiceUnitTest {
                                         "join t2 on t1.a = t2.b " +
                                         "join t3 on t2.b = t3.c " +
                                         "order by t1.a, t2.b, t3.c");
-        TwoTableJoin root = ManyTableConsumer.buildTwoTableJoinTree(mss);
+        TwoTableJoin root = ManyTableConsumer.buildTwoTableJoinTree(mss, new TableStats());
         TwoTableJoin t1AndT2 = (TwoTableJoin) root.left();
 
         assertThat(t1AndT2.joinPair().condition(), isSQL("(doc.t1.a = doc.t2.b)"));
@@ -88,7 +93,7 @@ public class ManyTableConsumerTest extends CrateDummyClusterServiceUnitTest {
         MultiSourceSelect mss = analyze("select * from t1, t2, t3 " +
                                         "where t3.c = t2.b " +
                                         "order by t3.c");
-        TwoTableJoin root = ManyTableConsumer.buildTwoTableJoinTree(mss);
+        TwoTableJoin root = ManyTableConsumer.buildTwoTableJoinTree(mss, new TableStats());
         TwoTableJoin left = (TwoTableJoin) root.left();
 
         assertThat(left.querySpec().where().query(), isSQL("(doc.t3.c = doc.t2.b)"));
@@ -100,7 +105,7 @@ public class ManyTableConsumerTest extends CrateDummyClusterServiceUnitTest {
                                         "join t2 on t1.a = t2.b " +
                                         "join t3 on t2.b = t3.c " +
                                         "order by t3.c, t1.a, t2.b");
-        TwoTableJoin root = ManyTableConsumer.buildTwoTableJoinTree(mss);
+        TwoTableJoin root = ManyTableConsumer.buildTwoTableJoinTree(mss, new TableStats());
         TwoTableJoin t3AndT1 = (TwoTableJoin) root.left();
 
         assertThat(t3AndT1.querySpec().where().query(), isSQL("null"));
@@ -114,11 +119,32 @@ public class ManyTableConsumerTest extends CrateDummyClusterServiceUnitTest {
         MultiSourceSelect mss = analyze("select * from t1, t2 " +
                                         "where t1.x = 1 or t2.y = 1 " +
                                         "order by t1.x + t1.x");
-        TwoTableJoin root = ManyTableConsumer.buildTwoTableJoinTree(mss);
+        TwoTableJoin root = ManyTableConsumer.buildTwoTableJoinTree(mss, new TableStats());
         assertThat(root.querySpec().orderBy().get().orderBySymbols(), isSQL("add(doc.t1.x, doc.t1.x)"));
         assertThat(root.left().querySpec().orderBy().get().orderBySymbols(), isSQL("add(doc.t1.x, doc.t1.x)"));
     }
 
+    @Test
+    public void testStarJoinStartsWithMostSelectiveRelation() throws Exception {
+        ObjectLongMap<TableIdent> stats = new ObjectLongHashMap<>(4);
+        stats.put(T3.T1_INFO.ident(), 1_000_000L);
+        stats.put(T3.T2_INFO.ident(), 1_000L);
+        stats.put(T3.T3_INFO.ident(), 1_000L);
+        stats.put(TableDefinitions.USER_TABLE_IDENT, 1_000L);
+        TableStats tableStats = new TableStats();
+        tableStats.updateTableStats(stats);
+
+        MultiSourceSelect mss = analyze("select * from t1 " +
+                                        "join t2 on t1.a = t2.b " +
+                                        "join t3 on t1.a = t3.c " +
+                                        "join users on t1.i = users.id " +
+                                        "where users.id = 1");
+        TwoTableJoin root = ManyTableConsumer.buildTwoTableJoinTree(mss, tableStats);
+        TwoTableJoin first = (TwoTableJoin) ((TwoTableJoin) root.left()).left();
+        assertThat(first.left().getQualifiedName().toString(), is("doc.users"));
+        assertThat(first.right().getQualifiedName().toString(), is("doc.t1"));
+    }
+
     @Test
     public void testOptimizeJoinNoPresort() throws Exception {
         JoinPair pair1 = JoinPair.crossJoin(T3.T1, T3.T2);
@@ -175,7 +201,7 @@ public class ManyTableConsumerTest extends CrateDummyClusterServiceUnitTest {
                                         "left join t2 on t1.a = t2.b " +
                                         "left join t3 on t2.b = t3.c " +
                                         "order by t2.b, t3.c");
-        TwoTableJoin root = ManyTableConsumer.buildTwoTableJoinTree(mss);
+        TwoTableJoin root = ManyTableConsumer.buildTwoTableJoinTree(mss, new TableStats());
         TwoTableJoin t1AndT2 = (TwoTableJoin) root.left();
 
         assertThat(t1AndT2.right().querySpec().orderBy().isPresent(), is(false));
@@ -201,7 +227,7 @@ public class ManyTableConsumerTest extends CrateDummyClusterServiceUnitTest {
     public void test3TableSortOnWhere() throws Exception {
         MultiSourceSelect mss = analyze("select * from t1,t2,t3 " +
                                         "where t1.a=t3.c");
-        TwoTableJoin root = ManyTableConsumer.buildTwoTableJoinTree(mss);
+        TwoTableJoin root = ManyTableConsumer.buildTwoTableJoinTree(mss, new TableStats());
         assertThat(root.toString(), is("join.join.doc.t1.doc.t3.doc.t2"));
         TwoTableJoin t1Andt3 = (TwoTableJoin) root.left();
         assertThat(t1Andt3.toString(), is("join.doc.t1.doc.t3"));
@@ -235,7 +261,7 @@ public class ManyTableConsumerTest extends CrateDummyClusterServiceUnitTest {
                                         " join users on t1.i=users.id" +
                                         " join users_multi_pk on t3.z=users_multi_pk.id" +
                                         " order by t3.c");
-        TwoTableJoin root = ManyTableConsumer.buildTwoTableJoinTree(mss);
+        TwoTableJoin root = ManyTableConsumer.buildTwoTableJoinTree(mss, new TableStats());
         assertThat(root.toString(), is("join.join.join.join.doc.t3.doc.t1.doc.t2.doc.users.doc.users_multi_pk"));
         assertThat(root.joinPair().condition(),
                    isSQL("(join.join.join.doc.t3.doc.t1.doc.t2.doc.users.\"join.join.doc.t3.doc.t1.doc.t2\"" +
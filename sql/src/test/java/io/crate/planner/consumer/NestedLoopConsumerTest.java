@@ -91,10 +91,11 @@ public class NestedLoopConsumerTest extends CrateDummyClusterServiceUnitTest {
     private NestedLoopConsumer consumer;
     private Planner.Context plannerContext;
     private SQLExecutor e;
+    private TableStats tableStats;
 
     @Before
     public void prepare() throws Exception {
-        TableStats tableStats = getTableStats();
+        tableStats = getTableStats();
         e = SQLExecutor.builder(clusterService)
             .enableDefaultTables()
             .setTableStats(tableStats)
@@ -312,6 +313,57 @@ public class NestedLoopConsumerTest extends CrateDummyClusterServiceUnitTest {
         assertThat(localTopN.offset(), is(10));
     }
 
+    @Test
+    public void testInnerJoinWithEqualityConditionIsExecutedAsHashJoin() throws Exception {
+        NestedLoop nl = plan("select count(*) from users u1 inner join users u2 on u1.id = u2.id");
+        NestedLoopPhase nlPhase = nl.nestedLoopPhase();
+        assertThat(nlPhase.isHashJoin(), is(true));
+        assertThat(nlPhase.leftJoinKeys(), contains(isInputColumn(0)));
+        assertThat(nlPhase.rightJoinKeys(), contains(isInputColumn(0)));
+        assertThat(nlPhase.buildOnLeft(), is(false));
+        assertThat(nlPhase.joinCondition(), isSQL("(INPUT(0) = INPUT(1))"));
+    }
+
+    @Test
+    public void testHashJoinIsBuiltOnSmallerTable() throws Exception {
+        NestedLoop nl = plan("select count(*) from users u1 inner join users_multi_pk u2 on u1.id = u2.id");
+        assertThat(nl.nestedLoopPhase().isHashJoin(), is(true));
+        assertThat(nl.nestedLoopPhase().buildOnLeft(), is(true));
+    }
+
+    @Test
+    public void testHashJoinOnLargeTablesPartitionsBothSidesByJoinKey() throws Exception {
+        ObjectLongMap<TableIdent> stats = new ObjectLongHashMap<>(2);
+        stats.put(TableDefinitions.USER_TABLE_IDENT, NestedLoopConsumer.HASH_PARTITIONING_MIN_DOCS);
+        stats.put(TableDefinitions.USER_TABLE_IDENT_MULTI_PK, NestedLoopConsumer.HASH_PARTITIONING_MIN_DOCS * 2);
+        tableStats.updateTableStats(stats);
+
+        Merge merge = plan("select u1.name, u2.name from users u1 inner join users_multi_pk u2 on u1.id = u2.id");
+        NestedLoop nl = (NestedLoop) merge.subPlan();
+        NestedLoopPhase nlPhase = nl.nestedLoopPhase();
+        assertThat(nlPhase.name(), is("distributed-hash-join"));
+        assertThat(nlPhase.nodeIds(), contains("nodeOne", "nodeTwo"));
+
+        Collect left = (Collect) nl.left();
+        Collect right = (Collect) nl.right();
+        assertThat(left.collectPhase().distributionInfo().distributionType(), is(DistributionType.MODULO));
+        assertThat(right.collectPhase().distributionInfo().distributionType(), is(DistributionType.MODULO));
+        assertThat(nlPhase.leftMergePhase().numUpstreams(), is(2));
+        assertThat(nlPhase.rightMergePhase().numUpstreams(), is(2));
+    }
+
+    @Test
+    public void testOuterJoinIsNotExecutedAsHashJoin() throws Exception {
+        NestedLoop nl = plan("select count(*) from users u1 left join users u2 on u1.id = u2.id");
+        assertThat(nl.nestedLoopPhase().isHashJoin(), is(false));
+    }
+
+    @Test
+    public void testInnerJoinWithoutEqualityConditionIsNotExecutedAsHashJoin() throws Exception {
+        NestedLoop nl = plan("select count(*) from users u1 inner join users u2 on u1.id > u2.id");
+        assertThat(nl.nestedLoopPhase().isHashJoin(), is(false));
+    }
+
     @Test
     public void testRefsAreNotConvertedToSourceLookups() throws Exception {
         Merge merge = plan("select u1.name from users u1, users u2 where u1.id = u2.id order by 1");
@@ -71,6 +71,31 @@ class ClientMessages {
         }
     }
 
+    static void sendQueryMessage(ByteBuf buffer, String query) {
+        buffer.writeByte('Q');
+        byte[] queryBytes = query.getBytes(StandardCharsets.UTF_8);
+        buffer.writeInt(4 + queryBytes.length + 1);
+        writeCString(buffer, queryBytes);
+    }
+
+    static void sendCopyData(ByteBuf buffer, byte[] data) {
+        buffer.writeByte('d');
+        buffer.writeInt(4 + data.length);
+        buffer.writeBytes(data);
+    }
+
+    static void sendCopyDone(ByteBuf buffer) {
+        buffer.writeByte('c');
+        buffer.writeInt(4);
+    }
+
+    static void sendCopyFail(ByteBuf buffer, String message) {
+        buffer.writeByte('f');
+        byte[] messageBytes = message.getBytes(StandardCharsets.UTF_8);
+        buffer.writeInt(4 + messageBytes.length + 1);
+        writeCString(buffer, messageBytes);
+    }
+
     private static void writeCString(ByteBuf buffer, byte[] bytes) {
         buffer.writeBytes(bytes);
         buffer.writeByte(0);
@@ -0,0 +1,209 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.metadata.Reference;
+import io.crate.metadata.ReferenceIdent;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.TableIdent;
+import io.crate.operation.collect.files.AsyncInput;
+import io.crate.operation.collect.files.DataNotAvailableException;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.is;
+
+public class CopyInRowsTest extends CrateUnitTest {
+
+    private static final TableIdent TABLE_IDENT = new TableIdent(null, "t");
+
+    private static final List<Reference> COLUMNS = Arrays.asList(
+        new Reference(new ReferenceIdent(TABLE_IDENT, "id"), RowGranularity.DOC, DataTypes.INTEGER),
+        new Reference(new ReferenceIdent(TABLE_IDENT, "name"), RowGranularity.DOC, DataTypes.STRING)
+    );
+
+    private static String convert(String format, byte[] data, boolean header) throws IOException {
+        InputStream in = CopyInRows.forFormat(format, new ByteArrayInputStream(data), COLUMNS, header);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[7];
+        int numBytes;
+        while ((numBytes = in.read(buffer)) != -1) {
+            out.write(buffer, 0, numBytes);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String convert(String format, String data) throws IOException {
+        return convert(format, data.getBytes(StandardCharsets.UTF_8), false);
+    }
+
+    @Test
+    public void testJsonIsPassedThrough() throws Exception {
+        assertThat(convert("json", "{\"id\": 1}\n"), is("{\"id\": 1}\n"));
+    }
+
+    @Test
+    public void testText() throws Exception {
+        assertThat(convert("text", "1\tfoo\n2\t\\N\r\n3\ta\\tb\\\\c\\101\\x42\n\\.\n4\tignored\n"), is(
+            "{\"id\":1,\"name\":\"foo\"}\n" +
+            "{\"id\":2,\"name\":null}\n" +
+            "{\"id\":3,\"name\":\"a\\tb\\\\cAB\"}\n"));
+    }
+
+    @Test
+    public void testTextWithWrongNumberOfValues() throws Exception {
+        expectedException.expect(IOException.class);
+        expectedException.expectMessage("Expected 2 values but got 3 in row 2");
+        convert("text", "1\tfoo\n2\tbar\tbaz\n");
+    }
+
+    @Test
+    public void testCsv() throws Exception {
+        byte[] data = ("id,name\n1,\"foo, \"\"bar\"\"\"\n2,\n\n3,\"\"\n4,\"multi\nline\"").getBytes(StandardCharsets.UTF_8);
+        assertThat(convert("csv", data, true), is(
+            "{\"id\":1,\"name\":\"foo, \\\"bar\\\"\"}\n" +
+            "{\"id\":2,\"name\":null}\n" +
+            "{\"id\":3,\"name\":\"\"}\n" +
+            "{\"id\":4,\"name\":\"multi\\nline\"}\n"));
+    }
+
+    @Test
+    public void testCsvWithInvalidValue() throws Exception {
+        expectedException.expect(IOException.class);
+        expectedException.expectMessage("Invalid value for column 'id' in row 1");
+        convert("csv", "foo,bar\n");
+    }
+
+    @Test
+    public void testBinary() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(new byte[]{'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0});
+        out.writeInt(0); // flags
+        out.writeInt(0); // header extension length
+
+        out.writeShort(2);
+        out.writeInt(4);
+        out.writeInt(10);
+        out.writeInt(3);
+        out.write("foo".getBytes(StandardCharsets.UTF_8));
+
+        out.writeShort(2);
+        out.writeInt(4);
+        out.writeInt(20);
+        out.writeInt(-1);
+
+        out.writeShort(-1); // trailer
+        out.flush();
+
+        assertThat(convert("binary", bytes.toByteArray(), false), is(
+            "{\"id\":10,\"name\":\"foo\"}\n" +
+            "{\"id\":20,\"name\":null}\n"));
+    }
+
+    private static byte[] binaryRow(int idLength) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(new byte[]{'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0});
+        out.writeInt(0); // flags
+        out.writeInt(0); // header extension length
+        out.writeShort(2);
+        out.writeInt(idLength);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testBinaryWithNegativeValueLength() throws Exception {
+        expectedException.expect(IOException.class);
+        expectedException.expectMessage("Invalid length -2 of value in row 1");
+        convert("binary", binaryRow(-2), false);
+    }
+
+    @Test
+    public void testBinaryWithOversizedValueLength() throws Exception {
+        expectedException.expect(IOException.class);
+        expectedException.expectMessage("Invalid length " + Integer.MAX_VALUE + " of value in row 1");
+        convert("binary", binaryRow(Integer.MAX_VALUE), false);
+    }
+
+    @Test
+    public void testBinaryWithNegativeHeaderExtensionLength() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(new byte[]{'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0});
+        out.writeInt(0); // flags
+        out.writeInt(-1); // header extension length
+        out.flush();
+
+        expectedException.expect(IOException.class);
+        expectedException.expectMessage("Invalid length -1 of header extension");
+        convert("binary", bytes.toByteArray(), false);
+    }
+
+    @Test
+    public void testRowIsConvertedOnceItHasBeenReceivedCompletely() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        CopyInStream stream = new CopyInStream(channel.config(), Runnable::run);
+        InputStream in = CopyInRows.forFormat("csv", stream, COLUMNS, false);
+        stream.add(Unpooled.copiedBuffer("1,foo\n2,\"b", StandardCharsets.UTF_8));
+
+        byte[] buffer = new byte[100];
+        int numBytes = in.read(buffer);
+        assertThat(new String(buffer, 0, numBytes, StandardCharsets.UTF_8), is("{\"id\":1,\"name\":\"foo\"}\n"));
+        try {
+            in.read(buffer);
+            fail("expected DataNotAvailableException");
+        } catch (DataNotAvailableException ignored) {
+        }
+        CompletableFuture<?> dataAvailable = ((AsyncInput) in).dataAvailable();
+        assertThat(dataAvailable.isDone(), is(false));
+
+        stream.add(Unpooled.copiedBuffer("ar\"\n", StandardCharsets.UTF_8));
+        stream.finish();
+        assertThat(dataAvailable.isDone(), is(true));
+        numBytes = in.read(buffer);
+        assertThat(new String(buffer, 0, numBytes, StandardCharsets.UTF_8), is("{\"id\":2,\"name\":\"bar\"}\n"));
+        assertThat(in.read(buffer), is(-1));
+    }
+
+    @Test
+    public void testBinaryWithInvalidSignature() throws Exception {
+        expectedException.expect(IOException.class);
+        expectedException.expectMessage("Invalid COPY file signature");
+        convert("binary", "1\tfoo\n2\tbar\n");
+    }
+}
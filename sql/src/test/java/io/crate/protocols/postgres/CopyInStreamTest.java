@@ -0,0 +1,149 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.operation.collect.files.DataNotAvailableException;
+import io.crate.test.integration.CrateUnitTest;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.is;
+
+public class CopyInStreamTest extends CrateUnitTest {
+
+    private EmbeddedChannel channel;
+    private CopyInStream stream;
+
+    @Before
+    public void setUpStream() throws Exception {
+        channel = new EmbeddedChannel();
+        stream = new CopyInStream(channel.config(), Runnable::run);
+    }
+
+    private static ByteBuf buffer(String data) {
+        return Unpooled.copiedBuffer(data, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testReadsAddedDataUntilFinished() throws Exception {
+        stream.add(buffer("foo"));
+        stream.add(buffer("bar"));
+        stream.finish();
+
+        byte[] bytes = new byte[10];
+        assertThat(stream.read(bytes, 0, 10), is(3));
+        assertThat(stream.read(bytes, 3, 7), is(3));
+        assertThat(new String(bytes, 0, 6, StandardCharsets.UTF_8), is("foobar"));
+        assertThat(stream.read(bytes, 0, 10), is(-1));
+    }
+
+    @Test
+    public void testReadingDoesNotBlockIfNoDataHasBeenReceived() throws Exception {
+        CompletableFuture<?> dataAvailable = stream.dataAvailable();
+        assertThat(dataAvailable.isDone(), is(false));
+        try {
+            stream.read();
+            fail("expected DataNotAvailableException");
+        } catch (DataNotAvailableException ignored) {
+        }
+        assertThat(channel.config().isAutoRead(), is(true));
+
+        stream.add(buffer("foo"));
+        assertThat(dataAvailable.isDone(), is(true));
+        assertThat(stream.read(), is((int) 'f'));
+    }
+
+    @Test
+    public void testResetReplaysTheDataReadSinceMark() throws Exception {
+        ByteBuf foo = buffer("foo");
+        ByteBuf bar = buffer("bar");
+        stream.add(foo);
+        stream.add(bar);
+        assertThat(stream.read(), is((int) 'f'));
+        stream.mark(Integer.MAX_VALUE);
+
+        byte[] bytes = new byte[10];
+        assertThat(stream.read(bytes, 0, 10), is(2));
+        assertThat(stream.read(bytes, 2, 8), is(3));
+        assertThat(new String(bytes, 0, 5, StandardCharsets.UTF_8), is("oobar"));
+
+        stream.reset();
+        assertThat(stream.read(bytes, 0, 10), is(2));
+        assertThat(stream.read(bytes, 2, 8), is(3));
+        assertThat(new String(bytes, 0, 5, StandardCharsets.UTF_8), is("oobar"));
+
+        stream.mark(Integer.MAX_VALUE);
+        assertThat(foo.refCnt(), is(0));
+        stream.close();
+        assertThat(bar.refCnt(), is(0));
+    }
+
+    @Test
+    public void testReadingFailsAfterCopyFail() throws Exception {
+        stream.add(buffer("foo"));
+        stream.fail("aborted by client");
+
+        byte[] bytes = new byte[10];
+        assertThat(stream.read(bytes, 0, 10), is(3));
+        expectedException.expect(IOException.class);
+        expectedException.expectMessage("COPY FROM STDIN failed: aborted by client");
+        stream.read(bytes, 0, 10);
+    }
+
+    @Test
+    public void testChannelIsPausedIfReaderFallsBehind() throws Exception {
+        ByteBuf data = Unpooled.buffer((int) CopyInStream.HIGH_WATERMARK + 1);
+        data.writerIndex((int) CopyInStream.HIGH_WATERMARK + 1);
+        stream.add(data);
+        assertThat(channel.config().isAutoRead(), is(false));
+
+        byte[] bytes = new byte[(int) (CopyInStream.HIGH_WATERMARK - CopyInStream.LOW_WATERMARK)];
+        assertThat(stream.read(bytes, 0, bytes.length), is(bytes.length));
+        assertThat(channel.config().isAutoRead(), is(false));
+        stream.read(bytes, 0, 1);
+        assertThat(channel.config().isAutoRead(), is(true));
+    }
+
+    @Test
+    public void testAbortReleasesBufferedDataAndResumesChannel() throws Exception {
+        ByteBuf data = Unpooled.buffer((int) CopyInStream.HIGH_WATERMARK + 1);
+        data.writerIndex((int) CopyInStream.HIGH_WATERMARK + 1);
+        stream.add(data);
+        stream.abort();
+
+        assertThat(data.refCnt(), is(0));
+        assertThat(channel.config().isAutoRead(), is(true));
+
+        ByteBuf ignored = buffer("foo");
+        stream.add(ignored);
+        assertThat(ignored.refCnt(), is(0));
+        assertThat(stream.read(new byte[10], 0, 10), is(-1));
+    }
+}
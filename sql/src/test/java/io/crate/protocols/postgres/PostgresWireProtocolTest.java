@@ -22,12 +22,23 @@
 
 package io.crate.protocols.postgres;
 
+import io.crate.action.sql.QueryResultCache;
 import io.crate.action.sql.SQLOperations;
+import io.crate.breaker.CrateCircuitBreakerService;
+import io.crate.data.BatchConsumer;
+import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.data.RowsBatchIterator;
 import io.crate.executor.Executor;
+import io.crate.executor.transport.TransportReaderVersionsAction;
 import io.crate.operation.auth.AlwaysOKAuthentication;
+import io.crate.operation.collect.files.AsyncInput;
+import io.crate.operation.collect.files.DataNotAvailableException;
+import io.crate.operation.collect.files.StdinStreams;
 import io.crate.operation.collect.stats.JobsLogs;
 import io.crate.operation.user.User;
 import io.crate.operation.user.UserManager;
+import io.crate.planner.Plan;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.DummyUserManager;
 import io.crate.testing.SQLExecutor;
@@ -42,13 +53,17 @@ import org.junit.Before;
 import org.junit.Test;
 
 import javax.annotation.Nullable;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static io.netty.util.ReferenceCountUtil.releaseLater;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.isOneOf;
 import static org.mockito.Mockito.any;
@@ -72,6 +87,8 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
             e.analyzer,
             e.planner,
             () -> mock(Executor.class),
+            new QueryResultCache(
+                Settings.EMPTY, clusterService, mock(CrateCircuitBreakerService.class), mock(TransportReaderVersionsAction.class)),
             new JobsLogs(() -> true),
             Settings.EMPTY,
             clusterService,
@@ -100,7 +117,9 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
             new PostgresWireProtocol(
                 mock(SQLOperations.class),
                 new AlwaysOKAuthentication(),
-                null);
+                null,
+                new StdinStreams(),
+                Runnable::run);
         EmbeddedChannel channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
 
         ByteBuf buffer = releaseLater(Unpooled.buffer());
@@ -129,7 +148,9 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
             new PostgresWireProtocol(
                 sqlOperations,
                 new AlwaysOKAuthentication(),
-                null);
+                null,
+                new StdinStreams(),
+                Runnable::run);
         EmbeddedChannel channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
 
         ByteBuf buffer = Unpooled.buffer();
@@ -148,7 +169,9 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
             new PostgresWireProtocol(
                 sqlOperations,
                 new AlwaysOKAuthentication(),
-                null);
+                null,
+                new StdinStreams(),
+                Runnable::run);
         EmbeddedChannel channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
 
         ByteBuf buffer = Unpooled.buffer();
@@ -171,7 +194,9 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
             new PostgresWireProtocol(
                 mock(SQLOperations.class),
                 new AlwaysOKAuthentication(),
-                null);
+                null,
+                new StdinStreams(),
+                Runnable::run);
 
         channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
 
@@ -190,4 +215,140 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
         }
     }
 
+    @Test
+    public void testCopyFromStdinReadsCopyDataUntilCopyDone() throws Exception {
+        PostgresWireProtocol ctx = copyInProtocol();
+        channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
+
+        ByteBuf buffer = Unpooled.buffer();
+        ClientMessages.sendStartupMessage(buffer, "doc");
+        ClientMessages.sendQueryMessage(buffer, "copy users from stdin");
+        channel.writeInbound(buffer);
+        assertThat(readOutboundMessageTypes(), endsWith("G"));
+
+        // the second row is split across two messages, the reader has to wait for the rest of it
+        buffer = Unpooled.buffer();
+        ClientMessages.sendCopyData(buffer, "{\"id\": 1}\n{\"id\"".getBytes(StandardCharsets.UTF_8));
+        channel.writeInbound(buffer);
+        assertThat(readOutboundMessageTypes(), is(""));
+
+        buffer = Unpooled.buffer();
+        ClientMessages.sendCopyData(buffer, ": 2}\n".getBytes(StandardCharsets.UTF_8));
+        ClientMessages.sendCopyDone(buffer);
+        channel.writeInbound(buffer);
+
+        ByteBuf commandComplete = channel.readOutbound();
+        assertThat(commandComplete.readByte(), is((byte) 'C'));
+        commandComplete.readInt();
+        assertThat(commandComplete.toString(StandardCharsets.UTF_8), is("COPY 2\0"));
+        commandComplete.release();
+        assertThat(readOutboundMessageTypes(), is("Z"));
+    }
+
+    @Test
+    public void testCopyFromStdinFailsOnCopyFail() throws Exception {
+        PostgresWireProtocol ctx = copyInProtocol();
+        channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
+
+        ByteBuf buffer = Unpooled.buffer();
+        ClientMessages.sendStartupMessage(buffer, "doc");
+        ClientMessages.sendQueryMessage(buffer, "copy users from stdin");
+        channel.writeInbound(buffer);
+        assertThat(readOutboundMessageTypes(), endsWith("G"));
+
+        buffer = Unpooled.buffer();
+        ClientMessages.sendCopyData(buffer, "{\"id\": 1}\n".getBytes(StandardCharsets.UTF_8));
+        ClientMessages.sendCopyFail(buffer, "aborted by client");
+        channel.writeInbound(buffer);
+
+        ByteBuf errorResponse = channel.readOutbound();
+        assertThat(errorResponse.readByte(), is((byte) 'E'));
+        assertThat(errorResponse.toString(StandardCharsets.UTF_8), containsString("aborted by client"));
+        errorResponse.release();
+        assertThat(readOutboundMessageTypes(), is("Z"));
+    }
+
+    /**
+     * Creates a protocol handler whose COPY statements count the lines of the registered stdin stream, which
+     * are read asynchronously the same way as by the collect phase.
+     */
+    private PostgresWireProtocol copyInProtocol() {
+        SQLExecutor e = SQLExecutor.builder(clusterService).enableDefaultTables().build();
+        StdinStreams stdinStreams = new StdinStreams();
+        List<String> uris = new ArrayList<>();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Plan plan, BatchConsumer consumer, Row parameters) {
+                assertThat(uris.size(), is(1));
+                countLines(stdinStreams.remove(uris.get(0)), 0L, consumer);
+            }
+
+            @Override
+            public List<CompletableFuture<Long>> executeBulk(Plan plan) {
+                throw new UnsupportedOperationException("bulk operations are not supported");
+            }
+        };
+        SQLOperations sqlOperations = new SQLOperations(
+            e.analyzer,
+            e.planner,
+            () -> executor,
+            new QueryResultCache(
+                Settings.EMPTY, clusterService, mock(CrateCircuitBreakerService.class), mock(TransportReaderVersionsAction.class)),
+            new JobsLogs(() -> true),
+            Settings.EMPTY,
+            clusterService,
+            USER_MANAGER_PROVIDER
+        );
+        StdinStreams capturingStdinStreams = new StdinStreams() {
+            @Override
+            public void register(String uri, InputStream stream) {
+                uris.add(uri);
+                stdinStreams.register(uri, stream);
+            }
+
+            @Nullable
+            @Override
+            public InputStream remove(String uri) {
+                return stdinStreams.remove(uri);
+            }
+        };
+        return new PostgresWireProtocol(
+            sqlOperations,
+            new AlwaysOKAuthentication(),
+            null,
+            capturingStdinStreams,
+            Runnable::run);
+    }
+
+    private static void countLines(InputStream in, long numLines, BatchConsumer consumer) {
+        try {
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b == '\n') {
+                    numLines++;
+                }
+            }
+            in.close();
+            consumer.accept(RowsBatchIterator.newInstance(new Row1(numLines)), null);
+        } catch (DataNotAvailableException e) {
+            long linesRead = numLines;
+            ((AsyncInput) in).dataAvailable().whenComplete((r, t) -> countLines(in, linesRead, consumer));
+        } catch (Throwable t) {
+            consumer.accept(null, t);
+        }
+    }
+
+    /**
+     * @return the type bytes of the messages sent to the client
+     */
+    private String readOutboundMessageTypes() {
+        StringBuilder types = new StringBuilder();
+        ByteBuf message;
+        while ((message = channel.readOutbound()) != null) {
+            types.append((char) message.getByte(0));
+            message.release();
+        }
+        return types.toString();
+    }
+
 }
@@ -0,0 +1,77 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+package io.crate.rest.action;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.settings.Settings;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class CorsResponseHeadersTest extends CrateUnitTest {
+
+    @Test
+    public void testNoHeadersIfCorsIsDisabled() throws Exception {
+        CorsResponseHeaders corsHeaders = new CorsResponseHeaders(Settings.EMPTY);
+        assertThat(corsHeaders.headers("http://example.com", "localhost:4200").isEmpty(), is(true));
+    }
+
+    @Test
+    public void testAnyOrigin() throws Exception {
+        CorsResponseHeaders corsHeaders = new CorsResponseHeaders(Settings.builder()
+            .put("http.cors.enabled", true)
+            .put("http.cors.allow-origin", "*")
+            .build());
+        Map<String, String> headers = corsHeaders.headers("http://example.com", "localhost:4200");
+        assertThat(headers.get("Access-Control-Allow-Origin"), is("*"));
+        assertThat(headers.get("Access-Control-Allow-Credentials"), nullValue());
+    }
+
+    @Test
+    public void testOriginMatchingRegex() throws Exception {
+        CorsResponseHeaders corsHeaders = new CorsResponseHeaders(Settings.builder()
+            .put("http.cors.enabled", true)
+            .put("http.cors.allow-origin", "/https?:\\/\\/example\\.com/")
+            .put("http.cors.allow-credentials", true)
+            .build());
+        Map<String, String> headers = corsHeaders.headers("https://example.com", "localhost:4200");
+        assertThat(headers.get("Access-Control-Allow-Origin"), is("https://example.com"));
+        assertThat(headers.get("Vary"), is("Origin"));
+        assertThat(headers.get("Access-Control-Allow-Credentials"), is("true"));
+
+        headers = corsHeaders.headers("https://other.com", "localhost:4200");
+        assertThat(headers.get("Access-Control-Allow-Origin"), nullValue());
+    }
+
+    @Test
+    public void testSameOriginIsAllowed() throws Exception {
+        CorsResponseHeaders corsHeaders = new CorsResponseHeaders(Settings.builder()
+            .put("http.cors.enabled", true)
+            .put("http.cors.allow-origin", "http://example.com")
+            .build());
+        Map<String, String> headers = corsHeaders.headers("http://localhost:4200", "localhost:4200");
+        assertThat(headers.get("Access-Control-Allow-Origin"), is("http://localhost:4200"));
+    }
+}
@@ -34,6 +34,12 @@ import io.crate.metadata.ColumnIdent;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.DummyRelation;
 import io.crate.types.DataTypes;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.xcontent.XContentBuilder;
@@ -42,9 +48,14 @@ import org.elasticsearch.rest.RestChannel;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -125,6 +136,68 @@ public class RestActionReceiversTest extends CrateUnitTest {
         assertXContentBuilder(actualBuilder, builder.build());
     }
 
+    @Test
+    public void testRestStreamingResultSetReceiver() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        List<Runnable> resumeTasks = new ArrayList<>();
+        RamAccountingContext ramAccountingContext = new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy"));
+        RestStreamingResultSetReceiver receiver = new RestStreamingResultSetReceiver(
+            newChannel(),
+            channel,
+            resumeTasks::add,
+            t -> {},
+            fields,
+            0L,
+            new RowAccounting(Symbols.typeView(fields), ramAccountingContext),
+            Collections.singletonMap("Access-Control-Allow-Origin", "*"),
+            true
+        );
+        AtomicInteger numResumed = new AtomicInteger(0);
+        receiver.setNextRow(rows.get(0));
+        receiver.setNextRow(rows.get(1));
+        assertThat(ramAccountingContext.totalBytes(), greaterThan(0L));
+        receiver.batchFinished();
+        // the rows of the page are released once the chunk is written
+        assertThat(ramAccountingContext.totalBytes(), is(0L));
+        receiver.suspended(numResumed::incrementAndGet);
+        // the consumer is resumed on the executor, not on the event loop of the channel
+        channel.runPendingTasks();
+        assertThat(numResumed.get(), is(0));
+        assertThat(resumeTasks.size(), is(1));
+        resumeTasks.get(0).run();
+        assertThat(numResumed.get(), is(1));
+        receiver.setNextRow(rows.get(2));
+        receiver.allFinished(false);
+
+        HttpResponse response = (HttpResponse) channel.readOutbound();
+        assertThat(response.status(), is(HttpResponseStatus.OK));
+        assertThat(HttpUtil.isTransferEncodingChunked(response), is(true));
+        assertThat(response.headers().get("Access-Control-Allow-Origin"), is("*"));
+
+        StringBuilder content = new StringBuilder();
+        HttpContent chunk;
+        int numChunks = 0;
+        do {
+            chunk = (HttpContent) channel.readOutbound();
+            content.append(chunk.content().toString(StandardCharsets.UTF_8));
+            chunk.release();
+            numChunks++;
+        } while (!(chunk instanceof LastHttpContent));
+        assertThat(numChunks, is(2));
+        assertThat(channel.isOpen(), is(false));
+
+        ResultToXContentBuilder builder = ResultToXContentBuilder.builder(newChannel());
+        builder.cols(fields);
+        builder.colTypes(fields);
+        builder.startRows();
+        for (Row row : rows) {
+            builder.addRow(row, 3);
+        }
+        builder.finishRows();
+        builder.rowCount(rows.size());
+        assertEquals(stripDuration(builder.build().string()), stripDuration(content.toString()));
+    }
+
     @Test
     public void testRestBulkRowCountReceiver() throws Exception {
         RestBulkRowCountReceiver.Result[] results = new RestBulkRowCountReceiver.Result[] {
@@ -33,6 +33,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.rest.RestController;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.test.rest.FakeRestRequest;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.junit.Test;
 
 import java.util.Collections;
@@ -47,6 +48,7 @@ public class RestSQLActionTest extends CrateUnitTest {
     private final SQLOperations sqlOperations = mock(SQLOperations.class);
     private final RestController restController = mock(RestController.class);
     private final CrateCircuitBreakerService circuitBreakerService = mock(CrateCircuitBreakerService.class);
+    private final ThreadPool threadPool = mock(ThreadPool.class);
 
     @Test
     public void testDefaultUserIfHttpHeaderNotPresent() throws Exception {
@@ -55,7 +57,8 @@ public class RestSQLActionTest extends CrateUnitTest {
             restController,
             sqlOperations,
             USER_MANAGER_PROVIDER,
-            circuitBreakerService
+            circuitBreakerService,
+            threadPool
         );
         RestRequest request = new FakeRestRequest.Builder(xContentRegistry())
             .withHeaders(Collections.emptyMap())
@@ -73,7 +76,8 @@ public class RestSQLActionTest extends CrateUnitTest {
             restController,
             sqlOperations,
             USER_MANAGER_PROVIDER,
-            circuitBreakerService
+            circuitBreakerService,
+            threadPool
         );
         RestRequest request = new FakeRestRequest.Builder(xContentRegistry())
             .withHeaders(Collections.emptyMap())
@@ -88,7 +92,8 @@ public class RestSQLActionTest extends CrateUnitTest {
             restController,
             sqlOperations,
             USER_MANAGER_PROVIDER,
-            circuitBreakerService
+            circuitBreakerService,
+            threadPool
         );
         RestRequest request = new FakeRestRequest.Builder(xContentRegistry())
             .withHeaders(Collections.singletonMap("X-User", "other"))